@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.guice;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Provider;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+import com.vaadin.util.CurrentInstance;
+import org.openjdk.jmh.annotations.*;
+import uk.q3c.krail.core.guice.threadscope.ThreadScopeModule;
+import uk.q3c.krail.core.guice.threadscope.ThreadScoped;
+import uk.q3c.krail.core.guice.uiscope.UIKey;
+import uk.q3c.krail.core.guice.uiscope.UIKeyProvider;
+import uk.q3c.krail.core.guice.uiscope.UIScopeModule;
+import uk.q3c.krail.core.guice.uiscope.UIScoped;
+import uk.q3c.krail.core.guice.vsscope.VaadinSessionScopeModule;
+import uk.q3c.krail.core.guice.vsscope.VaadinSessionScoped;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Provider#get()} for an existing instance of a {@link UIScoped}, a {@link VaadinSessionScoped} and a {@link ThreadScoped} binding -
+ * that is, the cost paid on every injection of a scoped object once it has been created
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ScopedProviderBenchmark {
+
+    private Provider<SessionObject> sessionScoped;
+    private Provider<ThreadObject> threadScoped;
+    private Provider<UIObject> uiScoped;
+
+    @Setup
+    public void setup() {
+        Injector injector = Guice.createInjector(new UIScopeModule(), new VaadinSessionScopeModule(), new ThreadScopeModule(), new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(UIObject.class).in(UIScoped.class);
+                bind(SessionObject.class).in(VaadinSessionScoped.class);
+                bind(ThreadObject.class).in(ThreadScoped.class);
+            }
+        });
+        UI.setCurrent(null);
+        VaadinSession.setCurrent(new VaadinSession(null));
+        CurrentInstance.set(UIKey.class, new UIKeyProvider().get());
+        uiScoped = injector.getProvider(UIObject.class);
+        sessionScoped = injector.getProvider(SessionObject.class);
+        threadScoped = injector.getProvider(ThreadObject.class);
+        // create the instances, so that only lookups are measured
+        uiScoped.get();
+        sessionScoped.get();
+        threadScoped.get();
+    }
+
+    @TearDown
+    public void tearDown() {
+        CurrentInstance.clearAll();
+    }
+
+    @Benchmark
+    public UIObject uiScoped() {
+        return uiScoped.get();
+    }
+
+    @Benchmark
+    public SessionObject vaadinSessionScoped() {
+        return sessionScoped.get();
+    }
+
+    @Benchmark
+    public ThreadObject threadScoped() {
+        return threadScoped.get();
+    }
+
+    public static class UIObject {
+    }
+
+    public static class SessionObject {
+    }
+
+    public static class ThreadObject {
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.navigate.sitemap;
+
+import org.openjdk.jmh.annotations.*;
+import uk.q3c.krail.core.navigate.StrictURIFragmentHandler;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares concurrent reads of a {@link DefaultMasterSitemap} before and after {@link DefaultMasterSitemap#publish()}.
+ * With {@code published=false} every read goes through the sitemap monitor, as all reads did before snapshots were
+ * introduced.  The nested classes run the same benchmarks with 1, 8 and 64 reader threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public abstract class MasterSitemapReadBenchmark {
+
+    @Param({"false", "true"})
+    public boolean published;
+
+    private DefaultMasterSitemap sitemap;
+    private String[] uris;
+    private MasterSitemapNode[] nodes;
+
+    @Setup
+    public void setup() {
+        sitemap = new DefaultMasterSitemap(new StrictURIFragmentHandler());
+        for (int i = 0; i < 20; i++) {
+            for (int j = 0; j < 10; j++) {
+                for (int k = 0; k < 5; k++) {
+                    sitemap.append(new NodeRecord("section" + i + "/group" + j + "/page" + k));
+                }
+            }
+        }
+        List<String> uriList = sitemap.uris();
+        uris = uriList.toArray(new String[uriList.size()]);
+        nodes = new MasterSitemapNode[uris.length];
+        for (int i = 0; i < uris.length; i++) {
+            nodes[i] = sitemap.nodeFor(uris[i]);
+        }
+        if (published) {
+            sitemap.publish();
+        }
+    }
+
+    @Benchmark
+    public MasterSitemapNode nodeFor() {
+        return sitemap.nodeFor(uris[ThreadLocalRandom.current()
+                                                     .nextInt(uris.length)]);
+    }
+
+    @Benchmark
+    public String uri() {
+        return sitemap.uri(nodes[ThreadLocalRandom.current()
+                                                  .nextInt(nodes.length)]);
+    }
+
+    @Threads(1)
+    public static class Threads1 extends MasterSitemapReadBenchmark {
+    }
+
+    @Threads(8)
+    public static class Threads8 extends MasterSitemapReadBenchmark {
+    }
+
+    @Threads(64)
+    public static class Threads64 extends MasterSitemapReadBenchmark {
+    }
+}
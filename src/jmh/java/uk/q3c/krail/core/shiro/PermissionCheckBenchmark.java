@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.shiro;
+
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.authz.permission.WildcardPermission;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares checking a {@link PagePermission} against 1000 granted permissions by a linear scan of {@link WildcardPermission}s (as Shiro's
+ * AuthorizingRealm does) and by a {@link PermissionTrie}.  The permission checked is granted by the last permission in the list, and the
+ * permission which is not granted matches none of them
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PermissionCheckBenchmark {
+
+    @Param({"1000"})
+    private int grantedCount;
+
+    private PagePermission granted;
+    private List<Permission> linear;
+    private PagePermission notGranted;
+    private PermissionTrie trie;
+
+    @Setup
+    public void setup() {
+        List<String> permissions = new ArrayList<>();
+        for (int i = 0; i < grantedCount; i++) {
+            permissions.add("page:view:private:dept" + (i % 50) + ":team" + i + ":*");
+        }
+        linear = new ArrayList<>();
+        for (String permission : permissions) {
+            linear.add(new WildcardPermission(permission));
+        }
+        trie = new PermissionTrie(permissions, new ArrayList<>());
+        int last = grantedCount - 1;
+        granted = new PagePermission("private/dept" + (last % 50) + "/team" + last + "/current projects");
+        notGranted = new PagePermission("private/dept0/team" + grantedCount + "/current projects");
+    }
+
+    @Benchmark
+    public boolean linearGranted() {
+        return scan(granted);
+    }
+
+    @Benchmark
+    public boolean linearNotGranted() {
+        return scan(notGranted);
+    }
+
+    @Benchmark
+    public boolean trieGranted() {
+        return trie.implies(granted);
+    }
+
+    @Benchmark
+    public boolean trieNotGranted() {
+        return trie.implies(notGranted);
+    }
+
+    private boolean scan(Permission permission) {
+        for (Permission p : linear) {
+            if (p.implies(permission)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
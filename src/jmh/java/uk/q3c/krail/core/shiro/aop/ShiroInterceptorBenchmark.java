@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.shiro.aop;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import org.apache.shiro.authc.AuthenticationInfo;
+import org.apache.shiro.authc.AuthenticationToken;
+import org.apache.shiro.authz.AuthorizationInfo;
+import org.apache.shiro.authz.SimpleAuthorizationInfo;
+import org.apache.shiro.authz.annotation.Logical;
+import org.apache.shiro.authz.annotation.RequiresPermissions;
+import org.apache.shiro.authz.annotation.RequiresRoles;
+import org.apache.shiro.authz.annotation.RequiresUser;
+import org.apache.shiro.cache.MemoryConstrainedCacheManager;
+import org.apache.shiro.mgt.DefaultSecurityManager;
+import org.apache.shiro.realm.AuthorizingRealm;
+import org.apache.shiro.subject.PrincipalCollection;
+import org.apache.shiro.subject.SimplePrincipalCollection;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.subject.support.DelegatingSubject;
+import org.openjdk.jmh.annotations.*;
+import uk.q3c.krail.core.shiro.SubjectProvider;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of calling methods guarded by Shiro annotations through the {@link KrailShiroAopModule} interceptors.  The "uncached" benchmarks
+ * use an {@link AnnotationResolver} sub-class, which makes the interceptors resolve and parse the annotation on every call, as they did before
+ * per-method checks were prepared; the "cached" benchmarks use the {@link DefaultAnnotationResolver}.  {@link #unguarded()} gives the cost of the call
+ * without interception
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ShiroInterceptorBenchmark {
+
+    private Guarded cached;
+    private Guarded uncached;
+
+    @Setup
+    public void setup() {
+        Subject subject = subject();
+        cached = injector(new KrailShiroAopModule().selectAll(), subject).getInstance(Guarded.class);
+        uncached = injector(new KrailShiroAopModule() {
+            @Override
+            protected void bindResolver() {
+                bind(AnnotationResolver.class).to(UncachedAnnotationResolver.class);
+            }
+        }.selectAll(), subject).getInstance(Guarded.class);
+    }
+
+    private Injector injector(KrailShiroAopModule aopModule, Subject subject) {
+        return Guice.createInjector(aopModule, new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(SubjectProvider.class).toInstance(() -> subject);
+            }
+        });
+    }
+
+    private Subject subject() {
+        AuthorizingRealm realm = new AuthorizingRealm() {
+            @Override
+            protected AuthorizationInfo doGetAuthorizationInfo(PrincipalCollection principals) {
+                SimpleAuthorizationInfo info = new SimpleAuthorizationInfo();
+                info.addStringPermission("page:view:*");
+                info.addRole("admin");
+                return info;
+            }
+
+            @Override
+            protected AuthenticationInfo doGetAuthenticationInfo(AuthenticationToken token) {
+                return null;
+            }
+        };
+        realm.setCacheManager(new MemoryConstrainedCacheManager());
+        DefaultSecurityManager securityManager = new DefaultSecurityManager(realm);
+        return new DelegatingSubject(new SimplePrincipalCollection("ds", "benchmark"), true, null, null, securityManager);
+    }
+
+    @Benchmark
+    public int unguarded() {
+        return cached.unguarded();
+    }
+
+    @Benchmark
+    public int permissionCached() {
+        return cached.permission();
+    }
+
+    @Benchmark
+    public int permissionUncached() {
+        return uncached.permission();
+    }
+
+    @Benchmark
+    public int permissionsOrCached() {
+        return cached.permissionsOr();
+    }
+
+    @Benchmark
+    public int permissionsOrUncached() {
+        return uncached.permissionsOr();
+    }
+
+    @Benchmark
+    public int rolesCached() {
+        return cached.roles();
+    }
+
+    @Benchmark
+    public int rolesUncached() {
+        return uncached.roles();
+    }
+
+    @Benchmark
+    public int userCached() {
+        return cached.user();
+    }
+
+    @Benchmark
+    public int userUncached() {
+        return uncached.user();
+    }
+
+    public static class UncachedAnnotationResolver extends DefaultAnnotationResolver {
+    }
+
+    public static class Guarded {
+
+        public int unguarded() {
+            return 1;
+        }
+
+        @RequiresPermissions("page:view:private:a")
+        public int permission() {
+            return 1;
+        }
+
+        @RequiresPermissions(value = {"page:edit:private:a", "page:view:private:a"}, logical = Logical.OR)
+        public int permissionsOr() {
+            return 1;
+        }
+
+        @RequiresRoles("admin")
+        public int roles() {
+            return 1;
+        }
+
+        @RequiresUser
+        public int user() {
+            return 1;
+        }
+    }
+}
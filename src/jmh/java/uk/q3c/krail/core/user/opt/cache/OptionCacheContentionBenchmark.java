@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.user.opt.cache;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import org.openjdk.jmh.annotations.*;
+import uk.q3c.krail.core.user.opt.InMemoryOptionDao;
+import uk.q3c.krail.core.user.opt.InMemoryOptionStore;
+import uk.q3c.krail.core.user.opt.OptionDao;
+import uk.q3c.krail.core.user.opt.OptionKey;
+import uk.q3c.krail.core.user.profile.RankOption;
+import uk.q3c.krail.core.user.profile.UserHierarchy;
+import uk.q3c.krail.i18n.DefaultPatternCacheLoader;
+import uk.q3c.krail.i18n.LabelKey;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link DefaultOptionCache} under contention, with a read only load and with a mix of 7 readers to 1 writer.  With {@code
+ * synchronised=true} every call is made while holding a single monitor, as all calls were before reads were made lock free.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OptionCacheContentionBenchmark {
+
+    private static final int KEYS = 256;
+
+    @Param({"true", "false"})
+    public boolean synchronised;
+
+    private DefaultOptionCache optionCache;
+    private OptionCacheKey[] keys;
+
+    @Setup
+    public void setup() {
+        OptionDao dao = new InMemoryOptionDao(new InMemoryOptionStore());
+        DefaultOptionCacheLoader loader = new DefaultOptionCacheLoader(() -> dao);
+        optionCache = new DefaultOptionCache(() -> dao, () -> CacheBuilder.newBuilder()
+                                                                          .build(loader));
+        UserHierarchy hierarchy = new FixedHierarchy();
+        keys = new OptionCacheKey[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            OptionKey<Integer> optionKey = new OptionKey<>(0, DefaultPatternCacheLoader.class, LabelKey.Large, "key" + i);
+            keys[i] = new OptionCacheKey(hierarchy, RankOption.HIGHEST_RANK, optionKey);
+            optionCache.write(new OptionCacheKey(hierarchy, RankOption.SPECIFIC_RANK, 1, optionKey), i);
+        }
+    }
+
+    private OptionCacheKey randomKey() {
+        return keys[ThreadLocalRandom.current()
+                                     .nextInt(KEYS)];
+    }
+
+    private Integer read() {
+        if (synchronised) {
+            synchronized (this) {
+                return optionCache.get(0, randomKey());
+            }
+        }
+        return optionCache.get(0, randomKey());
+    }
+
+    private void write() {
+        OptionCacheKey key = new OptionCacheKey(randomKey(), "system", RankOption.SPECIFIC_RANK);
+        int value = ThreadLocalRandom.current()
+                                     .nextInt();
+        if (synchronised) {
+            synchronized (this) {
+                optionCache.write(key, value);
+            }
+            return;
+        }
+        optionCache.write(key, value);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Integer readOnly() {
+        return read();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(7)
+    public Integer mixedRead() {
+        return read();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedWrite() {
+        write();
+    }
+
+    /**
+     * A two level hierarchy which does not depend on the current subject
+     */
+    private static class FixedHierarchy implements UserHierarchy {
+
+        private final ImmutableList<String> ranks = ImmutableList.of("user", "system");
+
+        @Nonnull
+        @Override
+        public ImmutableList<String> ranksForCurrentUser() {
+            return ranks;
+        }
+
+        @Override
+        public String displayName() {
+            return "Fixed";
+        }
+
+        @Override
+        public String rankName(int hierarchyRank) {
+            return ranks.get(hierarchyRank);
+        }
+
+        @Override
+        public String highestRankName() {
+            return ranks.get(0);
+        }
+
+        @Override
+        public String lowestRankName() {
+            return ranks.get(ranks.size() - 1);
+        }
+    }
+}
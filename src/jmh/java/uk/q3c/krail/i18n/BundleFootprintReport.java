@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.i18n;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Reports the memory used by the map backed class bundles shipped with Krail, and by the array backed equivalents which {@link ClassBundleWriter}
+ * generates when {@link ClassBundleWriter#setArrayBacked(boolean)} is true.  Memory is measured as bytes allocated by the current thread (so it needs
+ * a HotSpot JVM), averaged over many instances:
+ * <ul>
+ * <li>map: a new instance of the bundle, loaded - the cost paid for every bundle instance</li>
+ * <li>array: a new instance of an array backed bundle - plus, once per class, its static values array</li>
+ * </ul>
+ * It also reports how many of the values in the locales of each key class are equal to a value in another locale, and how many distinct String
+ * instances they use - the generated bundles hold their values as constants, so equal values share one interned instance.
+ * <p>
+ * Run with the benchmark classpath: {@code java uk.q3c.krail.i18n.BundleFootprintReport}
+ */
+public class BundleFootprintReport {
+
+    private static final int INSTANCES = 10_000;
+
+    public static void main(String[] args) {
+        report("Labels", LabelKey.class, Labels::new, Labels_de::new, Labels_it::new, Labels_de_CH::new);
+        report("Descriptions", DescriptionKey.class, Descriptions::new, Descriptions_de::new, Descriptions_it::new);
+        report("Messages", MessageKey.class, Messages::new, Messages_de::new);
+    }
+
+    @SafeVarargs
+    private static <E extends Enum<E>> void report(String name, Class<E> keyClass, Supplier<EnumResourceBundle<E>>... bundles) {
+        System.out.println(name + " (" + keyClass.getEnumConstants().length + " keys)");
+        System.out.println(String.format("  %-16s %8s %12s %12s %12s", "bundle", "values", "map/bundle", "array/bundle", "array/class"));
+        List<String> allValues = new ArrayList<>();
+        for (Supplier<EnumResourceBundle<E>> supplier : bundles) {
+            EnumResourceBundle<E> bundle = loaded(supplier, keyClass);
+            Collection<String> values = bundle.getMap()
+                                              .values();
+            allValues.addAll(values);
+            String[] array = new String[keyClass.getEnumConstants().length];
+            bundle.getMap()
+                  .forEach((k, v) -> array[k.ordinal()] = v);
+
+            long mapBytes = allocatedPerInstance(() -> loaded(supplier, keyClass));
+            long arrayBytes = allocatedPerInstance(() -> new MeasuredArrayBundle<>(keyClass, array));
+            long arrayClassBytes = allocatedPerInstance(() -> new String[array.length]);
+            System.out.println(String.format("  %-16s %8d %12d %12d %12d", bundle.getClass()
+                                                                                .getSimpleName(), values.size(), mapBytes, arrayBytes,
+                    arrayClassBytes));
+        }
+        Set<String> distinctValues = new HashSet<>(allValues);
+        Set<String> distinctInstances = Collections.newSetFromMap(new IdentityHashMap<>());
+        distinctInstances.addAll(allValues);
+        System.out.println(String.format("  values: %d, distinct values: %d, distinct String instances: %d%n", allValues.size(), distinctValues.size(),
+                distinctInstances.size()));
+    }
+
+    private static <E extends Enum<E>> EnumResourceBundle<E> loaded(Supplier<EnumResourceBundle<E>> supplier, Class<E> keyClass) {
+        EnumResourceBundle<E> bundle = supplier.get();
+        bundle.setKeyClass(keyClass);
+        bundle.load();
+        return bundle;
+    }
+
+    /**
+     * Returns the average number of bytes allocated to create one object with {@code factory}.  The objects are held until measured, so that the
+     * allocation cannot be optimised away
+     */
+    private static long allocatedPerInstance(Supplier<?> factory) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread()
+                              .getId();
+        Object[] held = new Object[INSTANCES];
+        // warm up, so that class loading and compilation are not measured
+        for (int i = 0; i < INSTANCES; i++) {
+            held[i] = factory.get();
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < INSTANCES; i++) {
+            held[i] = factory.get();
+        }
+        long after = threads.getThreadAllocatedBytes(threadId);
+        return (after - before) / held.length;
+    }
+
+    /**
+     * Equivalent to a generated array backed bundle, except that its values are given rather than static
+     */
+    private static class MeasuredArrayBundle<E extends Enum<E>> extends ArrayEnumResourceBundle<E> {
+        private final String[] values;
+
+        MeasuredArrayBundle(Class<E> keyClass, String[] values) {
+            setKeyClass(keyClass);
+            this.values = values;
+        }
+
+        @Override
+        protected String[] values() {
+            return values;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.i18n;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a cold read of every {@link LabelKey} in one locale from an {@link InMemoryPatternDao}, first with one {@link
+ * PatternDao#getValue(PatternCacheKey)} for each key, as the database reader used to make, and then through {@link DefaultDatabaseBundleReader},
+ * which reads the whole bundle in one {@link PatternDao#getValues(Class, Locale)}.  The in-memory dao has no query cost, so against a real
+ * database the difference is far greater - the number of queries falls from one per key to one per bundle
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DatabaseBundleReaderBenchmark {
+
+    private InMemoryPatternDao dao;
+    private PatternCacheKey[] keys;
+
+    @Setup
+    public void setup() {
+        dao = new InMemoryPatternDao();
+        LabelKey[] labelKeys = LabelKey.values();
+        keys = new PatternCacheKey[labelKeys.length];
+        for (int i = 0; i < labelKeys.length; i++) {
+            keys[i] = new PatternCacheKey(labelKeys[i], Locale.GERMANY);
+            dao.write(keys[i], labelKeys[i].name());
+        }
+    }
+
+    @Benchmark
+    public int perKey() {
+        int found = 0;
+        for (PatternCacheKey key : keys) {
+            if (dao.getValue(key)
+                   .isPresent()) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int bulk() {
+        // a new reader, so that the bundle is read cold
+        DefaultDatabaseBundleReader reader = new DefaultDatabaseBundleReader(dao, new PatternStubWriter(dao));
+        int found = 0;
+        for (PatternCacheKey key : keys) {
+            Optional<String> value = reader.getValue(key, "database", false, false, null);
+            if (value.isPresent()) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
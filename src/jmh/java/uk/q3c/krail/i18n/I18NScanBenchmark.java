@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.i18n;
+
+import com.vaadin.ui.AbstractComponent;
+import com.vaadin.ui.Label;
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtField;
+import javassist.CtNewConstructor;
+import javassist.Modifier;
+import javassist.bytecode.AnnotationsAttribute;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.annotation.EnumMemberValue;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the scan of a view with 200 {@link Caption} annotated components, and the resolution of their keys, as {@link DefaultI18NProcessor} does on
+ * every translation.  {@link #planned()} uses {@link DefaultI18NFieldScanner}, which reads the metadata from an {@link I18NClassPlan};  {@link
+ * #reflective()} repeats the reflection on every scan, as the scanner did before plans were introduced
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class I18NScanBenchmark {
+
+    static final int COMPONENTS = 200;
+    private DefaultI18NFieldScanner scanner;
+    private Object view;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        scanner = new DefaultI18NFieldScanner(new DefaultI18NHostClassIdentifier());
+        view = BenchmarkView.create();
+    }
+
+    @Benchmark
+    public int planned() {
+        scanner.scan(view);
+        return resolveKeys(scanner.annotatedComponents());
+    }
+
+    @Benchmark
+    public int reflective() throws IllegalAccessException {
+        Map<AbstractComponent, AnnotationInfo> components = new HashMap<>();
+        Class<?> classToScan = view.getClass();
+        while (!classToScan.equals(Object.class)) {
+            for (Field field : classToScan.getDeclaredFields()) {
+                AnnotationInfo annotationInfo = new AnnotationInfo(field);
+                for (Annotation annotation : field.getDeclaredAnnotations()) {
+                    if (annotation.annotationType()
+                                  .isAnnotationPresent(I18NAnnotation.class) && !annotation.annotationType()
+                                                                                           .equals(I18N.class)) {
+                        annotationInfo.getAnnotations()
+                                      .add(annotation);
+                    }
+                }
+                if (!annotationInfo.getAnnotations()
+                                   .isEmpty()) {
+                    field.setAccessible(true);
+                    components.put((AbstractComponent) field.get(view), annotationInfo);
+                }
+            }
+            classToScan = classToScan.getSuperclass();
+        }
+        return resolveKeys(components);
+    }
+
+    private int resolveKeys(Map<AbstractComponent, AnnotationInfo> components) {
+        int keys = 0;
+        for (AnnotationInfo annotationInfo : components.values()) {
+            if (annotationInfo.getCaptionKey()
+                              .isPresent()) {
+                keys++;
+            }
+            if (annotationInfo.getDescriptionKey()
+                              .isPresent()) {
+                keys++;
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Generates, once, a class with {@link #COMPONENTS} {@link Label} fields each annotated {@code @Caption(caption = LabelKey.Ok, description =
+     * DescriptionKey.Confirm_Ok)}
+     */
+    private static class BenchmarkView {
+        private static final Class<?> VIEW_CLASS = generate();
+
+        private static Class<?> generate() {
+            try {
+                ClassPool pool = new ClassPool(true);
+                pool.appendClassPath(new ClassClassPath(Label.class));
+                CtClass ctClass = pool.makeClass(I18NScanBenchmark.class.getPackage()
+                                                                        .getName() + ".GeneratedBenchmarkView");
+                ConstPool constPool = ctClass.getClassFile()
+                                             .getConstPool();
+                CtClass labelClass = pool.get(Label.class.getName());
+                for (int i = 0; i < COMPONENTS; i++) {
+                    CtField field = new CtField(labelClass, String.format("label%03d", i), ctClass);
+                    field.setModifiers(Modifier.PRIVATE);
+                    javassist.bytecode.annotation.Annotation caption = new javassist.bytecode.annotation.Annotation(Caption.class.getName(),
+                            constPool);
+                    caption.addMemberValue("caption", enumValue(constPool, LabelKey.Ok));
+                    caption.addMemberValue("description", enumValue(constPool, DescriptionKey.Confirm_Ok));
+                    AnnotationsAttribute attribute = new AnnotationsAttribute(constPool, AnnotationsAttribute.visibleTag);
+                    attribute.addAnnotation(caption);
+                    field.getFieldInfo()
+                         .addAttribute(attribute);
+                    ctClass.addField(field);
+                }
+                ctClass.addConstructor(CtNewConstructor.defaultConstructor(ctClass));
+                return ctClass.toClass(I18NScanBenchmark.class.getClassLoader(), I18NScanBenchmark.class.getProtectionDomain());
+            } catch (Exception e) {
+                throw new IllegalStateException("Unable to generate benchmark view", e);
+            }
+        }
+
+        private static EnumMemberValue enumValue(ConstPool constPool, Enum<?> value) {
+            EnumMemberValue memberValue = new EnumMemberValue(constPool);
+            memberValue.setType(value.getDeclaringClass()
+                                     .getName());
+            memberValue.setValue(value.name());
+            return memberValue;
+        }
+
+        /**
+         * Returns a new instance of the generated class, with a new {@link Label} in each field
+         */
+        private static Object create() throws ReflectiveOperationException {
+            Object view = VIEW_CLASS.newInstance();
+            for (Field field : VIEW_CLASS.getDeclaredFields()) {
+                field.setAccessible(true);
+                field.set(view, new Label());
+            }
+            return view;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.util;
+
+import org.openjdk.jmh.annotations.*;
+import uk.q3c.krail.core.navigate.sitemap.MasterSitemapNode;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the array backed {@link BasicForest} with the Jung backed {@link JungForest} it replaced, on sitemap shaped
+ * trees (a single root, with a fan out of 10 at each level) of 10k and 100k nodes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ForestBenchmark {
+
+    private static final int FAN_OUT = 10;
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    private BasicForest<MasterSitemapNode> arrayForest;
+    private JungForest<MasterSitemapNode> jungForest;
+    private MasterSitemapNode[] nodes;
+
+    @Setup
+    public void setup() {
+        arrayForest = new BasicForest<>();
+        jungForest = new JungForest<>();
+        nodes = new MasterSitemapNode[size];
+        for (int i = 0; i < size; i++) {
+            nodes[i] = new MasterSitemapNode(i + 1, "segment" + i);
+            MasterSitemapNode parent = (i == 0) ? null : nodes[(i - 1) / FAN_OUT];
+            arrayForest.addChild(parent, nodes[i]);
+            jungForest.addChild(parent, nodes[i]);
+        }
+    }
+
+    private MasterSitemapNode randomNode() {
+        return nodes[ThreadLocalRandom.current()
+                                      .nextInt(size)];
+    }
+
+    @Benchmark
+    public MasterSitemapNode array_getParent() {
+        return arrayForest.getParent(randomNode());
+    }
+
+    @Benchmark
+    public MasterSitemapNode jung_getParent() {
+        return jungForest.getParent(randomNode());
+    }
+
+    @Benchmark
+    public List<MasterSitemapNode> array_getChildren() {
+        return arrayForest.getChildren(randomNode());
+    }
+
+    @Benchmark
+    public List<MasterSitemapNode> jung_getChildren() {
+        return jungForest.getChildren(randomNode());
+    }
+
+    @Benchmark
+    public MasterSitemapNode array_getNode() {
+        return arrayForest.getNode(randomNode());
+    }
+
+    @Benchmark
+    public MasterSitemapNode jung_getNode() {
+        return jungForest.getNode(randomNode());
+    }
+
+    @Benchmark
+    public MasterSitemapNode array_getRoot() {
+        return arrayForest.getRoot();
+    }
+
+    @Benchmark
+    public MasterSitemapNode jung_getRoot() {
+        return jungForest.getRoot();
+    }
+
+    @Benchmark
+    public List<MasterSitemapNode> array_findLeaves() {
+        return arrayForest.findLeaves(nodes[1]);
+    }
+
+    @Benchmark
+    public List<MasterSitemapNode> jung_findLeaves() {
+        return jungForest.findLeaves(nodes[1]);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.util;
+
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares formatting a parameterised pattern three ways: the original scan-and-delegate implementation (reproduced
+ * here as {@link #legacyFormat(String, Object...)}, which scans the pattern and then has SLF4J parse it again),
+ * {@link MessageFormat#format(String, Object...)}, which now parses once per call, and a {@link MessagePattern} parsed
+ * once and reused, as {@link uk.q3c.krail.i18n.DefaultTranslate} does via the pattern cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MessageFormatBenchmark {
+
+    @Param({"Hello {0}", "This is a {1} pattern where the {0} can be in any {2}, ignoring \\{3}"})
+    public String pattern;
+
+    private Object[] arguments;
+    private MessagePattern compiled;
+
+    private static String legacyFormat(String pattern, Object... arguments) {
+        List<Integer> parameters = new ArrayList<>();
+        try {
+            StringBuilder strippedPattern = new StringBuilder();
+            int i = 0;
+            while (i < pattern.length()) {
+                char c = pattern.charAt(i);
+                if (c == '\\') {
+                    i++;
+                    c = pattern.charAt(i);
+                    if (c == '{') {
+                        strippedPattern.append('{');
+                        i++;
+                        c = pattern.charAt(i);
+                        strippedPattern.append(c);
+                    }
+                } else {
+                    strippedPattern.append(c);
+                }
+                if (c == '{') {
+                    StringBuilder placeholder = new StringBuilder();
+                    boolean done = false;
+                    while (!done) {
+                        i++;
+                        c = pattern.charAt(i);
+                        if (c == '}') {
+                            parameters.add(Integer.valueOf(placeholder.toString()));
+                            strippedPattern.append(c);
+                            done = true;
+                        } else {
+                            placeholder.append(c);
+                        }
+                    }
+                }
+                i++;
+            }
+            if (parameters.size() != arguments.length) {
+                throw new RuntimeException();
+            }
+            List<Object> sortedArguments = new ArrayList<>();
+            for (Integer p : parameters) {
+                sortedArguments.add(arguments[p]);
+            }
+            return MessageFormatter.arrayFormat(strippedPattern.toString(), sortedArguments.toArray())
+                                   .getMessage();
+        } catch (Exception e) {
+            return pattern;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        compiled = MessagePattern.compile(pattern);
+        arguments = (compiled.getArgumentCount() == 1) ? new Object[]{"World"} : new Object[]{"parameters", "simple", "order"};
+    }
+
+    @Benchmark
+    public String legacy() {
+        return legacyFormat(pattern, arguments);
+    }
+
+    @Benchmark
+    public String format() {
+        return MessageFormat.format(pattern, arguments);
+    }
+
+    @Benchmark
+    public String compiled() {
+        return compiled.format(arguments);
+    }
+}
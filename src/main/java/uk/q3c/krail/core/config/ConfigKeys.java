@@ -24,5 +24,7 @@ public class ConfigKeys {
 
     public static final String SITEMAP_SOURCES = "sitemap.sources";
     public static final String SERVER_PUSH_ENABLED = "server.pushEnabled";
+    public static final String SERVER_PUSH_THREADS = "server.pushThreads";
+    public static final String SERVER_PUSH_QUEUE_SIZE = "server.pushQueueSize";
 
 }
@@ -15,14 +15,22 @@ package uk.q3c.krail.core.guice;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.vaadin.server.*;
+import com.vaadin.ui.UI;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.q3c.krail.core.guice.uiscope.UIScope;
+import uk.q3c.krail.core.guice.vsscope.VaadinSessionScope;
+import uk.q3c.krail.core.ui.ScopedUI;
 import uk.q3c.krail.core.ui.ScopedUIProvider;
 
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.Properties;
 
 @Singleton
-public class BaseServlet extends VaadinServlet implements SessionInitListener {
+public class BaseServlet extends VaadinServlet implements SessionInitListener, SessionDestroyListener {
     private static Logger log = LoggerFactory.getLogger(BaseServlet.class);
 
     private final ScopedUIProvider uiProvider;
@@ -35,6 +43,7 @@ public class BaseServlet extends VaadinServlet implements SessionInitListener {
     @Override
     protected void servletInitialized() {
         getService().addSessionInitListener(this);
+        getService().addSessionDestroyListener(this);
     }
 
     @Override
@@ -43,6 +52,39 @@ public class BaseServlet extends VaadinServlet implements SessionInitListener {
              .addUIProvider(uiProvider);
     }
 
+    /**
+     * Releases the {@link UIScope} of every UI in the session, and the {@link VaadinSessionScope} of the session itself, so that scoped instances are
+     * not retained after the session has gone.  UIs normally release their own scope on detach, this makes sure nothing is left behind if they did not
+     */
+    @Override
+    public void sessionDestroy(SessionDestroyEvent event) {
+        VaadinSession session = event.getSession();
+        UIScope uiScope = UIScope.getCurrent();
+        for (UI ui : session.getUIs()) {
+            if (ui instanceof ScopedUI) {
+                uiScope.releaseScope(((ScopedUI) ui).getInstanceKey());
+            }
+        }
+        VaadinSessionScope.getCurrent()
+                          .releaseScope(session);
+    }
+
+    /**
+     * Clears the thread bindings of {@link UIScope} and {@link VaadinSessionScope} once the request has been handled, so that a pooled thread does
+     * not refer to the UI or session it last served
+     */
+    @Override
+    protected void service(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        try {
+            super.service(request, response);
+        } finally {
+            UIScope.getCurrent()
+                   .endRequest();
+            VaadinSessionScope.getCurrent()
+                              .endRequest();
+        }
+    }
+
     /**
      * This method captures the parameters from appropriate methods and sets the servlet parameters accordingly.
      * <p>
@@ -15,6 +15,7 @@ package uk.q3c.krail.core.guice;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
+import com.google.inject.Key;
 import com.google.inject.Module;
 import com.google.inject.servlet.GuiceServletContextListener;
 import com.google.inject.servlet.ServletModule;
@@ -49,6 +50,9 @@ import uk.q3c.krail.core.validation.KrailValidationModule;
 import uk.q3c.krail.core.view.ViewModule;
 import uk.q3c.krail.core.view.component.DefaultComponentModule;
 import uk.q3c.krail.i18n.I18NModule;
+import uk.q3c.krail.i18n.PatternCacheWarmUpService;
+import uk.q3c.krail.i18n.PatternDao;
+import uk.q3c.krail.i18n.PatternStubWriter;
 
 import javax.servlet.ServletContextEvent;
 import java.util.ArrayList;
@@ -105,6 +109,32 @@ public abstract class DefaultBindingManager extends GuiceServletContextListener
         SecurityManager securityManager = injector.getInstance(SecurityManager.class);
         SecurityUtils.setSecurityManager(securityManager);
 
+        startServices();
+    }
+
+    /**
+     * Starts the services which should be running before the first user session is created.  There is no Vaadin session or Subject available
+     * when this is called, so only services which do not need them should be started here.  A service which fails to start is logged, but does
+     * not prevent the application from starting.  Override this method to start your own services as well - services started here are stopped
+     * by {@link #contextDestroyed(ServletContextEvent)}
+     */
+    protected void startServices() {
+        // patterns are only pre-loaded, so the application can run without them
+        try {
+            injector.getInstance(PatternCacheWarmUpService.class)
+                    .start();
+        } catch (Exception e) {
+            log.warn("Pattern cache warm up failed, patterns will be loaded on first use", e);
+        }
+        // started so that it is stopped, and its queued stubs written, by contextDestroyed - only possible if there is a PatternDao
+        if (injector.getExistingBinding(Key.get(PatternDao.class)) != null) {
+            try {
+                injector.getInstance(PatternStubWriter.class)
+                        .start();
+            } catch (Exception e) {
+                log.warn("Pattern stub writer failed to start, stubs queued at shutdown may not be written", e);
+            }
+        }
     }
 
     private List<Module> getModules() {
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.guice;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The instances held by a single instance of a custom scope - for example, all the instances for one UI in {@link uk.q3c.krail.core.guice.uiscope
+ * .UIScope}.
+ * <p>
+ * Instances are held in a table indexed by slot number.  Each scoped {@link Key} is given a slot by the scope (see {@link Slots}) when Guice calls
+ * {@link com.google.inject.Scope#scope(Key, Provider)}, that is, when the injector is created, so that looking up an existing instance is a single
+ * array read, with no hashing and no locking.
+ * <p>
+ * {@link #get(int, Provider)} creates at most one instance for each slot, even when called concurrently.  It behaves like {@link
+ * ConcurrentMap#computeIfAbsent}, but cannot use it, because creating one scoped instance usually leads Guice to create others in the same scope,
+ * and {@link ConcurrentHashMap#computeIfAbsent} must not be re-entered for the same map.  Instead, creation is serialised by a lock for each slot, so
+ * that creation of different instances can proceed in parallel.
+ */
+@ThreadSafe
+public class ScopedInstances {
+
+    private static final int INITIAL_SIZE = 16;
+    private final ConcurrentMap<Integer, Object> locks = new ConcurrentHashMap<>();
+    private volatile AtomicReferenceArray<Object> instances = new AtomicReferenceArray<>(INITIAL_SIZE);
+    private volatile boolean released;
+
+    /**
+     * Returns the instance for {@code slot}, creating it from {@code unscoped} if there is not one already.  A null from {@code unscoped} is returned
+     * but not held, so it will be requested again next time
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(int slot, Provider<T> unscoped) {
+        Object instance = instanceAt(slot);
+        if (instance != null) {
+            return (T) instance;
+        }
+        synchronized (locks.computeIfAbsent(slot, s -> new Object())) {
+            instance = instanceAt(slot);
+            if (instance == null) {
+                instance = unscoped.get();
+                if (instance != null) {
+                    store(slot, instance);
+                }
+            }
+        }
+        return (T) instance;
+    }
+
+    private Object instanceAt(int slot) {
+        AtomicReferenceArray<Object> current = instances;
+        return (slot < current.length()) ? current.get(slot) : null;
+    }
+
+    /**
+     * Growing the table copies it, so stores and growth are serialised to make sure no store is lost in the copy.  Stores happen only when an instance
+     * is created, so this does not affect lookups
+     */
+    private synchronized void store(int slot, Object instance) {
+        AtomicReferenceArray<Object> current = instances;
+        if (slot >= current.length()) {
+            AtomicReferenceArray<Object> grown = new AtomicReferenceArray<>(Math.max(slot + 1, current.length() * 2));
+            for (int i = 0; i < current.length(); i++) {
+                grown.set(i, current.get(i));
+            }
+            instances = grown;
+            current = grown;
+        }
+        current.set(slot, instance);
+    }
+
+    /**
+     * Discards all instances, and marks this as released so that any thread still bound to it (see {@link uk.q3c.krail.core.guice.uiscope.UIScope})
+     * will stop using it
+     */
+    public synchronized void release() {
+        released = true;
+        instances = new AtomicReferenceArray<>(0);
+    }
+
+    public boolean isReleased() {
+        return released;
+    }
+
+    public boolean containsInstance(Object instance) {
+        AtomicReferenceArray<Object> current = instances;
+        for (int i = 0; i < current.length(); i++) {
+            if (instance.equals(current.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        AtomicReferenceArray<Object> current = instances;
+        int size = 0;
+        for (int i = 0; i < current.length(); i++) {
+            if (current.get(i) != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Allocates slot numbers for a scope, one for each distinct {@link Key}, so that the same Key bound in more than one injector shares a slot
+     */
+    @ThreadSafe
+    public static class Slots {
+        private final AtomicInteger next = new AtomicInteger();
+        private final ConcurrentMap<Key<?>, Integer> slots = new ConcurrentHashMap<>();
+
+        public int slotFor(Key<?> key) {
+            return slots.computeIfAbsent(key, k -> next.getAndIncrement());
+        }
+    }
+}
@@ -39,7 +39,23 @@ public class UIKey implements Comparable<UIKey> {
 
     @Override
     public int compareTo(UIKey other) {
-        return this.getCounter() - other.getCounter();
+        return Integer.compare(this.getCounter(), other.getCounter());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UIKey)) {
+            return false;
+        }
+        return counter == ((UIKey) o).counter;
+    }
+
+    @Override
+    public int hashCode() {
+        return counter;
     }
 
     public int getCounter() {
@@ -14,13 +14,17 @@ package uk.q3c.krail.core.guice.uiscope;
 
 import com.google.inject.Provider;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provides a unique {@link UIKey} for each UI, even when UIs are created concurrently
+ */
 public class UIKeyProvider implements Provider<UIKey> {
-    private static int counter = 0;
+    private static final AtomicInteger counter = new AtomicInteger();
 
     @Override
     public UIKey get() {
-        counter++;
-        return new UIKey(counter);
+        return new UIKey(counter.incrementAndGet());
     }
 
 }
@@ -13,19 +13,30 @@
 package uk.q3c.krail.core.guice.uiscope;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
 import com.google.inject.Key;
 import com.google.inject.Provider;
 import com.google.inject.Scope;
+import com.vaadin.ui.UI;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.q3c.krail.core.guice.ScopedInstances;
 import uk.q3c.krail.core.ui.ScopedUI;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.TreeMap;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Provides a Guice scope based on a Vaadin UI, generally equivalent to a browser tab
+ * <p>
+ * The scope is thread safe.  The instances for each UI are held in a {@link ScopedInstances}, which is removed by {@link #releaseScope(UIKey)} when
+ * the UI is detached (see {@link ScopedUI#detach()}), or when its session is destroyed (see {@link uk.q3c.krail.core.guice.BaseServlet}).
+ * <p>
+ * Once a thread has resolved the {@link ScopedInstances} for a UI, they are bound to that thread, and reused without further lookup or validation for
+ * as long as the thread's current {@link UIKey} and UI remain the same.  The binding holds the UI and its instances only weakly, so that a thread
+ * which does not serve that UI again cannot keep it (or the class loader, after a redeploy) from being collected.  The binding is cleared when the
+ * scope is released on the same thread, and at the end of each request (see {@link #endRequest()})
  *
  * @author Will Temperley 2014
  * @author David Sowerby 2013
@@ -36,7 +47,9 @@ public class UIScope implements Scope {
 
     private static volatile UIScope current;
 
-    private final Map<UIKey, Map<Key<?>, Object>> cache = new TreeMap<UIKey, Map<Key<?>, Object>>();
+    private final ThreadLocal<Binding> bound = new ThreadLocal<>();
+    private final ConcurrentMap<UIKey, ScopedInstances> cache = new ConcurrentHashMap<>();
+    private final ScopedInstances.Slots slots = new ScopedInstances.Slots();
 
     public UIScope() {
         super();
@@ -58,29 +71,45 @@ public class UIScope implements Scope {
         return scope;
     }
 
-    <T> Map<Key<?>, Object> getScopedObjectMap(UIKey uiKey) {
-        // return an existing cache instance
-        if (cache.containsKey(uiKey)) {
-            Map<Key<?>, Object> scopedObjects = cache.get(uiKey);
-            log.debug("scope cache retrieved for UI key: {}", uiKey);
-            return scopedObjects;
-        } else {
+    ScopedInstances getScopedInstances(UIKey uiKey) {
+        return cache.computeIfAbsent(uiKey, this::createCacheEntry);
+    }
 
-            return createCacheEntry(uiKey);
+    /**
+     * Returns the {@link ScopedInstances} bound to this thread, if they were bound for the same {@code currentKey} and {@code currentUI} (compared by
+     * identity) and have not been released since, otherwise null
+     */
+    ScopedInstances boundInstances(UIKey currentKey, UI currentUI) {
+        Binding binding = bound.get();
+        if (binding != null && binding.uiKey == currentKey && binding.ui.get() == currentUI) {
+            ScopedInstances instances = binding.instances.get();
+            if (instances != null && !instances.isReleased()) {
+                return instances;
+            }
         }
+        return null;
     }
 
-    private Map<Key<?>, Object> createCacheEntry(UIKey uiKey) {
-        Map<Key<?>, Object> uiEntry = new HashMap<Key<?>, Object>();
-        cache.put(uiKey, uiEntry);
+    /**
+     * Returns the {@link ScopedInstances} for {@code uiKey}, and binds them to this thread for {@code currentKey} and {@code currentUI}
+     */
+    ScopedInstances bind(UIKey currentKey, UI currentUI, UIKey uiKey) {
+        ScopedInstances instances = getScopedInstances(uiKey);
+        bound.set(new Binding(currentKey, currentUI, instances));
+        return instances;
+    }
+
+    int slotFor(Key<?> key) {
+        return slots.slotFor(key);
+    }
+
+    private ScopedInstances createCacheEntry(UIKey uiKey) {
         log.debug("created a scope cache for UIScope with key: {}", uiKey);
-        return uiEntry;
+        return new ScopedInstances();
     }
 
     public void startScope(UIKey uiKey) {
-        if (!cacheHasEntryFor(uiKey)) {
-            createCacheEntry(uiKey);
-        }
+        getScopedInstances(uiKey);
     }
 
     public boolean cacheHasEntryFor(UIKey uiKey) {
@@ -92,14 +121,32 @@ public class UIScope implements Scope {
     }
 
     public void releaseScope(UIKey uiKey) {
-        cache.remove(uiKey);
+        ScopedInstances instances = (uiKey == null) ? null : cache.remove(uiKey);
+        if (instances != null) {
+            instances.release();
+            Binding binding = bound.get();
+            if (binding != null && binding.instances.get() == instances) {
+                bound.remove();
+            }
+            log.debug("released scope cache for UIScope with key: {}", uiKey);
+        }
+    }
+
+    /**
+     * Clears the binding of this thread to the scope of the UI it last served.  Called at the end of each request (see {@link
+     * uk.q3c.krail.core.guice.BaseServlet}), so that pooled threads do not refer to a UI between requests
+     */
+    public void endRequest() {
+        bound.remove();
     }
 
     /**
      * Removes all entries in the cache
      */
     public void flush() {
-        cache.clear();
+        for (UIKey uiKey : cache.keySet()) {
+            releaseScope(uiKey);
+        }
     }
 
     @Override
@@ -107,12 +154,32 @@ public class UIScope implements Scope {
         return new UIScopeProvider<T>(this, key, unscoped);
     }
 
+    /**
+     * Returns the keys of all current scopes, in the order they were created
+     */
     public ImmutableList<UIKey> scopeKeys() {
-        return ImmutableList.copyOf(cache.keySet());
+        return Ordering.natural()
+                       .immutableSortedCopy(cache.keySet());
     }
 
     public boolean containsInstance(UIKey uiKey, Object containedInstance) {
-        Map<Key<?>, Object> scopeSet = cache.get(uiKey);
-        return scopeSet.containsValue(containedInstance);
+        ScopedInstances scopedInstances = cache.get(uiKey);
+        return scopedInstances != null && scopedInstances.containsInstance(containedInstance);
+    }
+
+    /**
+     * The {@link ScopedInstances} resolved by a thread, with the {@link UIKey} and UI which were current when they were resolved.  The instances are
+     * held strongly by the cache for as long as the scope is live, so they and the UI need only be held weakly here
+     */
+    private static class Binding {
+        private final WeakReference<ScopedInstances> instances;
+        private final WeakReference<UI> ui;
+        private final UIKey uiKey;
+
+        private Binding(UIKey uiKey, UI ui, ScopedInstances instances) {
+            this.uiKey = uiKey;
+            this.ui = new WeakReference<>(ui);
+            this.instances = new WeakReference<>(instances);
+        }
     }
-}
\ No newline at end of file
+}
@@ -16,41 +16,56 @@ import com.vaadin.ui.UI;
 import com.vaadin.util.CurrentInstance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.q3c.krail.core.guice.ScopedInstances;
 import uk.q3c.krail.core.ui.ScopedUI;
 
-import java.util.Map;
-
 /**
+ * Provides instances of a {@link UIScoped} binding.  Each provider holds the slot allocated to its Key by {@link UIScope}, so once the current thread is
+ * bound to the current UI's {@link ScopedInstances}, {@link #get()} is an identity check and an array read.  The validation of the UI and its {@link
+ * UIKey} is needed only when the binding changes
+ *
  * @param <T>
  *
  * @author David Sowerby
  */
 class UIScopeProvider<T> implements Provider<T> {
+    private static final String msg = "This can happen if you include UIScoped components in your ScopedUIProvider, " +
+            "or you are testing and have not set up the test fixture correctly.  For the latter, use TestUIScopeModule, or " +
+            "try sub-classing UITestBase and calling createTestUI() or createBasicUI() to prepare the UIScope " +
+            "correctly.  If you are not testing please report a bug";
     private static Logger log = LoggerFactory.getLogger(UIScopeProvider.class);
-    private final UIScope uiScope;
     private final Key<T> key;
+    private final int slot;
+    private final UIScope uiScope;
     private final Provider<T> unscoped;
 
     UIScopeProvider(UIScope uiScope, Key<T> key, Provider<T> unscoped) {
         this.uiScope = uiScope;
         this.key = key;
         this.unscoped = unscoped;
+        this.slot = uiScope.slotFor(key);
     }
 
     @Override
     public T get() {
-        // get the scope cache for the current UI
-        log.debug("looking for a UIScoped instance of {}", key.getClass()
-                                                              .getName());
-
         // get the current UIKey. It should always be there, as it is created before the UI
-        UIKey uiKey = CurrentInstance.get(UIKey.class);
+        UIKey currentKey = CurrentInstance.get(UIKey.class);
         // this may be null if we are in the process of constructing the UI
-        ScopedUI currentUI = (ScopedUI) UI.getCurrent();
-        final String msg = "This can happen if you include UIScoped components in your ScopedUIProvider, " +
-                "or you are testing and have not set up the test fixture correctly.  For the latter, use TestUIScopeModule, or " +
-                "try sub-classing UITestBase and calling createTestUI() or createBasicUI() to prepare the UIScope " +
-                "correctly.  If you are not testing please report a bug";
+        UI currentUI = UI.getCurrent();
+        ScopedInstances instances = uiScope.boundInstances(currentKey, currentUI);
+        if (instances == null) {
+            instances = uiScope.bind(currentKey, currentUI, validUIKey(currentKey, (ScopedUI) currentUI));
+        }
+        // retrieve an existing instance, or create the first instance and cache it
+        return instances.get(slot, unscoped);
+    }
+
+    /**
+     * Returns the key to the scope of the current UI, checking that the UI and its UIKey are consistent
+     */
+    private UIKey validUIKey(UIKey currentKey, ScopedUI currentUI) {
+        log.debug("looking for a UIScoped instance of {}", key);
+        UIKey uiKey = currentKey;
         if (uiKey == null) {
             if (currentUI == null) {
                 throw new UIScopeException("UI and uiKey are null. " + msg);
@@ -71,25 +86,7 @@ class UIScopeProvider<T> implements Provider<T> {
                         + msg);
             }
         }
-
-        log.debug("looking for cache for key: " + uiKey);
-        Map<Key<?>, Object> scopedObjects = this.uiScope.getScopedObjectMap(uiKey);
-
-        // retrieve an existing instance if possible
-
-        @SuppressWarnings("unchecked") T current = (T) scopedObjects.get(key);
-
-        if (current != null) {
-            log.debug("returning existing instance of " + current.getClass()
-                                                                 .getSimpleName());
-            return current;
-        }
-
-        // or create the first instance and cache it
-        current = unscoped.get();
-        scopedObjects.put(key, current);
-        log.debug("new instance of " + current.getClass()
-                                              .getSimpleName() + " created, as none in cache");
-        return current;
+        log.debug("looking for cache for key: {}", uiKey);
+        return uiKey;
     }
 }
@@ -13,6 +13,7 @@
 package uk.q3c.krail.core.guice.vsscope;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.MapMaker;
 import com.google.inject.Key;
 import com.google.inject.Provider;
 import com.google.inject.Scope;
@@ -20,14 +21,23 @@ import com.google.inject.servlet.SessionScoped;
 import com.vaadin.server.VaadinSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.q3c.krail.core.guice.ScopedInstances;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Provides a Guice scope based on a {@link VaadinSession}. This was necessary because the standard
  * {@link SessionScoped} will only work with a UI (and not things like Views, which where a session scope is most
  * useful) if a UI has server push enabled. See https://github.com/davidsowerby/krail/issues/241
+ * <p>
+ * The scope is thread safe.  The instances for a session are removed by {@link #releaseScope(VaadinSession)} when the session is destroyed (see {@link
+ * uk.q3c.krail.core.guice.BaseServlet}).  Sessions are also held only weakly (and compared by identity), so that the entry for a session which is
+ * discarded without being destroyed can still be reclaimed, provided none of its scoped instances refer back to the session.
+ * <p>
+ * Once a thread has resolved the {@link ScopedInstances} for a session, they are bound to that thread, and reused without further lookup for as long
+ * as the thread's current session remains the same.  As with {@link uk.q3c.krail.core.guice.uiscope.UIScope}, the binding holds the session and its
+ * instances only weakly, and is cleared when the scope is released on the same thread and at the end of each request (see {@link #endRequest()})
  *
  * @author David Sowerby 2014
  */
@@ -37,7 +47,11 @@ public class VaadinSessionScope implements Scope {
 
     private static volatile VaadinSessionScope current;
 
-    private final Map<VaadinSession, Map<Key<?>, Object>> cache = new HashMap<>();
+    private final ConcurrentMap<VaadinSession, ScopedInstances> cache = new MapMaker().weakKeys()
+                                                                                      .makeMap();
+    private final ThreadLocal<Binding> bound = new ThreadLocal<>();
+    private final ScopedInstances.Slots slots = new ScopedInstances.Slots();
+    private volatile ScopedInstances noSession = new ScopedInstances();
 
     public VaadinSessionScope() {
         super();
@@ -59,43 +73,89 @@ public class VaadinSessionScope implements Scope {
         return scope;
     }
 
-    <T> Map<Key<?>, Object> getScopedObjectMap(VaadinSession vaadinSession) {
-        // return an existing cache instance
-        if (cache.containsKey(vaadinSession)) {
-            Map<Key<?>, Object> scopedObjects = cache.get(vaadinSession);
-            log.debug("scope cache retrieved for VaadinSession: {}", vaadinSession);
-            return scopedObjects;
-        } else {
-            return createCacheEntry(vaadinSession);
+    ScopedInstances getScopedInstances(VaadinSession vaadinSession) {
+        if (vaadinSession == null) {
+            // there is no current session - usually only in testing
+            return noSession;
         }
+        // createCacheEntry may be called more than once in a race, but only one entry is ever used
+        ScopedInstances scopedInstances = cache.get(vaadinSession);
+        if (scopedInstances == null) {
+            ScopedInstances created = createCacheEntry(vaadinSession);
+            scopedInstances = cache.putIfAbsent(vaadinSession, created);
+            if (scopedInstances == null) {
+                scopedInstances = created;
+            }
+        }
+        return scopedInstances;
     }
 
-    private Map<Key<?>, Object> createCacheEntry(VaadinSession vaadinSession) {
-        Map<Key<?>, Object> sessionEntry = new HashMap<Key<?>, Object>();
-        cache.put(vaadinSession, sessionEntry);
+    /**
+     * Returns the {@link ScopedInstances} for {@code vaadinSession}, using those bound to this thread if they were bound for the same session and have
+     * not been released since.  Otherwise, looks them up and binds them to this thread
+     */
+    ScopedInstances currentInstances(VaadinSession vaadinSession) {
+        if (vaadinSession == null) {
+            return noSession;
+        }
+        Binding binding = bound.get();
+        if (binding != null && binding.session.get() == vaadinSession) {
+            ScopedInstances instances = binding.instances.get();
+            if (instances != null && !instances.isReleased()) {
+                return instances;
+            }
+        }
+        ScopedInstances instances = getScopedInstances(vaadinSession);
+        bound.set(new Binding(vaadinSession, instances));
+        return instances;
+    }
+
+    int slotFor(Key<?> key) {
+        return slots.slotFor(key);
+    }
+
+    private ScopedInstances createCacheEntry(VaadinSession vaadinSession) {
         log.debug("created a scope cache for VaadinSessionScope with key: {}", vaadinSession);
-        return sessionEntry;
+        return new ScopedInstances();
     }
 
     public void startScope(VaadinSession vaadinSession) {
-        if (!cacheHasEntryFor(vaadinSession)) {
-            createCacheEntry(vaadinSession);
-        }
+        getScopedInstances(vaadinSession);
     }
 
     public boolean cacheHasEntryFor(VaadinSession vaadinSession) {
-        return cache.containsKey(vaadinSession);
+        return vaadinSession != null && cache.containsKey(vaadinSession);
     }
 
     public void releaseScope(VaadinSession vaadinSession) {
-        cache.remove(vaadinSession);
+        ScopedInstances instances = (vaadinSession == null) ? null : cache.remove(vaadinSession);
+        if (instances != null) {
+            instances.release();
+            Binding binding = bound.get();
+            if (binding != null && binding.instances.get() == instances) {
+                bound.remove();
+            }
+            log.debug("released scope cache for VaadinSessionScope with key: {}", vaadinSession);
+        }
+    }
+
+    /**
+     * Clears the binding of this thread to the scope of the session it last served.  Called at the end of each request (see {@link
+     * uk.q3c.krail.core.guice.BaseServlet}), so that pooled threads do not refer to a session between requests
+     */
+    public void endRequest() {
+        bound.remove();
     }
 
     /**
      * Removes all entries in the cache
      */
     public void flush() {
-        cache.clear();
+        for (VaadinSession vaadinSession : cache.keySet()) {
+            releaseScope(vaadinSession);
+        }
+        noSession.release();
+        noSession = new ScopedInstances();
     }
 
     @Override
@@ -108,7 +168,21 @@ public class VaadinSessionScope implements Scope {
     }
 
     public boolean containsInstance(VaadinSession vaadinSession, Object containedInstance) {
-        Map<Key<?>, Object> scopeSet = cache.get(vaadinSession);
-        return scopeSet.containsValue(containedInstance);
+        ScopedInstances scopedInstances = (vaadinSession == null) ? noSession : cache.get(vaadinSession);
+        return scopedInstances != null && scopedInstances.containsInstance(containedInstance);
+    }
+
+    /**
+     * The {@link ScopedInstances} resolved by a thread, with the session which was current when they were resolved.  Both are held weakly, so that
+     * the binding does not defeat the weak keys of the cache
+     */
+    private static class Binding {
+        private final WeakReference<ScopedInstances> instances;
+        private final WeakReference<VaadinSession> session;
+
+        private Binding(VaadinSession session, ScopedInstances instances) {
+            this.session = new WeakReference<>(session);
+            this.instances = new WeakReference<>(instances);
+        }
     }
-}
\ No newline at end of file
+}
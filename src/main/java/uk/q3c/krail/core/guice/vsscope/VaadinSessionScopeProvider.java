@@ -15,55 +15,31 @@ package uk.q3c.krail.core.guice.vsscope;
 import com.google.inject.Key;
 import com.google.inject.Provider;
 import com.vaadin.server.VaadinSession;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.util.Map;
+import uk.q3c.krail.core.guice.ScopedInstances;
 
 /**
+ * Provides instances of a {@link VaadinSessionScoped} binding.  Each provider holds the slot allocated to its Key by {@link VaadinSessionScope}, so
+ * once the current thread is bound to the current session's {@link ScopedInstances}, {@link #get()} is an identity check and an array read
+ *
  * @param <T>
  *
  * @author David Sowerby
  */
 class VaadinSessionScopeProvider<T> implements Provider<T> {
-    private static Logger log = LoggerFactory.getLogger(VaadinSessionScopeProvider.class);
-    private final VaadinSessionScope vaadinSessionScope;
-    private final Key<T> key;
+    private final int slot;
     private final Provider<T> unscoped;
+    private final VaadinSessionScope vaadinSessionScope;
 
     VaadinSessionScopeProvider(VaadinSessionScope vaadinSessionScope, Key<T> key, Provider<T> unscoped) {
         this.vaadinSessionScope = vaadinSessionScope;
-        this.key = key;
         this.unscoped = unscoped;
+        this.slot = vaadinSessionScope.slotFor(key);
     }
 
     @Override
     public T get() {
-        // get the scope cache for the current UI
-        log.debug("looking for a VaadinSessionScoped instance of {}", key.getClass()
-                                                                         .getName());
-
-        // get the current VaadinSession
-        VaadinSession vaadinSession = VaadinSession.getCurrent();
-
-        log.debug("looking for cache for key in current VaadinSession ");
-        Map<Key<?>, Object> scopedObjects = this.vaadinSessionScope.getScopedObjectMap(vaadinSession);
-
-        // retrieve an existing instance if possible
-
-        @SuppressWarnings("unchecked") T current = (T) scopedObjects.get(key);
-
-        if (current != null) {
-            log.debug("returning existing instance of " + current.getClass()
-                                                                 .getSimpleName());
-            return current;
-        }
-
-        // or create the first instance and cache it
-        current = unscoped.get();
-        scopedObjects.put(key, current);
-        log.debug("new instance of {} created, as none in cache", current.getClass()
-                                                                         .getSimpleName());
-        return current;
+        // retrieve an existing instance from the current VaadinSession, or create the first instance and cache it
+        return vaadinSessionScope.currentInstances(VaadinSession.getCurrent())
+                                 .get(slot, unscoped);
     }
 }
@@ -15,6 +15,7 @@ import com.google.inject.Inject;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -49,6 +50,9 @@ import java.util.Map.Entry;
  * </code>
  * <p/>
  * A NavigationState 'a' is equal to NavigationState 'b' if a.getFragment.equals(b.getFragment())
+ * <p/>
+ * An instance returned by {@link #readOnly()} (as the sitemaps do once published) cannot be modified - its setters throw an {@link
+ * UnsupportedOperationException}.  Use {@link #copy()} to obtain a modifiable instance
  *
  * @author David Sowerby
  */
@@ -58,6 +62,7 @@ public class NavigationState implements Serializable {
     private boolean dirty;
     private String fragment;
     private List<String> pathSegments;
+    private boolean readOnly;
     private String virtualPage;
 
     @Inject
@@ -70,6 +75,7 @@ public class NavigationState implements Serializable {
     }
 
     public void setFragment(String fragment) {
+        checkModifiable();
         this.fragment = fragment;
         dirty = false;
     }
@@ -79,6 +85,7 @@ public class NavigationState implements Serializable {
     }
 
     public void setVirtualPage(String virtualPage) {
+        checkModifiable();
         this.virtualPage = virtualPage;
         dirty = true;
     }
@@ -92,11 +99,12 @@ public class NavigationState implements Serializable {
     }
 
     public void setDirty(boolean dirty) {
+        checkModifiable();
         this.dirty = dirty;
     }
 
     public Map<String, String> getParameters() {
-        return parameters;
+        return readOnly ? Collections.unmodifiableMap(parameters) : parameters;
     }
 
     public List<String> getParameterList() {
@@ -116,6 +124,7 @@ public class NavigationState implements Serializable {
     }
 
     public void setPathSegments(List<String> pathSegments) {
+        checkModifiable();
         this.pathSegments = pathSegments;
         dirty = true;
     }
@@ -132,11 +141,13 @@ public class NavigationState implements Serializable {
     }
 
     public void addParameter(String key, String value) {
+        checkModifiable();
         parameters.put(key, value);
         dirty = true;
     }
 
     public void removeParameter(String key) {
+        checkModifiable();
         parameters.remove(key);
     }
 
@@ -179,5 +190,48 @@ public class NavigationState implements Serializable {
         return this;
     }
 
+    private void checkModifiable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("This NavigationState is read only, use copy() to obtain one which can be modified");
+        }
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Returns a read-only copy of this NavigationState, which can be shared without being copied again.  Returns this instance if it is already
+     * read-only
+     *
+     * @return a read-only copy of this NavigationState
+     */
+    public NavigationState readOnly() {
+        if (readOnly) {
+            return this;
+        }
+        NavigationState readOnlyCopy = copy();
+        if (readOnlyCopy.pathSegments != null) {
+            readOnlyCopy.pathSegments = Collections.unmodifiableList(readOnlyCopy.pathSegments);
+        }
+        readOnlyCopy.readOnly = true;
+        return readOnlyCopy;
+    }
+
+    /**
+     * Returns a copy of this NavigationState, which can be modified without affecting the original (even if the original is read-only)
+     *
+     * @return a copy of this NavigationState
+     */
+    public NavigationState copy() {
+        NavigationState copy = new NavigationState();
+        copy.parameters.putAll(parameters);
+        copy.pathSegments = (pathSegments == null) ? null : new ArrayList<>(pathSegments);
+        copy.virtualPage = virtualPage;
+        copy.fragment = fragment;
+        copy.dirty = dirty;
+        return copy;
+    }
+
 
 }
@@ -37,6 +37,8 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
     protected final Map<String, String> redirects = new LinkedHashMap<>();
     protected BasicForest<T> forest;
     private boolean loaded;
+    private volatile SitemapSnapshot<T> snapshot;
+    private volatile int publishedVersion;
 
     protected DefaultSitemapBase(URIFragmentHandler uriHandler) {
         super();
@@ -53,8 +55,14 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
      * @return
      */
     @Override
-    public synchronized T getRootFor(T node) {
-        return forest.getRootFor(node);
+    public T getRootFor(T node) {
+        SitemapSnapshot<T> published = snapshot;
+        if (published != null) {
+            return published.getRootFor(node);
+        }
+        synchronized (this) {
+            return forest.getRootFor(node);
+        }
     }
 
     /**
@@ -66,8 +74,14 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
      * @return
      */
     @Override
-    public synchronized boolean containsNode(T node) {
-        return forest.containsNode(node);
+    public boolean containsNode(T node) {
+        SitemapSnapshot<T> published = snapshot;
+        if (published != null) {
+            return published.containsNode(node);
+        }
+        synchronized (this) {
+            return forest.containsNode(node);
+        }
     }
 
     /**
@@ -78,11 +92,17 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
      * @return
      */
     @Override
-    public synchronized String uri(T node) {
+    public String uri(T node) {
         checkNotNull(node);
-        StringBuilder buf = new StringBuilder(node.getUriSegment());
-        prependParent(node, buf);
-        return buf.toString();
+        SitemapSnapshot<T> published = snapshot;
+        if (published != null) {
+            return published.uri(node);
+        }
+        synchronized (this) {
+            StringBuilder buf = new StringBuilder(node.getUriSegment());
+            prependParent(node, buf);
+            return buf.toString();
+        }
     }
 
     /**
@@ -98,18 +118,30 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
     }
 
     /**
-     * Delegates to {@link BasicForest#getAllNodes()}
+     * Delegates to {@link BasicForest#getAllNodes()}.  Once the sitemap has been published, the snapshot's immutable list is returned
      *
      * @return
      */
     @Override
-    public synchronized List<T> getAllNodes() {
-        return forest.getAllNodes();
+    public List<T> getAllNodes() {
+        SitemapSnapshot<T> published = snapshot;
+        if (published != null) {
+            return published.getAllNodes();
+        }
+        synchronized (this) {
+            return forest.getAllNodes();
+        }
     }
 
     @Override
-    public synchronized List<T> getRoots() {
-        return forest.getRoots();
+    public List<T> getRoots() {
+        SitemapSnapshot<T> published = snapshot;
+        if (published != null) {
+            return published.getRoots();
+        }
+        synchronized (this) {
+            return forest.getRoots();
+        }
     }
 
     /**
@@ -121,8 +153,14 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
      */
 
     @Override
-    public synchronized int getChildCount(T node) {
-        return forest.getChildCount(node);
+    public int getChildCount(T node) {
+        SitemapSnapshot<T> published = snapshot;
+        if (published != null) {
+            return published.getChildCount(node);
+        }
+        synchronized (this) {
+            return forest.getChildCount(node);
+        }
     }
 
     /**
@@ -134,7 +172,7 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
      * @return
      */
     @Override
-    public synchronized boolean hasUri(String uri) {
+    public boolean hasUri(String uri) {
         NavigationState navigationState = uriHandler.navigationState(uri);
         return hasUri(navigationState);
     }
@@ -148,20 +186,35 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
      * @return
      */
     @Override
-    public synchronized boolean hasUri(NavigationState navigationState) {
-        return uriMap.keySet()
-                     .contains(navigationState.getVirtualPage());
+    public boolean hasUri(NavigationState navigationState) {
+        SitemapSnapshot<T> published = snapshot;
+        if (published != null) {
+            return published.hasUri(navigationState.getVirtualPage());
+        }
+        synchronized (this) {
+            return uriMap.keySet()
+                         .contains(navigationState.getVirtualPage());
+        }
     }
 
     /**
-     * Returns a {@link NavigationState} object representing the URI for the {@code node}
+     * Returns a {@link NavigationState} object representing the URI for the {@code node}.  Once the sitemap has been
+     * published, this is a pre-parsed, read-only instance, so the URI is not parsed again - use {@link
+     * NavigationState#copy()} to obtain one which can be modified
      *
      * @param node
      *
      * @return
      */
     @Override
-    public synchronized NavigationState navigationState(T node) {
+    public NavigationState navigationState(T node) {
+        SitemapSnapshot<T> published = snapshot;
+        if (published != null) {
+            NavigationState navigationState = published.navigationState(node);
+            if (navigationState != null) {
+                return navigationState;
+            }
+        }
         return uriHandler.navigationState(uri(node));
     }
 
@@ -171,14 +224,22 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
     }
 
     /**
-     * Returns a {@link PagePermission} object for {@code node}
+     * Returns a {@link PagePermission} object for {@code node}.  Once the sitemap has been published, the same (prepared)
+     * instance is returned for each call
      *
      * @param node
      *
      * @return
      */
     @Override
-    public synchronized PagePermission pagePermission(T node) {
+    public PagePermission pagePermission(T node) {
+        SitemapSnapshot<T> published = snapshot;
+        if (published != null) {
+            PagePermission pagePermission = published.pagePermission(node);
+            if (pagePermission != null) {
+                return pagePermission;
+            }
+        }
         return new PagePermission(navigationState(node));
     }
 
@@ -195,6 +256,7 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
 
     @Override
     public synchronized void removeNode(T node) {
+        snapshot = null;
         String uri = uri(node);
 
         if (node.getLabelKey() instanceof StandardPageKey) {
@@ -217,7 +279,7 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
      * @return
      */
     @Override
-    public synchronized T nodeNearestFor(String uri) {
+    public T nodeNearestFor(String uri) {
         return nodeNearestFor(uriHandler.navigationState(uri));
     }
 
@@ -231,7 +293,17 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
      * @return
      */
     @Override
-    public synchronized T nodeNearestFor(NavigationState navigationState) {
+    public T nodeNearestFor(NavigationState navigationState) {
+        SitemapSnapshot<T> published = snapshot;
+        if (published != null) {
+            return published.nodeNearestFor(navigationState.getPathSegments());
+        }
+        synchronized (this) {
+            return lockedNodeNearestFor(navigationState);
+        }
+    }
+
+    private T lockedNodeNearestFor(NavigationState navigationState) {
         List<String> segments = new ArrayList<>(navigationState.getPathSegments());
         T node = null;
         Joiner joiner = Joiner.on("/");
@@ -244,12 +316,12 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
     }
 
     @Override
-    public synchronized String standardPageURI(StandardPageKey pageKey) {
+    public String standardPageURI(StandardPageKey pageKey) {
         checkNotNull(pageKey);
 
         //can't use the uri method as the standard page keys may not be in the main uri map (which define the full uri by virtue of
         //parent child relationships
-        for (Map.Entry<String, StandardPageKey> entry : uriStandardPages.entrySet()) {
+        for (Map.Entry<String, StandardPageKey> entry : getStandardPageUris().entrySet()) {
 
             if (entry.getValue()
                      .equals(pageKey)) {
@@ -263,21 +335,32 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
     }
 
     @Override
-    public synchronized ImmutableMap<StandardPageKey, T> getStandardPages() {
-        return ImmutableMap.copyOf(standardPages);
+    public ImmutableMap<StandardPageKey, T> getStandardPages() {
+        SitemapSnapshot<T> published = snapshot;
+        if (published != null) {
+            return published.getStandardPages();
+        }
+        synchronized (this) {
+            return ImmutableMap.copyOf(standardPages);
+        }
     }
 
     /**
-     * Delegates to {@link BasicForest#getChildren(Object)}
+     * Delegates to {@link BasicForest#getChildren(Object)}.  Once the sitemap has been published, the snapshot's immutable list is returned
      *
      * @param parentNode
      *
      * @return
      */
     @Override
-    public synchronized List<T> getChildren(T parentNode) {
-        return forest.getChildren(parentNode);
-
+    public List<T> getChildren(T parentNode) {
+        SitemapSnapshot<T> published = snapshot;
+        if (published != null) {
+            return published.getChildren(parentNode);
+        }
+        synchronized (this) {
+            return forest.getChildren(parentNode);
+        }
     }
 
     /**
@@ -288,9 +371,8 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
      * @return
      */
     @Override
-    public synchronized T nodeFor(String uri) {
-        return uriMap.get(uriHandler.navigationState(uri)
-                                    .getVirtualPage());
+    public T nodeFor(String uri) {
+        return nodeFor(uriHandler.navigationState(uri));
     }
 
     /**
@@ -301,11 +383,17 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
      * @return
      */
     @Override
-    public synchronized T nodeFor(NavigationState navigationState) {
+    public T nodeFor(NavigationState navigationState) {
         if (navigationState == null) {
             return null;
         }
-        return uriMap.get(navigationState.getVirtualPage());
+        SitemapSnapshot<T> published = snapshot;
+        if (published != null) {
+            return published.nodeFor(navigationState.getVirtualPage());
+        }
+        synchronized (this) {
+            return uriMap.get(navigationState.getVirtualPage());
+        }
     }
 
     /**
@@ -314,11 +402,17 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
      * @return
      */
     @Override
-    public synchronized T getRedirectNodeFor(T sourceNode) {
-        String sourceUri = uri(sourceNode);
+    public T getRedirectNodeFor(T sourceNode) {
+        SitemapSnapshot<T> published = snapshot;
+        if (published != null) {
+            return published.nodeFor(published.getRedirectPageFor(published.uri(sourceNode)));
+        }
+        synchronized (this) {
+            String sourceUri = uri(sourceNode);
 
-        String redirectPageFor = getRedirectPageFor(sourceUri);
-        return nodeFor(redirectPageFor);
+            String redirectPageFor = getRedirectPageFor(sourceUri);
+            return nodeFor(redirectPageFor);
+        }
     }
 
     /**
@@ -327,9 +421,14 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
      * @return
      */
     @Override
-    public synchronized ImmutableMap<String, String> getRedirects() {
-        return ImmutableMap.copyOf(redirects);
-
+    public ImmutableMap<String, String> getRedirects() {
+        SitemapSnapshot<T> published = snapshot;
+        if (published != null) {
+            return published.getRedirects();
+        }
+        synchronized (this) {
+            return ImmutableMap.copyOf(redirects);
+        }
     }
 
     /**
@@ -344,6 +443,7 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
      */
     @Override
     public synchronized Sitemap<T> addRedirect(String fromPage, String toPage) {
+        snapshot = null;
         redirects.put(fromPage, toPage);
         return this;
     }
@@ -354,13 +454,27 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
      * @return
      */
     @Override
-    public synchronized ImmutableList<String> uris() {
-        return ImmutableList.copyOf(uriMap.keySet());
+    public ImmutableList<String> uris() {
+        SitemapSnapshot<T> published = snapshot;
+        if (published != null) {
+            return published.getUriMap()
+                            .keySet()
+                            .asList();
+        }
+        synchronized (this) {
+            return ImmutableList.copyOf(uriMap.keySet());
+        }
     }
 
     @Override
-    public synchronized int getNodeCount() {
-        return forest.getNodeCount();
+    public int getNodeCount() {
+        SitemapSnapshot<T> published = snapshot;
+        if (published != null) {
+            return published.getNodeCount();
+        }
+        synchronized (this) {
+            return forest.getNodeCount();
+        }
     }
 
     /**
@@ -375,7 +489,7 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
      * @return
      */
     @Override
-    public synchronized List<T> nodeChainForUri(String uri, boolean allowPartialPath) {
+    public List<T> nodeChainForUri(String uri, boolean allowPartialPath) {
         return nodeChainFor(uriHandler.navigationState(uri), allowPartialPath);
     }
 
@@ -392,7 +506,7 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
      * @return a list of {@link SitemapNode} matching the virtual page of the {@code navigationState} provided.
      */
     @Override
-    public synchronized List<T> nodeChainFor(NavigationState navigationState, boolean allowPartialPath) {
+    public List<T> nodeChainFor(NavigationState navigationState, boolean allowPartialPath) {
         List<String> segments = navigationState.getPathSegments();
         List<T> nodeChain = nodeChainForSegments(segments, allowPartialPath);
         return nodeChain;
@@ -411,7 +525,21 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
      */
 
     @Override
-    public synchronized List<T> nodeChainForSegments(List<String> segments, boolean allowPartialPath) {
+    public List<T> nodeChainForSegments(List<String> segments, boolean allowPartialPath) {
+        SitemapSnapshot<T> published = snapshot;
+        if (published != null) {
+            List<T> nodeChain = published.nodeChainForSegments(segments);
+            if ((nodeChain.size() < segments.size()) && !allowPartialPath) {
+                nodeChain.clear();
+            }
+            return nodeChain;
+        }
+        synchronized (this) {
+            return lockedNodeChainForSegments(segments, allowPartialPath);
+        }
+    }
+
+    private List<T> lockedNodeChainForSegments(List<String> segments, boolean allowPartialPath) {
         List<T> nodeChain = new ArrayList<>();
         int i = 0;
         String currentSegment = null;
@@ -463,7 +591,17 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
      * @return
      */
     @Override
-    public synchronized List<T> nodeChainFor(T node) {
+    public List<T> nodeChainFor(T node) {
+        SitemapSnapshot<T> published = snapshot;
+        if (published != null) {
+            return published.nodeChainFor(node);
+        }
+        synchronized (this) {
+            return lockedNodeChainFor(node);
+        }
+    }
+
+    private List<T> lockedNodeChainFor(T node) {
         List<T> nodes = new ArrayList<>();
         nodes.add(node);
         T parent = this.getParent(node);
@@ -482,8 +620,14 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
      * @return
      */
     @Override
-    public synchronized T getParent(T childNode) {
-        return forest.getParent(childNode);
+    public T getParent(T childNode) {
+        SitemapSnapshot<T> published = snapshot;
+        if (published != null) {
+            return published.getParent(childNode);
+        }
+        synchronized (this) {
+            return forest.getParent(childNode);
+        }
     }
 
     /**
@@ -496,7 +640,7 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
      * @return
      */
     @Override
-    public synchronized String getRedirectPageFor(NavigationState navigationState) {
+    public String getRedirectPageFor(NavigationState navigationState) {
         String virtualPage = navigationState.getVirtualPage();
         return getRedirectPageFor(virtualPage);
     }
@@ -510,8 +654,17 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
      * @return
      */
     @Override
-    public synchronized String getRedirectPageFor(String page) {
+    public String getRedirectPageFor(String page) {
+        SitemapSnapshot<T> published = snapshot;
+        if (published != null) {
+            return published.getRedirectPageFor(page);
+        }
+        synchronized (this) {
+            return lockedRedirectPageFor(page);
+        }
+    }
 
+    private String lockedRedirectPageFor(String page) {
         String p = redirects.get(page);
         if (p == null) {
             return page;
@@ -536,6 +689,7 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
     @Override
     public synchronized void addChild(T parentNode, T childNode) {
         checkNotNull(childNode);
+        snapshot = null;
         // add the parent node if not already there
         if ((parentNode != null) && (!containsNode(parentNode))) {
             forest.addNode(parentNode);
@@ -570,7 +724,8 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
     }
 
     @Override
-    public void addStandardPage(T node, String uri) {
+    public synchronized void addStandardPage(T node, String uri) {
+        snapshot = null;
         checkArgument(node.getLabelKey() instanceof StandardPageKey, "Key must be a Standard Page Key");
         StandardPageKey pageKey = (StandardPageKey) node.getLabelKey();
         standardPages.put(pageKey, node);
@@ -578,7 +733,8 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
     }
 
     @Override
-    public void clear() {
+    public synchronized void clear() {
+        snapshot = null;
         forest.clear();
         standardPages.clear();
         uriMap.clear();
@@ -606,7 +762,48 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
      */
     @Override
     public Map<String, T> getUriMap() {
-        return ImmutableMap.copyOf(uriMap);
+        SitemapSnapshot<T> published = snapshot;
+        if (published != null) {
+            return published.getUriMap();
+        }
+        synchronized (this) {
+            return ImmutableMap.copyOf(uriMap);
+        }
+    }
+
+    /**
+     * Takes an immutable {@link SitemapSnapshot} of the current structure and publishes it, so that all subsequent reads
+     * are wait-free and do not contend on this sitemap's monitor.  Intended to be called once loading is complete - any
+     * later structural change discards the snapshot, and reads revert to the synchronized path until this method is
+     * called again
+     */
+    @Override
+    public synchronized void publish() {
+        publishedVersion++;
+        snapshot = new SitemapSnapshot<>(forest, uriHandler, uriMap, redirects, standardPages, uriStandardPages);
+        log.debug("sitemap snapshot published with {} nodes", snapshot.getNodeCount());
+    }
+
+    /**
+     * Discards any published {@link SitemapSnapshot}, for use by sub-classes which modify the structure directly
+     */
+    protected synchronized void discardSnapshot() {
+        snapshot = null;
+    }
+
+    /**
+     * Returns true if a {@link SitemapSnapshot} is currently published - see {@link #publish()}
+     *
+     * @return true if a {@link SitemapSnapshot} is currently published
+     */
+    @Override
+    public boolean isPublished() {
+        return snapshot != null;
+    }
+
+    @Override
+    public int getPublishedVersion() {
+        return (snapshot == null) ? 0 : publishedVersion;
     }
 
     /**
@@ -624,7 +821,7 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
      * @param parentNode
      * @param childNode
      */
-    public void addOrReplaceChild(@Nullable T parentNode, @Nonnull T childNode) {
+    public synchronized void addOrReplaceChild(@Nullable T parentNode, @Nonnull T childNode) {
         checkNotNull(childNode);
         checkArgument(childNode.getId() > 0);
         checkNotNull(childNode.getUriSegment());
@@ -649,9 +846,10 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
      * @param newInstance
      *         the instance to put in place
      */
-    public void replaceNode(@Nonnull T oldInstance, @Nonnull T newInstance) {
+    public synchronized void replaceNode(@Nonnull T oldInstance, @Nonnull T newInstance) {
         checkNotNull(oldInstance);
         checkNotNull(newInstance);
+        snapshot = null;
         forest.replaceNode(oldInstance, newInstance);
         if (oldInstance.getLabelKey() instanceof StandardPageKey) {
             standardPages.remove(oldInstance.getLabelKey());
@@ -680,13 +878,19 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
     }
 
     private boolean isStandardUri(StandardPageKey key, NavigationState navigationState) {
-        T node = standardPageNode(key);
-        return key.equals(uriStandardPages.get(navigationState.getVirtualPage()));
+        return key.equals(getStandardPageUris().get(navigationState.getVirtualPage()));
     }
 
     @Override
-    public synchronized T standardPageNode(StandardPageKey pageKey) {
-        return standardPages.get(pageKey);
+    public T standardPageNode(StandardPageKey pageKey) {
+        SitemapSnapshot<T> published = snapshot;
+        if (published != null) {
+            return published.getStandardPages()
+                            .get(pageKey);
+        }
+        synchronized (this) {
+            return standardPages.get(pageKey);
+        }
     }
 
     /**
@@ -732,6 +936,12 @@ public abstract class DefaultSitemapBase<T extends SitemapNode> implements Sitem
     }
 
     public ImmutableMap<String, StandardPageKey> getStandardPageUris() {
-        return ImmutableMap.copyOf(uriStandardPages);
+        SitemapSnapshot<T> published = snapshot;
+        if (published != null) {
+            return published.getUriStandardPages();
+        }
+        synchronized (this) {
+            return ImmutableMap.copyOf(uriStandardPages);
+        }
     }
 }
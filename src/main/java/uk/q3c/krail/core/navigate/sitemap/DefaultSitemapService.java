@@ -107,6 +107,8 @@ public class DefaultSitemapService extends AbstractServiceI18N implements Sitema
         log.debug("Checking Sitemap, sitemap has {} nodes", sitemap.getNodeCount());
         sitemapFinisher.check();
         log.debug("Sitemap checked, no errors found");
+        // the master sitemap is read-only from here on, publish it for lock free reads
+        sitemap.publish();
     }
 
     /**
@@ -21,11 +21,13 @@ import uk.q3c.krail.core.eventbus.SessionBus;
 import uk.q3c.krail.core.guice.vsscope.VaadinSessionScoped;
 import uk.q3c.krail.core.navigate.URIFragmentHandler;
 import uk.q3c.krail.i18n.CurrentLocale;
+import uk.q3c.krail.i18n.I18NKey;
 import uk.q3c.krail.i18n.LocaleChangeBusMessage;
 import uk.q3c.krail.i18n.Translate;
 
+import java.text.CollationKey;
 import java.text.Collator;
-import java.util.List;
+import java.util.*;
 
 /**
  * The {@link MasterSitemap} provides the overall structure of the site, and is Singleton scoped. This class refines
@@ -58,22 +60,44 @@ public class DefaultUserSitemap extends DefaultSitemapBase<UserSitemapNode> impl
 
 
     /**
-     * Iterates through contained nodes and resets the label and collation key properties to reflect a change in
+     * Resets the label and collation key properties of contained nodes, and standard pages, to reflect a change in
      * {@link CurrentLocale}. There is no need to reload all the nodes, no change of page authorisation is dealt with
-     * here}
+     * here.
+     * <p>
+     * All the labels are translated with a single bulk call, and each distinct label is collated only once.  Labels are
+     * swapped in place, and a single {@link UserSitemapLabelChangeMessage} published containing only the nodes whose
+     * label actually changed - nothing is published if no labels changed.
      */
     @Handler
     public synchronized void localeChanged(LocaleChangeBusMessage busMessage) {
-        log.debug("responding to locale change to {}", busMessage.getNewLocale());
-        List<UserSitemapNode> nodeList = getAllNodes();
-        Collator collator = translate.collator();
+        Locale locale = busMessage.getNewLocale();
+        log.debug("responding to locale change to {}", locale);
+        List<UserSitemapNode> nodeList = new ArrayList<>(getAllNodes());
+        nodeList.addAll(standardPages.values());
+        Set<I18NKey> keys = new HashSet<>();
         for (UserSitemapNode userNode : nodeList) {
-            String label = translate.from(userNode.getMasterNode()
-                                                  .getLabelKey());
-            userNode.setLabel(label);
-            userNode.setCollationKey(collator.getCollationKey(userNode.getLabel()));
+            keys.add(userNode.getLabelKey());
+        }
+        Map<I18NKey, String> labels = translate.fromAll(keys, locale);
+        Collator collator = Collator.getInstance(locale);
+        Map<String, CollationKey> collationKeys = new HashMap<>();
+        List<UserSitemapNode> changedNodes = new ArrayList<>();
+        for (UserSitemapNode userNode : nodeList) {
+            String label = labels.get(userNode.getLabelKey());
+            if (label != null && !label.equals(userNode.getLabel())) {
+                CollationKey collationKey = collationKeys.get(label);
+                if (collationKey == null) {
+                    collationKey = collator.getCollationKey(label);
+                    collationKeys.put(label, collationKey);
+                }
+                userNode.setLabel(label);
+                userNode.setCollationKey(collationKey);
+                changedNodes.add(userNode);
+            }
+        }
+        if (!changedNodes.isEmpty()) {
+            eventBus.publish(new UserSitemapLabelChangeMessage(changedNodes));
         }
-        eventBus.publish(new UserSitemapLabelChangeMessage());
     }
 
 
@@ -111,12 +135,15 @@ public class DefaultUserSitemap extends DefaultSitemapBase<UserSitemapNode> impl
         super.setLoaded(loaded);
         buildUriMap();
         if (loaded) {
+            // structure is complete, index it once rather than on every uri() call
+            publish();
             eventBus.publish(new UserSitemapStructureChangeMessage());
         }
     }
 
     @Override
     public synchronized void buildUriMap() {
+        discardSnapshot();
         uriMap.clear();
         for (UserSitemapNode node : forest.getAllNodes()) {
             uriMap.put(uri(node), node);
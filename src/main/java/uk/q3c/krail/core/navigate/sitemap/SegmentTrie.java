@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.navigate.sitemap;
+
+import com.google.common.base.Splitter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A trie of URI path segments, used to find the node which matches the longest leading part of a URI without joining and
+ * truncating lists of segments.  Populated once, by {@link SitemapSnapshot}, and only read thereafter - it must not be
+ * modified after it has been published
+ *
+ * @param <T>
+ *         the type of node held by the sitemap
+ */
+class SegmentTrie<T> {
+
+    private static final Splitter splitter = Splitter.on('/');
+    private final Map<String, SegmentTrie<T>> children = new HashMap<>();
+    private T value;
+
+    /**
+     * Adds {@code value} at the position given by {@code uri}
+     *
+     * @param uri
+     *         the full URI, with segments separated by '/'
+     * @param value
+     *         the value to hold for {@code uri}
+     */
+    void put(String uri, T value) {
+        SegmentTrie<T> current = this;
+        for (String segment : splitter.split(uri)) {
+            SegmentTrie<T> next = current.children.get(segment);
+            if (next == null) {
+                next = new SegmentTrie<>();
+                current.children.put(segment, next);
+            }
+            current = next;
+        }
+        current.value = value;
+    }
+
+    /**
+     * Returns the value held for the longest leading part of {@code segments}, or null if there is no match at all
+     *
+     * @param segments
+     *         the path segments to match
+     *
+     * @return the value held for the longest leading part of {@code segments}, or null if there is no match at all
+     */
+    T longestMatch(List<String> segments) {
+        T found = null;
+        SegmentTrie<T> current = this;
+        for (int i = 0; i < segments.size(); i++) {
+            current = current.children.get(segments.get(i));
+            if (current == null) {
+                break;
+            }
+            if (current.value != null) {
+                found = current.value;
+            }
+        }
+        return found;
+    }
+}
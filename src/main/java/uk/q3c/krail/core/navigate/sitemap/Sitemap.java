@@ -109,4 +109,25 @@ public interface Sitemap<T extends SitemapNode> {
 
     boolean isPublicHomeUri(@Nonnull NavigationState navigationState);
 
+    /**
+     * Publishes an immutable snapshot of the current structure, so that subsequent reads are wait-free.  Any later
+     * structural change discards the snapshot.
+     */
+    void publish();
+
+    /**
+     * Returns true if an immutable snapshot is currently published
+     *
+     * @return true if an immutable snapshot is currently published
+     */
+    boolean isPublished();
+
+    /**
+     * Returns a number which changes each time a snapshot is published, or 0 if no snapshot is currently published.  Can
+     * be used to detect that a structure derived from this sitemap is out of date
+     *
+     * @return a number which changes each time a snapshot is published, or 0 if no snapshot is currently published
+     */
+    int getPublishedVersion();
+
 }
@@ -15,6 +15,7 @@ package uk.q3c.krail.core.navigate.sitemap;
 import com.google.inject.AbstractModule;
 import uk.q3c.krail.core.navigate.sitemap.comparator.DefaultUserSitemapSorters;
 import uk.q3c.krail.core.navigate.sitemap.comparator.UserSitemapSorters;
+import uk.q3c.krail.core.user.opt.GuavaCacheConfiguration;
 
 public class SitemapModule extends AbstractModule {
 
@@ -25,6 +26,7 @@ public class SitemapModule extends AbstractModule {
         bindService();
         bindLoaders();
         bindChecker();
+        bindUserSitemapCacheConfiguration();
     }
 
     private void bindMasterSitemap() {
@@ -51,4 +53,22 @@ public class SitemapModule extends AbstractModule {
 
     }
 
+    protected void bindUserSitemapCacheConfiguration() {
+        bind(GuavaCacheConfiguration.class).annotatedWith(UserSitemapCacheConfig.class)
+                                           .toInstance(configureUserSitemapCache());
+    }
+
+    /**
+     * Override this to configure the cache of {@link UserSitemapTemplate}s.  Each entry represents a distinct
+     * combination of locale, authentication state and page permissions
+     *
+     * @return the configuration for the user sitemap cache
+     */
+    protected GuavaCacheConfiguration configureUserSitemapCache() {
+        GuavaCacheConfiguration config = new GuavaCacheConfiguration();
+        config.maximumSize(100)
+              .recordStats();
+        return config;
+    }
+
 }
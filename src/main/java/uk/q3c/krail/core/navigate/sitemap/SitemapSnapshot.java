@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.navigate.sitemap;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import uk.q3c.krail.core.navigate.NavigationState;
+import uk.q3c.krail.core.navigate.URIFragmentHandler;
+import uk.q3c.krail.core.shiro.PagePermission;
+import uk.q3c.util.BasicForest;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An immutable, point-in-time copy of the structure held by a {@link DefaultSitemapBase}.  Once a sitemap has been fully
+ * loaded and checked it is effectively read-only, so a snapshot is taken by {@link DefaultSitemapBase#publish()} and
+ * published through a volatile reference.  All reads from a snapshot are wait-free, so that the many UIs reading the
+ * {@link MasterSitemap} do not contend on a single monitor.
+ * <p>
+ * Full URIs are calculated once, when the snapshot is constructed, rather than by walking the parent chain on each call.
+ * URI strings are interned and shared between the node to URI and URI to node indexes.  The {@link NavigationState} and
+ * {@link PagePermission} for each node are also prepared at construction, and the longest match for a partial URI is
+ * found through a {@link SegmentTrie}.
+ * <p>
+ * Lists returned by this class are immutable - {@link DefaultSitemapBase} takes copies where its contract requires a
+ * mutable list
+ *
+ * @param <T>
+ *         the type of node held by the sitemap
+ */
+@Immutable
+public class SitemapSnapshot<T extends SitemapNode> {
+
+    private final ImmutableList<T> allNodes;
+    private final ImmutableListMultimap<T, T> children;
+    private final ImmutableMap<T, String> nodeUris;
+    private final ImmutableMap<T, T> parents;
+    private final ImmutableMap<String, String> redirects;
+    private final ImmutableMap<String, String> resolvedRedirects;
+    private final ImmutableList<T> roots;
+    private final ImmutableMap<StandardPageKey, T> standardPages;
+    private final ImmutableMap<String, T> uriMap;
+    private final ImmutableMap<String, StandardPageKey> uriStandardPages;
+    private final ImmutableMap<T, NavigationState> navigationStates;
+    private final ImmutableMap<T, PagePermission> pagePermissions;
+    private final SegmentTrie<T> trie;
+
+    public SitemapSnapshot(BasicForest<T> forest, URIFragmentHandler uriHandler, Map<String, T> uriMap, Map<String, String> redirects,
+                           Map<StandardPageKey, T> standardPages, Map<String, StandardPageKey> uriStandardPages) {
+        checkNotNull(forest);
+        checkNotNull(uriHandler);
+        this.redirects = ImmutableMap.copyOf(redirects);
+        this.standardPages = ImmutableMap.copyOf(standardPages);
+        this.uriStandardPages = ImmutableMap.copyOf(uriStandardPages);
+        this.roots = ImmutableList.copyOf(forest.getRoots());
+
+        ImmutableList.Builder<T> allNodesBuilder = ImmutableList.builder();
+        ImmutableListMultimap.Builder<T, T> childrenBuilder = ImmutableListMultimap.builder();
+        ImmutableMap.Builder<T, T> parentsBuilder = ImmutableMap.builder();
+        ImmutableMap.Builder<T, String> nodeUrisBuilder = ImmutableMap.builder();
+        for (T root : roots) {
+            index(forest, null, root, root.getUriSegment(), allNodesBuilder, childrenBuilder, parentsBuilder, nodeUrisBuilder);
+        }
+        this.allNodes = allNodesBuilder.build();
+        this.children = childrenBuilder.build();
+        this.parents = parentsBuilder.build();
+        this.nodeUris = nodeUrisBuilder.build();
+        this.resolvedRedirects = resolveRedirects(this.redirects);
+
+        // uri map keys share the interned instances held by nodeUris
+        ImmutableMap.Builder<String, T> uriMapBuilder = ImmutableMap.builder();
+        trie = new SegmentTrie<>();
+        for (Map.Entry<String, T> entry : uriMap.entrySet()) {
+            String uri = entry.getKey()
+                              .intern();
+            uriMapBuilder.put(uri, entry.getValue());
+            trie.put(uri, entry.getValue());
+        }
+        this.uriMap = uriMapBuilder.build();
+
+        ImmutableMap.Builder<T, NavigationState> navigationStatesBuilder = ImmutableMap.builder();
+        ImmutableMap.Builder<T, PagePermission> pagePermissionsBuilder = ImmutableMap.builder();
+        for (Map.Entry<T, String> entry : nodeUris.entrySet()) {
+            NavigationState navigationState = uriHandler.navigationState(entry.getValue())
+                                                        .readOnly();
+            navigationStatesBuilder.put(entry.getKey(), navigationState);
+            pagePermissionsBuilder.put(entry.getKey(), new PagePermission(navigationState));
+        }
+        this.navigationStates = navigationStatesBuilder.build();
+        this.pagePermissions = pagePermissionsBuilder.build();
+    }
+
+    /**
+     * Recursively walks the forest from {@code node}, recording parent / child relationships and the full URI of each
+     * node
+     */
+    private void index(BasicForest<T> forest, T parent, T node, String uri, ImmutableList.Builder<T> allNodesBuilder, ImmutableListMultimap
+            .Builder<T, T> childrenBuilder, ImmutableMap.Builder<T, T> parentsBuilder, ImmutableMap.Builder<T, String> nodeUrisBuilder) {
+        allNodesBuilder.add(node);
+        nodeUrisBuilder.put(node, uri.intern());
+        if (parent != null) {
+            parentsBuilder.put(node, parent);
+        }
+        for (int c = forest.firstChildIndex(forest.indexOf(node)); c != BasicForest.NONE; c = forest.nextSiblingIndex(c)) {
+            T child = forest.nodeAt(c);
+            childrenBuilder.put(node, child);
+            index(forest, node, child, uri + "/" + child.getUriSegment(), allNodesBuilder, childrenBuilder, parentsBuilder, nodeUrisBuilder);
+        }
+    }
+
+    /**
+     * Resolves every redirect to its final target, so that multiple levels of redirect are followed only once.  A
+     * redirect loop is left unresolved - loops are reported by the {@link SitemapFinisher}
+     */
+    private ImmutableMap<String, String> resolveRedirects(Map<String, String> redirects) {
+        Map<String, String> resolved = new HashMap<>();
+        for (String page : redirects.keySet()) {
+            String target = page;
+            String next = redirects.get(target);
+            int hops = 0;
+            while (next != null && hops <= redirects.size()) {
+                target = next;
+                next = redirects.get(target);
+                hops++;
+            }
+            resolved.put(page, target);
+        }
+        return ImmutableMap.copyOf(resolved);
+    }
+
+    public String uri(T node) {
+        String uri = nodeUris.get(node);
+        return (uri == null) ? node.getUriSegment() : uri;
+    }
+
+    /**
+     * Returns the pre-parsed, read-only {@link NavigationState} for {@code node}, or null if {@code node} is not in this
+     * snapshot
+     */
+    public NavigationState navigationState(T node) {
+        return navigationStates.get(node);
+    }
+
+    /**
+     * Returns the {@link PagePermission} for {@code node}, or null if {@code node} is not in this snapshot.
+     */
+    public PagePermission pagePermission(T node) {
+        return pagePermissions.get(node);
+    }
+
+    public T nodeFor(String virtualPage) {
+        return uriMap.get(virtualPage);
+    }
+
+    public boolean hasUri(String virtualPage) {
+        return uriMap.containsKey(virtualPage);
+    }
+
+    /**
+     * Returns the node which matches the most of {@code segments}, or null if there is no match at all
+     */
+    public T nodeNearestFor(List<String> segments) {
+        return trie.longestMatch(segments);
+    }
+
+    /**
+     * Returns the longest chain of nodes which matches {@code segments}, starting from a root
+     */
+    public List<T> nodeChainForSegments(List<String> segments) {
+        List<T> nodeChain = new ArrayList<>();
+        List<T> candidates = roots;
+        for (String segment : segments) {
+            T found = null;
+            for (T candidate : candidates) {
+                if (candidate.getUriSegment()
+                             .equals(segment)) {
+                    found = candidate;
+                    break;
+                }
+            }
+            if (found == null) {
+                break;
+            }
+            nodeChain.add(found);
+            candidates = children.get(found);
+        }
+        return nodeChain;
+    }
+
+    public List<T> nodeChainFor(T node) {
+        List<T> nodes = new ArrayList<>();
+        T current = node;
+        while (current != null) {
+            nodes.add(0, current);
+            current = parents.get(current);
+        }
+        return nodes;
+    }
+
+    public ImmutableList<T> getChildren(T parentNode) {
+        return children.get(parentNode);
+    }
+
+    public int getChildCount(T parentNode) {
+        return children.get(parentNode)
+                       .size();
+    }
+
+    public T getParent(T childNode) {
+        return parents.get(childNode);
+    }
+
+    public T getRootFor(T node) {
+        if (node == null) {
+            return null;
+        }
+        T current = node;
+        T parent = parents.get(current);
+        while (parent != null) {
+            current = parent;
+            parent = parents.get(current);
+        }
+        return current;
+    }
+
+    public boolean containsNode(T node) {
+        return nodeUris.containsKey(node);
+    }
+
+    public String getRedirectPageFor(String page) {
+        String target = resolvedRedirects.get(page);
+        return (target == null) ? page : target;
+    }
+
+    public ImmutableList<T> getAllNodes() {
+        return allNodes;
+    }
+
+    public ImmutableList<T> getRoots() {
+        return roots;
+    }
+
+    public int getNodeCount() {
+        return allNodes.size();
+    }
+
+    public ImmutableMap<String, String> getRedirects() {
+        return redirects;
+    }
+
+    public ImmutableMap<StandardPageKey, T> getStandardPages() {
+        return standardPages;
+    }
+
+    public ImmutableMap<String, StandardPageKey> getUriStandardPages() {
+        return uriStandardPages;
+    }
+
+    public ImmutableMap<String, T> getUriMap() {
+        return uriMap;
+    }
+}
@@ -18,23 +18,56 @@ import org.slf4j.LoggerFactory;
 import uk.q3c.krail.core.guice.vsscope.VaadinSessionScoped;
 import uk.q3c.krail.core.shiro.SubjectProvider;
 import uk.q3c.krail.core.user.status.UserStatusBusMessage;
+import uk.q3c.krail.i18n.CurrentLocale;
+import uk.q3c.krail.i18n.PatternGeneration;
 import uk.q3c.util.SourceTreeWrapper_BasicForest;
 import uk.q3c.util.TargetTreeWrapper_BasicForest;
 import uk.q3c.util.TreeCopy;
 
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Builds the {@link UserSitemap} for a session by copying those nodes of the {@link MasterSitemap} which the user is
+ * allowed to see.  Once the master sitemap has been published, the result of each copy is held as a {@link
+ * UserSitemapTemplate} in the application wide {@link UserSitemapTemplateCache}, and users with the same locale,
+ * authentication state and permitted pages are built from that template instead of repeating the copy.  When there is
+ * no template, the user sitemap is built directly from the set of permitted nodes already found for the key, so each
+ * node's permissions are checked only once per build.
+ * <p>
+ * The cache is bypassed, and a private copy always made, if either the {@link UserSitemapNodeModifier} or {@link
+ * UserSitemapCopyExtension} opts out through {@code isTemplateCacheable()} - a sub-class should do so if its
+ * customisation depends on something other than the elements of {@link UserSitemapTemplateKey}
+ */
 @VaadinSessionScoped
 @Listener
 public class UserSitemapBuilder {
     private static Logger log = LoggerFactory.getLogger(UserSitemapBuilder.class);
     private final TreeCopy<MasterSitemapNode, UserSitemapNode> treeCopy;
     private final UserSitemap userSitemap;
+    private final MasterSitemap masterSitemap;
+    private final UserSitemapNodeModifier nodeModifier;
+    private final UserSitemapCopyExtension copyExtension;
+    private final UserSitemapTemplateCache templateCache;
+    private final CurrentLocale currentLocale;
+    private final PatternGeneration patternGeneration;
     private SubjectProvider subjectProvider;
 
     @Inject
-    protected UserSitemapBuilder(MasterSitemap masterSitemap, UserSitemap userSitemap, UserSitemapNodeModifier nodeModifier, UserSitemapCopyExtension copyExtension, SubjectProvider subjectProvider) {
+    protected UserSitemapBuilder(MasterSitemap masterSitemap, UserSitemap userSitemap, UserSitemapNodeModifier nodeModifier, UserSitemapCopyExtension
+            copyExtension, SubjectProvider subjectProvider, UserSitemapTemplateCache templateCache, CurrentLocale currentLocale, PatternGeneration
+            patternGeneration) {
 
+        this.masterSitemap = masterSitemap;
         this.userSitemap = userSitemap;
+        this.nodeModifier = nodeModifier;
+        this.copyExtension = copyExtension;
         this.subjectProvider = subjectProvider;
+        this.templateCache = templateCache;
+        this.currentLocale = currentLocale;
+        this.patternGeneration = patternGeneration;
         TargetTreeWrapper_BasicForest<MasterSitemapNode, UserSitemapNode> target = new TargetTreeWrapper_BasicForest<>(userSitemap.getForest());
         target.setNodeModifier(nodeModifier);
         SourceTreeWrapper_BasicForest<MasterSitemapNode> source = new SourceTreeWrapper_BasicForest<>(masterSitemap.getForest());
@@ -61,10 +94,75 @@ public class UserSitemapBuilder {
         log.debug("building or rebuilding the map, user status is {}", subjectProvider.get()
                                                                                       .isAuthenticated());
         if (!userSitemap.isLoaded()) {
-            treeCopy.copy();
+            BitSet accepted = acceptedNodes();
+            if (accepted == null) {
+                treeCopy.copy();
+            } else {
+                UserSitemapTemplateKey key = new UserSitemapTemplateKey(currentLocale.getLocale(), subjectProvider.get()
+                                                                                                              .isAuthenticated(),
+                        masterSitemap.getPublishedVersion(), patternGeneration.current(), accepted);
+                UserSitemapTemplate template = templateCache.get(key);
+                if (template != null) {
+                    log.debug("building from cached template for {}", key);
+                    template.applyTo(userSitemap);
+                } else {
+                    copyAccepted(accepted);
+                    templateCache.put(key, UserSitemapTemplate.capture(userSitemap, masterSitemap));
+                }
+            }
             userSitemap.setLoaded(true);
         }
     }
 
+    /**
+     * Returns the ids of the master nodes this user may see, or null if the result should not be cached.  The nodes
+     * are found by the same traversal as the tree copy - children are only considered if their parent is accepted.
+     */
+    protected BitSet acceptedNodes() {
+        if (masterSitemap.getPublishedVersion() == 0 || !nodeModifier.isTemplateCacheable() || !copyExtension.isTemplateCacheable()) {
+            return null;
+        }
+        BitSet accepted = new BitSet();
+        for (MasterSitemapNode root : masterSitemap.getRoots()) {
+            accept(root, accepted);
+        }
+        return accepted;
+    }
+
+    private void accept(MasterSitemapNode masterNode, BitSet accepted) {
+        if (nodeModifier.accepts(masterNode)) {
+            accepted.set(masterNode.getId());
+            for (MasterSitemapNode child : masterSitemap.getChildren(masterNode)) {
+                accept(child, accepted);
+            }
+        }
+    }
+
+    /**
+     * Equivalent to {@link TreeCopy#copy()}, but takes the nodes to copy from {@code accepted} instead of checking
+     * each of them again
+     */
+    private void copyAccepted(BitSet accepted) {
+        copyAccepted(null, masterSitemap.getRoots(), accepted);
+        copyExtension.complete();
+    }
+
+    private void copyAccepted(UserSitemapNode parentNode, List<MasterSitemapNode> masterNodes, BitSet accepted) {
+        // sorted by collation key, as TreeCopy does by default
+        Map<UserSitemapNode, MasterSitemapNode> children = new TreeMap<>();
+        for (MasterSitemapNode masterNode : masterNodes) {
+            if (accepted.get(masterNode.getId())) {
+                children.put(nodeModifier.createNode(masterNode), masterNode);
+            }
+        }
+        for (UserSitemapNode child : children.keySet()) {
+            userSitemap.getForest()
+                       .addChild(parentNode, child);
+        }
+        for (Map.Entry<UserSitemapNode, MasterSitemapNode> entry : children.entrySet()) {
+            copyAccepted(entry.getKey(), masterSitemap.getChildren(entry.getValue()), accepted);
+        }
+    }
+
 
 }
@@ -52,10 +52,27 @@ public class UserSitemapCopyExtension implements TreeCopyExtension<MasterSitemap
     public void invoke(SourceTreeWrapper<MasterSitemapNode> source, TargetTreeWrapper<MasterSitemapNode, UserSitemapNode> target, Map<MasterSitemapNode,
             UserSitemapNode> nodeMap) {
         log.debug("invoked");
+        complete();
+
+    }
+
+    /**
+     * Returns true if the result of {@link #complete()} depends only on the elements of a {@link UserSitemapTemplateKey},
+     * so that {@link UserSitemapBuilder} may share it between users through the {@link UserSitemapTemplateCache}.
+     * Override to return false if a sub-class completes the sitemap according to anything else
+     */
+    public boolean isTemplateCacheable() {
+        return true;
+    }
+
+    /**
+     * Completes the {@link UserSitemap} once its nodes have been added - builds the uri map, and copies the standard
+     * pages and redirects from the {@link MasterSitemap}
+     */
+    public void complete() {
         userSitemap.buildUriMap();
         copyStandardPages();
         loadRedirects();
-
     }
 
     /**
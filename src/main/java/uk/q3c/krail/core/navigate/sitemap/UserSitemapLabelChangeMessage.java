@@ -11,13 +11,33 @@
 
 package uk.q3c.krail.core.navigate.sitemap;
 
+import com.google.common.collect.ImmutableList;
 import uk.q3c.krail.core.eventbus.BusMessage;
 
+import java.util.List;
+
 /**
- * Published when only the labels have changed - this typically happens as a result of switching Locale.
+ * Published when only the labels have changed - this typically happens as a result of switching Locale.  Carries the
+ * nodes whose labels actually changed, so that navigation components can update just those items rather than rebuild.
+ * The structure of the {@link UserSitemap} is unchanged.
  * <p>
  * <p>
  * Created by David Sowerby on 13/03/15.
  */
 public class UserSitemapLabelChangeMessage implements BusMessage {
+
+    private final ImmutableList<UserSitemapNode> changedNodes;
+
+    public UserSitemapLabelChangeMessage(List<UserSitemapNode> changedNodes) {
+        this.changedNodes = ImmutableList.copyOf(changedNodes);
+    }
+
+    /**
+     * The nodes whose label (and therefore collation key) has changed
+     *
+     * @return the nodes whose label (and therefore collation key) has changed
+     */
+    public ImmutableList<UserSitemapNode> getChangedNodes() {
+        return changedNodes;
+    }
 }
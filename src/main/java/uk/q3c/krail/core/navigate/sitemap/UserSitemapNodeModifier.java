@@ -67,9 +67,52 @@ public class UserSitemapNodeModifier implements NodeModifier<MasterSitemapNode,
     public UserSitemapNode create(UserSitemapNode parentUserNode, MasterSitemapNode masterNode) {
 
         log.debug("creating a node for master node {}", masterNode);
+        if (accepts(masterNode)) {
+            return createNode(masterNode);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Returns true if the nodes created by this modifier depend only on the elements of a {@link UserSitemapTemplateKey},
+     * so that {@link UserSitemapBuilder} may share them between users through the {@link UserSitemapTemplateCache}.
+     * Override to return false if a sub-class creates or accepts nodes according to anything else
+     */
+    public boolean isTemplateCacheable() {
+        return true;
+    }
+
+    /**
+     * Creates a translated user node for {@code masterNode} without checking whether it is accepted - used when
+     * {@link #accepts(MasterSitemapNode)} has already been called for it
+     *
+     * @param masterNode
+     *         the node to create a user node for
+     *
+     * @return a new user node with label and collation key set for the current locale
+     */
+    public UserSitemapNode createNode(MasterSitemapNode masterNode) {
+        UserSitemapNode userNode = new UserSitemapNode(masterNode);
+        userNode.setLabel(translate.from(masterNode.getLabelKey()));
+        userNode.setCollationKey(collator.getCollationKey(userNode.getLabel()));
+        return userNode;
+    }
+
+    /**
+     * Returns true if {@link #create(UserSitemapNode, MasterSitemapNode)} would create a user node for {@code
+     * masterNode} - that is, it has a label key, it is not the login page for an authenticated Subject, and the Subject
+     * is authorised to see it
+     *
+     * @param masterNode
+     *         the node to check
+     *
+     * @return true if a user node would be created for {@code masterNode}
+     */
+    public boolean accepts(MasterSitemapNode masterNode) {
         // if there is no labelKey (usually when page is redirected), cannot be shown
         if (masterNode.getLabelKey() == null) {
-            return null;
+            return false;
         }
 
         // if the subject is already authenticated, don't show the login page
@@ -77,18 +120,15 @@ public class UserSitemapNodeModifier implements NodeModifier<MasterSitemapNode,
                            .isAuthenticated()) {
             if (masterNode.equals(masterSitemap.standardPageNode(StandardPageKey.Log_In))) {
                 log.debug("User has already authenticated, do not show the login node");
-                return null;
+                return false;
             }
         }
         if (pageAccessController.isAuthorised(subjectProvider.get(), masterNode)) {
-            log.debug("User is authorised for page {}, creating a node for it", masterSitemap.uri(masterNode));
-            UserSitemapNode userNode = new UserSitemapNode(masterNode);
-            userNode.setLabel(translate.from(masterNode.getLabelKey()));
-            userNode.setCollationKey(collator.getCollationKey(userNode.getLabel()));
-            return userNode;
+            log.debug("User is authorised for page {}", masterSitemap.uri(masterNode));
+            return true;
         } else {
-            log.debug("User is NOT authorised for page {}, returning null", masterSitemap.uri(masterNode));
-            return null;
+            log.debug("User is NOT authorised for page {}", masterSitemap.uri(masterNode));
+            return false;
         }
     }
 
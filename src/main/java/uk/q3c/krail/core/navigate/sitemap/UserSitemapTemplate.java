@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.navigate.sitemap;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import uk.q3c.util.BasicForest;
+
+import javax.annotation.concurrent.Immutable;
+import java.text.CollationKey;
+import java.util.Map;
+
+/**
+ * An immutable record of the structure, labels and collation keys of a fully built {@link UserSitemap}, held by {@link
+ * UserSitemapTemplateCache} so that users who would be given identical user sitemaps do not each repeat the copy,
+ * translation and collation of the {@link MasterSitemap}.
+ * <p>
+ * {@link UserSitemapNode} is mutable (labels change with locale) and is referenced by session-scoped components, so the
+ * nodes themselves cannot be shared.  Instead {@link #applyTo(UserSitemap)} creates new, lightweight nodes which share
+ * the label strings and {@link CollationKey}s held here.
+ */
+@Immutable
+public class UserSitemapTemplate {
+
+    private final ImmutableList<Entry> nodes;
+    private final ImmutableMap<String, String> redirects;
+    private final ImmutableMap<StandardPageKey, StandardPageEntry> standardPages;
+
+    private UserSitemapTemplate(ImmutableList<Entry> nodes, ImmutableMap<StandardPageKey, StandardPageEntry> standardPages, ImmutableMap<String,
+            String> redirects) {
+        this.nodes = nodes;
+        this.standardPages = standardPages;
+        this.redirects = redirects;
+    }
+
+    /**
+     * Captures a template from a fully built {@code userSitemap}.  Parents are always recorded before their children.
+     *
+     * @param userSitemap
+     *         the user sitemap to capture
+     * @param masterSitemap
+     *         the master sitemap from which {@code userSitemap} was built, used to identify standard page URIs
+     *
+     * @return a template from which an identical user sitemap can be created
+     */
+    public static UserSitemapTemplate capture(UserSitemap userSitemap, MasterSitemap masterSitemap) {
+        BasicForest<UserSitemapNode> forest = userSitemap.getForest();
+        ImmutableList.Builder<Entry> nodesBuilder = ImmutableList.builder();
+        int position = 0;
+        for (int r = forest.firstRootIndex(); r != BasicForest.NONE; r = forest.nextSiblingIndex(r)) {
+            position = capture(forest, r, -1, position, nodesBuilder);
+        }
+
+        ImmutableMap.Builder<StandardPageKey, StandardPageEntry> standardPagesBuilder = ImmutableMap.builder();
+        for (Map.Entry<StandardPageKey, UserSitemapNode> entry : userSitemap.getStandardPages()
+                                                                            .entrySet()) {
+            UserSitemapNode node = entry.getValue();
+            standardPagesBuilder.put(entry.getKey(), new StandardPageEntry(node, masterSitemap.uri(node.getMasterNode())));
+        }
+        return new UserSitemapTemplate(nodesBuilder.build(), standardPagesBuilder.build(), ImmutableMap.copyOf(userSitemap.getRedirects()));
+    }
+
+    /**
+     * Records the node at {@code index} at {@code position}, followed by its descendants, and returns the next free
+     * position
+     */
+    private static int capture(BasicForest<UserSitemapNode> forest, int index, int parentPosition, int position, ImmutableList
+            .Builder<Entry> nodesBuilder) {
+        nodesBuilder.add(new Entry(forest.nodeAt(index), parentPosition));
+        int next = position + 1;
+        for (int c = forest.firstChildIndex(index); c != BasicForest.NONE; c = forest.nextSiblingIndex(c)) {
+            next = capture(forest, c, position, next, nodesBuilder);
+        }
+        return next;
+    }
+
+    /**
+     * Populates {@code userSitemap}, which is expected to be empty, with new nodes matching this template.  The caller
+     * is responsible for calling {@link UserSitemap#setLoaded(boolean)} afterwards.
+     *
+     * @param userSitemap
+     *         the user sitemap to populate
+     */
+    public void applyTo(UserSitemap userSitemap) {
+        BasicForest<UserSitemapNode> forest = userSitemap.getForest();
+        UserSitemapNode[] created = new UserSitemapNode[nodes.size()];
+        for (int i = 0; i < created.length; i++) {
+            Entry entry = nodes.get(i);
+            UserSitemapNode node = entry.newNode();
+            created[i] = node;
+            forest.addChild((entry.parent < 0) ? null : created[entry.parent], node);
+        }
+        userSitemap.buildUriMap();
+        for (Map.Entry<StandardPageKey, StandardPageEntry> entry : standardPages.entrySet()) {
+            StandardPageEntry page = entry.getValue();
+            userSitemap.addStandardPage(page.newNode(), page.uri);
+        }
+        for (Map.Entry<String, String> entry : redirects.entrySet()) {
+            userSitemap.addRedirect(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public int getNodeCount() {
+        return nodes.size();
+    }
+
+    /**
+     * A single node of the template, with the position of its parent in {@link #nodes}, or -1 for a root
+     */
+    @Immutable
+    private static class Entry {
+        final CollationKey collationKey;
+        final String label;
+        final MasterSitemapNode masterNode;
+        final int parent;
+        final int positionIndex;
+
+        Entry(UserSitemapNode node, int parent) {
+            this.masterNode = node.getMasterNode();
+            this.label = node.getLabel();
+            this.collationKey = node.getCollationKey();
+            this.positionIndex = node.getPositionIndex();
+            this.parent = parent;
+        }
+
+        UserSitemapNode newNode() {
+            UserSitemapNode node = new UserSitemapNode(masterNode);
+            node.setLabel(label);
+            node.setCollationKey(collationKey);
+            node.setPositionIndex(positionIndex);
+            return node;
+        }
+    }
+
+    @Immutable
+    private static class StandardPageEntry extends Entry {
+        final String uri;
+
+        StandardPageEntry(UserSitemapNode node, String uri) {
+            super(node, -1);
+            this.uri = uri;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.navigate.sitemap;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import uk.q3c.krail.core.user.opt.GuavaCacheConfiguration;
+
+/**
+ * Application wide cache of {@link UserSitemapTemplate}s, so that users with the same locale, authentication state and
+ * page permissions share the result of building a user sitemap.  Configured by the {@link GuavaCacheConfiguration}
+ * annotated with {@link UserSitemapCacheConfig}, see {@link SitemapModule#configureUserSitemapCache()}.
+ * <p>
+ * Entries are keyed by {@link UserSitemapTemplateKey}, which includes the published version of the {@link MasterSitemap},
+ * and the {@link uk.q3c.krail.i18n.PatternGeneration}, so re-publishing the master sitemap or changing I18N patterns makes
+ * existing entries (which hold translated labels) unreachable; they are then evicted by the cache in the normal way.
+ */
+@Singleton
+public class UserSitemapTemplateCache {
+
+    private final Cache<UserSitemapTemplateKey, UserSitemapTemplate> cache;
+
+    @Inject
+    protected UserSitemapTemplateCache(@UserSitemapCacheConfig GuavaCacheConfiguration cacheConfiguration) {
+        cache = cacheConfiguration.builder()
+                                  .build();
+    }
+
+    /**
+     * Returns the template for {@code key}, or null if there is none
+     */
+    public UserSitemapTemplate get(UserSitemapTemplateKey key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(UserSitemapTemplateKey key, UserSitemapTemplate template) {
+        cache.put(key, template);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
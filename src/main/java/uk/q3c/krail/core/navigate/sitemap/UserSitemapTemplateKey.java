@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.navigate.sitemap;
+
+import javax.annotation.concurrent.Immutable;
+import uk.q3c.krail.i18n.PatternGeneration;
+
+import java.util.BitSet;
+import java.util.Locale;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Identifies a {@link UserSitemapTemplate}.  Two users with the same key would be given identical user sitemaps - they
+ * use the same locale, have the same authentication state, are permitted to see exactly the same set of master nodes
+ * (identified by node id), and neither the master sitemap has been re-published nor the I18N patterns changed (see {@link PatternGeneration}) in
+ * between.
+ */
+@Immutable
+public class UserSitemapTemplateKey {
+
+    private final BitSet acceptedNodes;
+    private final boolean authenticated;
+    private final int hash;
+    private final Locale locale;
+    private final int masterVersion;
+    private final int patternGeneration;
+
+    public UserSitemapTemplateKey(Locale locale, boolean authenticated, int masterVersion, int patternGeneration, BitSet acceptedNodes) {
+        checkNotNull(locale);
+        checkNotNull(acceptedNodes);
+        this.locale = locale;
+        this.authenticated = authenticated;
+        this.masterVersion = masterVersion;
+        this.patternGeneration = patternGeneration;
+        this.acceptedNodes = (BitSet) acceptedNodes.clone();
+        int h = locale.hashCode();
+        h = 31 * h + (authenticated ? 1 : 0);
+        h = 31 * h + masterVersion;
+        h = 31 * h + patternGeneration;
+        h = 31 * h + this.acceptedNodes.hashCode();
+        this.hash = h;
+    }
+
+    public Locale getLocale() {
+        return locale;
+    }
+
+    public boolean isAuthenticated() {
+        return authenticated;
+    }
+
+    public int getMasterVersion() {
+        return masterVersion;
+    }
+
+    public int getPatternGeneration() {
+        return patternGeneration;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UserSitemapTemplateKey)) {
+            return false;
+        }
+        UserSitemapTemplateKey that = (UserSitemapTemplateKey) o;
+        return hash == that.hash && authenticated == that.authenticated && masterVersion == that.masterVersion && patternGeneration == that.patternGeneration && locale.equals(that
+                .locale) && acceptedNodes.equals(that.acceptedNodes);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "UserSitemapTemplateKey{locale=" + locale + ", authenticated=" + authenticated + ", masterVersion=" + masterVersion + ", patternGeneration=" + patternGeneration + ", " +
+                "acceptedNodes=" + acceptedNodes.cardinality() + '}';
+    }
+}
@@ -13,6 +13,8 @@ package uk.q3c.krail.core.push;
 
 import uk.q3c.krail.core.ui.ScopedUI;
 
+import java.util.List;
+
 /**
  * Implementations 'broadcast' messages to registered {@link Broadcaster.BroadcastListener}s. using Vaadin Server Push.  {@link ScopedUI} implements {@link
  * Broadcaster.BroadcastListener}, so any UIs sub-classed from it will listen for broadcast messages.
@@ -30,5 +32,17 @@ public interface Broadcaster {
 
     interface BroadcastListener {
         void receiveBroadcast(String group, String message);
+
+        /**
+         * Receives several messages in one call, in the order they were broadcast.  By default, calls {@link #receiveBroadcast(String, String)} for
+         * each message - override to handle the batch in one step, as {@link ScopedUI} does to make a single {@link com.vaadin.ui.UI#access} call
+         *
+         * @param messages the messages
+         */
+        default void receiveBroadcasts(List<PushMessage> messages) {
+            for (PushMessage message : messages) {
+                receiveBroadcast(message.getGroup(), message.getMessage());
+            }
+        }
     }
 }
@@ -11,6 +11,10 @@
 
 package uk.q3c.krail.core.push;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.MapMaker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import org.slf4j.Logger;
@@ -18,48 +22,71 @@ import org.slf4j.LoggerFactory;
 import uk.q3c.krail.core.config.ApplicationConfiguration;
 import uk.q3c.krail.core.config.ConfigKeys;
 
+import javax.annotation.concurrent.ThreadSafe;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Default implementation of {@link Broadcaster}.  Listener groups are copy-on-write lists, so registration does not block a broadcast in progress, and
+ * a broadcast does not block anything.
+ * <p>
+ * Each listener is assigned to one of a fixed number of delivery lanes, each of which is a single thread with a bounded queue.  The number of lanes
+ * and the size of each queue are set by {@link ConfigKeys#SERVER_PUSH_THREADS} and {@link ConfigKeys#SERVER_PUSH_QUEUE_SIZE}.  A slow listener
+ * therefore delays only the listeners in the same lane, and all messages for a listener are delivered in order.
+ * <p>
+ * Messages wait for delivery, in order, in a mailbox for each listener.  A listener has at most one delivery queued at a time, so a burst of messages
+ * is coalesced into a single delivery of all of them, through {@link BroadcastListener#receiveBroadcasts(List)} - every message is delivered, but
+ * a UI needs only one {@code UI.access} call for the burst.  Messages are dropped only on overflow: if its lane's queue is full, or if a mailbox
+ * already holds as many messages as a lane's queue, the oldest waiting message is dropped.  The counts of delivered, coalesced and dropped
+ * messages, and the number of queued deliveries, are available for monitoring.
+ * <p>
+ * {@link ConfigKeys#SERVER_PUSH_ENABLED} is read at most once a second, rather than for every broadcast
+ */
 @Singleton
+@ThreadSafe
 public class DefaultBroadcaster implements Broadcaster {
 
+    public static final int DEFAULT_QUEUE_SIZE = 1000;
     private static Logger log = LoggerFactory.getLogger(DefaultBroadcaster.class);
-    private final ExecutorService executorService;
-    private final Map<String, List<BroadcastListener>> groups = new HashMap<>();
-    private final List<BroadcastListener> allGroup = new ArrayList<>();
+    private final CopyOnWriteArrayList<BroadcastListener> allGroup = new CopyOnWriteArrayList<>();
     private final ApplicationConfiguration applicationConfiguration;
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final ConcurrentMap<String, CopyOnWriteArrayList<BroadcastListener>> groups = new ConcurrentHashMap<>();
+    // listeners are held weakly, so a UI which is discarded without unregistering does not leave its mailbox behind
+    private final ConcurrentMap<BroadcastListener, Mailbox> mailboxes = new MapMaker().weakKeys()
+                                                                                      .makeMap();
+    private final Supplier<Boolean> pushEnabled;
+    private volatile ThreadPoolExecutor[] lanes;
+    private volatile int queueSize = DEFAULT_QUEUE_SIZE;
 
     @Inject
     protected DefaultBroadcaster(ApplicationConfiguration applicationConfiguration) {
         this.applicationConfiguration = applicationConfiguration;
-        executorService = Executors.newSingleThreadExecutor();
+        pushEnabled = Suppliers.memoizeWithExpiration(() -> applicationConfiguration.getBoolean(ConfigKeys.SERVER_PUSH_ENABLED, true), 1, TimeUnit
+                .SECONDS);
     }
 
     /**
      * Register a listener to receive messages for {@code group}. If you want the listener to receive all messages call with {@code group}= {@link
-     * DefaultPushMessageRouter#ALL_MESSAGES}. If you want to register for more than one group, make multiple calls.`
+     * DefaultPushMessageRouter#ALL_MESSAGES}. If you want to register for more than one group, make multiple calls.  Registering the same listener
+     * for the same group more than once has no further effect
      *
      * @param group the group to listen to
      * @param listener the lsitener that wants to receive messages for this group
      */
     @Override
-    public synchronized Broadcaster register(String group, BroadcastListener listener) {
+    public Broadcaster register(String group, BroadcastListener listener) {
         log.debug("adding listener: {}", listener.getClass()
                                                  .getName());
-        if (group == ALL_MESSAGES) {
-            allGroup.add(listener);
+        if (ALL_MESSAGES.equals(group)) {
+            allGroup.addIfAbsent(listener);
         } else {
-            List<BroadcastListener> listenerGroup = groups.get(group);
-            if (listenerGroup == null) {
-                listenerGroup = new ArrayList<>();
-                groups.put(group, listenerGroup);
-            }
-            listenerGroup.add(listener);
+            groups.computeIfAbsent(group, g -> new CopyOnWriteArrayList<>())
+                  .addIfAbsent(listener);
         }
         return this;
     }
@@ -68,8 +95,8 @@ public class DefaultBroadcaster implements Broadcaster {
      * Unregister a listener to receive messages for {@code group}.
      */
     @Override
-    public synchronized Broadcaster unregister(String group, BroadcastListener listener) {
-        if (group == ALL_MESSAGES) {
+    public Broadcaster unregister(String group, BroadcastListener listener) {
+        if (ALL_MESSAGES.equals(group)) {
             allGroup.remove(listener);
         } else {
             List<BroadcastListener> listenerGroup = groups.get(group);
@@ -81,35 +108,157 @@ public class DefaultBroadcaster implements Broadcaster {
     }
 
     /**
-     * Send a message to registered listeners
-     *  @param group the message group
+     * Send a message to registered listeners.  This returns once the message has been posted to each listener's mailbox - delivery is asynchronous
+     *
+     * @param group the message group
      * @param message the message
      */
     @Override
-    public synchronized Broadcaster broadcast(final String group, final String message) {
-        if (applicationConfiguration.getBoolean(ConfigKeys.SERVER_PUSH_ENABLED, true)) {
+    public Broadcaster broadcast(final String group, final String message) {
+        if (pushEnabled.get()) {
             log.debug("broadcasting message: {}", message);
             List<BroadcastListener> listenerGroup = groups.get(group);
             if (listenerGroup != null) {
-                for (final BroadcastListener listener : listenerGroup)
-                    executorService.execute(new Runnable() {
-                        @Override
-                        public void run() {
-                            listener.receiveBroadcast(group, message);
-                        }
-                    });
+                for (BroadcastListener listener : listenerGroup) {
+                    post(listener, group, message);
+                }
+            }
+            for (BroadcastListener listener : allGroup) {
+                post(listener, group, message);
             }
-            for (final BroadcastListener listener : allGroup)
-                executorService.execute(new Runnable() {
-                    @Override
-                    public void run() {
-                        listener.receiveBroadcast(group, message);
-                    }
-                });
         } else {
             log.debug("server push is disabled, message not broadcast");
         }
         return this;
     }
 
+    private void post(BroadcastListener listener, String group, String message) {
+        ThreadPoolExecutor[] currentLanes = lanes();
+        Mailbox mailbox = mailboxes.computeIfAbsent(listener, l -> new Mailbox());
+        if (mailbox.post(new PushMessage(group, message), queueSize)) {
+            int lane = (System.identityHashCode(listener) & Integer.MAX_VALUE) % currentLanes.length;
+            try {
+                currentLanes[lane].execute(() -> mailbox.deliverTo(listener));
+            } catch (RejectedExecutionException e) {
+                int discarded = mailbox.discard();
+                dropped.addAndGet(discarded);
+                log.warn("Broadcast queue is full, {} message(s) dropped for listener {}", discarded, listener);
+            }
+        }
+    }
+
+    /**
+     * The lanes are created when first needed, rather than during construction, so that the configuration has been loaded
+     */
+    private ThreadPoolExecutor[] lanes() {
+        ThreadPoolExecutor[] current = lanes;
+        if (current == null) {
+            synchronized (this) {
+                current = lanes;
+                if (current == null) {
+                    int threads = Math.max(1, applicationConfiguration.getInt(ConfigKeys.SERVER_PUSH_THREADS, Math.max(2, Runtime.getRuntime()
+                                                                                                                             .availableProcessors())));
+                    queueSize = Math.max(1, applicationConfiguration.getInt(ConfigKeys.SERVER_PUSH_QUEUE_SIZE, DEFAULT_QUEUE_SIZE));
+                    ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("krail-broadcast-%d")
+                                                                            .setDaemon(true)
+                                                                            .build();
+                    current = new ThreadPoolExecutor[threads];
+                    for (int i = 0; i < threads; i++) {
+                        current[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(queueSize), threadFactory);
+                    }
+                    log.info("Broadcaster started with {} delivery threads, each with a queue of {}", threads, queueSize);
+                    lanes = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    /**
+     * Returns the number of messages which joined a delivery already scheduled for their listener, rather than needing a delivery of their own
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * Returns the number of messages discarded because a delivery queue or mailbox was full
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns the number of deliveries waiting in all queues - a measure of backpressure
+     */
+    public int getQueueDepth() {
+        ThreadPoolExecutor[] current = lanes;
+        int depth = 0;
+        if (current != null) {
+            for (ThreadPoolExecutor lane : current) {
+                depth += lane.getQueue()
+                             .size();
+            }
+        }
+        return depth;
+    }
+
+    /**
+     * Messages waiting for delivery to one listener, in the order they were broadcast.  Does not refer to its listener, so that the listener can be
+     * collected
+     */
+    private class Mailbox {
+        private final List<PushMessage> pending = new ArrayList<>();
+        private boolean scheduled;
+
+        /**
+         * Adds a message, dropping the oldest waiting message if there are already {@code capacity} waiting
+         *
+         * @return true if a delivery needs to be scheduled, false if one is already scheduled
+         */
+        private synchronized boolean post(PushMessage message, int capacity) {
+            if (pending.size() >= capacity) {
+                pending.remove(0);
+                dropped.incrementAndGet();
+            }
+            pending.add(message);
+            if (scheduled) {
+                coalesced.incrementAndGet();
+                return false;
+            }
+            scheduled = true;
+            return true;
+        }
+
+        private synchronized List<PushMessage> take() {
+            List<PushMessage> messages = new ArrayList<>(pending);
+            pending.clear();
+            scheduled = false;
+            return messages;
+        }
+
+        private synchronized int discard() {
+            int discarded = pending.size();
+            pending.clear();
+            scheduled = false;
+            return discarded;
+        }
+
+        private void deliverTo(BroadcastListener listener) {
+            List<PushMessage> messages = take();
+            if (messages.isEmpty()) {
+                return;
+            }
+            try {
+                listener.receiveBroadcasts(messages);
+                delivered.addAndGet(messages.size());
+            } catch (Exception e) {
+                log.error("Broadcast listener {} failed to receive messages", listener, e);
+            }
+        }
+    }
 }
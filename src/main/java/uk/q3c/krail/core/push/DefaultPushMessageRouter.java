@@ -16,10 +16,23 @@ import uk.q3c.krail.core.eventbus.BusMessage;
 import uk.q3c.krail.core.eventbus.UIBus;
 import uk.q3c.krail.core.guice.uiscope.UIScoped;
 
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Default implementation of {@link PushMessageRouter}.  Listeners are indexed by group, so routing a message involves only the listeners for its group,
+ * and those for {@link #ALL_MESSAGES}, however many groups there are.
+ * <p>
+ * Every message is also published to the UIBus, so that existing {@link PushMessage} handlers continue to work.  Handlers in Krail itself use
+ * subscriptions instead
+ */
 @UIScoped
 public class DefaultPushMessageRouter implements PushMessageRouter {
 
     public static final String ALL_MESSAGES = "all";
+    private final ConcurrentMap<String, List<PushMessageListener>> listeners = new ConcurrentHashMap<>();
     private PubSubSupport<BusMessage> uiBus;
 
     @Inject
@@ -29,8 +42,48 @@ public class DefaultPushMessageRouter implements PushMessageRouter {
 
     @Override
     public void messageIn(String group, String message) {
-        uiBus.publish(new PushMessage(group, message));
+        route(new PushMessage(group, message));
+    }
+
+    @Override
+    public void messagesIn(List<PushMessage> messages) {
+        for (PushMessage message : messages) {
+            route(message);
+        }
+    }
+
+    private void route(PushMessage pushMessage) {
+        if (!ALL_MESSAGES.equals(pushMessage.getGroup())) {
+            notify(listeners.get(pushMessage.getGroup()), pushMessage);
+        }
+        notify(listeners.get(ALL_MESSAGES), pushMessage);
+        uiBus.publish(pushMessage);
+    }
+
+    private void notify(List<PushMessageListener> groupListeners, PushMessage pushMessage) {
+        if (groupListeners != null) {
+            for (PushMessageListener listener : groupListeners) {
+                listener.receivePushMessage(pushMessage);
+            }
+        }
+    }
+
+    @Override
+    public boolean supportsSubscriptions() {
+        return true;
     }
 
+    @Override
+    public void subscribe(String group, PushMessageListener listener) {
+        listeners.computeIfAbsent(group, g -> new CopyOnWriteArrayList<>())
+                 .add(listener);
+    }
 
+    @Override
+    public void unsubscribe(String group, PushMessageListener listener) {
+        List<PushMessageListener> groupListeners = listeners.get(group);
+        if (groupListeners != null) {
+            groupListeners.remove(listener);
+        }
+    }
 }
@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.push;
+
+/**
+ * Receives the {@link PushMessage}s for the groups it is subscribed to with {@link PushMessageRouter#subscribe(String, PushMessageListener)}
+ */
+@FunctionalInterface
+public interface PushMessageListener {
+
+    void receivePushMessage(PushMessage pushMessage);
+}
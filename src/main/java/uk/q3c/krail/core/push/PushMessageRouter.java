@@ -11,7 +11,17 @@
 
 package uk.q3c.krail.core.push;
 
+import java.util.List;
+
 /**
+ * Routes push messages within a UI.  Every message is published to the UIBus as a {@link PushMessage}, and is also passed directly to the {@link
+ * PushMessageListener}s subscribed to its group.  Subscribing to a group is preferable to a UIBus handler where only a few groups are of interest, as
+ * a listener is called only for the messages of its own groups, whereas a UIBus handler must receive, and filter, every message.
+ * <p>
+ * {@link #subscribe(String, PushMessageListener)} and {@link #unsubscribe(String, PushMessageListener)} were added after this interface was first
+ * published, so an existing implementation may not support them.  {@link #supportsSubscriptions()} returns false unless an implementation overrides
+ * it; callers should check it, and fall back to a UIBus handler for {@link PushMessage} if subscriptions are not supported.
+ * <p>
  * Created by David Sowerby on 27/05/15.
  */
 public interface PushMessageRouter {
@@ -23,4 +33,49 @@ public interface PushMessageRouter {
      * @param message the message
      */
     void messageIn(String group, String message);
+
+    /**
+     * Passes a batch of messages to the router, as {@link #messageIn(String, String)} would for each message in turn
+     *
+     * @param messages the messages, in the order they were broadcast
+     */
+    default void messagesIn(List<PushMessage> messages) {
+        for (PushMessage message : messages) {
+            messageIn(message.getGroup(), message.getMessage());
+        }
+    }
+
+    /**
+     * Returns true if this router implements {@link #subscribe(String, PushMessageListener)} and {@link #unsubscribe(String, PushMessageListener)}.
+     * Implementations which do so must override this to return true
+     *
+     * @return true if listeners can subscribe to this router
+     */
+    default boolean supportsSubscriptions() {
+        return false;
+    }
+
+    /**
+     * Subscribes {@code listener} to messages for {@code group}.  Use {@link Broadcaster#ALL_MESSAGES} to receive messages for every group
+     *
+     * @param group the group to listen to
+     * @param listener the listener
+     *
+     * @throws UnsupportedOperationException if {@link #supportsSubscriptions()} is false
+     */
+    default void subscribe(String group, PushMessageListener listener) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support subscriptions, use a UIBus handler for PushMessage instead");
+    }
+
+    /**
+     * Removes a subscription made by {@link #subscribe(String, PushMessageListener)}
+     *
+     * @param group the group the listener was subscribed to
+     * @param listener the listener
+     *
+     * @throws UnsupportedOperationException if {@link #supportsSubscriptions()} is false
+     */
+    default void unsubscribe(String group, PushMessageListener listener) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support subscriptions");
+    }
 }
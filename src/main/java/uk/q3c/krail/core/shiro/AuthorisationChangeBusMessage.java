@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.shiro;
+
+import uk.q3c.krail.core.eventbus.BusMessage;
+import uk.q3c.krail.core.eventbus.GlobalBus;
+
+/**
+ * Published on the {@link GlobalBus} when the roles or permissions held by a Realm have changed, so that anything holding authorisation decisions (for
+ * example {@link PageAccessController}, through {@link AuthorisationGeneration}) discards them.
+ */
+public class AuthorisationChangeBusMessage implements BusMessage {
+
+}
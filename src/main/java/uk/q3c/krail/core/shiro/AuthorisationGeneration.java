@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.shiro;
+
+import com.google.inject.Singleton;
+import net.engio.mbassy.listener.Handler;
+import net.engio.mbassy.listener.Listener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.q3c.krail.core.eventbus.GlobalBus;
+import uk.q3c.krail.core.eventbus.SubscribeTo;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the {@link AuthorisationChangeBusMessage}s received from the {@link GlobalBus}.  Anything caching authorisation decisions (for example
+ * {@link PageAccessController}) records the generation a decision was made in, and discards it once the generation has moved on.
+ * <p>
+ * This is a singleton so that the only subscription to the GlobalBus lives as long as the bus itself - session scoped objects subscribed to the
+ * GlobalBus would be held by it after their session had ended.
+ */
+@Singleton
+@Listener
+@SubscribeTo(GlobalBus.class)
+public class AuthorisationGeneration {
+    private static Logger log = LoggerFactory.getLogger(AuthorisationGeneration.class);
+    private final AtomicInteger generation = new AtomicInteger();
+
+    /**
+     * Returns the current generation
+     */
+    public int current() {
+        return generation.get();
+    }
+
+    @Handler
+    public void authorisationChanged(AuthorisationChangeBusMessage busMessage) {
+        log.debug("AuthorisationChangeBusMessage received, advancing authorisation generation");
+        generation.incrementAndGet();
+    }
+}
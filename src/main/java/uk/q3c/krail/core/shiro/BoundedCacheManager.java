@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.shiro;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.apache.shiro.cache.Cache;
+import org.apache.shiro.cache.CacheManager;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A Shiro {@link CacheManager} which provides local, in memory caches, each bounded in size and expiring entries which have not been used for a
+ * while.  Used by {@link DefaultRealm} unless the SecurityManager has been given a different CacheManager
+ */
+@ThreadSafe
+public class BoundedCacheManager implements CacheManager {
+
+    private final ConcurrentMap<String, BoundedCache<?, ?>> caches = new ConcurrentHashMap<>();
+    private final Duration expireAfterAccess;
+    private final long maximumSize;
+
+    public BoundedCacheManager(long maximumSize, Duration expireAfterAccess) {
+        this.maximumSize = maximumSize;
+        this.expireAfterAccess = expireAfterAccess;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <K, V> Cache<K, V> getCache(String name) {
+        return (Cache<K, V>) caches.computeIfAbsent(name, n -> new BoundedCache<>(CacheBuilder.newBuilder()
+                                                                                            .maximumSize(maximumSize)
+                                                                                            .expireAfterAccess(expireAfterAccess.toMillis(),
+                                                                                                    TimeUnit.MILLISECONDS)
+                                                                                            .build()));
+    }
+
+    /**
+     * Adapts a Guava cache to the Shiro {@link Cache} interface
+     */
+    private static class BoundedCache<K, V> implements Cache<K, V> {
+        private final com.google.common.cache.Cache<K, V> cache;
+
+        private BoundedCache(com.google.common.cache.Cache<K, V> cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public V get(K key) {
+            return (key == null) ? null : cache.getIfPresent(key);
+        }
+
+        @Override
+        public V put(K key, V value) {
+            return cache.asMap()
+                        .put(key, value);
+        }
+
+        @Override
+        public V remove(K key) {
+            return (key == null) ? null : cache.asMap()
+                                               .remove(key);
+        }
+
+        @Override
+        public void clear() {
+            cache.invalidateAll();
+        }
+
+        @Override
+        public int size() {
+            return (int) cache.size();
+        }
+
+        @Override
+        public Set<K> keys() {
+            return ImmutableSet.copyOf(cache.asMap()
+                                            .keySet());
+        }
+
+        @Override
+        public Collection<V> values() {
+            return ImmutableList.copyOf(cache.asMap()
+                                             .values());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.shiro;
+
+import org.apache.shiro.authz.AuthorizationInfo;
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.authz.permission.RolePermissionResolver;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An {@link AuthorizationInfo} with its permissions, including any resolved from its roles, compiled into a {@link PermissionTrie}.  This is the
+ * form in which {@link DefaultRealm} caches authorisation, so that the permissions are parsed once per user rather than once per check
+ */
+@Immutable
+public class CompiledAuthorizationInfo implements AuthorizationInfo {
+
+    private final AuthorizationInfo info;
+    private final PermissionTrie permissions;
+
+    public CompiledAuthorizationInfo(AuthorizationInfo info, @Nullable RolePermissionResolver rolePermissionResolver) {
+        this.info = info;
+        List<Permission> objectPermissions = new ArrayList<>(nullSafe(info.getObjectPermissions()));
+        if (rolePermissionResolver != null) {
+            for (String role : nullSafe(info.getRoles())) {
+                objectPermissions.addAll(nullSafe(rolePermissionResolver.resolvePermissionsInRole(role)));
+            }
+        }
+        permissions = new PermissionTrie(nullSafe(info.getStringPermissions()), objectPermissions);
+    }
+
+    private static <T> Collection<T> nullSafe(Collection<T> collection) {
+        return (collection == null) ? Collections.emptyList() : collection;
+    }
+
+    @Override
+    public Collection<String> getRoles() {
+        return info.getRoles();
+    }
+
+    @Override
+    public Collection<String> getStringPermissions() {
+        return info.getStringPermissions();
+    }
+
+    @Override
+    public Collection<Permission> getObjectPermissions() {
+        return info.getObjectPermissions();
+    }
+
+    public PermissionTrie getPermissions() {
+        return permissions;
+    }
+}
@@ -1,11 +1,9 @@
 /*
- * Copyright (C) 2013 David Sowerby
- * 
+ * Copyright (c) 2015. David Sowerby
+ *
  * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
- * the License. You may obtain a copy of the License at
- * 
- * http://www.apache.org/licenses/LICENSE-2.0
- * 
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
  * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
  * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
  * specific language governing permissions and limitations under the License.
@@ -13,135 +11,300 @@
 package uk.q3c.krail.core.shiro;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import org.apache.shiro.authc.ExcessiveAttemptsException;
 import org.apache.shiro.authc.UsernamePasswordToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import javax.annotation.concurrent.ThreadSafe;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.*;
+import java.util.concurrent.*;
 
+/**
+ * Default implementation of {@link LoginAttemptLog}.  It is thread safe, and its memory use is bounded, even when presented with failed attempts for
+ * very large numbers of (possibly non-existent) usernames:
+ * <ul>
+ * <li>failed attempts count towards the limit only within a sliding window (see {@link #setFailureWindow(Duration)}), and at most {@link
+ * #MAX_TRACKED_FAILURES} are held for each user</li>
+ * <li>the history for each user is a ring buffer of the latest {@link #DEFAULT_HISTORY_SIZE} entries</li>
+ * <li>at most {@link #DEFAULT_MAX_USERS} users are held (approximately, under concurrent use).  When that limit is reached, users with no
+ * activity for {@link #DEFAULT_IDLE_EXPIRY} are discarded, followed by users with no failures within the window</li>
+ * </ul>
+ * A user with failures within the window is never discarded, so a lockout cannot be lifted by flooding the log with other usernames.  If every
+ * user held has recent failures, a failed attempt for a user who is not already held is treated as exceeding the maximum - lockout fails closed
+ * until the window passes.  Successful attempts are not affected.
+ * If a {@link LoginAttemptStore} is bound, lockout state (recent failures and the last successful login) is loaded from it when the log is created,
+ * and changes are written back to it every {@link #WRITE_BEHIND_INTERVAL}.  History is not persisted.
+ */
 @Singleton
+@ThreadSafe
 public class DefaultLoginAttemptLog implements LoginAttemptLog {
 
-    public enum LogOutcome {
-        PASS, FAIL, RESET
+    public static final Duration DEFAULT_FAILURE_WINDOW = Duration.ofMinutes(30);
+    public static final int DEFAULT_HISTORY_SIZE = 20;
+    public static final Duration DEFAULT_IDLE_EXPIRY = Duration.ofHours(24);
+    public static final int DEFAULT_MAX_USERS = 10000;
+    public static final int MAX_TRACKED_FAILURES = 100;
+    public static final Duration WRITE_BEHIND_INTERVAL = Duration.ofSeconds(5);
+    private static Logger log = LoggerFactory.getLogger(DefaultLoginAttemptLog.class);
+    private final Clock clock;
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final int historySize;
+    private final long idleExpiry;
+    private final int maxUsers;
+    private final ConcurrentMap<String, UserAttempts> users = new ConcurrentHashMap<>();
+    private volatile Duration failureWindow = DEFAULT_FAILURE_WINDOW;
+    private volatile int maxAttempts = 3;
+    private volatile LoginAttemptStore store;
+
+    @Inject
+    public DefaultLoginAttemptLog() {
+        this(Clock.systemDefaultZone(), DEFAULT_MAX_USERS, DEFAULT_IDLE_EXPIRY, DEFAULT_HISTORY_SIZE);
+    }
+
+    protected DefaultLoginAttemptLog(Clock clock, int maxUsers, Duration idleExpiry, int historySize) {
+        this.clock = clock;
+        this.historySize = historySize;
+        this.maxUsers = maxUsers;
+        this.idleExpiry = idleExpiry.toMillis();
+    }
+
+    /**
+     * Sets the store used to persist lockout state, loads the state it holds, and starts writing changes back to it
+     */
+    @Inject(optional = true)
+    public synchronized void setLoginAttemptStore(LoginAttemptStore store) {
+        if (this.store != null) {
+            throw new IllegalStateException("The LoginAttemptStore can only be set once");
+        }
+        for (Map.Entry<String, LoginAttemptState> entry : store.load()
+                                                               .entrySet()) {
+            UserAttempts attempts = attemptsFor(entry.getKey());
+            if (attempts == null) {
+                log.warn("Login attempt log is full, state for '{}' not restored", entry.getKey());
+            } else {
+                attempts.restore(entry.getValue());
+            }
+        }
+        this.store = store;
+        ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("krail-login-attempt-store")
+                                                                .setDaemon(true)
+                                                                .build();
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        executor.scheduleWithFixedDelay(this::flush, WRITE_BEHIND_INTERVAL.toMillis(), WRITE_BEHIND_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes any changes in lockout state to the {@link LoginAttemptStore}, if there is one.  Called periodically, but may also be called directly,
+     * for example during shutdown
+     */
+    public void flush() {
+        LoginAttemptStore currentStore = store;
+        if (currentStore == null || dirty.isEmpty()) {
+            return;
+        }
+        Map<String, Optional<LoginAttemptState>> changes = new HashMap<>();
+        Iterator<String> iterator = dirty.iterator();
+        while (iterator.hasNext()) {
+            String username = iterator.next();
+            iterator.remove();
+            UserAttempts attempts = users.get(username);
+            changes.put(username, (attempts == null) ? Optional.empty() : Optional.of(attempts.state(cutoff())));
+        }
+        try {
+            currentStore.save(changes);
+        } catch (Exception e) {
+            // try again next time
+            dirty.addAll(changes.keySet());
+            log.error("Unable to save login attempt state", e);
+        }
+    }
+
+    /**
+     * Returns the attempts for {@code username}, creating them if necessary, or null if the log is full and no user can be discarded to make room
+     */
+    private UserAttempts attemptsFor(String username) {
+        long now = clock.millis();
+        UserAttempts attempts = users.get(username);
+        if (attempts == null) {
+            if (users.size() >= maxUsers && !discardUsers(now)) {
+                return null;
+            }
+            attempts = users.computeIfAbsent(username, k -> new UserAttempts(historySize));
+        }
+        attempts.touch(now);
+        return attempts;
+    }
+
+    /**
+     * Discards users idle for longer than the idle expiry, and if that is not enough, users with no failures within the window.  Users with
+     * failures within the window are never discarded.
+     *
+     * @return true if there is now room for another user
+     */
+    private synchronized boolean discardUsers(long now) {
+        if (users.size() < maxUsers) {
+            return true;
+        }
+        long cutoff = cutoff();
+        users.values()
+             .removeIf(attempts -> attempts.isIdleSince(now - idleExpiry) && attempts.failuresSince(cutoff) == 0);
+        if (users.size() < maxUsers) {
+            return true;
+        }
+        users.values()
+             .removeIf(attempts -> attempts.failuresSince(cutoff) == 0);
+        return users.size() < maxUsers;
+    }
+
+    private long cutoff() {
+        return clock.millis() - failureWindow.toMillis();
+    }
+
+    private void changed(String username) {
+        if (store != null) {
+            dirty.add(username);
+        }
     }
-    private final Map<String, List<LogEntry>> history = new TreeMap<>();
-    private final Map<String, Integer> unsuccessfulAttempts = new TreeMap<>();
-    private final Map<String, LocalDateTime> lastSuccessful = new TreeMap<>();
-    private int maxAttempts = 3;
 
     @Override
     public void setMaximumAttempts(int maxAttempts) {
         this.maxAttempts = maxAttempts;
     }
 
-    @Override
-    public void recordSuccessfulAttempt(UsernamePasswordToken upToken) {
-        LogEntry log = createLog(upToken, LogOutcome.PASS);
-        unsuccessfulAttempts.remove(upToken.getUsername());
-        lastSuccessful.put(upToken.getUsername(), log.dateTime);
+    /**
+     * Sets the period within which failed attempts count towards the maximum.  Failures older than this are forgotten
+     */
+    public void setFailureWindow(Duration failureWindow) {
+        this.failureWindow = failureWindow;
     }
 
-    private LogEntry createLog(UsernamePasswordToken upToken, LogOutcome logOutcome) {
+    @Override
+    public void recordSuccessfulAttempt(UsernamePasswordToken upToken) {
         String username = upToken.getUsername();
-        return createLog(username, logOutcome);
-    }
-
-    private LogEntry createLog(String username, LogOutcome logOutcome) {
-        LogEntry logEntry = new LogEntry(logOutcome);
-        List<LogEntry> list = history.get(username);
-        if (list == null) {
-            list = new ArrayList<>();
-            history.put(username, list);
-
+        LogEntry logEntry = new LogEntry(LogOutcome.PASS, LocalDateTime.now(clock));
+        UserAttempts attempts = attemptsFor(username);
+        if (attempts != null) {
+            attempts.success(logEntry);
+            changed(username);
         }
-        list.add(logEntry);
-        return logEntry;
     }
 
     /**
-     * records a failed login attempt and throws a ExcessiveAttemptsException if the number of attempts exceeds
-     * {@link #maxAttempts}
+     * records a failed login attempt and throws a ExcessiveAttemptsException if the number of attempts within the failure window reaches
+     * {@link #maxAttempts}, or if the log is full of users with recent failures and {@code username} is not one of them
      *
      * @see uk.q3c.krail.core.shiro.LoginAttemptLog#recordFailedAttempt(org.apache.shiro.authc.UsernamePasswordToken)
      */
     @Override
     public void recordFailedAttempt(UsernamePasswordToken upToken) {
-        createLog(upToken, LogOutcome.FAIL);
-
-        Integer failedAttempts = unsuccessfulAttempts.get(upToken.getUsername());
-        if (failedAttempts == null) {
-            failedAttempts = 0;
+        String username = upToken.getUsername();
+        LogEntry logEntry = new LogEntry(LogOutcome.FAIL, LocalDateTime.now(clock));
+        UserAttempts attempts = attemptsFor(username);
+        if (attempts == null) {
+            log.warn("Login attempt log is full, failed attempt for '{}' treated as excessive", username);
+            throw new ExcessiveAttemptsException("Login failed after maximum attempts");
         }
-        unsuccessfulAttempts.put(upToken.getUsername(), new Integer(failedAttempts + 1));
-        int attemptsLeft = attemptsRemaining(upToken.getUsername());
-        if (attemptsLeft == 0) {
+        int failures = attempts.failure(logEntry, clock.millis(), cutoff());
+        changed(username);
+        if (maxAttempts - failures <= 0) {
             throw new ExcessiveAttemptsException("Login failed after maximum attempts");
         }
     }
 
     @Override
     public int attemptsRemaining(String username) {
-        Integer attemptsMade = unsuccessfulAttempts.get(username);
+        UserAttempts attempts = users.get(username);
         // no unsuccessful attempt has been made to login, there won't be an entry
-        if (attemptsMade == null) {
-            attemptsMade = 0;
-        }
+        int attemptsMade = (attempts == null) ? 0 : attempts.failuresSince(cutoff());
         return maxAttempts - attemptsMade;
     }
 
     @Override
     public void clearHistory(String username) {
-        history.remove(username);
+        UserAttempts attempts = users.get(username);
+        if (attempts != null) {
+            attempts.clearHistory();
+        }
     }
 
     @Override
     public void resetAttemptCount(String username) {
-        unsuccessfulAttempts.remove(username);
-        createLog(username, LogOutcome.RESET);
+        UserAttempts attempts = attemptsFor(username);
+        if (attempts != null) {
+            attempts.reset(new LogEntry(LogOutcome.RESET, LocalDateTime.now(clock)));
+            changed(username);
+        }
     }
 
     @Override
     public void clearHistory() {
-        history.clear();
+        for (UserAttempts attempts : users.values()) {
+            attempts.clearHistory();
+        }
     }
 
     @Override
     public void resetAttemptCount() {
-        unsuccessfulAttempts.clear();
+        for (Map.Entry<String, UserAttempts> entry : users.entrySet()) {
+            entry.getValue()
+                 .clearFailures();
+            changed(entry.getKey());
+        }
     }
 
     @Override
     public LocalDateTime dateOfLastSuccess(String username) {
-        return lastSuccessful.get(username);
+        UserAttempts attempts = users.get(username);
+        return (attempts == null) ? null : attempts.lastSuccess();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns null if there is no history for {@code username}
+     */
     @Override
     public LogEntry latestLog(String username) {
-        List<LogEntry> list = history.get(username);
-        return list.get(list.size() - 1);
+        UserAttempts attempts = users.get(username);
+        return (attempts == null) ? null : attempts.latest();
     }
 
     @Override
     public ImmutableList<LogEntry> historyFor(String username) {
-        List<LogEntry> list = history.get(username);
-        if (list == null) {
-            list = new ArrayList<>();
-        }
-        return ImmutableList.copyOf(list);
+        UserAttempts attempts = users.get(username);
+        return (attempts == null) ? ImmutableList.of() : attempts.history();
     }
 
-    public class LogEntry {
+    /**
+     * Returns the number of users currently held
+     */
+    public long userCount() {
+        return users.size();
+    }
+
+    public enum LogOutcome {
+        PASS, FAIL, RESET
+    }
+
+    public static class LogEntry {
         private final LocalDateTime dateTime;
         private final LogOutcome logOutcome;
 
         public LogEntry(LogOutcome logOutcome) {
+            this(logOutcome, LocalDateTime.now());
+        }
+
+        public LogEntry(LogOutcome logOutcome, LocalDateTime dateTime) {
             this.logOutcome = logOutcome;
-            dateTime = LocalDateTime.now();
+            this.dateTime = dateTime;
         }
 
         public LocalDateTime getDateTime() {
@@ -153,4 +316,122 @@ public class DefaultLoginAttemptLog implements LoginAttemptLog {
         }
     }
 
+    /**
+     * The attempts of a single user - a ring buffer of log entries, and a ring buffer of the times of failed attempts, oldest first
+     */
+    private static class UserAttempts {
+        private final long[] failures = new long[MAX_TRACKED_FAILURES];
+        private final LogEntry[] history;
+        private int failureCount;
+        private int failureStart;
+        private int historyCount;
+        private int historyStart;
+        private volatile long lastAccess;
+        private LocalDateTime lastSuccess;
+
+        private UserAttempts(int historySize) {
+            history = new LogEntry[historySize];
+        }
+
+        private void touch(long now) {
+            lastAccess = now;
+        }
+
+        private boolean isIdleSince(long time) {
+            return lastAccess < time;
+        }
+
+        private synchronized void log(LogEntry logEntry) {
+            if (history.length == 0) {
+                return;
+            }
+            if (historyCount < history.length) {
+                history[(historyStart + historyCount) % history.length] = logEntry;
+                historyCount++;
+            } else {
+                history[historyStart] = logEntry;
+                historyStart = (historyStart + 1) % history.length;
+            }
+        }
+
+        private synchronized void success(LogEntry logEntry) {
+            log(logEntry);
+            clearFailures();
+            lastSuccess = logEntry.getDateTime();
+        }
+
+        /**
+         * Records a failure, and returns the number of failures since {@code cutoff}, including this one
+         */
+        private synchronized int failure(LogEntry logEntry, long now, long cutoff) {
+            log(logEntry);
+            if (failureCount == failures.length) {
+                // full - the oldest is replaced
+                failureStart = (failureStart + 1) % failures.length;
+                failureCount--;
+            }
+            failures[(failureStart + failureCount) % failures.length] = now;
+            failureCount++;
+            return failuresSince(cutoff);
+        }
+
+        private synchronized int failuresSince(long cutoff) {
+            while (failureCount > 0 && failures[failureStart] < cutoff) {
+                failureStart = (failureStart + 1) % failures.length;
+                failureCount--;
+            }
+            return failureCount;
+        }
+
+        private synchronized void reset(LogEntry logEntry) {
+            clearFailures();
+            log(logEntry);
+        }
+
+        private synchronized void clearFailures() {
+            failureCount = 0;
+            failureStart = 0;
+        }
+
+        private synchronized void clearHistory() {
+            Arrays.fill(history, null);
+            historyCount = 0;
+            historyStart = 0;
+        }
+
+        private synchronized LocalDateTime lastSuccess() {
+            return lastSuccess;
+        }
+
+        private synchronized LogEntry latest() {
+            return (historyCount == 0) ? null : history[(historyStart + historyCount - 1) % history.length];
+        }
+
+        private synchronized ImmutableList<LogEntry> history() {
+            ImmutableList.Builder<LogEntry> builder = ImmutableList.builder();
+            for (int i = 0; i < historyCount; i++) {
+                builder.add(history[(historyStart + i) % history.length]);
+            }
+            return builder.build();
+        }
+
+        private synchronized LoginAttemptState state(long cutoff) {
+            failuresSince(cutoff);
+            List<Instant> failureTimes = new ArrayList<>(failureCount);
+            for (int i = 0; i < failureCount; i++) {
+                failureTimes.add(Instant.ofEpochMilli(failures[(failureStart + i) % failures.length]));
+            }
+            return new LoginAttemptState(failureTimes, lastSuccess);
+        }
+
+        private synchronized void restore(LoginAttemptState state) {
+            clearFailures();
+            List<Instant> failureTimes = state.getFailures();
+            for (Instant failureTime : failureTimes.subList(Math.max(0, failureTimes.size() - failures.length), failureTimes.size())) {
+                failures[failureCount++] = failureTime.toEpochMilli();
+            }
+            lastSuccess = state.getLastSuccess();
+        }
+    }
+
 }
@@ -12,10 +12,15 @@
 package uk.q3c.krail.core.shiro;
 
 import com.google.inject.Inject;
+import net.engio.mbassy.bus.common.PubSubSupport;
 import org.apache.shiro.authc.*;
 import org.apache.shiro.authc.credential.CredentialsMatcher;
 import org.apache.shiro.authz.AuthorizationInfo;
+import org.apache.shiro.authz.Permission;
 import org.apache.shiro.authz.SimpleAuthorizationInfo;
+import org.apache.shiro.authz.UnauthorizedException;
+import org.apache.shiro.authz.permission.WildcardPermissionResolver;
+import org.apache.shiro.cache.Cache;
 import org.apache.shiro.realm.AuthorizingRealm;
 import org.apache.shiro.realm.activedirectory.ActiveDirectoryRealm;
 import org.apache.shiro.realm.jdbc.JdbcRealm;
@@ -23,13 +28,30 @@ import org.apache.shiro.realm.ldap.JndiLdapRealm;
 import org.apache.shiro.subject.PrincipalCollection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.q3c.krail.core.eventbus.BusMessage;
+import uk.q3c.krail.core.eventbus.GlobalBus;
 import uk.q3c.krail.core.navigate.sitemap.MasterSitemap;
 
 import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
 
+/**
+ * Authorisation is cached for each set of principals, in the form of a {@link CompiledAuthorizationInfo}, so that permission checks made by the AOP
+ * interceptors and by {@link PageAccessController} neither reload nor re-parse the granted permissions, and are resolved by a {@link PermissionTrie}
+ * rather than a linear scan.  The cache is a {@link BoundedCacheManager} unless the SecurityManager has been given a different {@link
+ * org.apache.shiro.cache.CacheManager}.
+ * <p>
+ * Cached authorisation is removed when the Subject logs out (by Shiro).  If roles or permissions are changed, call {@link
+ * #authorisationChanged(PrincipalCollection)} or {@link #authorisationChanged()}
+ */
 public class DefaultRealm extends AuthorizingRealm {
+    public static final Duration AUTHORIZATION_CACHE_EXPIRY = Duration.ofMinutes(30);
+    public static final long AUTHORIZATION_CACHE_SIZE = 10000;
     private static Logger log = LoggerFactory.getLogger(DefaultRealm.class);
     private final LoginAttemptLog loginAttemptLog;
+    private PubSubSupport<BusMessage> globalBus;
     private SubjectIdentifier subjectIdentifier;
 
     @Inject
@@ -37,7 +59,18 @@ public class DefaultRealm extends AuthorizingRealm {
         super(matcher);
         this.loginAttemptLog = loginAttemptLog;
         this.subjectIdentifier = subjectIdentifier;
-        setCachingEnabled(false);
+        setAuthenticationCachingEnabled(false);
+        setAuthorizationCachingEnabled(true);
+        setCacheManager(new BoundedCacheManager(AUTHORIZATION_CACHE_SIZE, AUTHORIZATION_CACHE_EXPIRY));
+    }
+
+    /**
+     * The bus on which an {@link AuthorisationChangeBusMessage} is published by {@link #authorisationChanged()}.  Optional, so that the realm can be
+     * used without the event buses
+     */
+    @Inject(optional = true)
+    public void setGlobalBus(@GlobalBus PubSubSupport<BusMessage> globalBus) {
+        this.globalBus = globalBus;
     }
 
     @Override
@@ -118,7 +151,100 @@ public class DefaultRealm extends AuthorizingRealm {
             String editAnyOption = "option:edit:SimpleUserHierarchy:*:*:*:*";
             info.addStringPermission(editAnyOption);
         }
-        return info;
+        return new CompiledAuthorizationInfo(info, getRolePermissionResolver());
+    }
+
+    /**
+     * Returns the {@link CompiledAuthorizationInfo} for {@code principals}, from the cache if possible, or null if there is none
+     */
+    protected CompiledAuthorizationInfo compiledAuthorizationInfo(PrincipalCollection principals) {
+        AuthorizationInfo info = getAuthorizationInfo(principals);
+        if (info == null || info instanceof CompiledAuthorizationInfo) {
+            return (CompiledAuthorizationInfo) info;
+        }
+        // a sub-class has returned its own AuthorizationInfo
+        return new CompiledAuthorizationInfo(info, getRolePermissionResolver());
+    }
+
+    @Override
+    public boolean isPermitted(PrincipalCollection principals, String permission) {
+        if (!(getPermissionResolver() instanceof WildcardPermissionResolver)) {
+            return super.isPermitted(principals, permission);
+        }
+        CompiledAuthorizationInfo info = compiledAuthorizationInfo(principals);
+        return info != null && info.getPermissions()
+                                   .implies(permission);
+    }
+
+    @Override
+    public boolean isPermitted(PrincipalCollection principals, Permission permission) {
+        CompiledAuthorizationInfo info = compiledAuthorizationInfo(principals);
+        return info != null && info.getPermissions()
+                                   .implies(permission);
+    }
+
+    @Override
+    public boolean[] isPermitted(PrincipalCollection principals, List<Permission> permissions) {
+        boolean[] result = new boolean[(permissions == null) ? 0 : permissions.size()];
+        CompiledAuthorizationInfo info = compiledAuthorizationInfo(principals);
+        if (info != null) {
+            for (int i = 0; i < result.length; i++) {
+                result[i] = info.getPermissions()
+                                .implies(permissions.get(i));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isPermittedAll(PrincipalCollection principals, Collection<Permission> permissions) {
+        CompiledAuthorizationInfo info = compiledAuthorizationInfo(principals);
+        if (info == null) {
+            return false;
+        }
+        if (permissions != null) {
+            for (Permission permission : permissions) {
+                if (!info.getPermissions()
+                         .implies(permission)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void checkPermission(PrincipalCollection principals, Permission permission) throws UnauthorizedException {
+        if (!isPermitted(principals, permission)) {
+            throw new UnauthorizedException("User is not permitted [" + permission + "]");
+        }
+    }
+
+    /**
+     * Call when the roles or permissions of {@code principals} have changed.  Removes their cached authorisation, and publishes an {@link
+     * AuthorisationChangeBusMessage} so that decisions based on it are discarded
+     */
+    public void authorisationChanged(PrincipalCollection principals) {
+        clearCachedAuthorizationInfo(principals);
+        publishAuthorisationChange();
+    }
+
+    /**
+     * Call when roles or permissions have changed for many users.  Removes all cached authorisation, and publishes an {@link
+     * AuthorisationChangeBusMessage} so that decisions based on it are discarded
+     */
+    public void authorisationChanged() {
+        Cache<Object, AuthorizationInfo> cache = getAuthorizationCache();
+        if (cache != null) {
+            cache.clear();
+        }
+        publishAuthorisationChange();
+    }
+
+    private void publishAuthorisationChange() {
+        if (globalBus != null) {
+            globalBus.publish(new AuthorisationChangeBusMessage());
+        }
     }
 
     /**
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.shiro;
+
+import com.google.common.collect.ImmutableList;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The lockout state of a single user, as saved and loaded by a {@link LoginAttemptStore} - the times of recent failed attempts, and the time of the
+ * last successful login
+ */
+@Immutable
+public class LoginAttemptState {
+
+    private final ImmutableList<Instant> failures;
+    private final LocalDateTime lastSuccess;
+
+    public LoginAttemptState(List<Instant> failures, @Nullable LocalDateTime lastSuccess) {
+        this.failures = ImmutableList.copyOf(failures);
+        this.lastSuccess = lastSuccess;
+    }
+
+    /**
+     * Returns the times of failed attempts which were still within the failure window when this state was taken, oldest first
+     */
+    public ImmutableList<Instant> getFailures() {
+        return failures;
+    }
+
+    @Nullable
+    public LocalDateTime getLastSuccess() {
+        return lastSuccess;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.shiro;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Optional persistence for the lockout state held by {@link DefaultLoginAttemptLog}, so that it survives a restart.  There is no binding by default -
+ * bind an implementation in a sub-class of {@link DefaultShiroModule} to use one.
+ * <p>
+ * State is loaded once, when the store is given to the log, and changes are written behind, in batches, on a background thread
+ */
+public interface LoginAttemptStore {
+
+    /**
+     * Returns all the state saved by {@link #save(Map)}, keyed by username
+     */
+    ImmutableMap<String, LoginAttemptState> load();
+
+    /**
+     * Saves a batch of changes, keyed by username.  An empty Optional means that there is no longer any state for that user, and it should be removed
+     *
+     * @param changes the changes since the last save
+     */
+    void save(Map<String, Optional<LoginAttemptState>> changes);
+}
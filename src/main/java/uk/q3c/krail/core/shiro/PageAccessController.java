@@ -13,31 +13,52 @@
 package uk.q3c.krail.core.shiro;
 
 import com.google.inject.Inject;
+import net.engio.mbassy.listener.Handler;
+import net.engio.mbassy.listener.Listener;
+import org.apache.shiro.authz.Permission;
 import org.apache.shiro.subject.Subject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.q3c.krail.core.eventbus.SessionBus;
+import uk.q3c.krail.core.eventbus.SubscribeTo;
+import uk.q3c.krail.core.guice.vsscope.VaadinSessionScoped;
 import uk.q3c.krail.core.navigate.sitemap.MasterSitemap;
 import uk.q3c.krail.core.navigate.sitemap.MasterSitemapNode;
 import uk.q3c.krail.core.navigate.sitemap.UserSitemapNode;
+import uk.q3c.krail.core.user.status.UserStatusBusMessage;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * Delegate for user access control when relating specifically to pages.
+ * <p>
+ * Once the {@link MasterSitemap} has been published, decisions are cached for the session's Subject, using the {@link PagePermission} prepared by the
+ * sitemap for each node.  The cache is discarded when a {@link UserStatusBusMessage} is received, and also whenever the Subject, its principal, its
+ * authenticated or remembered state, the published version of the sitemap, or the {@link AuthorisationGeneration} differs from that for which the
+ * decisions were made - so a decision can never outlive a login, logout or sitemap change, whatever order bus messages are delivered in.
  *
  * @author David Sowerby
  */
+@VaadinSessionScoped
+@Listener
+@SubscribeTo(SessionBus.class)
 public class PageAccessController {
     private static Logger log = LoggerFactory.getLogger(PageAccessController.class);
+    private final AuthorisationGeneration authorisationGeneration;
     private final MasterSitemap sitemap;
+    private volatile Decisions decisions;
 
     @Inject
-    protected PageAccessController(MasterSitemap sitemap) {
+    protected PageAccessController(MasterSitemap sitemap, AuthorisationGeneration authorisationGeneration) {
         super();
         this.sitemap = sitemap;
+        this.authorisationGeneration = authorisationGeneration;
     }
 
     public boolean isAuthorised(Subject subject, UserSitemapNode userNode) {
@@ -47,18 +68,30 @@ public class PageAccessController {
     public boolean isAuthorised(Subject subject, MasterSitemapNode masterNode) {
         checkNotNull(masterNode, "node");
         checkNotNull(subject, "subject");
-        String virtualPage = sitemap.navigationState(masterNode)
-                                    .getVirtualPage();
-        checkNotNull(virtualPage, "virtualPage");
+        Decisions current = decisionsFor(subject);
+        if (current != null) {
+            Boolean decision = current.get(masterNode);
+            if (decision != null) {
+                return decision;
+            }
+        }
+        boolean decision = decide(subject, masterNode);
+        if (current != null) {
+            current.put(masterNode, decision);
+        }
+        return decision;
+    }
+
+    private boolean decide(Subject subject, MasterSitemapNode masterNode) {
         checkNotNull(masterNode.getPageAccessControl(), "node.getPageAccessControl(), " + masterNode.getUriSegment());
-        log.debug("checking page access rights for {}", virtualPage);
+        log.debug("checking page access rights for {}", masterNode.getUriSegment());
         switch (masterNode.getPageAccessControl()) {
             case AUTHENTICATION:
                 return subject.isAuthenticated();
             case GUEST:
                 return (!subject.isAuthenticated()) && (!subject.isRemembered());
             case PERMISSION:
-                return subject.isPermitted(new PagePermission(virtualPage));
+                return subject.isPermitted(sitemap.pagePermission(masterNode));
             case PUBLIC:
                 return true;
             case ROLES:
@@ -69,18 +102,116 @@ public class PageAccessController {
         return false;
     }
 
+    /**
+     * Returns the children of {@code parentNode} which {@code subject} is authorised to see.  Decisions which are not already cached are made in a
+     * single pass, with all the {@link PageAccessControl#PERMISSION} checks passed to the Subject in one call
+     */
     public List<MasterSitemapNode> authorisedChildNodes(Subject subject, MasterSitemapNode parentNode) {
         checkNotNull(subject);
         if (parentNode == null) {
             return new ArrayList<>();
         }
         List<MasterSitemapNode> subnodes = sitemap.getChildren(parentNode);
+        Decisions current = decisionsFor(subject);
+        Boolean[] authorised = new Boolean[subnodes.size()];
+        List<Integer> permissionIndexes = new ArrayList<>();
+        List<Permission> permissions = new ArrayList<>();
+        for (int i = 0; i < authorised.length; i++) {
+            MasterSitemapNode node = subnodes.get(i);
+            authorised[i] = (current == null) ? null : current.get(node);
+            if (authorised[i] == null) {
+                checkNotNull(node.getPageAccessControl(), "node.getPageAccessControl(), " + node.getUriSegment());
+                if (node.getPageAccessControl() == PageAccessControl.PERMISSION) {
+                    permissionIndexes.add(i);
+                    permissions.add(sitemap.pagePermission(node));
+                } else {
+                    authorised[i] = decide(subject, node);
+                }
+            }
+        }
+        if (!permissions.isEmpty()) {
+            boolean[] permitted = subject.isPermitted(permissions);
+            for (int p = 0; p < permitted.length; p++) {
+                authorised[permissionIndexes.get(p)] = permitted[p];
+            }
+        }
+
         ArrayList<MasterSitemapNode> authorisedSubNodes = new ArrayList<MasterSitemapNode>();
-        for (MasterSitemapNode node : subnodes) {
-            if (isAuthorised(subject, node)) {
+        for (int i = 0; i < authorised.length; i++) {
+            MasterSitemapNode node = subnodes.get(i);
+            if (current != null) {
+                current.put(node, authorised[i]);
+            }
+            if (authorised[i]) {
                 authorisedSubNodes.add(node);
             }
         }
         return authorisedSubNodes;
     }
+
+    /**
+     * Returns the cached decisions for {@code subject} in its current state, replacing them if they were made for a different state, or null if
+     * decisions cannot be cached because the sitemap is not published
+     */
+    private Decisions decisionsFor(Subject subject) {
+        int sitemapVersion = sitemap.getPublishedVersion();
+        if (sitemapVersion == 0) {
+            return null;
+        }
+        int generation = authorisationGeneration.current();
+        Decisions current = decisions;
+        if (current == null || !current.isFor(subject, sitemapVersion, generation)) {
+            current = new Decisions(subject, sitemapVersion, generation);
+            decisions = current;
+        }
+        return current;
+    }
+
+    /**
+     * Discards all cached decisions
+     */
+    public void clearCache() {
+        decisions = null;
+    }
+
+    @Handler
+    public void userStatusChanged(UserStatusBusMessage busMessage) {
+        log.debug("UserStatusBusMessage received, clearing page access decisions");
+        clearCache();
+    }
+
+    /**
+     * The decisions made for one Subject in one state
+     */
+    private static class Decisions {
+        private final boolean authenticated;
+        private final ConcurrentMap<MasterSitemapNode, Boolean> decisions = new ConcurrentHashMap<>();
+        private final int generation;
+        private final Object principal;
+        private final boolean remembered;
+        private final int sitemapVersion;
+        private final Subject subject;
+
+        private Decisions(Subject subject, int sitemapVersion, int generation) {
+            this.subject = subject;
+            this.sitemapVersion = sitemapVersion;
+            this.generation = generation;
+            this.principal = subject.getPrincipal();
+            this.authenticated = subject.isAuthenticated();
+            this.remembered = subject.isRemembered();
+        }
+
+        private boolean isFor(Subject subject, int sitemapVersion, int generation) {
+            return this.subject == subject && this.sitemapVersion == sitemapVersion && this.generation == generation && authenticated == subject.isAuthenticated() && remembered ==
+                    subject.isRemembered() && Objects.equals(principal, subject.getPrincipal());
+        }
+
+        private Boolean get(MasterSitemapNode node) {
+            return decisions.get(node);
+        }
+
+        private void put(MasterSitemapNode node, Boolean decision) {
+            decisions.put(node, decision);
+        }
+    }
 }
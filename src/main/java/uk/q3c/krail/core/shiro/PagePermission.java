@@ -15,7 +15,10 @@ package uk.q3c.krail.core.shiro;
 import org.apache.shiro.authz.permission.WildcardPermission;
 import uk.q3c.krail.core.navigate.NavigationState;
 
-public class PagePermission extends WildcardPermission {
+import java.util.List;
+import java.util.Set;
+
+public class PagePermission extends WildcardPermission implements TokenisedPermission {
 
     public PagePermission(NavigationState navigationState) {
         super();
@@ -88,4 +91,9 @@ public class PagePermission extends WildcardPermission {
         construct(virtualPage, false, false);
     }
 
+    @Override
+    public List<Set<String>> getParts() {
+        return super.getParts();
+    }
+
 }
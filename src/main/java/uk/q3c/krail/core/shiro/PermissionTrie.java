@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.shiro;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.authz.permission.WildcardPermission;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.*;
+
+/**
+ * The permissions granted to a user, compiled into a prefix tree of permission parts, so that checking a {@link TokenisedPermission} (or a
+ * permission string) takes time proportional to the number of its parts, rather than to the number of permissions granted.  The result is the same
+ * as {@link WildcardPermission#implies(Permission)} applied to each granted permission in turn:
+ * <ul>
+ * <li>a granted part matches a token if it contains the token or contains the wildcard token "*"</li>
+ * <li>a granted permission with fewer parts than the one being checked implies it, if all its parts match</li>
+ * <li>a granted permission with more parts than the one being checked implies it only if all the extra parts are wildcards</li>
+ * </ul>
+ * A granted part with several tokens (for example "view,edit") creates a branch for each token.  A permission to be checked which has more than one
+ * token in any part, or which is not a {@link TokenisedPermission}, cannot be resolved by walking a single path, so it is checked against each granted
+ * permission in turn - as are any granted permissions which are not {@link WildcardPermission}s.
+ * <p>
+ * Tokens are lower-cased, matching the default (case insensitive) behaviour of {@link WildcardPermission}
+ */
+@Immutable
+public class PermissionTrie {
+
+    private static final String PART_DIVIDER = ":";
+    private static final String SUBPART_DIVIDER = ",";
+    private static final String WILDCARD = "*";
+    private static final Splitter PART_SPLITTER = Splitter.on(PART_DIVIDER)
+                                                          .trimResults();
+    private static final Splitter TOKEN_SPLITTER = Splitter.on(SUBPART_DIVIDER)
+                                                           .trimResults()
+                                                           .omitEmptyStrings();
+    private final ImmutableList<Permission> granted;
+    private final ImmutableList<Permission> others;
+    private final Node root = new Node();
+
+    /**
+     * @param stringPermissions
+     *         granted permissions in {@link WildcardPermission} string form
+     * @param objectPermissions
+     *         granted permission objects.  Those which are not {@link TokenisedPermission}s are checked by {@link Permission#implies(Permission)}
+     */
+    public PermissionTrie(Collection<String> stringPermissions, Collection<Permission> objectPermissions) {
+        ImmutableList.Builder<Permission> grantedBuilder = ImmutableList.builder();
+        ImmutableList.Builder<Permission> othersBuilder = ImmutableList.builder();
+        for (String permission : stringPermissions) {
+            add(tokenise(permission));
+            grantedBuilder.add(new WildcardPermission(permission));
+        }
+        for (Permission permission : objectPermissions) {
+            if (permission instanceof TokenisedPermission) {
+                add(((TokenisedPermission) permission).getParts());
+            } else {
+                othersBuilder.add(permission);
+            }
+            grantedBuilder.add(permission);
+        }
+        granted = grantedBuilder.build();
+        others = othersBuilder.build();
+    }
+
+    /**
+     * Splits {@code permission} into parts and tokens, in the same way as {@link WildcardPermission}
+     */
+    public static List<Set<String>> tokenise(String permission) {
+        List<Set<String>> parts = new ArrayList<>();
+        for (String part : PART_SPLITTER.split(permission.toLowerCase())) {
+            Set<String> tokens = new LinkedHashSet<>(TOKEN_SPLITTER.splitToList(part));
+            if (tokens.isEmpty()) {
+                throw new IllegalArgumentException("Permission '" + permission + "' has an empty part");
+            }
+            parts.add(tokens);
+        }
+        return parts;
+    }
+
+    private void add(List<Set<String>> parts) {
+        add(root, parts, 0);
+    }
+
+    private void add(Node node, List<Set<String>> parts, int index) {
+        if (index == parts.size()) {
+            node.granted = true;
+            return;
+        }
+        if (allWildcards(parts, index)) {
+            node.grantedIfEndsHere = true;
+        }
+        Set<String> tokens = parts.get(index);
+        if (tokens.contains(WILDCARD)) {
+            add(node.child(WILDCARD), parts, index + 1);
+        } else {
+            for (String token : tokens) {
+                add(node.child(token), parts, index + 1);
+            }
+        }
+    }
+
+    private boolean allWildcards(List<Set<String>> parts, int from) {
+        for (int i = from; i < parts.size(); i++) {
+            if (!parts.get(i)
+                      .contains(WILDCARD)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean implies(String permission) {
+        return implies(tokenise(permission), null);
+    }
+
+    public boolean implies(Permission permission) {
+        if (permission instanceof TokenisedPermission) {
+            return implies(((TokenisedPermission) permission).getParts(), permission);
+        }
+        return scan(granted, permission);
+    }
+
+    private boolean implies(List<Set<String>> parts, Permission permission) {
+        for (Set<String> part : parts) {
+            if (part.size() != 1) {
+                return scan(granted, (permission == null) ? new WildcardPermission(join(parts)) : permission);
+            }
+        }
+        if (matches(root, parts, 0)) {
+            return true;
+        }
+        return !others.isEmpty() && scan(others, (permission == null) ? new WildcardPermission(join(parts)) : permission);
+    }
+
+    private boolean matches(Node node, List<Set<String>> parts, int index) {
+        if (node.granted) {
+            return true;
+        }
+        if (index == parts.size()) {
+            return node.grantedIfEndsHere;
+        }
+        String token = parts.get(index)
+                            .iterator()
+                            .next();
+        Node exact = node.children.get(token);
+        if (exact != null && matches(exact, parts, index + 1)) {
+            return true;
+        }
+        Node wildcard = node.children.get(WILDCARD);
+        return wildcard != null && wildcard != exact && matches(wildcard, parts, index + 1);
+    }
+
+    private boolean scan(List<Permission> permissions, Permission permission) {
+        for (Permission p : permissions) {
+            if (p.implies(permission)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String join(List<Set<String>> parts) {
+        StringBuilder buf = new StringBuilder();
+        for (Set<String> part : parts) {
+            if (buf.length() > 0) {
+                buf.append(PART_DIVIDER);
+            }
+            buf.append(String.join(SUBPART_DIVIDER, part));
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Returns all the granted permissions
+     */
+    public ImmutableList<Permission> getGranted() {
+        return granted;
+    }
+
+    private static class Node {
+        private final Map<String, Node> children = new HashMap<>(4);
+        private boolean granted;
+        private boolean grantedIfEndsHere;
+
+        private Node child(String token) {
+            return children.computeIfAbsent(token, t -> new Node());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.shiro;
+
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.authz.permission.WildcardPermission;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A {@link WildcardPermission} which makes its parts available, so that it can be matched by a {@link PermissionTrie} without a linear scan of
+ * granted permissions
+ */
+public interface TokenisedPermission extends Permission {
+
+    /**
+     * Returns the parts of the permission, each part being a set of (already normalised) tokens
+     */
+    List<Set<String>> getParts();
+}
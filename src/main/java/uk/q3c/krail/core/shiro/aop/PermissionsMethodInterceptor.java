@@ -11,17 +11,36 @@
 
 package uk.q3c.krail.core.shiro.aop;
 
+import com.google.common.collect.ImmutableList;
+import org.apache.shiro.SecurityUtils;
+import org.apache.shiro.UnavailableSecurityManagerException;
 import org.apache.shiro.authz.AuthorizationException;
+import org.apache.shiro.authz.Authorizer;
+import org.apache.shiro.authz.ModularRealmAuthorizer;
+import org.apache.shiro.authz.Permission;
 import org.apache.shiro.authz.UnauthorizedException;
 import org.apache.shiro.authz.annotation.Logical;
 import org.apache.shiro.authz.annotation.RequiresPermissions;
 import org.apache.shiro.authz.aop.PermissionAnnotationHandler;
+import org.apache.shiro.authz.permission.WildcardPermissionResolver;
+import org.apache.shiro.mgt.AuthorizingSecurityManager;
+import org.apache.shiro.mgt.SecurityManager;
+import org.apache.shiro.realm.AuthorizingRealm;
+import org.apache.shiro.realm.Realm;
 import org.apache.shiro.subject.Subject;
+import uk.q3c.krail.core.shiro.TokenisedWildcardPermission;
+
+import java.util.Collection;
 
 /**
  * AOP MethodInterceptor to detect whether a user has the required permissions.  Detection logic is a copy of the native Shiro version in {@link
  * PermissionAnnotationHandler}
  * <p>
+ * When every Realm resolves permission strings with Shiro's default {@link WildcardPermissionResolver}, the permission strings of each annotation
+ * are parsed once, by {@link #prepare(RequiresPermissions)}, into {@link TokenisedWildcardPermission}s.  Otherwise the strings are passed to the
+ * Subject on each invocation, so that a Realm with a custom PermissionResolver resolves them into its own Permission type.  The decision is made
+ * when a method is first invoked, so Realms should be configured before then
+ * <p>
  * Created by David Sowerby on 10/06/15.
  */
 public class PermissionsMethodInterceptor extends ShiroMethodInterceptor<RequiresPermissions> {
@@ -32,6 +51,78 @@ public class PermissionsMethodInterceptor extends ShiroMethodInterceptor<Require
     }
 
 
+    @Override
+    protected Check prepare(RequiresPermissions rpAnnotation) {
+        if (!wildcardPermissionResolution()) {
+            return super.prepare(rpAnnotation);
+        }
+        ImmutableList.Builder<Permission> builder = ImmutableList.builder();
+        for (String permission : rpAnnotation.value()) {
+            builder.add(new TokenisedWildcardPermission(permission));
+        }
+        ImmutableList<Permission> permissions = builder.build();
+        if (permissions.size() == 1) {
+            Permission permission = permissions.get(0);
+            return () -> {
+                if (!getSubject().isPermitted(permission)) {
+                    exception();
+                }
+            };
+        }
+        if (Logical.AND.equals(rpAnnotation.logical())) {
+            return () -> {
+                if (!getSubject().isPermittedAll(permissions)) {
+                    exception();
+                }
+            };
+        }
+        return () -> {
+            Subject subject = getSubject();
+            for (Permission permission : permissions) {
+                if (subject.isPermitted(permission)) {
+                    return;
+                }
+            }
+            exception();
+        };
+    }
+
+    /**
+     * Returns true if permission strings are resolved by a {@link WildcardPermissionResolver} in every Realm, and can therefore be parsed in
+     * advance.  Returns false if that cannot be established (for example if there is no SecurityManager yet, or a Realm is not an {@link
+     * AuthorizingRealm})
+     *
+     * @return true if permission strings are resolved by a {@link WildcardPermissionResolver} in every Realm
+     */
+    protected boolean wildcardPermissionResolution() {
+        SecurityManager securityManager;
+        try {
+            securityManager = SecurityUtils.getSecurityManager();
+        } catch (UnavailableSecurityManagerException e) {
+            return false;
+        }
+        if (!(securityManager instanceof AuthorizingSecurityManager)) {
+            return false;
+        }
+        Authorizer authorizer = ((AuthorizingSecurityManager) securityManager).getAuthorizer();
+        if (!(authorizer instanceof ModularRealmAuthorizer)) {
+            return false;
+        }
+        Collection<Realm> realms = ((ModularRealmAuthorizer) authorizer).getRealms();
+        if (realms == null || realms.isEmpty()) {
+            return false;
+        }
+        for (Realm realm : realms) {
+            if (realm instanceof Authorizer) {
+                if (!(realm instanceof AuthorizingRealm) || !(((AuthorizingRealm) realm).getPermissionResolver() instanceof
+                        WildcardPermissionResolver)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     @Override
     public void assertAuthorized(RequiresPermissions rpAnnotation) {
 
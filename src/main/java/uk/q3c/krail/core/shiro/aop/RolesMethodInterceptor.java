@@ -11,11 +11,13 @@
 
 package uk.q3c.krail.core.shiro.aop;
 
+import com.google.common.collect.ImmutableList;
 import org.apache.shiro.authz.AuthorizationException;
 import org.apache.shiro.authz.UnauthorizedException;
 import org.apache.shiro.authz.annotation.Logical;
 import org.apache.shiro.authz.annotation.RequiresRoles;
 import org.apache.shiro.authz.aop.RoleAnnotationHandler;
+import org.apache.shiro.subject.Subject;
 
 import java.util.Arrays;
 
@@ -23,6 +25,8 @@ import java.util.Arrays;
  * AOP MethodInterceptor to detect whether a user has the required roles.   Detection logic is a copy of the native Shiro version in {@link
  * RoleAnnotationHandler}
  * <p>
+ * The roles of each annotation are copied once, by {@link #prepare(RequiresRoles)}, rather than on every call
+ * <p>
  * Created by David Sowerby on 10/06/15.
  */
 public class RolesMethodInterceptor extends ShiroMethodInterceptor<RequiresRoles> {
@@ -34,6 +38,35 @@ public class RolesMethodInterceptor extends ShiroMethodInterceptor<RequiresRoles
     }
 
 
+    @Override
+    protected Check prepare(RequiresRoles rrAnnotation) {
+        ImmutableList<String> roles = ImmutableList.copyOf(rrAnnotation.value());
+        if (roles.size() == 1) {
+            String role = roles.get(0);
+            return () -> {
+                if (!getSubject().hasRole(role)) {
+                    exception();
+                }
+            };
+        }
+        if (Logical.AND.equals(rrAnnotation.logical())) {
+            return () -> {
+                if (!getSubject().hasAllRoles(roles)) {
+                    exception();
+                }
+            };
+        }
+        return () -> {
+            Subject subject = getSubject();
+            for (String role : roles) {
+                if (subject.hasRole(role)) {
+                    return;
+                }
+            }
+            exception();
+        };
+    }
+
     /**
      * Ensures that the calling <code>Subject</code> has the Annotation's specified roles, and if not, calls {@link #exception()} indicating that access is
      * denied.
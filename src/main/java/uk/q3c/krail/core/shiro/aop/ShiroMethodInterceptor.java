@@ -20,12 +20,31 @@ import org.slf4j.LoggerFactory;
 import uk.q3c.krail.core.shiro.SubjectProvider;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
+ * Base class for the Shiro annotation interceptors.
+ * <p>
+ * When the {@link DefaultAnnotationResolver} is used, the annotation for each intercepted method is looked up only once, on first invocation, and
+ * turned into a {@link Check} by {@link #prepare(Annotation)} - so that a sub-class can parse the annotation's values once rather than on every call.
+ * After that, an invocation makes no reflective calls.  Any other {@link AnnotationResolver} is called on every invocation, as it may not give the
+ * same answer each time.
+ * <p>
  * Created by David Sowerby on 10/06/15.
  */
 public abstract class ShiroMethodInterceptor<A extends Annotation> implements MethodInterceptor {
     private static Logger log = LoggerFactory.getLogger(ShiroMethodInterceptor.class);
+    private static final Check NO_CHECK = () -> {
+    };
+    /**
+     * Placeholder for a method which is not annotated itself, so that the annotation (if any) comes from the target class
+     */
+    private static final Check CLASS_CHECK = () -> {
+    };
+    private final ConcurrentMap<Class<?>, Check> classChecks = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Method, Check> methodChecks = new ConcurrentHashMap<>();
     protected Class<A> annotationClass;
     protected Class<? extends RuntimeException> exceptionToThrow;
     @Inject
@@ -50,10 +69,48 @@ public abstract class ShiroMethodInterceptor<A extends Annotation> implements Me
     }
 
     public void assertAuthorized(MethodInvocation mi) {
-        A annotation = getAnnotationResolver().getAnnotation(mi, annotationClass);
-        if (annotation != null) {
-            assertAuthorized(annotation);
+        if (getAnnotationResolver().getClass() != DefaultAnnotationResolver.class) {
+            A annotation = getAnnotationResolver().getAnnotation(mi, annotationClass);
+            if (annotation != null) {
+                assertAuthorized(annotation);
+            }
+            return;
+        }
+        Check check = methodChecks.get(mi.getMethod());
+        if (check == null) {
+            check = methodChecks.computeIfAbsent(mi.getMethod(), this::methodCheck);
+        }
+        if (check == CLASS_CHECK) {
+            Class<?> targetClass = mi.getThis()
+                                     .getClass();
+            check = classChecks.get(targetClass);
+            if (check == null) {
+                check = classChecks.computeIfAbsent(targetClass, c -> prepareOrNone(c.getAnnotation(annotationClass)));
+            }
         }
+        check.assertAuthorized();
+    }
+
+    private Check methodCheck(Method method) {
+        A annotation = method.getAnnotation(annotationClass);
+        return (annotation == null) ? CLASS_CHECK : prepare(annotation);
+    }
+
+    private Check prepareOrNone(A annotation) {
+        return (annotation == null) ? NO_CHECK : prepare(annotation);
+    }
+
+    /**
+     * Returns the {@link Check} to make for {@code annotation}.  Called once for each intercepted method (when the {@link DefaultAnnotationResolver}
+     * is used).  By default the check calls {@link #assertAuthorized(Annotation)}; override to parse the annotation's values in advance
+     *
+     * @param annotation
+     *         the annotation found for the method
+     *
+     * @return the check to make on each invocation of the method
+     */
+    protected Check prepare(A annotation) {
+        return () -> assertAuthorized(annotation);
     }
 
     public AnnotationResolver getAnnotationResolver() {
@@ -80,4 +137,12 @@ public abstract class ShiroMethodInterceptor<A extends Annotation> implements Me
         this.exceptionToThrow = exceptionToThrow;
         return this;
     }
+
+    /**
+     * An authorisation check prepared from an annotation, which calls {@link #exception()} if the current Subject is not authorised
+     */
+    @FunctionalInterface
+    protected interface Check {
+        void assertAuthorized();
+    }
 }
@@ -31,11 +31,14 @@ import uk.q3c.krail.core.guice.uiscope.UIScoped;
 import uk.q3c.krail.core.navigate.Navigator;
 import uk.q3c.krail.core.push.Broadcaster;
 import uk.q3c.krail.core.push.Broadcaster.BroadcastListener;
+import uk.q3c.krail.core.push.PushMessage;
 import uk.q3c.krail.core.push.PushMessageRouter;
 import uk.q3c.krail.core.view.KrailView;
 import uk.q3c.krail.core.view.KrailViewHolder;
 import uk.q3c.krail.i18n.*;
 
+import java.util.List;
+
 /**
  * The base class for all Krail UIs, it provides an essential part of the {@link UIScoped} mechanism. It also provides
  * support for Vaadin Server Push (but only if you annotate your sub-class with {@link Push}), by capturing broadcast
@@ -233,6 +236,17 @@ public abstract class ScopedUI extends UI implements KrailViewHolder, BroadcastL
         });
     }
 
+    /**
+     * Processes all of {@code messages} within a single {@link #access(Runnable)}, rather than one for each message
+     */
+    @Override
+    public void receiveBroadcasts(final List<PushMessage> messages) {
+        access(() -> {
+            log.debug("receiving {} messages", messages.size());
+            processBroadcastMessages(messages);
+        });
+    }
+
     /**
      * Distribute the message to listeners within this UIScope
      */
@@ -240,6 +254,13 @@ public abstract class ScopedUI extends UI implements KrailViewHolder, BroadcastL
         pushMessageRouter.messageIn(group, message);
     }
 
+    /**
+     * Distribute the messages to listeners within this UIScope
+     */
+    protected void processBroadcastMessages(List<PushMessage> messages) {
+        pushMessageRouter.messagesIn(messages);
+    }
+
     /**
      * Responds to a locale change from {@link CurrentLocale} and updates the translation for this UI and the current
      * KrailView
@@ -249,10 +270,10 @@ public abstract class ScopedUI extends UI implements KrailViewHolder, BroadcastL
     @SuppressWarnings("UnusedParameters")
     @Handler
     public void localeChanged(LocaleChangeBusMessage busMessage) {
-        translator.translate(this);
+        translator.retranslate(this);
         //during initial set up view has not been created but locale change gets called for other components
         if (getView() != null) {
-            translator.translate(getView());
+            translator.retranslate(getView());
         }
     }
 
@@ -24,10 +24,7 @@ import uk.q3c.util.ID;
 
 import javax.annotation.Nonnull;
 import java.lang.reflect.Field;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
 
 /**
  * Default implementation for {@link OptionPopup}
@@ -76,9 +73,15 @@ public class DefaultOptionPopup implements OptionPopup {
             baseLayout.addComponent(label, 0, 0);
         } else {
             calculateWindowSize(window, keys.size());
+            //resolve all the values in one call, rather than one call per field
+            List<OptionKey<?>> optionKeys = new ArrayList<>();
+            for (OptionKey key : keys.keySet()) {
+                optionKeys.add(key);
+            }
+            Map<OptionKey<?>, Object> values = option.get(optionKeys);
             int row = 0;
             for (OptionKey key : keys.keySet()) {
-                Object value = option.get(key);
+                Object value = values.get(key);
                 AbstractField uiField = dataTypeToUI.componentFor(value);
                 uiField.setCaption(translate.from(key.getKey()));
                 uiField.setDescription(translate.from(key.getDescriptionKey()));
@@ -12,19 +12,16 @@
 package uk.q3c.krail.core.user.opt;
 
 import com.google.common.base.Converter;
-import com.google.common.collect.ImmutableList;
 import com.google.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.q3c.krail.core.user.opt.cache.OptionCacheKey;
 import uk.q3c.krail.core.user.opt.cache.OptionKeyException;
 import uk.q3c.krail.core.user.profile.RankOption;
+import uk.q3c.krail.core.user.profile.UserHierarchy;
 
 import javax.annotation.Nonnull;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -153,17 +150,69 @@ public class InMemoryOptionDao implements OptionDao {
     @Override
     public Optional<Object> getHighestRankedValue(@Nonnull OptionCacheKey cacheKey) {
         checkRankOption(cacheKey, RankOption.HIGHEST_RANK);
-        ImmutableList<String> ranks = cacheKey.getHierarchy()
-                                              .ranksForCurrentUser();
-        LinkedHashMap<String, Object> values = getValuesForRanks(cacheKey, ranks);
-        for (String rank : ranks) {
-            if (values.containsKey(rank)) {
-                return Optional.of(values.get(rank));
+        return highest(valuesForRanks(cacheKey, cacheKey.getHierarchy()
+                                                        .ranksForCurrentUser()));
+    }
+
+    /**
+     * Returns the values for {@code ranks} (in hierarchy order) in {@code cacheKey}'s hierarchy, with a single look up in the store
+     */
+    @Nonnull
+    protected Object[] valuesForRanks(@Nonnull OptionCacheKey cacheKey, @Nonnull List<String> ranks) {
+        return optionStore.valuesForRanks(cacheKey.getHierarchy()
+                                                  .persistenceName(), ranks, cacheKey.getOptionKey());
+    }
+
+    private Optional<Object> highest(Object[] values) {
+        for (Object value : values) {
+            if (value != null) {
+                return Optional.of(value);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<Object> lowest(Object[] values) {
+        for (int i = values.length - 1; i >= 0; i--) {
+            if (values[i] != null) {
+                return Optional.of(values[i]);
             }
         }
         return Optional.empty();
     }
 
+    /**
+     * Returns the values for all of {@code cacheKeys}.  The ranks for the current user are evaluated only once for each hierarchy, rather than once for
+     * every key
+     * <p>
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Map<OptionCacheKey, Optional<Object>> getValues(@Nonnull Collection<? extends OptionCacheKey> cacheKeys) {
+        checkNotNull(cacheKeys);
+        Map<UserHierarchy, List<String>> ranks = new IdentityHashMap<>();
+        Map<OptionCacheKey, Optional<Object>> values = new HashMap<>();
+        for (OptionCacheKey cacheKey : cacheKeys) {
+            switch (cacheKey.getRankOption()) {
+                case SPECIFIC_RANK:
+                    values.put(cacheKey, getValue(cacheKey));
+                    break;
+                case HIGHEST_RANK:
+                    values.put(cacheKey, highest(valuesForRanks(cacheKey, ranks.computeIfAbsent(cacheKey.getHierarchy(),
+                            UserHierarchy::ranksForCurrentUser))));
+                    break;
+                case LOWEST_RANK:
+                    values.put(cacheKey, lowest(valuesForRanks(cacheKey, ranks.computeIfAbsent(cacheKey.getHierarchy(),
+                            UserHierarchy::ranksForCurrentUser))));
+                    break;
+                default:
+                    values.put(cacheKey, Optional.empty());
+            }
+        }
+        return values;
+    }
+
     @Nonnull
     protected LinkedHashMap<String, Object> getValuesForRanks(@Nonnull OptionCacheKey cacheKey, List<String> rankNames) {
 
@@ -206,16 +255,8 @@ public class InMemoryOptionDao implements OptionDao {
     @Override
     public Optional<Object> getLowestRankedValue(@Nonnull OptionCacheKey cacheKey) {
         checkRankOption(cacheKey, RankOption.LOWEST_RANK);
-        ImmutableList<String> ranks = cacheKey.getHierarchy()
-                                              .ranksForCurrentUser();
-        LinkedHashMap<String, Object> values = getValuesForRanks(cacheKey, ranks);
-        ImmutableList<String> reversedRanks = ranks.reverse();
-        for (String rank : reversedRanks) {
-            if (values.containsKey(rank)) {
-                return Optional.of(values.get(rank));
-            }
-        }
-        return Optional.empty();
+        return lowest(valuesForRanks(cacheKey, cacheKey.getHierarchy()
+                                                       .ranksForCurrentUser()));
     }
 
     @Nonnull
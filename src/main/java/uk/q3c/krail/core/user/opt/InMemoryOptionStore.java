@@ -18,21 +18,27 @@ import com.google.inject.Singleton;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * A volatile, in-memory store for user options
+ * <p>
+ * Values are held in a single flat index, keyed by hierarchy name and {@link OptionKey#compositeKey()}.  Each entry holds the values for all ranks of
+ * that option, in an immutable {@link RankValues} which is replaced on every change, so a read is one map probe followed by a scan of a short array and
+ * needs no lock
  */
 @Singleton
 @ThreadSafe
 public class InMemoryOptionStore implements OptionStore {
 
-    private Map<String, Map<String, Map<String, Object>>> map = new ConcurrentHashMap<>();
+    private final ConcurrentMap<StoreKey, RankValues> index = new ConcurrentHashMap<>();
 
 
     @Inject
@@ -41,55 +47,26 @@ public class InMemoryOptionStore implements OptionStore {
 
 
     @Override
-    public synchronized <T> void setValue(@Nonnull String hierarchyName, @Nonnull String rankName, @Nonnull OptionKey
+    public <T> void setValue(@Nonnull String hierarchyName, @Nonnull String rankName, @Nonnull OptionKey
             optionKey, @Nonnull T value) {
         checkNotNull(hierarchyName);
         checkNotNull(rankName);
         checkNotNull(optionKey);
         checkNotNull(value);
-
-
-        // create a map for the hierarchy if it is not there
-        if (!map.containsKey(hierarchyName)) {
-            map.put(hierarchyName, new ConcurrentHashMap<>());
-        }
-
-        Map<String, Map<String, Object>> optionMap = map.get(hierarchyName);
-
-        if (optionMap == null) {
-            optionMap = new ConcurrentHashMap<>();
-            map.put(hierarchyName, optionMap);
-        }
-
-        String compositeKey = optionKey.compositeKey();
-
-        //if there is no levelValueMap for this option, create it
-        if (!optionMap.containsKey(compositeKey)) {
-            optionMap.put(compositeKey, new ConcurrentHashMap<>());
-        }
-
-        Map<String, Object> levelValueMap = optionMap.get(compositeKey);
-
-        //put the value
-        levelValueMap.put(rankName, value);
+        index.compute(new StoreKey(hierarchyName, optionKey.compositeKey()), (k, rankValues) -> (rankValues == null ? RankValues.EMPTY : rankValues).with
+                (rankName, value));
     }
 
 
     @Override
     @Nullable
-    public synchronized Object getValue(@Nonnull String hierarchyName, @Nonnull String rankName, @Nonnull OptionKey
+    public Object getValue(@Nonnull String hierarchyName, @Nonnull String rankName, @Nonnull OptionKey
             optionKey) {
         checkNotNull(hierarchyName);
         checkNotNull(rankName);
         checkNotNull(optionKey);
-        Map<String, Map<String, Object>> optionMap = map.get(hierarchyName);
-        if (optionMap == null) {
-            return null;
-        }
-
-        Map<String, Object> valueMap = optionMap.get(optionKey.compositeKey());
-        return valueMap.get(rankName);
-
+        RankValues rankValues = index.get(new StoreKey(hierarchyName, optionKey.compositeKey()));
+        return (rankValues == null) ? null : rankValues.get(rankName);
     }
 
 
@@ -100,21 +77,16 @@ public class InMemoryOptionStore implements OptionStore {
         checkNotNull(hierarchyName);
         checkNotNull(rankNames);
         checkNotNull(optionKey);
-        Map<String, Map<String, Object>> optionMap = map.get(hierarchyName);
-        if (optionMap == null) {
-            return new HashMap<>();
-        }
-        Map<String, Object> valueMap = optionMap.get(optionKey.compositeKey());
-
-
         Map<String, Object> resultMap = new HashMap<>();
-        if (valueMap == null) {
+        RankValues rankValues = index.get(new StoreKey(hierarchyName, optionKey.compositeKey()));
+        if (rankValues == null) {
             return resultMap;
         }
 
         rankNames.forEach(rankName -> {
-            if (valueMap.containsKey(rankName)) {
-                resultMap.put(rankName, valueMap.get(rankName));
+            Object value = rankValues.get(rankName);
+            if (value != null) {
+                resultMap.put(rankName, value);
             }
         });
 
@@ -122,26 +94,141 @@ public class InMemoryOptionStore implements OptionStore {
 
     }
 
+    /**
+     * Returns the values for {@code rankNames} from a single look up in the index
+     * <p>
+     * {@inheritDoc}
+     */
+    @Nonnull
+    @Override
+    public Object[] valuesForRanks(@Nonnull String hierarchyName, @Nonnull List<String> rankNames, @Nonnull OptionKey optionKey) {
+        checkNotNull(hierarchyName);
+        checkNotNull(rankNames);
+        checkNotNull(optionKey);
+        Object[] values = new Object[rankNames.size()];
+        RankValues rankValues = index.get(new StoreKey(hierarchyName, optionKey.compositeKey()));
+        if (rankValues != null) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = rankValues.get(rankNames.get(i));
+            }
+        }
+        return values;
+    }
+
     @Nullable
     @Override
     public Object deleteValue(@Nonnull String hierarchyName, @Nonnull String rankName, @Nonnull OptionKey optionKey) {
         checkNotNull(hierarchyName);
         checkNotNull(rankName);
         checkNotNull(optionKey);
-        Map<String, Map<String, Object>> optionMap = map.get(hierarchyName);
-        if (optionMap == null) {
-            return null;
+        Object[] removed = new Object[1];
+        index.computeIfPresent(new StoreKey(hierarchyName, optionKey.compositeKey()), (k, rankValues) -> {
+            removed[0] = rankValues.get(rankName);
+            return rankValues.without(rankName);
+        });
+        return removed[0];
+
+    }
+
+
+    public void clear() {
+        index.clear();
+    }
+
+    /**
+     * Identifies an option within a hierarchy.  The hash is calculated once, on construction
+     */
+    private static final class StoreKey {
+        private final String compositeKey;
+        private final int hash;
+        private final String hierarchyName;
+
+        private StoreKey(String hierarchyName, String compositeKey) {
+            this.hierarchyName = hierarchyName;
+            this.compositeKey = compositeKey;
+            this.hash = 31 * hierarchyName.hashCode() + compositeKey.hashCode();
         }
-        Map<String, Object> valueMap = optionMap.get(optionKey.compositeKey());
-        if (valueMap == null) {
-            return null;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof StoreKey)) {
+                return false;
+            }
+            StoreKey that = (StoreKey) o;
+            return hash == that.hash && compositeKey.equals(that.compositeKey) && hierarchyName.equals(that.hierarchyName);
         }
-        return valueMap.remove(rankName);
 
+        @Override
+        public int hashCode() {
+            return hash;
+        }
     }
 
+    /**
+     * The values held for each rank of one option, in parallel arrays.  Instances are immutable - a change produces a new instance - and hierarchies
+     * have few ranks, so a linear scan is quicker than a map look up
+     */
+    private static final class RankValues {
+        private static final RankValues EMPTY = new RankValues(new String[0], new Object[0]);
+        private final String[] rankNames;
+        private final Object[] values;
+
+        private RankValues(String[] rankNames, Object[] values) {
+            this.rankNames = rankNames;
+            this.values = values;
+        }
 
-    public void clear() {
-        map.clear();
+        private int indexOf(String rankName) {
+            for (int i = 0; i < rankNames.length; i++) {
+                if (rankNames[i].equals(rankName)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Nullable
+        Object get(String rankName) {
+            int i = indexOf(rankName);
+            return (i < 0) ? null : values[i];
+        }
+
+        RankValues with(String rankName, Object value) {
+            int i = indexOf(rankName);
+            if (i >= 0) {
+                Object[] newValues = values.clone();
+                newValues[i] = value;
+                return new RankValues(rankNames, newValues);
+            }
+            String[] newRankNames = Arrays.copyOf(rankNames, rankNames.length + 1);
+            Object[] newValues = Arrays.copyOf(values, values.length + 1);
+            newRankNames[rankNames.length] = rankName;
+            newValues[values.length] = value;
+            return new RankValues(newRankNames, newValues);
+        }
+
+        /**
+         * Returns a copy without {@code rankName}, or null if no ranks would remain (which removes the entry from the index)
+         */
+        @Nullable
+        RankValues without(String rankName) {
+            int i = indexOf(rankName);
+            if (i < 0) {
+                return this;
+            }
+            if (rankNames.length == 1) {
+                return null;
+            }
+            String[] newRankNames = new String[rankNames.length - 1];
+            Object[] newValues = new Object[values.length - 1];
+            System.arraycopy(rankNames, 0, newRankNames, 0, i);
+            System.arraycopy(values, 0, newValues, 0, i);
+            System.arraycopy(rankNames, i + 1, newRankNames, i, rankNames.length - i - 1);
+            System.arraycopy(values, i + 1, newValues, i, values.length - i - 1);
+            return new RankValues(newRankNames, newValues);
+        }
     }
 }
@@ -15,6 +15,9 @@ import uk.q3c.krail.core.user.profile.UserHierarchy;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Implementations represent an Option which can be at any rank in a {@link UserHierarchy}.  All calls reference an
@@ -46,6 +49,24 @@ public interface Option {
     @Nonnull
     <T> T get(@Nonnull OptionKey<T> optionKey);
 
+    /**
+     * Returns the highest rank value for each of {@code optionKeys}, as {@link #get(OptionKey)} would, but in a single call.  Implementations should
+     * resolve all the keys together - this default implementation just calls {@link #get(OptionKey)} for each key
+     *
+     * @param optionKeys
+     *         identifiers for the options
+     *
+     * @return a map of key to value, with an entry for every key in {@code optionKeys}.  Each value is of the type of the key's default value
+     */
+    @Nonnull
+    default Map<OptionKey<?>, Object> get(@Nonnull Collection<? extends OptionKey<?>> optionKeys) {
+        Map<OptionKey<?>, Object> values = new LinkedHashMap<>();
+        for (OptionKey<?> optionKey : optionKeys) {
+            values.put(optionKey, get(optionKey));
+        }
+        return values;
+    }
+
     //------------------------------------------- get lowest--------------------------------------------------------
 
 
@@ -12,6 +12,8 @@
 package uk.q3c.krail.core.user.opt;
 
 import org.apache.shiro.authz.UnauthorizedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import uk.q3c.krail.core.shiro.SubjectIdentifier;
 import uk.q3c.krail.core.shiro.SubjectProvider;
 import uk.q3c.krail.core.user.opt.cache.OptionCache;
@@ -21,7 +23,7 @@ import uk.q3c.krail.core.user.profile.UserHierarchy;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.Optional;
+import java.util.*;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -45,6 +47,7 @@ import static uk.q3c.krail.core.user.profile.RankOption.*;
 
 public abstract class OptionBase implements Option {
 
+    private static Logger log = LoggerFactory.getLogger(OptionBase.class);
     private UserHierarchy hierarchy;
     private OptionCache optionCache;
     private SubjectIdentifier subjectIdentifier;
@@ -97,6 +100,66 @@ public abstract class OptionBase implements Option {
         }
     }
 
+    /**
+     * Resolves all of {@code optionKeys} with a single call to {@link OptionCache#getAll(Collection)}.  The {@link OptionCacheKey} for the first key is
+     * constructed in the usual way, and copied for the others, so that the highest rank name for the current user is looked up only once.
+     * If the batch fails for any reason, default values are returned, as they would be for {@link #get(OptionKey)}
+     */
+    @Override
+    @Nonnull
+    public synchronized Map<OptionKey<?>, Object> get(@Nonnull Collection<? extends OptionKey<?>> optionKeys) {
+        checkNotNull(optionKeys);
+        Map<OptionKey<?>, Object> values = new LinkedHashMap<>();
+        if (optionKeys.isEmpty()) {
+            return values;
+        }
+        Map<OptionKey<?>, OptionCacheKey> cacheKeys = new LinkedHashMap<>();
+        OptionCacheKey first = null;
+        for (OptionKey<?> optionKey : optionKeys) {
+            checkNotNull(optionKey);
+            OptionCacheKey cacheKey = (first == null) ? new OptionCacheKey(hierarchy, HIGHEST_RANK, 0, optionKey) : new OptionCacheKey(first, optionKey);
+            if (first == null) {
+                first = cacheKey;
+            }
+            cacheKeys.put(optionKey, cacheKey);
+        }
+        Map<OptionCacheKey, Optional<Object>> cached;
+        try {
+            cached = optionCache.getAll(new ArrayList<>(cacheKeys.values()));
+        } catch (Throwable e) {
+            log.error("Returning default values, exception or error was thrown during load. Exception was:  {}", e);
+            cached = Collections.emptyMap();
+        }
+        for (Map.Entry<OptionKey<?>, OptionCacheKey> entry : cacheKeys.entrySet()) {
+            values.put(entry.getKey(), resolve(entry.getKey(), cached.get(entry.getValue())));
+        }
+        return values;
+    }
+
+    /**
+     * Unwraps a value taken from the cache (values are held as an Optional, see {@link #set(Object, int, OptionKey)}), returning the default value of
+     * {@code optionKey} if there is no value, or it is of the wrong type
+     */
+    private Object resolve(OptionKey<?> optionKey, Optional<Object> cachedValue) {
+        Object defaultValue = optionKey.getDefaultValue();
+        if (cachedValue == null || !cachedValue.isPresent()) {
+            return defaultValue;
+        }
+        Object value = cachedValue.get();
+        if (value instanceof Optional) {
+            Optional<?> optionalValue = (Optional<?>) value;
+            if (!optionalValue.isPresent()) {
+                return defaultValue;
+            }
+            value = optionalValue.get();
+        }
+        if (value.getClass()
+                 .isAssignableFrom(defaultValue.getClass())) {
+            return value;
+        }
+        log.error("option value returned is of the wrong type for {}, returning default of {}", optionKey, defaultValue);
+        return defaultValue;
+    }
 
     @Nonnull
     @Override
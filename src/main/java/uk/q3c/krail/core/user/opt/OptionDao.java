@@ -18,6 +18,9 @@ import uk.q3c.krail.core.user.profile.RankOption;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -158,6 +161,38 @@ public interface OptionDao {
     @Nonnull
     <V> Optional<V> getLowestRankedValue(@Nonnull Converter<String, V> converter, @Nonnull OptionCacheKey cacheKey);
 
+    /**
+     * Returns the values for all of {@code cacheKeys} in one call, each selected according to its {@link RankOption} in the same way as {@link
+     * #getValue(OptionCacheKey)}, {@link #getHighestRankedValue(OptionCacheKey)} and {@link #getLowestRankedValue(OptionCacheKey)}.  Implementations
+     * backed by remote persistence should override this to make a single round trip.  This default implementation calls the single value methods for each
+     * key.
+     *
+     * @param cacheKeys
+     *         the keys to look for
+     *
+     * @return a map of key to value, with an entry (which may be Optional.empty()) for every key in {@code cacheKeys}
+     */
+    @Nonnull
+    default Map<OptionCacheKey, Optional<Object>> getValues(@Nonnull Collection<? extends OptionCacheKey> cacheKeys) {
+        Map<OptionCacheKey, Optional<Object>> values = new HashMap<>();
+        for (OptionCacheKey cacheKey : cacheKeys) {
+            switch (cacheKey.getRankOption()) {
+                case SPECIFIC_RANK:
+                    values.put(cacheKey, getValue(cacheKey));
+                    break;
+                case HIGHEST_RANK:
+                    values.put(cacheKey, getHighestRankedValue(cacheKey));
+                    break;
+                case LOWEST_RANK:
+                    values.put(cacheKey, getLowestRankedValue(cacheKey));
+                    break;
+                default:
+                    values.put(cacheKey, Optional.empty());
+            }
+        }
+        return values;
+    }
+
     /**
      * Returns the connection url
      *
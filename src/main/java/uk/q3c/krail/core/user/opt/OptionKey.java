@@ -20,24 +20,44 @@ import javax.annotation.concurrent.Immutable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * Represents the elements which go together to make up a unique {@link Option} key within its context
  * <p>
+ * The composite key and hash code are calculated once, on construction.  Keys qualified with a single qualifier by {@link #qualifiedWith(String...)} are remembered by the base key, so that repeatedly
+ * qualifying a key in the same way (as the I18N bundle readers do on every pattern load) does not construct a new key each time.  Only the first
+ * {@link #MAX_SINGLE_QUALIFIED} qualifiers are remembered, so that keys qualified dynamically (by grid position, for example) cannot grow the
+ * memo of a long lived base key without limit
+ * <p>
+ * The memo is the only mutable state of a key.  It is a cache, safely published and never visible through equality or the accessors - two threads
+ * qualifying a key at the same time may each construct a qualified key, but the instances are equal and only one is remembered.  In every other
+ * respect a key is immutable
+ * <p>
  * Created by David Sowerby on 19/02/15.
  */
 @Immutable
 public class OptionKey<T extends Object> {
 
+    private static final Joiner joiner = Joiner.on("-")
+                                               .skipNulls();
+    /**
+     * The maximum number of single qualifier variants remembered by each key
+     */
+    public static final int MAX_SINGLE_QUALIFIED = 16;
 
-    private Class<? extends OptionContext> context;
-    private T defaultValue;
+    private final Class<? extends OptionContext> context;
+    private final T defaultValue;
     @Nullable
-    private I18NKey descriptionKey;
-    private I18NKey key;
-    private String[] qualifiers;
+    private final I18NKey descriptionKey;
+    private final I18NKey key;
+    private final String[] qualifiers;
+    private final String compositeKey;
+    private final int hash;
+    private volatile ConcurrentMap<String, OptionKey<T>> singleQualified;
 
     public OptionKey(@Nonnull T defaultValue, @Nonnull OptionContext context, @Nonnull I18NKey nameKey, @Nonnull I18NKey descriptionKey, @Nullable String...
             qualifiers) {
@@ -68,7 +88,9 @@ public class OptionKey<T extends Object> {
         this.descriptionKey = descriptionKey;
         this.context = context;
         this.key = nameKey;
-        this.qualifiers = qualifiers;
+        this.qualifiers = (qualifiers == null) ? null : qualifiers.clone();
+        this.compositeKey = buildCompositeKey();
+        this.hash = buildHashCode();
     }
 
     /**
@@ -82,13 +104,7 @@ public class OptionKey<T extends Object> {
 
      */
     public OptionKey(@Nonnull T defaultValue, @Nonnull Class<? extends OptionContext> context, @Nonnull I18NKey nameKey) {
-        this.defaultValue = defaultValue;
-        checkNotNull(context);
-        checkNotNull(nameKey);
-        this.descriptionKey = null;
-        this.context = context;
-        this.key = nameKey;
-        this.qualifiers = null;
+        this(defaultValue, context, nameKey, null, (String[]) null);
     }
 
     /**
@@ -102,13 +118,7 @@ public class OptionKey<T extends Object> {
 
      */
     public OptionKey(@Nonnull T defaultValue, @Nonnull OptionContext context, @Nonnull I18NKey nameKey) {
-        this.defaultValue = defaultValue;
-        checkNotNull(context);
-        checkNotNull(nameKey);
-        this.descriptionKey = null;
-        this.context = context.getClass();
-        this.key = nameKey;
-        this.qualifiers = null;
+        this(defaultValue, checkNotNull(context).getClass(), nameKey, null, (String[]) null);
     }
 
     /**
@@ -120,13 +130,7 @@ public class OptionKey<T extends Object> {
      *         used as part of the overall key, and also as an I18N label for displaying options values to users
      */
     public OptionKey(@Nonnull T defaultValue, @Nonnull Class<? extends OptionContext> context, @Nonnull I18NKey nameKey, @Nullable String... qualifiers) {
-        this.defaultValue = defaultValue;
-        checkNotNull(context);
-        checkNotNull(nameKey);
-        this.descriptionKey = null;
-        this.context = context;
-        this.key = nameKey;
-        this.qualifiers = qualifiers;
+        this(defaultValue, context, nameKey, null, qualifiers);
     }
 
     /**
@@ -167,25 +171,55 @@ public class OptionKey<T extends Object> {
      * @param qualifiers
      *         the qualifiers to append to this key
      *
-     * @return a new instance with the qualifiers appended
+     * @return an instance with the qualifiers appended.  This is usually the same instance each time the same single qualifier is appended, but
+     * see {@link #MAX_SINGLE_QUALIFIED}
      */
     public OptionKey<T> qualifiedWith(String... qualifiers) {
+        if (qualifiers != null && qualifiers.length == 1 && qualifiers[0] != null) {
+            ConcurrentMap<String, OptionKey<T>> cached = singleQualified;
+            if (cached == null) {
+                synchronized (this) {
+                    cached = singleQualified;
+                    if (cached == null) {
+                        cached = new ConcurrentHashMap<>();
+                        singleQualified = cached;
+                    }
+                }
+            }
+            OptionKey<T> qualified = cached.get(qualifiers[0]);
+            if (qualified == null) {
+                if (cached.size() >= MAX_SINGLE_QUALIFIED) {
+                    return qualify(qualifiers);
+                }
+                qualified = cached.computeIfAbsent(qualifiers[0], q -> qualify(q));
+            }
+            return qualified;
+        }
+        return qualify(qualifiers);
+    }
+
+    private OptionKey<T> qualify(String... qualifiers) {
         List<String> allQualifiers = new ArrayList<>();
 
-        if (this.getQualifiers() != null) {
-            allQualifiers.addAll(Arrays.asList(this.getQualifiers()));
+        if (this.qualifiers != null) {
+            allQualifiers.addAll(Arrays.asList(this.qualifiers));
         }
 
         if (qualifiers != null) {
             allQualifiers.addAll(Arrays.asList(qualifiers));
         }
 
-        return new OptionKey(this, allQualifiers.toArray(new String[1]));
+        return new OptionKey<T>(this, allQualifiers.toArray(new String[1]));
     }
 
+    /**
+     * Returns a copy of the qualifiers, or null if there are none
+     *
+     * @return a copy of the qualifiers, or null if there are none
+     */
     @Nullable
     public String[] getQualifiers() {
-        return qualifiers;
+        return (qualifiers == null) ? null : qualifiers.clone();
     }
 
     /**
@@ -195,8 +229,10 @@ public class OptionKey<T extends Object> {
      */
     @Nonnull
     public String compositeKey() {
-        Joiner joiner = Joiner.on("-")
-                              .skipNulls();
+        return compositeKey;
+    }
+
+    private String buildCompositeKey() {
         Enum<?> e = (Enum<?>) key;
 
         ArrayList<String> params = new ArrayList<>();
@@ -233,6 +269,10 @@ public class OptionKey<T extends Object> {
 
     @Override
     public int hashCode() {
+        return hash;
+    }
+
+    private int buildHashCode() {
         int result = context.hashCode();
         result = 31 * result + key.hashCode();
         result = 31 * result + (qualifiers != null ? Arrays.hashCode(qualifiers) : 0);
@@ -96,6 +96,32 @@ public interface OptionStore {
     Map<String, Object> valueMapForOptionKey(@Nonnull String hierarchyName, @Nonnull List<String> rankNames, @Nonnull
     OptionKey optionKey);
 
+    /**
+     * Returns the values for a hierarchy, for the rank names and {@link OptionKey} specified, as an array in the same order as {@code rankNames}.  An
+     * element is null where there is no value for that rank.  The highest ranked value is therefore the first non-null element, and the lowest ranked
+     * value the last.
+     * <p>
+     * The default implementation uses {@link #valueMapForOptionKey(String, List, OptionKey)}
+     *
+     * @param hierarchyName
+     *         the persistent name of the hierarchy
+     * @param rankNames
+     *         list of names from the hierarchy that values are required for, in hierarchy order
+     * @param optionKey
+     *         Unique identifier for the option, in its context
+     *
+     * @return the values for each of {@code rankNames}, in the same order
+     */
+    @Nonnull
+    default Object[] valuesForRanks(@Nonnull String hierarchyName, @Nonnull List<String> rankNames, @Nonnull OptionKey optionKey) {
+        Map<String, Object> valueMap = valueMapForOptionKey(hierarchyName, rankNames, optionKey);
+        Object[] values = new Object[rankNames.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = valueMap.get(rankNames.get(i));
+        }
+        return values;
+    }
+
     /**
      * Some implementations may enable clearing the WHOLE option store.  Those that do not throw an {@link UnsupportedOperationException}
      */
@@ -13,12 +13,14 @@ package uk.q3c.krail.core.user.opt.cache;
 
 import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.q3c.krail.core.user.opt.Option;
 import uk.q3c.krail.core.user.opt.OptionDao;
+import uk.q3c.krail.core.user.opt.OptionKey;
 import uk.q3c.krail.core.user.opt.OptionModule;
 import uk.q3c.krail.core.user.profile.RankOption;
 import uk.q3c.krail.core.user.profile.UserHierarchy;
@@ -26,7 +28,15 @@ import uk.q3c.krail.core.user.profile.UserHierarchy;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -35,6 +45,11 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * UserHierarchy} to use, and whether to take the lowest, highest or specific ranked value.
  * <p>
  * Scope is set in {@link OptionModule} but it is assumed that this class needs to be thread safe.
+ * <p>
+ * Reads do not take a lock - the underlying {@link LoadingCache} is already concurrent.  Writes and deletes for an {@link OptionKey} must invalidate the
+ * highest, lowest and specific entries together, so they are serialised by a lock for that key, chosen from a fixed set of stripes.  Each stripe also has
+ * a sequence number, odd while a write is in progress, so that a read which overlaps a write to the same stripe (and may therefore have loaded a stale
+ * value) can be detected and repeated once the write has completed.
  * Created by David Sowerby on 19/02/15.
  */
 
@@ -43,12 +58,37 @@ public class DefaultOptionCache implements OptionCache {
 
     private static Logger log = LoggerFactory.getLogger(DefaultOptionCache.class);
     private final LoadingCache<OptionCacheKey, Optional<Object>> cache;
+    private static final int STRIPES = 64;
     private final Provider<OptionDao> daoProvider;
+    private final Lock[] locks = new Lock[STRIPES];
+    private final AtomicLongArray sequences = new AtomicLongArray(STRIPES);
 
     @Inject
     public DefaultOptionCache(Provider<OptionDao> daoProvider, OptionCacheProvider cacheProvider) {
         this.daoProvider = daoProvider;
         cache = cacheProvider.get();
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * All keys for the same {@link OptionKey}, whatever their rank, map to the same stripe
+     */
+    private static int stripe(OptionCacheKey cacheKey) {
+        int h = Objects.hashCode(cacheKey.getOptionKey());
+        h ^= (h >>> 16);
+        return h & (STRIPES - 1);
+    }
+
+    private void beginWrite(int stripe) {
+        locks[stripe].lock();
+        sequences.incrementAndGet(stripe);
+    }
+
+    private void endWrite(int stripe) {
+        sequences.incrementAndGet(stripe);
+        locks[stripe].unlock();
     }
 
     @Override
@@ -67,29 +107,35 @@ public class DefaultOptionCache implements OptionCache {
      *         the type of the value
      */
     @Override
-    public synchronized <T> void write(@Nonnull OptionCacheKey cacheKey, @Nonnull T value) {
+    public <T> void write(@Nonnull OptionCacheKey cacheKey, @Nonnull T value) {
         checkNotNull(cacheKey);
         checkNotNull(value);
-        // write to store first just in case there's a problem
-        log.debug("writing value {} for cacheKey {} via option dao ", value, cacheKey);
-        daoProvider.get()
-                   .write(cacheKey, value);
+        int stripe = stripe(cacheKey);
+        beginWrite(stripe);
+        try {
+            // write to store first just in case there's a problem
+            log.debug("writing value {} for cacheKey {} via option dao ", value, cacheKey);
+            daoProvider.get()
+                       .write(cacheKey, value);
 
-        //invalidate highest / lowest first - cache does clean up as part of write
-        cache.invalidate(new OptionCacheKey(cacheKey, RankOption.HIGHEST_RANK));
-        cache.invalidate(new OptionCacheKey(cacheKey, RankOption.LOWEST_RANK));
-        cache.put(cacheKey, Optional.of(value));
+            //invalidate highest / lowest first - cache does clean up as part of write
+            cache.invalidate(new OptionCacheKey(cacheKey, RankOption.HIGHEST_RANK));
+            cache.invalidate(new OptionCacheKey(cacheKey, RankOption.LOWEST_RANK));
+            cache.put(cacheKey, Optional.of(value));
+        } finally {
+            endWrite(stripe);
+        }
     }
 
     @Override
     @Nonnull
-    public synchronized <T> T get(@Nonnull T defaultValue, @Nonnull OptionCacheKey optionCacheKey) {
+    public <T> T get(@Nonnull T defaultValue, @Nonnull OptionCacheKey optionCacheKey) {
         checkNotNull(optionCacheKey);
         checkNotNull(defaultValue);
         //this will trigger the cacheLoader if not already in the cache
         Optional<Object> optionalValue;
         try {
-            optionalValue = cache.getUnchecked(optionCacheKey);
+            optionalValue = read(optionCacheKey);
             if (!optionalValue.isPresent()) {
                 return defaultValue;
             }
@@ -108,36 +154,91 @@ public class DefaultOptionCache implements OptionCache {
         }
     }
 
+    /**
+     * Loads all of {@code optionCacheKeys} with a single call to {@link LoadingCache#getAll(Iterable)} - and therefore at most one call to the
+     * loader.  As with {@link #get(Object, OptionCacheKey)}, any key for which a write to its stripe overlapped the load is read again
+     */
+    @Override
+    @Nonnull
+    public Map<OptionCacheKey, Optional<Object>> getAll(@Nonnull Collection<OptionCacheKey> optionCacheKeys) {
+        checkNotNull(optionCacheKeys);
+        long[] before = new long[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            before[i] = sequences.get(i);
+        }
+        Map<OptionCacheKey, Optional<Object>> values;
+        try {
+            values = new HashMap<>(cache.getAll(optionCacheKeys));
+        } catch (ExecutionException e) {
+            throw new UncheckedExecutionException(e.getCause());
+        }
+        for (OptionCacheKey optionCacheKey : optionCacheKeys) {
+            int stripe = stripe(optionCacheKey);
+            long sequence = before[stripe];
+            if ((sequence & 1) != 0 || sequences.get(stripe) != sequence) {
+                values.put(optionCacheKey, read(optionCacheKey));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Reads from the cache without locking.  If a write to the same stripe was in progress at any time during the read, the value may have been loaded
+     * before the write and stored after it, so the read is repeated under the stripe lock, after discarding whatever the cache holds for {@code
+     * optionCacheKey}
+     */
+    private Optional<Object> read(OptionCacheKey optionCacheKey) {
+        int stripe = stripe(optionCacheKey);
+        long sequence = sequences.get(stripe);
+        Optional<Object> optionalValue = cache.getUnchecked(optionCacheKey);
+        if ((sequence & 1) == 0 && sequences.get(stripe) == sequence) {
+            return optionalValue;
+        }
+        locks[stripe].lock();
+        try {
+            cache.invalidate(optionCacheKey);
+            return cache.getUnchecked(optionCacheKey);
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
 
     @Override
     @Nullable
-    public synchronized Object delete(@Nonnull OptionCacheKey optionCacheKey) {
+    public Object delete(@Nonnull OptionCacheKey optionCacheKey) {
         checkNotNull(optionCacheKey);
-        // delete from store first just in case there's a problem
-        Object result = daoProvider.get()
-                                   .deleteValue(optionCacheKey);
+        int stripe = stripe(optionCacheKey);
+        beginWrite(stripe);
+        try {
+            // delete from store first just in case there's a problem
+            Object result = daoProvider.get()
+                                       .deleteValue(optionCacheKey);
 
-        //invalidate highest / lowest & specific as these are all now invalid
-        cache.invalidate(new OptionCacheKey(optionCacheKey, RankOption.HIGHEST_RANK));
-        cache.invalidate(new OptionCacheKey(optionCacheKey, RankOption.LOWEST_RANK));
-        cache.invalidate(optionCacheKey);
+            //invalidate highest / lowest & specific as these are all now invalid
+            cache.invalidate(new OptionCacheKey(optionCacheKey, RankOption.HIGHEST_RANK));
+            cache.invalidate(new OptionCacheKey(optionCacheKey, RankOption.LOWEST_RANK));
+            cache.invalidate(optionCacheKey);
 
-        // explicit call, there is no write called to trigger clean up
-        cache.cleanUp();
+            // explicit call, there is no write called to trigger clean up
+            cache.cleanUp();
 
-        return result;
+            return result;
+        } finally {
+            endWrite(stripe);
+        }
     }
 
 
     @Nullable
     @Override
-    public synchronized Object getIfPresent(@Nonnull OptionCacheKey optionCacheKey) {
+    public Object getIfPresent(@Nonnull OptionCacheKey optionCacheKey) {
         checkNotNull(optionCacheKey);
         return cache.getIfPresent(optionCacheKey);
     }
 
     @Override
-    public synchronized CacheStats stats() {
+    public CacheStats stats() {
         return cache.stats();
     }
 
@@ -150,18 +251,18 @@ public class DefaultOptionCache implements OptionCache {
      * {@inheritDoc}
      */
     @Override
-    public synchronized void clear() {
+    public void clear() {
         flush();
         cleanup();
     }
 
     @Override
-    public synchronized void flush() {
+    public void flush() {
         cache.invalidateAll();
     }
 
     @Override
-    public synchronized void cleanup() {
+    public void cleanup() {
         cache.cleanUp();
     }
 
@@ -12,6 +12,7 @@
 package uk.q3c.krail.core.user.opt.cache;
 
 import com.google.common.cache.CacheLoader;
+import com.google.common.collect.Lists;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import org.slf4j.Logger;
@@ -21,6 +22,9 @@ import uk.q3c.krail.core.user.opt.OptionDao;
 import uk.q3c.krail.core.user.profile.UserHierarchy;
 
 import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -83,4 +87,25 @@ public class DefaultOptionCacheLoader extends CacheLoader<OptionCacheKey, Option
         }
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Loads the values for all of {@code keys} with a single call to {@link OptionDao#getValues(Collection)}
+     *
+     * @param keys
+     *         the keys whose values should be loaded
+     *
+     * @return a map of key to value, with an entry (which may be an empty Optional) for every key in {@code keys}
+     *
+     * @throws Exception
+     *         if unable to load the result
+     */
+    @Override
+    @Nonnull
+    public Map<OptionCacheKey, Optional<Object>> loadAll(@Nonnull Iterable<? extends OptionCacheKey> keys) throws Exception {
+        checkNotNull(keys);
+        List<OptionCacheKey> cacheKeys = Lists.newArrayList(keys);
+        log.debug("retrieving values for {} keys", cacheKeys.size());
+        return daoProvider.get()
+                          .getValues(cacheKeys);
+    }
+}
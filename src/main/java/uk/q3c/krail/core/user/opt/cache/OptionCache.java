@@ -14,12 +14,16 @@ package uk.q3c.krail.core.user.opt.cache;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import uk.q3c.krail.core.user.opt.Option;
 import uk.q3c.krail.core.user.opt.OptionStore;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
 
 /**
  * A cache for use with {@link Option}.  Implementations should be thread safe
@@ -64,6 +68,24 @@ public interface OptionCache {
      */
     <T> T get(@Nonnull T defaultValue, @Nonnull OptionCacheKey optionCacheKey);
 
+    /**
+     * Returns the cached values for all of {@code optionCacheKeys}, loading any which are not cached with a single call to the loader.  Unlike {@link
+     * #get(Object, OptionCacheKey)} no default is applied - a key with no value maps to Optional.empty()
+     *
+     * @param optionCacheKeys
+     *         the keys to look up
+     *
+     * @return a map of key to value, with an entry for every key in {@code optionCacheKeys}
+     */
+    @Nonnull
+    default Map<OptionCacheKey, Optional<Object>> getAll(@Nonnull Collection<OptionCacheKey> optionCacheKeys) {
+        try {
+            return getCache().getAll(optionCacheKeys);
+        } catch (ExecutionException e) {
+            throw new UncheckedExecutionException(e.getCause());
+        }
+    }
+
     /**
      * Pass the delete call to the underlying {@link OptionStore}, then removes the entry from the cache
      *
@@ -109,6 +109,25 @@ public class OptionCacheKey {
         this.userId = cacheKey.getUserId();
     }
 
+    /**
+     * copy constructor which changes the OptionKey to {@code optionKey}, keeping the hierarchy, rank option and rank name.  This avoids looking up the rank
+     * names from the hierarchy again when many keys are needed for the same hierarchy and rank
+     *
+     * @param cacheKey
+     *         the key to copy
+     * @param optionKey
+     *         the new optionKey to use
+     */
+    public OptionCacheKey(@Nonnull OptionCacheKey cacheKey, @Nonnull OptionKey optionKey) {
+        checkNotNull(cacheKey);
+        checkNotNull(optionKey);
+        this.rankOption = cacheKey.getRankOption();
+        this.hierarchy = cacheKey.getHierarchy();
+        this.requestedRankName = cacheKey.getRequestedRankName();
+        this.optionKey = optionKey;
+        this.userId = cacheKey.getUserId();
+    }
+
     public UserHierarchy getHierarchy() {
         return hierarchy;
     }
@@ -13,11 +13,14 @@ package uk.q3c.krail.core.user.opt.cache;
 
 import org.apache.shiro.authz.permission.WildcardPermission;
 import uk.q3c.krail.core.shiro.SubjectIdentifier;
+import uk.q3c.krail.core.shiro.TokenisedPermission;
 import uk.q3c.krail.core.user.opt.Option;
 import uk.q3c.krail.core.user.opt.OptionKey;
 import uk.q3c.krail.core.user.profile.UserHierarchy;
 
 import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -43,7 +46,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * <p>
  * Created by David Sowerby on 01/06/15.
  */
-public class OptionPermission extends WildcardPermission {
+public class OptionPermission extends WildcardPermission implements TokenisedPermission {
 
     public enum Action {
         EDIT, VIEW
@@ -82,4 +85,9 @@ public class OptionPermission extends WildcardPermission {
     public String getPermissionString() {
         return permissionString;
     }
+
+    @Override
+    public List<Set<String>> getParts() {
+        return super.getParts();
+    }
 }
@@ -19,28 +19,45 @@ import org.slf4j.LoggerFactory;
 import uk.q3c.krail.core.eventbus.SubscribeTo;
 import uk.q3c.krail.core.eventbus.UIBus;
 import uk.q3c.krail.core.guice.uiscope.UIScoped;
+import uk.q3c.krail.core.push.Broadcaster;
 import uk.q3c.krail.core.push.PushMessage;
+import uk.q3c.krail.core.push.PushMessageRouter;
 import uk.q3c.krail.i18n.LabelKey;
 import uk.q3c.krail.i18n.Translate;
 
 /**
- * Displays all the messages received by the Broadcaster
+ * Displays all the messages received by the Broadcaster.  If the {@link PushMessageRouter} of its UI supports subscriptions, subscribes to {@link
+ * Broadcaster#ALL_MESSAGES} through it, otherwise receives the messages the router publishes to the UIBus
  */
 @UIScoped
 @Listener
 @SubscribeTo(UIBus.class)
 public class BroadcastMessageLog extends TextArea {
     private static Logger log = LoggerFactory.getLogger(BroadcastMessageLog.class);
+    private final boolean subscribed;
 
     @Inject
-    protected BroadcastMessageLog(Translate translate) {
+    protected BroadcastMessageLog(Translate translate, PushMessageRouter pushMessageRouter) {
         super();
         setCaption(translate.from(LabelKey.Broadcast_Messages));
         setImmediate(true);
+        subscribed = pushMessageRouter.supportsSubscriptions();
+        if (subscribed) {
+            pushMessageRouter.subscribe(Broadcaster.ALL_MESSAGES, this::append);
+        }
     }
 
+    /**
+     * Receives messages from the UIBus, but only when they are not already received through a subscription to the router
+     */
     @Handler
     public void receiveMessage(PushMessage pushMessage) {
+        if (!subscribed) {
+            append(pushMessage);
+        }
+    }
+
+    private void append(PushMessage pushMessage) {
         log.debug("Receiving message: '{}' for group: '{}'", pushMessage.getMessage(), pushMessage.getGroup());
         StringBuilder buf = new StringBuilder(pushMessage.getGroup());
         buf.append(":");
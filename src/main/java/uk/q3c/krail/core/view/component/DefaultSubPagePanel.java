@@ -32,6 +32,7 @@ import uk.q3c.krail.i18n.I18N;
 import uk.q3c.krail.i18n.LabelKey;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -89,7 +90,7 @@ public class DefaultSubPagePanel extends NavigationButtonPanel implements Option
                 } else {
                     log.debug("current node is '{}'", userSitemap.uri(currentNode));
                 }
-                List<UserSitemapNode> authorisedSubNodes = userSitemap.getChildren(currentNode);
+                List<UserSitemapNode> authorisedSubNodes = new ArrayList<>(userSitemap.getChildren(currentNode));
                 Collections.sort(authorisedSubNodes, getSortComparator());
                 organiseButtons(authorisedSubNodes);
                 rebuildRequired = false;
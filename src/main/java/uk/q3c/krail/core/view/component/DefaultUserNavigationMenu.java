@@ -87,9 +87,14 @@ public class DefaultUserNavigationMenu extends MenuBar implements OptionContext,
         log.debug("contents cleared");
     }
 
+    /**
+     * Only labels have changed, so the affected items are updated in place if possible, rather than rebuilding the menu
+     */
     @Handler
     public void labelsChanged(UserSitemapLabelChangeMessage busMessage) {
-        build();
+        if (!builder.relabel(busMessage.getChangedNodes())) {
+            build();
+        }
     }
 
     @Handler
@@ -11,6 +11,7 @@
 package uk.q3c.krail.core.view.component;
 
 import com.google.inject.Inject;
+import com.vaadin.ui.MenuBar;
 import com.vaadin.ui.MenuBar.MenuItem;
 import uk.q3c.krail.core.navigate.Navigator;
 import uk.q3c.krail.core.navigate.sitemap.UserSitemap;
@@ -18,14 +19,14 @@ import uk.q3c.krail.core.navigate.sitemap.UserSitemapNode;
 import uk.q3c.util.*;
 import uk.q3c.util.TreeCopy.SortOption;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 public class DefaultUserNavigationMenuBuilder implements UserNavigationMenuBuilder {
 
     private final UserSitemap userSitemap;
     private final Navigator navigator;
     private UserNavigationMenu userNavigationMenu;
+    private MenuBarNodeModifier nodeModifier;
 
     @Inject
     protected DefaultUserNavigationMenuBuilder(UserSitemap userSitemap, Navigator navigator) {
@@ -41,8 +42,7 @@ public class DefaultUserNavigationMenuBuilder implements UserNavigationMenuBuild
                 (userNavigationMenu.getMenuBar());
         UserSitemapNodeCaption nodeCaptionReader = new UserSitemapNodeCaption();
         target.setCaptionReader(nodeCaptionReader);
-        MenuBarNodeModifier nodeModifier = new MenuBarNodeModifier(userNavigationMenu.getMenuBar(), navigator,
-                nodeCaptionReader);
+        nodeModifier = new MenuBarNodeModifier(userNavigationMenu.getMenuBar(), navigator, nodeCaptionReader);
         target.setNodeModifier(nodeModifier);
 
         TreeCopy<UserSitemapNode, MenuItem> treeCopy = new TreeCopy<>(source, target);
@@ -55,6 +55,43 @@ public class DefaultUserNavigationMenuBuilder implements UserNavigationMenuBuild
         treeCopy.copy();
     }
 
+    /**
+     * Sets the text of the menu items for {@code changedNodes} directly.  If the menu is sorted, only the sibling lists
+     * containing a changed item are re-sorted, in the same (natural) order used by {@link #build()}
+     */
+    @Override
+    public boolean relabel(List<UserSitemapNode> changedNodes) {
+        if (nodeModifier == null) {
+            return false;
+        }
+        MenuBar menuBar = userNavigationMenu.getMenuBar();
+        Set<MenuItem> parents = Collections.newSetFromMap(new IdentityHashMap<>());
+        boolean rootsChanged = false;
+        for (UserSitemapNode node : changedNodes) {
+            MenuItem item = nodeModifier.targetNodeFor(node);
+            if (item != null) {
+                item.setText(node.getLabel());
+                if (item.getParent() == null) {
+                    rootsChanged = true;
+                } else {
+                    parents.add(item.getParent());
+                }
+            }
+        }
+        if (userNavigationMenu.isSorted()) {
+            Comparator<MenuItem> comparator = (item1, item2) -> nodeModifier.sourceNodeFor(item1)
+                                                                            .compareTo(nodeModifier.sourceNodeFor(item2));
+            if (rootsChanged) {
+                nodeModifier.sortChildren(null, comparator);
+            }
+            for (MenuItem parent : parents) {
+                nodeModifier.sortChildren(parent, comparator);
+            }
+            menuBar.markAsDirty();
+        }
+        return true;
+    }
+
     /**
      * Excludes nodes with positionIndex < 0 and the log out page.  Override this to use different filters
      *
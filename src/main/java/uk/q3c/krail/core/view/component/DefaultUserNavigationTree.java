@@ -14,6 +14,7 @@ package uk.q3c.krail.core.view.component;
 
 import com.google.inject.Inject;
 import com.vaadin.data.Property;
+import com.vaadin.data.util.HierarchicalContainer;
 import com.vaadin.ui.Tree;
 import net.engio.mbassy.listener.Handler;
 import net.engio.mbassy.listener.Listener;
@@ -36,9 +37,7 @@ import uk.q3c.krail.i18n.LabelKey;
 import uk.q3c.util.ID;
 
 import javax.annotation.Nonnull;
-import java.util.Collection;
-import java.util.Comparator;
-import java.util.Optional;
+import java.util.*;
 
 /**
  * A navigation tree for users to find their way around the site. Uses {@link UserSitemap} to provide the structure
@@ -242,13 +241,62 @@ public class DefaultUserNavigationTree extends Tree implements OptionContext, Us
     }
 
     /**
-     * Although only {@link UserSitemap} labels (and therefore captions) have changed, the tree may need to be
-     * re-sorted to reflect the change in language, so it is easier just to rebuild the tree
+     * Only {@link UserSitemap} labels (and therefore captions) have changed.  The captions of the changed nodes are
+     * updated in place, and only those sibling groups which contain a changed node are re-sorted, as the order may
+     * depend on the label.  The tree is rebuilt only if it is already due for a rebuild, or its container does not
+     * support re-ordering
      */
     @Handler
     public void labelsChanged(UserSitemapLabelChangeMessage busMessage) {
-        rebuildRequired = true;
-        build();
+        if (rebuildRequired || !(getContainerDataSource() instanceof HierarchicalContainer)) {
+            rebuildRequired = true;
+            build();
+            return;
+        }
+        // UserSitemapNode does not override hashCode, so identity is used
+        Set<Object> parents = Collections.newSetFromMap(new IdentityHashMap<>());
+        boolean rootsChanged = false;
+        for (UserSitemapNode node : busMessage.getChangedNodes()) {
+            if (containsId(node)) {
+                setItemCaption(node, node.getLabel());
+                Object parent = getParent(node);
+                if (parent == null) {
+                    rootsChanged = true;
+                } else {
+                    parents.add(parent);
+                }
+            }
+        }
+        Comparator<UserSitemapNode> comparator = getSortComparator();
+        if (comparator != null) {
+            if (rootsChanged) {
+                sortSiblings(rootItemIds(), comparator);
+            }
+            for (Object parent : parents) {
+                sortSiblings(getChildren(parent), comparator);
+            }
+        }
+    }
+
+    /**
+     * Re-orders {@code siblings} using {@code comparator}, if they are not already in that order
+     */
+    @SuppressWarnings("unchecked")
+    private void sortSiblings(Collection<?> siblings, Comparator<UserSitemapNode> comparator) {
+        if (siblings == null || siblings.size() < 2) {
+            return;
+        }
+        List<UserSitemapNode> current = new ArrayList<>((Collection<UserSitemapNode>) siblings);
+        List<UserSitemapNode> sorted = new ArrayList<>(current);
+        sorted.sort(comparator);
+        if (sorted.equals(current)) {
+            return;
+        }
+        HierarchicalContainer container = (HierarchicalContainer) getContainerDataSource();
+        container.moveAfterSibling(sorted.get(0), null);
+        for (int i = 1; i < sorted.size(); i++) {
+            container.moveAfterSibling(sorted.get(i), sorted.get(i - 1));
+        }
     }
 
     /**
@@ -22,10 +22,7 @@ import uk.q3c.util.CaptionReader;
 import uk.q3c.util.NodeModifier;
 import uk.q3c.util.TreeCopyException;
 
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -33,6 +30,8 @@ public class MenuBarNodeModifier implements NodeModifier<UserSitemapNode, MenuIt
 
     private final MenuBar menuBar;
     private final Map<MenuItem, UserSitemapNode> targetLookup = new HashedMap<>();
+    // UserSitemapNode does not override hashCode, so identity is used
+    private final Map<UserSitemapNode, MenuItem> sourceLookup = new IdentityHashMap<>();
     private final Navigator navigator;
     private final CaptionReader<UserSitemapNode> captionReader;
 
@@ -54,6 +53,7 @@ public class MenuBarNodeModifier implements NodeModifier<UserSitemapNode, MenuIt
             newTargetNode = parentNode.addItem(captionReader.getCaption(sourceNode), null);
         }
         targetLookup.put(newTargetNode, sourceNode);
+        sourceLookup.put(sourceNode, newTargetNode);
         return newTargetNode;
     }
 
@@ -73,6 +73,18 @@ public class MenuBarNodeModifier implements NodeModifier<UserSitemapNode, MenuIt
         return targetLookup.get(targetNode);
     }
 
+    /**
+     * Returns the MenuItem created for {@code sourceNode}, or null if none was created
+     *
+     * @param sourceNode
+     *         the node to look up
+     *
+     * @return the MenuItem created for {@code sourceNode}, or null if none was created
+     */
+    public MenuItem targetNodeFor(UserSitemapNode sourceNode) {
+        return sourceLookup.get(sourceNode);
+    }
+
     @Override
     public void setCaption(MenuItem targetNode, String caption) {
         throw new TreeCopyException("Caption can only be set while MenuItem is being created");
@@ -13,10 +13,26 @@
 
 package uk.q3c.krail.core.view.component;
 
+import uk.q3c.krail.core.navigate.sitemap.UserSitemapNode;
+
+import java.util.List;
+
 public interface UserNavigationMenuBuilder {
 
     void build();
 
+    /**
+     * Updates the captions of the menu items for {@code changedNodes}, and re-sorts their siblings if the menu is sorted,
+     * without rebuilding the menu
+     *
+     * @param changedNodes
+     *         the nodes whose labels have changed
+     *
+     * @return false if the menu could not be updated in place (for example, it has not been built), and should be
+     * rebuilt instead
+     */
+    boolean relabel(List<UserSitemapNode> changedNodes);
+
     UserNavigationMenu getUserNavigationMenu();
 
     void setUserNavigationMenu(UserNavigationMenu userNavigationMenu);
@@ -8,25 +8,118 @@
  * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
  * specific language governing permissions and limitations under the License.
  */
-
 package uk.q3c.krail.i18n;
 
+import com.google.common.collect.ImmutableList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
+ * The I18N annotations found for a field.  When created with a fixed list of annotations, the keys and locale they specify are read from the
+ * annotations once, when first requested, so an instance held by an {@link I18NClassPlan} is read by reflection only once however many times its
+ * class is translated.  If there are multiple values for any
+ * of caption(), description(), value() or locale(), the last non-empty value is used.
+ * <p>
  * Created by David Sowerby on 15/05/15.
  */
 public class AnnotationInfo {
-
-    private final Field field;
+    private static Logger log = LoggerFactory.getLogger(AnnotationInfo.class);
     private final List<Annotation> annotations;
+    private final Field field;
+    private final boolean fixed;
+    private volatile Values values;
 
     public AnnotationInfo(Field field) {
         this.field = field;
         this.annotations = new ArrayList<>();
+        this.fixed = false;
+    }
+
+    /**
+     * Creates an instance with a fixed list of annotations
+     */
+    public AnnotationInfo(Field field, List<Annotation> annotations) {
+        this.field = field;
+        this.annotations = ImmutableList.copyOf(annotations);
+        this.fixed = true;
+    }
+
+    /**
+     * Returns an I18NKey value for the {@code annotationMethod} or Optional.empty() if none is found (which could be either the method not being
+     * present or present but not returning a value.
+     */
+    static Optional<I18NKey> retrieveKey(@Nonnull Annotation i18NAnnotation, @Nonnull String annotationMethod) {
+        checkNotNull(i18NAnnotation);
+        checkNotNull(annotationMethod);
+        Method[] methods = i18NAnnotation.annotationType()
+                                         .getDeclaredMethods();
+        for (Method method : methods) {
+            if (method.getName()
+                      .equals(annotationMethod)) {
+                try {
+                    Object result = method.invoke(i18NAnnotation);
+                    if (result != null) {
+                        I18NKey key = (I18NKey) result;
+                        return Optional.of(key);
+                    } else {
+                        return Optional.empty();
+                    }
+
+                } catch (Exception e) {
+                    log.error("Unable to read annotation", e);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * returns a locale from {@code i18NAnnotation} if it has one, or Optional.empty() if it has not
+     */
+    static Optional<Locale> retrieveLocale(@Nonnull Annotation i18NAnnotation) {
+        checkNotNull(i18NAnnotation);
+
+        //if there is not locale method, simply return empty()
+        try {
+            Method method = i18NAnnotation.annotationType()
+                                          .getDeclaredMethod("locale");
+            String tag = (String) method.invoke(i18NAnnotation);
+            if ((tag == null) || (tag.isEmpty())) {
+                return Optional.empty();
+            }
+            return Optional.of(Locale.forLanguageTag(tag));
+
+        } catch (NoSuchMethodException e) {
+            return Optional.empty();
+
+        } catch (Exception e) {
+            log.error("Unable to read annotation", e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns a copy of this instance, with its keys and locale resolved from the annotations by {@code keyResolver} and {@code localeResolver}
+     * rather than by {@link #retrieveKey(Annotation, String)} and {@link #retrieveLocale(Annotation)}
+     */
+    AnnotationInfo resolveWith(BiFunction<Annotation, String, Optional<I18NKey>> keyResolver, Function<Annotation, Optional<Locale>>
+            localeResolver) {
+        AnnotationInfo resolved = new AnnotationInfo(field, annotations);
+        resolved.values = new Values(resolved.annotations, keyResolver, localeResolver);
+        return resolved;
     }
 
     public List<Annotation> getAnnotations() {
@@ -36,4 +129,63 @@ public class AnnotationInfo {
     public Field getField() {
         return field;
     }
+
+    public Optional<I18NKey> getCaptionKey() {
+        return values().captionKey;
+    }
+
+    public Optional<I18NKey> getDescriptionKey() {
+        return values().descriptionKey;
+    }
+
+    public Optional<I18NKey> getValueKey() {
+        return values().valueKey;
+    }
+
+    public Optional<Locale> getLocale() {
+        return values().locale;
+    }
+
+    private Values values() {
+        if (!fixed) {
+            // the annotations may still change
+            return new Values(annotations, AnnotationInfo::retrieveKey, AnnotationInfo::retrieveLocale);
+        }
+        Values current = values;
+        if (current == null) {
+            current = new Values(annotations, AnnotationInfo::retrieveKey, AnnotationInfo::retrieveLocale);
+            values = current;
+        }
+        return current;
+    }
+
+    private static class Values {
+        private Optional<I18NKey> captionKey = Optional.empty();
+        private Optional<I18NKey> descriptionKey = Optional.empty();
+        private Optional<Locale> locale = Optional.empty();
+        private Optional<I18NKey> valueKey = Optional.empty();
+
+        private Values(List<Annotation> annotations, BiFunction<Annotation, String, Optional<I18NKey>> retrieveKey, Function<Annotation,
+                Optional<Locale>> retrieveLocale) {
+            for (Annotation annotation : annotations) {
+                //if there is a value, use it, but don't overwrite existing with empty
+                Optional<I18NKey> optKey = retrieveKey.apply(annotation, "caption");
+                if (optKey.isPresent()) {
+                    captionKey = optKey;
+                }
+                optKey = retrieveKey.apply(annotation, "description");
+                if (optKey.isPresent()) {
+                    descriptionKey = optKey;
+                }
+                optKey = retrieveKey.apply(annotation, "value");
+                if (optKey.isPresent()) {
+                    valueKey = optKey;
+                }
+                Optional<Locale> optLocale = retrieveLocale.apply(annotation);
+                if (optLocale.isPresent()) {
+                    locale = optLocale;
+                }
+            }
+        }
+    }
 }
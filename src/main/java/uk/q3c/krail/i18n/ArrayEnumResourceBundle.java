@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package uk.q3c.krail.i18n;
+
+import com.google.common.base.Preconditions;
+
+import java.util.EnumMap;
+
+/**
+ * An {@link EnumResourceBundle} whose values are held in a static array indexed by key ordinal, instead of a map created and populated by every
+ * instance.  Sub-classes are usually generated by {@link ClassBundleWriter} (see {@link ClassBundleWriter#setArrayBacked(boolean)}), and declare
+ * their values once, with {@link #index(Class, Object...)}:
+ * <pre>
+ * private static final String[] values = index(LabelKey.class,
+ *         LabelKey.Cancel, "Stornieren",
+ *         LabelKey.No, "Nein");
+ * </pre>
+ * The values are String constants, which the JVM interns, so a string which appears in several locales of the same key class (or anywhere else) is
+ * held only once.  {@link #load()} does nothing, and a lookup is an array index.
+ */
+public abstract class ArrayEnumResourceBundle<E extends Enum<E>> extends EnumResourceBundle<E> {
+
+    /**
+     * Returns an array of the values of {@code keyClass}, indexed by key ordinal, from alternating keys and values.  Keys without a value have a null
+     * entry.  Keys are given by name rather than position, so that the array remains correct if the keys are re-ordered
+     *
+     * @param keyClass
+     *         the class of the keys
+     * @param keysAndValues
+     *         key, value, key, value ...
+     *
+     * @return an array of values indexed by key ordinal
+     */
+    protected static <E extends Enum<E>> String[] index(Class<E> keyClass, Object... keysAndValues) {
+        Preconditions.checkArgument(keysAndValues.length % 2 == 0, "keys and values must be in pairs");
+        String[] values = new String[keyClass.getEnumConstants().length];
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            values[keyClass.cast(keysAndValues[i])
+                           .ordinal()] = (String) keysAndValues[i + 1];
+        }
+        return values;
+    }
+
+    /**
+     * Returns the values of this bundle, indexed by key ordinal.  This should return the same (static) array every time
+     */
+    protected abstract String[] values();
+
+    /**
+     * Nothing to load, the values are held in a static array
+     */
+    @Override
+    public void load() {
+    }
+
+    @Override
+    protected void loadMap() {
+        E[] keys = getKeyClass().getEnumConstants();
+        String[] values = values();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                super.put(keys[i], values[i]);
+            }
+        }
+    }
+
+    @Override
+    public String getValue(E key) {
+        if (key == null) {
+            return null;
+        }
+        String[] values = values();
+        int ordinal = key.ordinal();
+        return (ordinal < values.length) ? values[ordinal] : null;
+    }
+
+    /**
+     * Returns a map of the values, for tools which need one (for example, a {@link BundleWriter}).  The map is created only when first requested, and
+     * is not used for lookups
+     */
+    @Override
+    public EnumMap<E, String> getMap() {
+        super.load();
+        return super.getMap();
+    }
+
+    /**
+     * Not supported, the values are constants
+     */
+    @Override
+    public void put(E key, String value) {
+        throw new UnsupportedOperationException("The values of an ArrayEnumResourceBundle cannot be changed");
+    }
+
+    /**
+     * Nothing to reset, the values are constants
+     */
+    @Override
+    public void reset() {
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.i18n;
+
+import java.util.Locale;
+
+/**
+ * Identifies a bundle (by its key class) in one locale, for those which hold patterns by bundle
+ */
+class BundleLocale {
+    private final Class<?> keyClass;
+    private final Locale locale;
+
+    BundleLocale(Class<?> keyClass, Locale locale) {
+        this.keyClass = keyClass;
+        this.locale = locale;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BundleLocale)) {
+            return false;
+        }
+        BundleLocale that = (BundleLocale) o;
+        return keyClass.equals(that.keyClass) && locale.equals(that.locale);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * keyClass.hashCode() + locale.hashCode();
+    }
+}
@@ -85,6 +85,7 @@ public class ClassBundleReader extends NativeBundleReaderBase implements BundleR
 
     @Override
     public void optionValueChanged(Property.ValueChangeEvent event) {
-        //do nothing, options are used when needed
+        //the expanded bundle names depend on options
+        clearCache();
     }
 }
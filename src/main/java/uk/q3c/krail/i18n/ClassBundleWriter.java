@@ -28,6 +28,9 @@ import java.util.*;
  */
 public class ClassBundleWriter<E extends Enum<E>> extends BundleWriterBase<E> {
 
+    private static final String INDENT = "    ";
+    private static final String INDENT2 = INDENT + INDENT;
+
     public String classJavaDoc;
     private Class<?> clazz;
     private EnumMap<E, String> entryMap;
@@ -35,6 +38,7 @@ public class ClassBundleWriter<E extends Enum<E>> extends BundleWriterBase<E> {
     private Class<?> keyClass;
     private String pkg;
     private Class<?> superClass;
+    private boolean arrayBacked;
 
     @Inject
     protected ClassBundleWriter(Option option) {
@@ -53,8 +57,20 @@ public class ClassBundleWriter<E extends Enum<E>> extends BundleWriterBase<E> {
                                                             .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
     }
 
+    public boolean isArrayBacked() {
+        return arrayBacked;
+    }
+
     /**
-     * Writes out the class as a sub-class of EnumResourceBundle.  If bundleName is present, uses that as the class
+     * If true, classes are written as a sub-class of {@link ArrayEnumResourceBundle}, with the values in a static array indexed by key ordinal.  If
+     * false (the default) they are written as a sub-class of the bundle's super-class, with the values put into a map by loadMap()
+     */
+    public void setArrayBacked(boolean arrayBacked) {
+        this.arrayBacked = arrayBacked;
+    }
+
+    /**
+     * Writes out the class as a sub-class of EnumResourceBundle (or {@link ArrayEnumResourceBundle}, see {@link #setArrayBacked(boolean)}).  If bundleName is present, uses that as the class
      * name.  If it is not present, uses the bundleName from the bundle's I18NKey.  If there are no keys defined, uses
      * 'Unknown' as the class name
      *
@@ -73,10 +89,11 @@ public class ClassBundleWriter<E extends Enum<E>> extends BundleWriterBase<E> {
            .append(pkg)
            .append(";\n\n");
 
-        String indent = "    ";
-        String indent2 = indent + indent;
-
-        List<Class<?>> imps = imports;
+        List<Class<?>> imps = new ArrayList<>(imports);
+        if (arrayBacked) {
+            addImport(imps, ArrayEnumResourceBundle.class);
+            addImport(imps, keyClass);
+        }
         for (Class<?> clazz : imps) {
             buf.append("import ")
                .append(clazz.getName())
@@ -91,36 +108,122 @@ public class ClassBundleWriter<E extends Enum<E>> extends BundleWriterBase<E> {
         buf.append("public class ")
            .append(bundleNameWithLocale)
            .append(" extends ")
-           .append(genericSuperClass())
+           .append(arrayBacked ? arraySuperClass() : genericSuperClass())
            .append(" {\n\n");
 
-        buf.append(indent)
-           .append("@Override\n");
-        buf.append(indent)
-           .append("protected void loadMap() {\n");
-
         //transfer to a TreeMap to sort by key
         SortedMap<String, String> sortedMap = new TreeMap<>();
         entryMap.forEach((k,v) ->{sortedMap.put(k.name(),v);});
 
+        if (arrayBacked) {
+            writeValuesArray(buf, sortedMap, bundleNameWithLocale);
+        } else {
+            writeLoadMap(buf, sortedMap);
+        }
+        buf.append("}\n");
+
+
+        File file = new File(getOptionWritePath(), bundleNameWithLocale + ".java");
+        FileUtils.writeStringToFile(file, buf.toString());
+    }
+
+    private void addImport(List<Class<?>> imps, Class<?> importClass) {
+        if (!ClassUtils.getPackageCanonicalName(importClass)
+                       .equals(pkg) && !imps.contains(importClass)) {
+            imps.add(importClass);
+        }
+    }
+
+    private void writeLoadMap(StringBuilder buf, SortedMap<String, String> sortedMap) {
+        buf.append(INDENT)
+           .append("@Override\n");
+        buf.append(INDENT)
+           .append("protected void loadMap() {\n");
 
         for (Map.Entry<String, String> entry : sortedMap.entrySet()) {
-            buf.append(indent2)
+            buf.append(INDENT2)
                .append("put(")
                .append(keyClass.getSimpleName())
                .append(".")
                .append(entry.getKey())
                .append(", \"")
-               .append(entry.getValue())
+               .append(escape(entry.getValue()))
                .append("\");\n");
         }
-        buf.append(indent)
+        buf.append(INDENT)
            .append("}\n");
-        buf.append("}\n");
+    }
 
+    /**
+     * Writes the values as a static array, indexed by key ordinal, see {@link ArrayEnumResourceBundle}
+     */
+    private void writeValuesArray(StringBuilder buf, SortedMap<String, String> sortedMap, String bundleClassName) {
+        String keyClassName = keyClass.getSimpleName();
+        buf.append(INDENT)
+           .append("private static final String[] values = index(")
+           .append(keyClassName)
+           .append(".class");
+        for (Map.Entry<String, String> entry : sortedMap.entrySet()) {
+            buf.append(",\n")
+               .append(INDENT2)
+               .append(keyClassName)
+               .append(".")
+               .append(entry.getKey())
+               .append(", \"")
+               .append(escape(entry.getValue()))
+               .append("\"");
+        }
+        buf.append(");\n\n");
+
+        buf.append(INDENT)
+           .append("public ")
+           .append(bundleClassName)
+           .append("() {\n");
+        buf.append(INDENT2)
+           .append("setKeyClass(")
+           .append(keyClassName)
+           .append(".class);\n");
+        buf.append(INDENT)
+           .append("}\n\n");
+
+        buf.append(INDENT)
+           .append("@Override\n");
+        buf.append(INDENT)
+           .append("protected String[] values() {\n");
+        buf.append(INDENT2)
+           .append("return values;\n");
+        buf.append(INDENT)
+           .append("}\n");
+    }
 
-        File file = new File(getOptionWritePath(), bundleNameWithLocale + ".java");
-        FileUtils.writeStringToFile(file, buf.toString());
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    escaped.append("\\\"");
+                    break;
+                case '\\':
+                    escaped.append("\\\\");
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                case '\r':
+                    escaped.append("\\r");
+                    break;
+                case '\t':
+                    escaped.append("\\t");
+                    break;
+                default:
+                    escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private String arraySuperClass() {
+        return ArrayEnumResourceBundle.class.getSimpleName() + "<" + keyClass.getSimpleName() + ">";
     }
 
     private String genericSuperClass() {
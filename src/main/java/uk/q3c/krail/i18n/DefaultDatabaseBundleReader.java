@@ -11,42 +11,113 @@
 
 package uk.q3c.krail.i18n;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.q3c.krail.core.data.DataModule;
 
 import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Default database implementation of BundleReader.  The binding for {@link PatternDao} is in {@link DataModule}
+ * <p>
+ * Patterns are read a whole bundle (key class) and locale at a time, using {@link PatternDao#getValues(Class, Locale)}, and held briefly so that a
+ * cold load of the pattern cache makes one query for each bundle and locale instead of one for each key.  Stub values are written behind, in
+ * batches, by the {@link PatternStubWriter} shared by all readers, but are visible to this reader as soon as they are stubbed.
  *
  * Created by David Sowerby on 16/04/15.
  */
 public class DefaultDatabaseBundleReader extends BundleReaderBase implements DatabaseBundleReader {
+    private static final Duration DEFAULT_BUNDLE_EXPIRY = Duration.ofMinutes(1);
     private static Logger log = LoggerFactory.getLogger(DefaultDatabaseBundleReader.class);
+    private final Cache<BundleLocale, ConcurrentMap<Enum<?>, String>> bundles;
+    private final PatternStubWriter stubWriter;
     private PatternDao patternDao;
 
     @Inject
-    protected DefaultDatabaseBundleReader(PatternDao patternDao) {
+    protected DefaultDatabaseBundleReader(PatternDao patternDao, PatternStubWriter stubWriter) {
+        this(patternDao, stubWriter, DEFAULT_BUNDLE_EXPIRY);
+    }
+
+    /**
+     * @param bundleExpiry
+     *         how long a bundle read from the {@link PatternDao} is held by this reader.  Changes made directly to persistence are not seen by this
+     *         reader until the bundle expires or {@link #clearCache()} is called
+     */
+    protected DefaultDatabaseBundleReader(PatternDao patternDao, PatternStubWriter stubWriter, Duration bundleExpiry) {
         super();
         this.patternDao = patternDao;
+        this.stubWriter = stubWriter;
+        bundles = CacheBuilder.newBuilder()
+                              .expireAfterWrite(bundleExpiry.toMillis(), TimeUnit.MILLISECONDS)
+                              .build();
     }
 
 
     @Override
     public Optional<String> getValue(PatternCacheKey cacheKey, String source, boolean autoStub, boolean stubWithKeyName, String stubValue) {
         log.debug("getValue for cacheKey {}, source '{}'", cacheKey, source);
-        Optional<String> value = patternDao.getValue(cacheKey);
+        Enum<?> key = cacheKey.getKey();
         // TODO should use Optional in autoStub (https://github.com/davidsowerby/krail/issues/367)
-        String v = value.isPresent() ? value.get() : null;
+        String v = bundle(key, cacheKey.getActualLocale()).get(key);
         return autoStub(cacheKey, v, autoStub, stubWithKeyName, stubValue);
     }
 
+    private ConcurrentMap<Enum<?>, String> bundle(Enum<?> key, Locale locale) {
+        try {
+            return bundles.get(new BundleLocale(key.getDeclaringClass(), locale), () -> load(key.getDeclaringClass(), locale));
+        } catch (ExecutionException e) {
+            throw new UncheckedExecutionException(e.getCause());
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private ConcurrentMap<Enum<?>, String> load(Class<?> keyClass, Locale locale) {
+        log.debug("loading bundle '{}' for locale {}", keyClass.getName(), locale);
+        Map<Enum<?>, String> persisted = patternDao.getValues((Class) keyClass, locale);
+        ConcurrentMap<Enum<?>, String> values = new ConcurrentHashMap<>(persisted);
+        // stubs not yet written are not yet in persistence
+        stubWriter.pending(keyClass, locale)
+                  .forEach(values::putIfAbsent);
+        return values;
+    }
 
+    /**
+     * Queues {@code stubValue} to be written to persistence, and makes it visible to this reader immediately
+     */
     @Override
     public void writeStubValue(@Nonnull PatternCacheKey cacheKey, @Nonnull String stubValue) {
-        patternDao.write(cacheKey, stubValue);
+        Enum<?> key = cacheKey.getKey();
+        Map<Enum<?>, String> bundle = bundles.getIfPresent(new BundleLocale(key.getDeclaringClass(), cacheKey.getActualLocale()));
+        if (bundle != null) {
+            bundle.put(key, stubValue);
+        }
+        // the loader re-uses keys, so queue a copy
+        stubWriter.queue(cacheKey.copy(), stubValue);
+    }
+
+    /**
+     * Writes any queued stub values to persistence, see {@link PatternStubWriter#flush()}
+     */
+    public void flush() {
+        stubWriter.flush();
+    }
+
+    /**
+     * Discards the bundles held by this reader, so that they are read from the {@link PatternDao} again when next needed
+     */
+    public void clearCache() {
+        bundles.invalidateAll();
     }
 }
@@ -17,8 +17,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Field;
 import java.util.*;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -51,9 +49,9 @@ public class DefaultI18NFieldScanner implements I18NFieldScanner {
     }
 
     /**
-     * Scans the class of target for I18N annotated fields, working up the inheritance tree.  Uses {@link #i18NHostClassIdentifier} to resolve a class which
-     * has
-     * been enhanced
+     * Scans the class of target for I18N annotated fields, working up the inheritance tree, and then each object it drills down into.  Uses {@link
+     * #i18NHostClassIdentifier} to resolve a class which has been enhanced.  The reflection is done once per class, by {@link I18NClassPlan}, so a
+     * scan only reads field values.
      *
      * @param target
      */
@@ -63,157 +61,28 @@ public class DefaultI18NFieldScanner implements I18NFieldScanner {
         drillDowns.clear();
         processedDrillDowns.clear();
         components.clear();
+        // identity, not equality - beware duplicates, they would cause loops
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
         drillDowns.add(target);
-        doScan(target);
-    }
-
-    /**
-     * @param target
-     */
-    protected void doScan(Object target) {
-        Class<?> classToScan = i18NHostClassIdentifier.getOriginalClassFor(target);
-        log.debug("scanning '{}' for I18N Annotations", classToScan.getName());
-        try {
-            while (!classToScan.equals(Object.class)) {
-                findAnnotatedFields(classToScan.getDeclaredFields(), target);
-                classToScan = classToScan.getSuperclass();
-            }
-        } catch (IllegalAccessException iae) {
-            log.error("I18N scan failed", iae);
-        }
-        processedDrillDowns.add(target);
-        drillDowns.remove(target);
         while (!drillDowns.isEmpty()) {
-            Object next = drillDowns.getFirst();
-
-            //beware duplicates, they will cause stack overflow
-            if (processedDrillDowns.contains(next)) {
-                drillDowns.remove(next);
-            } else {
+            Object next = drillDowns.removeFirst();
+            if (seen.add(next)) {
                 doScan(next);
             }
         }
     }
 
     /**
-     * Fields are included for processing if they have one or more annotations which is itself annotated with {@link I18NAnnotation}.   Another list is
-     * constructed for components which the processor should drill down into.
-     * <p>
-     * Fields are included for drill down if they are:<ol><li>annotated with {@link I18N} with value=true (the default)
-     *
-     * @param declaredFields
-     *         declared fields, taken from a class in the overall hierarchy of {@code target}
-     */
-    private void findAnnotatedFields(Field[] declaredFields, Object target) throws IllegalAccessException {
-
-
-        for (Field field : declaredFields) {
-            log.debug("Checking field '{}' for I18N annotations", field.getName());
-            Annotation[] fieldAnnotations = field.getDeclaredAnnotations();
-            Annotation[] classAnnotations = field.getType()
-                                                 .getDeclaredAnnotations();
-
-            //do field annotations first, we can ignore class annotations if there are field annotations
-            boolean found = evaluateFieldFromAnnotations(target, field, fieldAnnotations);
-            if (!found) {
-
-                evaluateFieldFromAnnotations(target, field, classAnnotations);
-            }
-            evaluateDrillDown(target, field);
-        }
-
-    }
-
-    /**
-     * @param field
-     *         the field being processed
-     * @param annotations
-     *         the annotations associated with the field, whether they came from the field itself, or the class of its type.
+     * Adds the annotated components of {@code target} to {@link #components}, and the objects it should drill down into to {@link #drillDowns}
      *
-     * @throws IllegalAccessException
+     * @param target
      */
-    private boolean evaluateFieldFromAnnotations(Object target, Field field, Annotation[] annotations) throws IllegalAccessException {
-        log.debug("evaluating annotations for field '{}'", field.getName());
-        AnnotationInfo annotationInfo = new AnnotationInfo(field);
-
-        // identify any I18N annotations for the component, but exclude the I18N Drill down
-        for (Annotation annotation : annotations) {
-
-            //is it an I18N annotation?
-            if (annotation.annotationType()
-                          .isAnnotationPresent(I18NAnnotation.class)) {
-                log.debug("Annotation @{} found for field '{}'", annotation.annotationType(), field.getName());
-                //we don't want I18N in this list, it is used to include / exclude drill down
-                if (!annotation.annotationType()
-                               .equals(I18N.class)) {
-                    annotationInfo.getAnnotations()
-                                  .add(annotation);
-                }
-
-            }
-        }
-
-        if (annotationInfo.getAnnotations()
-                          .isEmpty()) {
-            log.debug("No I18N annotations found for '{}'", field.getName());
-            return false;
-        } else {
-            if (AbstractComponent.class.isAssignableFrom(field.getType())) {
-                field.setAccessible(true);
-                AbstractComponent abstractComponent = (AbstractComponent) field.get(target);
-                if (abstractComponent != null) {
-                    components.put(abstractComponent, annotationInfo);
-                }
-                log.debug("I18N annotation(s) found for '{}', added to components list", field.getName());
-                return true;
-            } else {
-                throw new I18NException("I18N annotations (except for @18N), can only be applied to AbstractComponent");
-            }
-
-        }
-
-
-    }
-
-
-    private void evaluateDrillDown(Object target, Field field) throws IllegalAccessException {
-
-        //try field annotations first;
-        log.debug("evaluating '{}' for drill down", field.getName());
-        // if I18N(drillDown = true, just add it to drill downs)
-        I18N i18N = field.getAnnotation(I18N.class);
-        if (i18N != null) {
-            if (i18N.drillDown()) {
-                addDrillDown(target, field);
-                return;
-            } else {
-                log.debug("'{}' has field annotation @18N(drillDown=false), not added to drill downs", field.getName());
-                return;
-            }
-        }
-        Class<?> fieldType = field.getType();
-        i18N = fieldType.getAnnotation(I18N.class);
-        if (i18N != null) {
-            if (i18N.drillDown()) {
-                addDrillDown(target, field);
-                return;
-            } else {
-                log.debug("'{}' has class annotation @18N(drillDown=false), not added to drill downs", field.getName());
-                return;
-            }
-        }
-    }
-
-
-    private void addDrillDown(Object target, Field field) throws IllegalAccessException {
-        field.setAccessible(true);
-        Object component = field.get(target);
-        if (component != null) {
-            drillDowns.add(component);
-            log.debug("'{}' included for drill down", field.getName());
-        } else {
-            log.debug("'{}' is null, not added to drill downs", field.getName());
-        }
+    protected void doScan(Object target) {
+        Class<?> classToScan = i18NHostClassIdentifier.getOriginalClassFor(target);
+        log.debug("scanning '{}' for I18N Annotations", classToScan.getName());
+        I18NClassPlan.planFor(classToScan)
+                     .apply(target, components, drillDowns);
+        processedDrillDowns.add(target);
     }
 
     /**
@@ -12,6 +12,7 @@
  */
 package uk.q3c.krail.i18n;
 
+import com.google.common.collect.MapMaker;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 import com.vaadin.data.Property;
@@ -25,10 +26,10 @@ import uk.q3c.krail.core.ui.ScopedUI;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Method;
+import java.lang.ref.WeakReference;
 import java.util.*;
-
-import static com.google.common.base.Preconditions.checkNotNull;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
 
 /**
  * Utility class to manipulate Vaadin component settings to reflect locale changes. Class or field annotations can be used to specify the keys to use, and
@@ -49,6 +50,14 @@ public class DefaultI18NProcessor implements I18NProcessor {
     private final Translate translate;
     private CurrentLocale currentLocale;
     private Provider<I18NFieldScanner> i18NFieldScannerProvider;
+    // true if a sub-class overrides retrieveKey or retrieveLocale
+    private final boolean customResolution;
+    // weak, identity keys - a target which is no longer used is not held here.  Bindings hold their components weakly, as a component may refer back
+    // to the target (through its parent or a listener), which would otherwise keep the target reachable
+    private final ConcurrentMap<Object, List<Binding>> bindings = new MapMaker().weakKeys()
+                                                                                .makeMap();
+    // the translation used by processComponents, processTable and processGrid - replaced by bulk translations while bindings are replayed
+    private final ThreadLocal<BiFunction<I18NKey, Locale, String>> replayTranslation = new ThreadLocal<>();
 
     @Inject
     protected DefaultI18NProcessor(CurrentLocale currentLocale, Translate translate, Provider<I18NFieldScanner> i18NFieldScannerProvider) {
@@ -56,6 +65,19 @@ public class DefaultI18NProcessor implements I18NProcessor {
         this.currentLocale = currentLocale;
         this.translate = translate;
         this.i18NFieldScannerProvider = i18NFieldScannerProvider;
+        this.customResolution = overridden("retrieveKey", Annotation.class, String.class) || overridden("retrieveLocale", Annotation.class);
+    }
+
+    private boolean overridden(String methodName, Class<?>... parameterTypes) {
+        for (Class<?> clazz = getClass(); clazz != DefaultI18NProcessor.class; clazz = clazz.getSuperclass()) {
+            try {
+                clazz.getDeclaredMethod(methodName, parameterTypes);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // not in this class, try the next
+            }
+        }
+        return false;
     }
 
     /**
@@ -99,65 +121,81 @@ public class DefaultI18NProcessor implements I18NProcessor {
         I18NFieldScanner i18NFieldScanner = i18NFieldScannerProvider.get();
         i18NFieldScanner.scan(target);
 
+        Map<AbstractComponent, AnnotationInfo> componentAnnotations = resolve(i18NFieldScanner.annotatedComponents());
         try {
-            processComponents(i18NFieldScanner.annotatedComponents(), target);
+            processComponents(componentAnnotations, target);
         } catch (Exception e) {
             throw new I18NException("I18N processing failed", e);
         }
+        List<Binding> targetBindings = new ArrayList<>(componentAnnotations.size());
+        componentAnnotations.forEach((component, annotationInfo) -> targetBindings.add(new Binding(component, annotationInfo)));
+        bindings.put(target, targetBindings);
+    }
+
+    /**
+     * If {@code target} has been translated by this processor, re-applies the bindings (component and keys) recorded by that translation, without
+     * scanning {@code target} again.  Keys are translated in bulk, and captions, descriptions, values and column headers which have not changed are
+     * not set again. If {@code target} has not been translated before, this is the same as {@link #translate(Object)}.
+     * <p>
+     * Components which have been assigned to fields of {@code target} since it was last translated will not be picked up - call {@link
+     * #translate(Object)} if that is possible
+     *
+     * @param target
+     *         the object to re-translate. If null, is just ignored
+     */
+    @Override
+    public void retranslate(@Nullable Object target) {
+        if (target == null) {
+            return;
+        }
+        List<Binding> targetBindings = bindings.get(target);
+        if (targetBindings == null) {
+            translate(target);
+            return;
+        }
+        log.debug("re-applying {} I18N bindings for '{}'", targetBindings.size(), target.getClass());
+        try {
+            replay(targetBindings, target);
+        } catch (Exception e) {
+            throw new I18NException("I18N processing failed", e);
+        }
+    }
+
+    /**
+     * Returns {@code componentAnnotations} unchanged, unless a sub-class overrides {@link #retrieveKey(Annotation, String)} or {@link
+     * #retrieveLocale(Annotation)}, in which case the keys and locale of each {@link AnnotationInfo} are resolved through those methods
+     */
+    private Map<AbstractComponent, AnnotationInfo> resolve(Map<AbstractComponent, AnnotationInfo> componentAnnotations) {
+        if (!customResolution) {
+            return componentAnnotations;
+        }
+        Map<AbstractComponent, AnnotationInfo> resolved = new LinkedHashMap<>();
+        componentAnnotations.forEach((component, annotationInfo) -> resolved.put(component, annotationInfo.resolveWith(this::retrieveKey,
+                this::retrieveLocale)));
+        return resolved;
     }
 
     protected void processComponents(Map<AbstractComponent, AnnotationInfo> componentAnnotations, Object target) throws NoSuchFieldException,
             IllegalAccessException {
         for (AbstractComponent component : componentAnnotations.keySet()) {
             AnnotationInfo annotationInfo = componentAnnotations.get(component);
-            AnnotationValues annotationValues = annotationValues(annotationInfo.getAnnotations());
             if (component instanceof Table) {
-                processTable((Table) component, annotationValues, annotationInfo);
+                processTable((Table) component, annotationInfo);
             } else if (component instanceof Grid) {
-                processGrid((Grid) component, annotationValues, annotationInfo);
+                processGrid((Grid) component, annotationInfo);
             } else {
-                applyAnnotationValues(component, annotationValues, annotationInfo);
+                applyAnnotationValues(component, annotationInfo, translation());
             }
 
         }
     }
 
-    /**
-     * Returns a set of values from a list of annotations.  There is no guarantee of evaluation order, so if a field has, for example, two annotations with a
-     * caption() value, it is uncertain which will be selected
-     *
-     * @param annotations
-     *         a list of annotations to evaluate
-     *
-     * @return a set of values from a list of annotations
-     */
-    private AnnotationValues annotationValues(List<Annotation> annotations) {
-        AnnotationValues av = new AnnotationValues();
-        for (Annotation annotation : annotations) {
-            //if there is a value, use it, but don't overwrite existing with empty
-            Optional<I18NKey> optKey = retrieveKey(annotation, "caption");
-            if (optKey.isPresent()) {
-                av.captionKey = optKey;
-            }
-            optKey = retrieveKey(annotation, "description");
-            if (optKey.isPresent()) {
-                av.descriptionKey = optKey;
-            }
-            optKey = retrieveKey(annotation, "value");
-            if (optKey.isPresent()) {
-                av.valueKey = optKey;
-            }
-            Optional<Locale> optLocale = retrieveLocale(annotation);
-            if (optLocale.isPresent()) {
-                av.locale = optLocale;
-            }
-        }
-        return av;
-    }
-
     /**
      * Returns an I18NKey value for the {@code annotationMethod} or Optional.empty() if none is found (which could be
      * either the method not being present or present but not returning a value.
+     * <p>
+     * By default, keys are resolved once for each annotated field, and held by its {@link AnnotationInfo}.  If a sub-class overrides this method, or
+     * {@link #retrieveLocale(Annotation)}, the annotations are resolved through the overrides instead, each time a target is translated
      *
      * @param i18NAnnotation
      *         the annotation to assess
@@ -167,32 +205,12 @@ public class DefaultI18NProcessor implements I18NProcessor {
      * @return an I18NKey value for the {@code annotationMethod} or Optional.empty() if none is found
      */
     protected Optional<I18NKey> retrieveKey(@Nonnull Annotation i18NAnnotation, @Nonnull String annotationMethod) {
-        checkNotNull(i18NAnnotation);
-        checkNotNull(annotationMethod);
-        Method[] methods = i18NAnnotation.annotationType()
-                                         .getDeclaredMethods();
-        for (Method method : methods) {
-            if (method.getName()
-                      .equals(annotationMethod)) {
-                try {
-                    Object result = method.invoke(i18NAnnotation);
-                    if (result != null) {
-                        I18NKey key = (I18NKey) result;
-                        return Optional.of(key);
-                    } else {
-                        return Optional.empty();
-                    }
-
-                } catch (Exception e) {
-                    log.error("Unable to read annotation", e);
-                }
-            }
-        }
-        return Optional.empty();
+        return AnnotationInfo.retrieveKey(i18NAnnotation, annotationMethod);
     }
 
     /**
-     * returns a locale from  {@code i18NAnnotation} if it has one, or Optional.empty() if it has not
+     * returns a locale from  {@code i18NAnnotation} if it has one, or Optional.empty() if it has not.  See {@link #retrieveKey(Annotation, String)}
+     * for when this is called
      *
      * @param i18NAnnotation
      *         the annotation to assess
@@ -200,27 +218,7 @@ public class DefaultI18NProcessor implements I18NProcessor {
      * @return a locale from  {@code i18NAnnotation} if it has one, or Optional.empty() if it has not
      */
     protected Optional<Locale> retrieveLocale(@Nonnull Annotation i18NAnnotation) {
-        checkNotNull(i18NAnnotation);
-
-        //if there is not locale method, simply return empty()
-        try {
-            Method method = i18NAnnotation.annotationType()
-                                          .getDeclaredMethod("locale");
-            String tag = (String) method.invoke(i18NAnnotation);
-            if ((tag == null) || (tag.isEmpty())) {
-                return Optional.empty();
-            }
-            return Optional.of(Locale.forLanguageTag(tag));
-
-        } catch (NoSuchMethodException e) {
-            return Optional.empty();
-
-        } catch (Exception e) {
-            log.error("Unable to read annotation", e);
-            return Optional.empty();
-        }
-
-
+        return AnnotationInfo.retrieveLocale(i18NAnnotation);
     }
 
     /**
@@ -228,66 +226,78 @@ public class DefaultI18NProcessor implements I18NProcessor {
      *
      * @param table
      *         the table to process
-     * @param annotationValues
-     *         the values to apply
      * @param annotationInfo
-     *         used primarily for the Field name
+     *         the values to apply, and the Field
      */
-    protected void processTable(Table table, AnnotationValues annotationValues, AnnotationInfo annotationInfo) {
+    protected void processTable(Table table, AnnotationInfo annotationInfo) {
+        BiFunction<I18NKey, Locale, String> translation = translation();
         // Table columns need special treatment
-        applyAnnotationValues(table, annotationValues, annotationInfo);
+        Locale locale = applyAnnotationValues(table, annotationInfo, translation);
 
         // do the column headers
         Object[] columns = table.getVisibleColumns();
-        Locale locale = annotationValues.locale.isPresent() ? annotationValues.locale.get() : currentLocale.getLocale();
-
-        List<String> headers = new ArrayList<>();
-        for (Object column : columns) {
-            if (column instanceof I18NKey) {
-                I18NKey columnKey = (I18NKey) column;
-                String header = translate.from(columnKey, locale);
-                headers.add(header);
-            } else {
-                headers.add(column.toString());
-            }
+        String[] headers = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            Object column = columns[i];
+            headers[i] = (column instanceof I18NKey) ? translation.apply((I18NKey) column, locale) : column.toString();
+        }
+        if (!Arrays.equals(headers, table.getColumnHeaders())) {
+            table.setColumnHeaders(headers);
         }
-        String headerArray[] = headers.toArray(new String[headers.size()]);
-        table.setColumnHeaders(headerArray);
-
     }
 
     /**
-     * Applies annotation values to {@code component}
+     * Applies annotation values to {@code component}.  A value is set only if it has changed, so that an unchanged component is not marked as
+     * needing to be sent to the client
      *
      * @param component
      *         the component to be updated
-     * @param annotationValues
-     *         the annotation values to apply
      * @param annotationInfo
-     *         used primarily to identify the Field, and therefore its name
+     *         the annotation values to apply, and the Field
+     * @param translation
+     *         provides the translation of a key to a locale
+     *
+     * @return the locale applied to the component
      */
-    private void applyAnnotationValues(AbstractComponent component, AnnotationValues annotationValues, AnnotationInfo annotationInfo) {
+    private Locale applyAnnotationValues(AbstractComponent component, AnnotationInfo annotationInfo, BiFunction<I18NKey, Locale, String>
+            translation) {
         // set locale first
-        Locale locale = annotationValues.locale.isPresent() ? annotationValues.locale.get() : currentLocale.getLocale();
-        component.setLocale(locale);
+        Locale locale = annotationInfo.getLocale()
+                                      .orElseGet(currentLocale::getLocale);
+        if (!locale.equals(component.getLocale())) {
+            component.setLocale(locale);
+        }
 
         // set caption, description & value if available
-        if (annotationValues.captionKey.isPresent()) {
-            component.setCaption(translate.from(annotationValues.captionKey.get(), locale));
+        Optional<I18NKey> captionKey = annotationInfo.getCaptionKey();
+        if (captionKey.isPresent()) {
+            String caption = translation.apply(captionKey.get(), locale);
+            if (!caption.equals(component.getCaption())) {
+                component.setCaption(caption);
+            }
         }
-        if (annotationValues.descriptionKey.isPresent()) {
-            component.setDescription(translate.from(annotationValues.descriptionKey.get(), locale));
+        Optional<I18NKey> descriptionKey = annotationInfo.getDescriptionKey();
+        if (descriptionKey.isPresent()) {
+            String description = translation.apply(descriptionKey.get(), locale);
+            if (!description.equals(component.getDescription())) {
+                component.setDescription(description);
+            }
         }
-        if (annotationValues.valueKey.isPresent()) {
+        Optional<I18NKey> valueKey = annotationInfo.getValueKey();
+        if (valueKey.isPresent()) {
             if (component instanceof Property) {
-                //noinspection unchecked
-                ((Property) component).setValue(translate.from(annotationValues.valueKey.get(), locale));
+                String value = translation.apply(valueKey.get(), locale);
+                Property property = (Property) component;
+                if (!value.equals(property.getValue())) {
+                    //noinspection unchecked
+                    property.setValue(value);
+                }
             } else {
                 log.warn("Field {} has a value annotation but does not implement Property.  Annotation ignored", annotationInfo.getField()
                                                                                                                                .getName());
             }
         }
-
+        return locale;
     }
 
     /**
@@ -295,38 +305,105 @@ public class DefaultI18NProcessor implements I18NProcessor {
      *
      * @param grid
      *         the Grid to process
-     * @param annotationValues
-     *         the annotation values to apply
      * @param annotationInfo
-     *         used primarily to identify the Field, and therefore its name
+     *         the annotation values to apply, and the Field
      */
-    protected void processGrid(Grid grid, AnnotationValues annotationValues, AnnotationInfo annotationInfo) {
+    protected void processGrid(Grid grid, AnnotationInfo annotationInfo) {
+        BiFunction<I18NKey, Locale, String> translation = translation();
 
         // do the grid itself
-        applyAnnotationValues(grid, annotationValues, annotationInfo);
+        Locale locale = applyAnnotationValues(grid, annotationInfo, translation);
 
         // now do the column headers
-        Locale locale = annotationValues.locale.isPresent() ? annotationValues.locale.get() : currentLocale.getLocale();
-        final List<Grid.Column> columns = grid.getColumns();
-
-        for (Grid.Column column : columns) {
-            if (column.getPropertyId() instanceof I18NKey) {
-                I18NKey columnKey = (I18NKey) column.getPropertyId();
-                String header = translate.from(columnKey, locale);
+        for (Grid.Column column : grid.getColumns()) {
+            Object propertyId = column.getPropertyId();
+            String header = (propertyId instanceof I18NKey) ? translation.apply((I18NKey) propertyId, locale) : propertyId.toString();
+            if (!header.equals(column.getHeaderCaption())) {
                 column.setHeaderCaption(header);
-            } else {
-                column.setHeaderCaption(column.getPropertyId()
-                                              .toString());
             }
         }
     }
 
+    /**
+     * Returns the translation to apply - the bulk translations made by {@link #replay(List, Object)} while bindings are being replayed, otherwise
+     * {@link Translate#from(I18NKey, Locale)}
+     */
+    private BiFunction<I18NKey, Locale, String> translation() {
+        BiFunction<I18NKey, Locale, String> translation = replayTranslation.get();
+        return (translation == null) ? translate::from : translation;
+    }
+
+    /**
+     * Re-applies the {@code bindings} recorded by the last full translation of {@code target}, with all the keys translated in one call to {@link
+     * Translate#fromAll(Collection, Locale)} for each locale in use (usually just the current locale).  The bindings are applied through {@link
+     * #processComponents(Map, Object)}, so that sub-class overrides are used just as they are by {@link #translate(Object)}
+     */
+    private void replay(List<Binding> bindings, Object target) throws NoSuchFieldException, IllegalAccessException {
+        Map<AbstractComponent, AnnotationInfo> componentAnnotations = new LinkedHashMap<>();
+        for (Binding binding : bindings) {
+            AbstractComponent component = binding.component.get();
+            if (component != null) {
+                componentAnnotations.put(component, binding.annotationInfo);
+            }
+        }
+        Locale current = currentLocale.getLocale();
+        Map<Locale, Set<I18NKey>> keys = new HashMap<>();
+        for (Map.Entry<AbstractComponent, AnnotationInfo> entry : componentAnnotations.entrySet()) {
+            Locale locale = entry.getValue()
+                                 .getLocale()
+                                 .orElse(current);
+            collectKeys(entry.getKey(), entry.getValue(), keys.computeIfAbsent(locale, l -> new HashSet<>()));
+        }
+        Map<Locale, Map<I18NKey, String>> translations = new HashMap<>();
+        for (Map.Entry<Locale, Set<I18NKey>> entry : keys.entrySet()) {
+            translations.put(entry.getKey(), translate.fromAll(entry.getValue(), entry.getKey()));
+        }
+        // a key missing from the bulk translation (a sub-class may apply keys of its own) is translated individually
+        replayTranslation.set((key, locale) -> {
+            Map<I18NKey, String> localeTranslations = translations.get(locale);
+            String value = (localeTranslations == null) ? null : localeTranslations.get(key);
+            return (value == null) ? translate.from(key, locale) : value;
+        });
+        try {
+            processComponents(componentAnnotations, target);
+        } finally {
+            replayTranslation.remove();
+        }
+    }
+
+    private void collectKeys(AbstractComponent component, AnnotationInfo annotationInfo, Set<I18NKey> keys) {
+        annotationInfo.getCaptionKey()
+                      .ifPresent(keys::add);
+        annotationInfo.getDescriptionKey()
+                      .ifPresent(keys::add);
+        annotationInfo.getValueKey()
+                      .ifPresent(keys::add);
+        if (component instanceof Table) {
+            for (Object column : ((Table) component).getVisibleColumns()) {
+                if (column instanceof I18NKey) {
+                    keys.add((I18NKey) column);
+                }
+            }
+        } else if (component instanceof Grid) {
+            for (Grid.Column column : ((Grid) component).getColumns()) {
+                if (column.getPropertyId() instanceof I18NKey) {
+                    keys.add((I18NKey) column.getPropertyId());
+                }
+            }
+        }
+    }
+
+    /**
+     * A component, held weakly, and the annotation which identifies the keys to apply to it, recorded when the component is translated
+     */
+    private static class Binding {
+        private final WeakReference<AbstractComponent> component;
+        private final AnnotationInfo annotationInfo;
 
-    private class AnnotationValues {
-        Optional<I18NKey> captionKey = Optional.empty();
-        Optional<I18NKey> descriptionKey = Optional.empty();
-        Optional<I18NKey> valueKey = Optional.empty();
-        Optional<Locale> locale = Optional.empty();
+        private Binding(AbstractComponent component, AnnotationInfo annotationInfo) {
+            this.component = new WeakReference<>(component);
+            this.annotationInfo = annotationInfo;
+        }
     }
 
 }
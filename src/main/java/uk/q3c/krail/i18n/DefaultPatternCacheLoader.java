@@ -51,6 +51,7 @@ public class DefaultPatternCacheLoader extends CacheLoader<PatternCacheKey, Stri
     private Set<String> bundleReaderOrderDefault;
     private Map<String, BundleReader> bundleReaders;
     private Option option;
+    private final KrailResourceBundleControl bundleControl = new KrailResourceBundleControl();
 
     @Inject
     public DefaultPatternCacheLoader(Map<String, BundleReader> bundleReaders, Option option, @BundleReaderOrder Map<String, Set<String>> bundleReaderOrder,
@@ -89,34 +90,67 @@ public class DefaultPatternCacheLoader extends CacheLoader<PatternCacheKey, Stri
      */
     @Override
     public String load(@Nonnull PatternCacheKey cacheKey) throws Exception {
+        I18NKey i18NKey = (I18NKey) cacheKey.getKey();
+        List<Locale> candidateLocales = bundleControl.getCandidateLocales(i18NKey.bundleName(), cacheKey.getRequestedLocale());
+        return load(cacheKey, candidateLocales, sourceOptions(bundleSourceOrder(i18NKey)));
+    }
 
-        //this is only used to get the bundleName, the key itself is not used
-        I18NKey i18NKey = (I18NKey) cacheKey.getKey()
-                                            .getClass()
-                                            .getEnumConstants()[0];
-
+    /**
+     * Loads all of {@code keys} in one pass.  Keys are grouped by key class and requested Locale, and for each group the candidate locales, the source
+     * order and the stub options for each source are looked up only once, instead of once for every key as {@link #load(PatternCacheKey)} must.  Values
+     * are identical to those which {@link #load(PatternCacheKey)} would return.
+     *
+     * @param keys
+     *         the keys to load
+     *
+     * @return a map of key to value, with an entry for every key in {@code keys}
+     *
+     * @throws Exception
+     *         if unable to load the result
+     */
+    @Override
+    public Map<PatternCacheKey, String> loadAll(Iterable<? extends PatternCacheKey> keys) throws Exception {
+        Map<Class<?>, Map<Locale, List<PatternCacheKey>>> groups = new LinkedHashMap<>();
+        for (PatternCacheKey cacheKey : keys) {
+            groups.computeIfAbsent(cacheKey.getKey()
+                                           .getDeclaringClass(), k -> new LinkedHashMap<>())
+                  .computeIfAbsent(cacheKey.getRequestedLocale(), l -> new ArrayList<>())
+                  .add(cacheKey);
+        }
+        Map<PatternCacheKey, String> values = new HashMap<>();
+        for (Map<Locale, List<PatternCacheKey>> byLocale : groups.values()) {
+            //source order is defined by bundle name, so is the same for every key in the class
+            I18NKey sample = (I18NKey) byLocale.values()
+                                               .iterator()
+                                               .next()
+                                               .get(0)
+                                               .getKey();
+            List<SourceOptions> sources = sourceOptions(bundleSourceOrder(sample));
+            for (Map.Entry<Locale, List<PatternCacheKey>> entry : byLocale.entrySet()) {
+                List<Locale> candidateLocales = bundleControl.getCandidateLocales(sample.bundleName(), entry.getKey());
+                for (PatternCacheKey cacheKey : entry.getValue()) {
+                    values.put(cacheKey, load(cacheKey, candidateLocales, sources));
+                }
+            }
+        }
+        return values;
+    }
 
-        //        Use standard Java call to get candidates
-        KrailResourceBundleControl bundleControl = new KrailResourceBundleControl();
-        List<Locale> candidateLocales = bundleControl.getCandidateLocales(i18NKey.bundleName(), cacheKey.getRequestedLocale());
+    /**
+     * Tries each of the {@code sources} in turn for each of the {@code candidateLocales}, returning the first value found, or the name of the key if
+     * no value is found
+     */
+    private String load(PatternCacheKey cacheKey, List<Locale> candidateLocales, List<SourceOptions> sources) {
         Optional<String> value = Optional.empty();
 
         for (Locale candidateLocale : candidateLocales) {
             cacheKey.setActualLocale(candidateLocale);
             //try each source in turn for a valid pattern
-            for (String source : bundleSourceOrder((I18NKey) cacheKey.getKey())) {
-                cacheKey.setSource(source);
-
-                //get auto-stub options for the source
-                Boolean autoStub = option.get(optionKeyAutoStub.qualifiedWith(source));
-                Boolean stubWithKeyName = option.get(optionKeyStubWithKeyName.qualifiedWith(source));
-                String stubValue = option.get(optionKeyStubValue.qualifiedWith(source));
-
-                //get the reader
-                BundleReader reader = bundleReaders.get(source);
+            for (SourceOptions source : sources) {
+                cacheKey.setSource(source.source);
 
                 //get value from reader, auto-stubbing as required
-                value = reader.getValue(cacheKey, source, autoStub, stubWithKeyName, stubValue);
+                value = source.reader.getValue(cacheKey, source.source, source.autoStub, source.stubWithKeyName, source.stubValue);
                 if (value.isPresent()) {
                     break;
                 }
@@ -133,6 +167,28 @@ public class DefaultPatternCacheLoader extends CacheLoader<PatternCacheKey, Stri
         return value.get();
     }
 
+    /**
+     * Looks up the reader and auto-stub options for each of {@code sourceOrder}
+     */
+    private List<SourceOptions> sourceOptions(List<String> sourceOrder) {
+        //all the stub options for all sources are resolved in one call to Option
+        List<OptionKey<?>> optionKeys = new ArrayList<>(sourceOrder.size() * 3);
+        for (String source : sourceOrder) {
+            optionKeys.add(optionKeyAutoStub.qualifiedWith(source));
+            optionKeys.add(optionKeyStubWithKeyName.qualifiedWith(source));
+            optionKeys.add(optionKeyStubValue.qualifiedWith(source));
+        }
+        Map<OptionKey<?>, Object> values = option.get(optionKeys);
+        List<SourceOptions> sources = new ArrayList<>(sourceOrder.size());
+        int i = 0;
+        for (String source : sourceOrder) {
+            sources.add(new SourceOptions(source, bundleReaders.get(source), (Boolean) values.get(optionKeys.get(i)), (Boolean) values.get(optionKeys.get(i +
+                    1)), (String) values.get(optionKeys.get(i + 2))));
+            i += 3;
+        }
+        return sources;
+    }
+
     /**
      * Returns the order in which Readers are processed.  The first non-null of the following is used:
      * <ol>
@@ -239,5 +295,22 @@ public class DefaultPatternCacheLoader extends CacheLoader<PatternCacheKey, Stri
         option.set(stubValue, optionKeyStubValue.qualifiedWith(source));
     }
 
-
+    /**
+     * The reader and auto-stub options for a source, looked up once for a batch of keys
+     */
+    private static class SourceOptions {
+        private final boolean autoStub;
+        private final BundleReader reader;
+        private final String source;
+        private final boolean stubWithKeyName;
+        private final String stubValue;
+
+        private SourceOptions(String source, BundleReader reader, boolean autoStub, boolean stubWithKeyName, String stubValue) {
+            this.source = source;
+            this.reader = reader;
+            this.autoStub = autoStub;
+            this.stubWithKeyName = stubWithKeyName;
+            this.stubValue = stubValue;
+        }
+    }
 }
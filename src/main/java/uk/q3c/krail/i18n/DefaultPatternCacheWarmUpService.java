@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package uk.q3c.krail.i18n;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.q3c.krail.core.services.AbstractService;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Warms the bundle cache shared by every session, by loading the class based bundle for every {@link I18NKeyClasses} class, in every one of the
+ * {@link SupportedLocales} and their candidate locales.  Bundles are loaded through {@link ResourceBundle#getBundle(String, Locale,
+ * ResourceBundle.Control)}, so they are held by the cache the JDK maintains for all {@link ClassBundleReader}s, and the values of each {@link
+ * EnumResourceBundle} are loaded once, into the bundle itself.  The bundles are loaded in parallel.  The time taken and the number of patterns
+ * loaded are available from {@link #getWarmUpDuration()} and {@link #getPatternCount()} once the service has started.
+ * <p>
+ * This service is started when the application starts (see {@link uk.q3c.krail.core.guice.DefaultBindingManager#startServices()}), before
+ * there is any user session.  The bundle names are therefore those given by the default {@link ClassBundleReader} options (see {@link
+ * NativeBundleReaderBase#defaultExpandedBaseName(I18NKey)}), and neither {@link PatternSource}, which is session scoped, nor any {@link
+ * uk.q3c.krail.core.user.opt.Option} or Subject is used.  Each session still populates its own {@link PatternSource} cache, but from bundles
+ * which are already loaded.  For the same reason, this is not an {@link uk.q3c.krail.core.services.AbstractServiceI18N} - its name and
+ * description are not translated
+ */
+@Singleton
+public class DefaultPatternCacheWarmUpService extends AbstractService implements PatternCacheWarmUpService {
+
+    private static Logger log = LoggerFactory.getLogger(DefaultPatternCacheWarmUpService.class);
+    private final KrailResourceBundleControl candidateLocales = new KrailResourceBundleControl();
+    private final ResourceBundle.Control control;
+    private final Set<Class<? extends I18NKey>> keyClasses;
+    private final Set<Locale> supportedLocales;
+    private volatile int patternCount;
+    private volatile Duration warmUpDuration = Duration.ZERO;
+
+    @Inject
+    protected DefaultPatternCacheWarmUpService(ClassBundleControl control, @I18NKeyClasses Set<Class<? extends I18NKey>> keyClasses,
+                                               @SupportedLocales Set<Locale> supportedLocales) {
+        super();
+        this.control = control;
+        this.keyClasses = ImmutableSet.copyOf(keyClasses);
+        this.supportedLocales = ImmutableSet.copyOf(supportedLocales);
+    }
+
+    /**
+     * Not translated, as {@link Translate} needs a user session
+     */
+    @Override
+    public String getDescription() {
+        return "Loads the I18N bundles for all registered keys and supported locales";
+    }
+
+    /**
+     * Synchronized so that concurrent calls cannot both warm the cache
+     */
+    @Override
+    public synchronized Status start() throws Exception {
+        return super.start();
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        long startTime = System.nanoTime();
+        // the loader asks the readers for each candidate locale in turn, so those are the bundles to load
+        Set<Locale> locales = new LinkedHashSet<>();
+        for (Locale locale : supportedLocales) {
+            locales.addAll(candidateLocales.getCandidateLocales("", locale));
+        }
+        List<Callable<EnumResourceBundle>> batches = new ArrayList<>();
+        for (Class<? extends I18NKey> keyClass : keyClasses) {
+            I18NKey[] keys = keyClass.getEnumConstants();
+            if (keys == null || keys.length == 0) {
+                continue;
+            }
+            for (Locale locale : locales) {
+                batches.add(() -> preload(keys, locale));
+            }
+        }
+
+        // a locale without a bundle of its own may resolve to the bundle of another, so only count each bundle once
+        Set<EnumResourceBundle> bundles = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (!batches.isEmpty()) {
+            int threads = Math.min(batches.size(), Runtime.getRuntime()
+                                                          .availableProcessors());
+            ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setNameFormat("krail-pattern-warm-up-%d")
+                                                                                                         .setDaemon(true)
+                                                                                                         .build());
+            try {
+                for (Future<EnumResourceBundle> batch : executor.invokeAll(batches)) {
+                    EnumResourceBundle bundle = batch.get();
+                    if (bundle != null) {
+                        bundles.add(bundle);
+                    }
+                }
+            } catch (ExecutionException e) {
+                throw new I18NException("Unable to warm up the pattern cache", e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        int count = 0;
+        for (EnumResourceBundle bundle : bundles) {
+            count += patternCount(bundle);
+        }
+        patternCount = count;
+        warmUpDuration = Duration.ofNanos(System.nanoTime() - startTime);
+        log.info("Pattern cache warm up loaded {} bundles containing {} patterns, for {} key classes in {} locales, in {} ms", bundles.size(),
+                patternCount, keyClasses.size(), locales.size(), warmUpDuration.toMillis());
+    }
+
+    /**
+     * Loads the bundle for {@code keys} in {@code locale}.  A missing bundle is not an error, the keys will be stubbed or provided by another reader
+     * when they are used
+     *
+     * @param keys
+     *         all the keys of one I18NKey class
+     * @param locale
+     *         the locale to load
+     *
+     * @return the loaded bundle, or null if there is no class based bundle
+     */
+    @SuppressWarnings("unchecked")
+    protected EnumResourceBundle preload(I18NKey[] keys, Locale locale) {
+        String baseName = NativeBundleReaderBase.defaultExpandedBaseName(keys[0]);
+        ResourceBundle bundle;
+        try {
+            bundle = ResourceBundle.getBundle(baseName, locale, control);
+        } catch (MissingResourceException e) {
+            log.debug("No bundle '{}' for locale '{}', nothing to warm up", baseName, locale);
+            return null;
+        }
+        if (!(bundle instanceof EnumResourceBundle)) {
+            return null;
+        }
+        EnumResourceBundle enumBundle = (EnumResourceBundle) bundle;
+        // the same bundle may be returned for more than one locale, and must only be loaded once
+        synchronized (enumBundle) {
+            enumBundle.setKeyClass(((Enum) keys[0]).getDeclaringClass());
+            enumBundle.load();
+        }
+        return enumBundle;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int patternCount(EnumResourceBundle bundle) {
+        int count = 0;
+        for (Object key : bundle.getKeyClass()
+                                .getEnumConstants()) {
+            if (bundle.getValue((Enum) key) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        //nothing to release, warmed bundles stay in the cache
+    }
+
+    @Override
+    public Duration getWarmUpDuration() {
+        return warmUpDuration;
+    }
+
+    @Override
+    public int getPatternCount() {
+        return patternCount;
+    }
+}
@@ -14,13 +14,18 @@ package uk.q3c.krail.i18n;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import uk.q3c.util.MessagePattern;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Locale;
+import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -28,6 +33,10 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * A cached, single access point for I18N patterns, which may ultimately come from multiple sources.  The patterns are actually loaded into the cache by a
  * {@link PatternCacheLoader}  Note that the scope of this class is set in {@link I18NModule#bindPatternSource()} or its sub-class.
  * <p>
+ * Patterns already loaded are also held in {@link ResolvedPatterns}, an array per enum class per locale, so that repeat
+ * look ups do not allocate a {@link PatternCacheKey}.  Entries removed from the cache, by whatever means, are removed
+ * from the lookup table by a removal listener.
+ * <p>
  * Created by David Sowerby on 07/12/14.
  */
 
@@ -35,16 +44,37 @@ public class DefaultPatternSource implements PatternSource<LoadingCache<PatternC
 
 
     private static Logger log = LoggerFactory.getLogger(DefaultPatternSource.class);
+    private final PatternCacheIndex index = new PatternCacheIndex();
+    private final ResolvedPatterns resolved = new ResolvedPatterns();
+    private final PatternGeneration patternGeneration;
     private LoadingCache<PatternCacheKey, String> cache;
 
 
-    @Inject
-
     protected DefaultPatternSource(PatternCacheLoader cacheLoader) {
+        this(cacheLoader, new PatternGeneration());
+    }
+
+    /**
+     * @param patternGeneration
+     *         advanced whenever this source is cleared, so that text translated from the cleared patterns is discarded elsewhere
+     */
+    @Inject
+    protected DefaultPatternSource(PatternCacheLoader cacheLoader, PatternGeneration patternGeneration) {
+        this.patternGeneration = patternGeneration;
         //CacheLoader has no interface so the cast is necessary to allow alternative PatternCacheLLoader implementations
         //although all implementations would need to extend CacheLoader
+        RemovalListener<PatternCacheKey, String> removalListener = notification -> {
+            PatternCacheKey removed = notification.getKey();
+            resolved.remove(removed.getKey(), removed.getRequestedLocale());
+            // a replaced entry is still in the cache, and a removed one may already have been loaded again - either must stay in the index
+            if (notification.getCause() != RemovalCause.REPLACED && !cache.asMap()
+                                                                          .containsKey(removed)) {
+                index.remove(removed);
+            }
+        };
         cache = CacheBuilder.newBuilder()
-                            .build((CacheLoader) cacheLoader);
+                            .removalListener(removalListener)
+                            .build(new IndexingCacheLoader((CacheLoader<PatternCacheKey, String>) cacheLoader, index));
         // TODO will be using a config object
     }
 
@@ -71,8 +101,87 @@ public class DefaultPatternSource implements PatternSource<LoadingCache<PatternC
     public <E extends Enum<E> & I18NKey> String retrievePattern(E key, Locale locale) {
         checkNotNull(key);
         checkNotNull(locale);
-        PatternCacheKey cacheKey = new PatternCacheKey(key, locale);
-        return cache.getUnchecked(cacheKey);
+        return retrievePattern(key, locale, resolved.slotsFor(key, locale));
+    }
+
+    private <E extends Enum<E> & I18NKey> String retrievePattern(E key, Locale locale, ResolvedPatterns.Slots slots) {
+        int ordinal = key.ordinal();
+        String pattern = slots.patterns.get(ordinal);
+        if (pattern == null) {
+            long removalCount = resolved.removalCount();
+            pattern = cache.getUnchecked(new PatternCacheKey(key, locale));
+            resolved.store(slots, ordinal, pattern, removalCount);
+        }
+        return pattern;
+    }
+
+    /**
+     * Retrieves the pattern for {@code key} and {@code locale} as {@link #retrievePattern(Enum, Locale)} does, and
+     * returns it parsed.  The parsed pattern is held alongside the resolved pattern, and only re-parsed if the pattern
+     * held by the cache is no longer the one it was parsed from - so invalidation of the cache by any means is always
+     * respected.
+     *
+     * @param key
+     *         the I18NKey to identify the pattern
+     * @param locale
+     *         the locale for the translation - note that this is not checked to be a supported locale
+     * @param <E>
+     *         an Enum implementing I18NKey
+     *
+     * @return the parsed pattern for the key and locale
+     */
+    @Override
+    public <E extends Enum<E> & I18NKey> MessagePattern retrieveCompiledPattern(E key, Locale locale) {
+        checkNotNull(key);
+        checkNotNull(locale);
+        ResolvedPatterns.Slots slots = resolved.slotsFor(key, locale);
+        String pattern = retrievePattern(key, locale, slots);
+        MessagePattern compiled = slots.compiled.get(key.ordinal());
+        //noinspection StringEquality - identity is deliberate, the cached instance changes only when reloaded
+        if (compiled == null || compiled.getPattern() != pattern) {
+            compiled = MessagePattern.compile(pattern);
+            slots.compiled.set(key.ordinal(), compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Retrieves all the patterns for {@code keys} with one call to the cache, so that any missing entries are loaded
+     * together.  The same rules as {@link #retrievePattern(Enum, Locale)} apply to each key.
+     *
+     * @param keys
+     *         the keys to look up - all keys must be Enums implementing I18NKey.  Null keys are ignored
+     * @param locale
+     *         the locale for the patterns - note that this is not checked to be a supported locale
+     *
+     * @return a map of key to pattern, containing an entry for every non-null key in {@code keys}
+     */
+    @Override
+    public ImmutableMap<I18NKey, String> retrievePatterns(Collection<? extends I18NKey> keys, Locale locale) {
+        checkNotNull(keys);
+        checkNotNull(locale);
+        Map<PatternCacheKey, I18NKey> cacheKeys = new LinkedHashMap<>();
+        for (I18NKey key : keys) {
+            if (key != null) {
+                cacheKeys.put(cacheKey(key, locale), key);
+            }
+        }
+        Map<PatternCacheKey, String> patterns;
+        try {
+            patterns = cache.getAll(cacheKeys.keySet());
+        } catch (ExecutionException e) {
+            throw new UncheckedExecutionException(e.getCause());
+        }
+        ImmutableMap.Builder<I18NKey, String> result = ImmutableMap.builder();
+        for (Map.Entry<PatternCacheKey, I18NKey> entry : cacheKeys.entrySet()) {
+            result.put(entry.getValue(), patterns.get(entry.getKey()));
+        }
+        return result.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E extends Enum<E> & I18NKey> PatternCacheKey cacheKey(I18NKey key, Locale locale) {
+        return new PatternCacheKey((E) key, locale);
     }
 
     @Override
@@ -84,23 +193,85 @@ public class DefaultPatternSource implements PatternSource<LoadingCache<PatternC
     @Override
     public void clearCache() {
         cache.invalidateAll();
+        resolved.clear();
+        index.clear();
+        patternGeneration.advance();
     }
 
     /**
-     * Clears the cache of all entries for {@code source}.  T
+     * Clears the cache of all entries loaded from {@code source}.  Entries are found from an index, so only the affected entries are visited
      *
      * @param source
      */
     @Override
     public void clearCache(String source) {
-        List<PatternCacheKey> keysToRemove = new ArrayList<>();
-        for (PatternCacheKey key : cache.asMap()
-                                        .keySet()) {
-            if (key.getSource()
-                   .equals(source)) {
-                keysToRemove.add(key);
+        cache.invalidateAll(index.keysForSource(source));
+        patternGeneration.advance();
+    }
+
+    /**
+     * Clears the cache of all entries for the bundle {@code bundleName}, in all locales.  Entries are found from an index, so only the affected entries
+     * are visited
+     *
+     * @param bundleName
+     */
+    @Override
+    public void clearBundle(String bundleName) {
+        cache.invalidateAll(index.keysForBundle(bundleName));
+        patternGeneration.advance();
+    }
+
+    /**
+     * Clears the cache of the entries for the bundle {@code bundleName} which could have been affected by a change to {@code locale} - that is, entries
+     * requested in {@code locale}, or in a Locale which falls back to {@code locale}.  Entries are found from an index, so only the affected entries
+     * are visited.  Entries are reloaded only as they are next requested, so a bundle update does not cause the whole cache to be reloaded at once.
+     *
+     * @param bundleName
+     * @param locale
+     */
+    @Override
+    public void clearBundle(String bundleName, Locale locale) {
+        cache.invalidateAll(index.keysForBundle(bundleName, locale));
+        patternGeneration.advance();
+    }
+
+    /**
+     * Clears the cache of the entries, in all bundles, which could have been affected by a change to {@code locale}
+     *
+     * @param locale
+     */
+    @Override
+    public void clearLocale(Locale locale) {
+        cache.invalidateAll(index.keysForLocale(locale));
+        patternGeneration.advance();
+    }
+
+    /**
+     * Delegates loading to the {@link PatternCacheLoader}, and adds each loaded key to the {@link PatternCacheIndex}
+     */
+    private static class IndexingCacheLoader extends CacheLoader<PatternCacheKey, String> {
+        private final CacheLoader<PatternCacheKey, String> delegate;
+        private final PatternCacheIndex index;
+
+        IndexingCacheLoader(CacheLoader<PatternCacheKey, String> delegate, PatternCacheIndex index) {
+            this.delegate = delegate;
+            this.index = index;
+        }
+
+        @Override
+        public String load(@Nonnull PatternCacheKey key) throws Exception {
+            String value = delegate.load(key);
+            index.add(key);
+            return value;
+        }
+
+        @Override
+        public Map<PatternCacheKey, String> loadAll(Iterable<? extends PatternCacheKey> keys) throws Exception {
+            Map<PatternCacheKey, String> values = delegate.loadAll(keys);
+            for (PatternCacheKey key : values.keySet()) {
+                index.add(key);
             }
+            return values;
         }
-        cache.invalidateAll(keysToRemove);
     }
 }
@@ -13,7 +13,6 @@
 package uk.q3c.krail.i18n;
 
 import com.google.inject.Inject;
-import uk.q3c.util.MessageFormat;
 
 import java.text.Collator;
 import java.util.*;
@@ -49,6 +48,44 @@ public class DefaultTranslate implements Translate {
     }
 
 
+    /**
+     * The same as {@link #from(I18NKey, Locale)}, but using {@link #currentLocale}
+     *
+     * @param key
+     *         the key to look up the I18N pattern
+     *
+     * @return the translated value, or "key is null" if {@code key} is null
+     */
+    @Override
+    public String from(I18NKey key) {
+        return from(key, currentLocale.getLocale());
+    }
+
+    /**
+     * The fast path for keys without arguments - the pattern is returned as it is, and a pattern already resolved is
+     * returned without any allocation (see {@link DefaultPatternSource})
+     *
+     * @param key
+     *         the key to look up the I18N pattern
+     * @param locale
+     *         the locale to translate to
+     *
+     * @return the translated value, or "key is null" if {@code key} is null
+     *
+     * @throws UnsupportedLocaleException
+     *         if locale is not in {@link #supportedLocales}
+     */
+    @Override
+    public String from(I18NKey key, Locale locale) {
+        if (!supportedLocales.contains(locale)) {
+            throw new UnsupportedLocaleException(locale);
+        }
+        if (key == null) {
+            return "key is null";
+        }
+        return patternSource.retrievePattern(typeBridge(key), locale);
+    }
+
     /**
      * The same as {@link #from(I18NKey, Locale, Object...)}, but using {@link #currentLocale}
      *
@@ -89,6 +126,10 @@ public class DefaultTranslate implements Translate {
      */
     @Override
     public <E extends Enum<E> & I18NKey> String from(I18NKey key, Locale locale, Object... arguments) {
+        //If no arguments, return the pattern as it is
+        if ((arguments == null) || (arguments.length == 0)) {
+            return from(key, locale);
+        }
         if (!supportedLocales.contains(locale)) {
             throw new UnsupportedLocaleException(locale);
         }
@@ -96,26 +137,30 @@ public class DefaultTranslate implements Translate {
             return "key is null";
         }
         E k = typeBridge(key);
-        String pattern = patternSource.retrievePattern((E) key, locale);
-
-
-
-        //If no arguments, return the pattern as it is
-        if ((arguments == null) || (arguments.length == 0)) {
-            return pattern;
-        }
 
         // If any of the arguments are I18NKeys, translate them as well
-        List<Object> args = new ArrayList(Arrays.asList(arguments));
-        for (int i = 0; i < args.size(); i++) {
-            if (args.get(i) instanceof I18NKey) {
-                String translation = from((E) args.get(i));
-                args.remove(i);
-                args.add(i, translation);
+        Object[] args = arguments;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof I18NKey) {
+                if (args == arguments) {
+                    args = arguments.clone();
+                }
+                args[i] = from((I18NKey) args[i]);
             }
         }
-        String result = MessageFormat.format(pattern, args.toArray());
-        return result;
+        return patternSource.retrieveCompiledPattern(k, locale)
+                            .format(args);
+    }
+
+    /**
+     * See {@link Translate#fromAll(Collection, Locale)}
+     */
+    @Override
+    public Map<I18NKey, String> fromAll(Collection<? extends I18NKey> keys, Locale locale) {
+        if (!supportedLocales.contains(locale)) {
+            throw new UnsupportedLocaleException(locale);
+        }
+        return patternSource.retrievePatterns(keys, locale);
     }
 
     /**
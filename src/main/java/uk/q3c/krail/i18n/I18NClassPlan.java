@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package uk.q3c.krail.i18n;
+package uk.q3c.krail.i18n;
+
+import com.google.common.collect.ImmutableList;
+import com.vaadin.ui.AbstractComponent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.concurrent.Immutable;
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The I18N metadata of a class, compiled once by reflection and then held for the life of the class in a {@link ClassValue} (see {@link
+ * #planFor(Class)}).  It contains, for the class and all its superclasses:
+ * <ul>
+ * <li>each field to be translated, with its {@link AnnotationInfo} (which resolves the keys once) and a {@link MethodHandle} to read the field</li>
+ * <li>each field to drill down into, with a {@link MethodHandle} to read the field</li>
+ * </ul>
+ * The rules for selecting fields are those previously applied by {@link DefaultI18NFieldScanner} on every scan: field annotations take precedence over
+ * the annotations of the field's type, {@link I18N} is used only to include or exclude drill down, and I18N annotations may only be applied to an
+ * {@link AbstractComponent}
+ */
+@Immutable
+public class I18NClassPlan {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static Logger log = LoggerFactory.getLogger(I18NClassPlan.class);
+    private static final ClassValue<I18NClassPlan> plans = new ClassValue<I18NClassPlan>() {
+        @Override
+        protected I18NClassPlan computeValue(Class<?> type) {
+            return new I18NClassPlan(type);
+        }
+    };
+    private final ImmutableList<ComponentField> components;
+    private final ImmutableList<MethodHandle> drillDowns;
+
+    private I18NClassPlan(Class<?> type) {
+        log.debug("compiling I18N plan for '{}'", type.getName());
+        ImmutableList.Builder<ComponentField> componentsBuilder = ImmutableList.builder();
+        ImmutableList.Builder<MethodHandle> drillDownsBuilder = ImmutableList.builder();
+        Class<?> classToScan = type;
+        while (classToScan != null && !classToScan.equals(Object.class)) {
+            for (Field field : classToScan.getDeclaredFields()) {
+                AnnotationInfo annotationInfo = annotationInfo(field, field.getDeclaredAnnotations());
+                if (annotationInfo == null) {
+                    annotationInfo = annotationInfo(field, field.getType()
+                                                                .getDeclaredAnnotations());
+                }
+                if (annotationInfo != null) {
+                    componentsBuilder.add(new ComponentField(annotationInfo, getter(field)));
+                }
+                if (drillDown(field)) {
+                    drillDownsBuilder.add(getter(field));
+                }
+            }
+            classToScan = classToScan.getSuperclass();
+        }
+        components = componentsBuilder.build();
+        drillDowns = drillDownsBuilder.build();
+    }
+
+    /**
+     * Returns the plan for {@code type}, compiling it if this is the first request for it
+     *
+     * @throws I18NException
+     *         if I18N annotations (except {@link I18N}) are applied to a field which is not an {@link AbstractComponent}
+     */
+    public static I18NClassPlan planFor(Class<?> type) {
+        return plans.get(type);
+    }
+
+    /**
+     * Returns an {@link AnnotationInfo} for the I18N annotations in {@code annotations} (excluding {@link I18N}), or null if there are none
+     */
+    private static AnnotationInfo annotationInfo(Field field, Annotation[] annotations) {
+        List<Annotation> i18NAnnotations = new ArrayList<>();
+        for (Annotation annotation : annotations) {
+            Class<? extends Annotation> annotationType = annotation.annotationType();
+            if (annotationType.isAnnotationPresent(I18NAnnotation.class) && !annotationType.equals(I18N.class)) {
+                i18NAnnotations.add(annotation);
+            }
+        }
+        if (i18NAnnotations.isEmpty()) {
+            return null;
+        }
+        if (!AbstractComponent.class.isAssignableFrom(field.getType())) {
+            throw new I18NException("I18N annotations (except for @18N), can only be applied to AbstractComponent");
+        }
+        log.debug("I18N annotation(s) found for '{}'", field.getName());
+        return new AnnotationInfo(field, i18NAnnotations);
+    }
+
+    /**
+     * A field is drilled into if it, or failing that its type, is annotated with {@link I18N} with drillDown=true
+     */
+    private static boolean drillDown(Field field) {
+        I18N i18N = field.getAnnotation(I18N.class);
+        if (i18N == null) {
+            i18N = field.getType()
+                        .getAnnotation(I18N.class);
+        }
+        return i18N != null && i18N.drillDown();
+    }
+
+    /**
+     * Returns a handle which reads {@code field} from an instance given as an Object (the instance is ignored for a static field)
+     */
+    private static MethodHandle getter(Field field) {
+        try {
+            field.setAccessible(true);
+            MethodHandle getter = MethodHandles.lookup()
+                                               .unreflectGetter(field);
+            if (Modifier.isStatic(field.getModifiers())) {
+                getter = MethodHandles.dropArguments(getter, 0, Object.class);
+            }
+            return getter.asType(GETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new I18NException("Unable to access field " + field.getName(), e);
+        }
+    }
+
+    private static Object read(MethodHandle getter, Object target) {
+        try {
+            return (Object) getter.invokeExact(target);
+        } catch (Throwable throwable) {
+            throw new I18NException("Unable to read I18N field", throwable);
+        }
+    }
+
+    /**
+     * Adds the (non-null) annotated components of {@code target} to {@code components}, and the (non-null) objects to drill down into to {@code
+     * drillDowns}
+     */
+    public void apply(Object target, Map<AbstractComponent, AnnotationInfo> components, Collection<Object> drillDowns) {
+        for (ComponentField componentField : this.components) {
+            AbstractComponent component = (AbstractComponent) read(componentField.getter, target);
+            if (component != null) {
+                components.put(component, componentField.annotationInfo);
+            }
+        }
+        for (MethodHandle getter : this.drillDowns) {
+            Object drillDown = read(getter, target);
+            if (drillDown != null) {
+                drillDowns.add(drillDown);
+            }
+        }
+    }
+
+    public int getComponentFieldCount() {
+        return components.size();
+    }
+
+    public int getDrillDownFieldCount() {
+        return drillDowns.size();
+    }
+
+    private static class ComponentField {
+        private final AnnotationInfo annotationInfo;
+        private final MethodHandle getter;
+
+        private ComponentField(AnnotationInfo annotationInfo, MethodHandle getter) {
+            this.annotationInfo = annotationInfo;
+            this.getter = getter;
+        }
+    }
+}
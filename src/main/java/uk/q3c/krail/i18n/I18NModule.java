@@ -32,6 +32,7 @@ public class I18NModule extends AbstractModule {
     private MapBinder<String, Set<String>> bundleSourceOrder;
     private Multibinder<String> bundleSourceOrderDefault;
     private Multibinder<String> drillDownExclusions;
+    private Multibinder<Class<? extends I18NKey>> keyClasses;
     private Multibinder<Locale> supportedLocales;
 
     @Override
@@ -40,6 +41,8 @@ public class I18NModule extends AbstractModule {
         supportedLocales = newSetBinder(binder(), Locale.class, SupportedLocales.class);
         bundleSourceOrderDefault = newSetBinder(binder(), String.class, BundleReaderOrderDefault.class);
         bundleReaders = MapBinder.newMapBinder(binder(), String.class, BundleReader.class);
+        keyClasses = newSetBinder(binder(), new TypeLiteral<Class<? extends I18NKey>>() {
+        }, I18NKeyClasses.class);
 
         TypeLiteral<Set<String>> setString = new TypeLiteral<Set<String>>() {
         };
@@ -58,6 +61,7 @@ public class I18NModule extends AbstractModule {
         bindPatternUtility();
         bindFieldScanner();
         bindHostClassIdentifier();
+        bindPatternCacheWarmUpService();
 
 
         define();
@@ -71,6 +75,13 @@ public class I18NModule extends AbstractModule {
         bind(I18NFieldScanner.class).to(DefaultI18NFieldScanner.class);
     }
 
+    /**
+     * Override this method to provide your own implementation of {@link PatternCacheWarmUpService}
+     */
+    protected void bindPatternCacheWarmUpService() {
+        bind(PatternCacheWarmUpService.class).to(DefaultPatternCacheWarmUpService.class);
+    }
+
     protected void bindPatternUtility() {
         bind(PatternUtility.class).to(DefaultPatternUtility.class);
     }
@@ -116,10 +127,16 @@ public class I18NModule extends AbstractModule {
      * they will be processed in the order you specify them here.  However, Guice does not guarantee order if multiple
      * MapBinders are combined (through the use of multiple modules) - the order must then be explicitly specified
      * using {{@link #setDefaultBundleReaderOrder(String...)}} and/or {@link #setBundleReaderOrder(String, String...)}
+     * <p>
+     * Register your own {@link I18NKey} classes with {@link #addKeyClass(Class)}, so that their patterns are loaded by the
+     * {@link PatternCacheWarmUpService}
      */
     protected void define() {
         excludeFromI18NDrillDown("com.vaadin");
         addSupportedLocale(Locale.UK);
+        addKeyClass(LabelKey.class);
+        addKeyClass(DescriptionKey.class);
+        addKeyClass(MessageKey.class);
         addBundleReader("class", ClassBundleReader.class);
         addBundleReader("properties", PropertiesFromClasspathBundleReader.class);
     }
@@ -130,6 +147,19 @@ public class I18NModule extends AbstractModule {
                         .toInstance(locale);
     }
 
+    /**
+     * Registers an {@link I18NKey} class, so that its bundles are pre-loaded for all supported locales by the
+     * {@link PatternCacheWarmUpService}.  Keys from classes which are not registered are still translated, but loaded
+     * on first use
+     *
+     * @param keyClass
+     *         the I18NKey enum class to register
+     */
+    protected void addKeyClass(@Nonnull Class<? extends I18NKey> keyClass) {
+        keyClasses.addBinding()
+                  .toInstance(keyClass);
+    }
+
     /**
      * There are some components you know will never have I18N annotations inside them, (anything from Vaadin for
      * example).  Normally the default is to drill down into a component for I18N, after it has been processed itself.
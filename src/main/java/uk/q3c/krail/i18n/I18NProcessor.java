@@ -28,4 +28,14 @@ public interface I18NProcessor {
      */
     public abstract void translate(Object target);
 
+    /**
+     * Translate {@code target} again, usually following a change of Locale.  Implementations may re-use what they learnt about {@code target} when it
+     * was last translated, instead of examining it again.  By default this is the same as {@link #translate(Object)}
+     *
+     * @param target
+     */
+    default void retranslate(Object target) {
+        translate(target);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package uk.q3c.krail.i18n;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A volatile, in-memory {@link PatternDao}, for testing and benchmarking the database bundle reader without a database.  Values are held by bundle (key
+ * class) and locale, so {@link #getValues(Class, Locale)} is a single lookup.  The locale used is the actual locale of each {@link PatternCacheKey}
+ */
+@Singleton
+@ThreadSafe
+public class InMemoryPatternDao implements PatternDao {
+
+    private final ConcurrentMap<BundleLocale, ConcurrentMap<Enum<?>, String>> bundles = new ConcurrentHashMap<>();
+
+    @Inject
+    protected InMemoryPatternDao() {
+    }
+
+    @Override
+    public void write(@Nonnull PatternCacheKey cacheKey, @Nonnull String value) {
+        checkNotNull(cacheKey);
+        checkNotNull(value);
+        Enum<?> key = cacheKey.getKey();
+        bundles.computeIfAbsent(new BundleLocale(key.getDeclaringClass(), cacheKey.getActualLocale()), b -> new ConcurrentHashMap<>())
+               .put(key, value);
+    }
+
+    @Nullable
+    @Override
+    public String deleteValue(@Nonnull PatternCacheKey cacheKey) {
+        checkNotNull(cacheKey);
+        Map<Enum<?>, String> bundle = bundleFor(cacheKey);
+        return (bundle == null) ? null : bundle.remove(cacheKey.getKey());
+    }
+
+    @Nonnull
+    @Override
+    public Optional<String> getValue(@Nonnull PatternCacheKey cacheKey) {
+        checkNotNull(cacheKey);
+        Map<Enum<?>, String> bundle = bundleFor(cacheKey);
+        return (bundle == null) ? Optional.empty() : Optional.ofNullable(bundle.get(cacheKey.getKey()));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    @Override
+    public <E extends Enum<E> & I18NKey> ImmutableMap<E, String> getValues(@Nonnull Class<E> keyClass, @Nonnull Locale locale) {
+        checkNotNull(keyClass);
+        checkNotNull(locale);
+        Map<Enum<?>, String> bundle = bundles.get(new BundleLocale(keyClass, locale));
+        return (bundle == null) ? ImmutableMap.of() : ImmutableMap.copyOf((Map<E, String>) (Map) bundle);
+    }
+
+    @Override
+    public String connectionUrl() {
+        return "memory";
+    }
+
+    private Map<Enum<?>, String> bundleFor(PatternCacheKey cacheKey) {
+        return bundles.get(new BundleLocale(cacheKey.getKey()
+                                                    .getDeclaringClass(), cacheKey.getActualLocale()));
+    }
+}
@@ -11,6 +11,7 @@
 
 package uk.q3c.krail.i18n;
 
+import com.google.common.collect.ImmutableList;
 import org.apache.commons.lang3.ClassUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,8 +20,9 @@ import uk.q3c.krail.core.user.opt.OptionContext;
 import uk.q3c.krail.core.user.opt.OptionKey;
 
 import javax.annotation.Nonnull;
-import java.util.Optional;
-import java.util.ResourceBundle;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A base for native Java Properties and Class based I18N bundles
@@ -36,6 +38,8 @@ public abstract class NativeBundleReaderBase extends BundleReaderBase implements
             .Use_Key_Path);
     private static Logger log = LoggerFactory.getLogger(NativeBundleReaderBase.class);
     private final ResourceBundle.Control control;
+    private final ConcurrentMap<BundleKey, Optional<ResourceBundle>> bundles = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ExpansionKey, String> expandedBaseNames = new ConcurrentHashMap<>();
     private Option option;
 
     protected NativeBundleReaderBase(Option option, ResourceBundle.Control control) {
@@ -61,6 +65,9 @@ public abstract class NativeBundleReaderBase extends BundleReaderBase implements
      * key.   The location of the bundle (class or properties file) is extracted from the {@link I18NKey#bundleName()}
      * and expanded using {@link #expandFromKey(String, I18NKey)}.  (Auto-stub logic provided by {@link
      * #autoStub(PatternCacheKey, String, boolean, boolean, String)}
+     * <p>
+     * Both the expanded bundle name and the bundle (or the fact that it does not exist) are cached by this reader, so each bundle is looked for only
+     * once for each locale - see {@link #clearCache()}
      *
      * @param cacheKey
      *         the key to identify the pattern required
@@ -79,13 +86,16 @@ public abstract class NativeBundleReaderBase extends BundleReaderBase implements
      */
     @Override
     public Optional<String> getValue(PatternCacheKey cacheKey, String source, boolean autoStub, boolean stubWithKeyName, String stubValue) {
-        log.debug("getValue for cacheKey {}, source '{}', using control: " + control.getClass()
-                                                                                    .getSimpleName(), cacheKey, source);
+        log.debug("getValue for cacheKey {}, source '{}', using control: {}", cacheKey, source, control.getClass()
+                                                                                                    .getSimpleName());
         I18NKey key = (I18NKey) cacheKey.getKey();
-        String expandedBaseName = expandFromKey(source, key);
         try {
-            ResourceBundle bundle = ResourceBundle.getBundle(expandedBaseName, cacheKey.getActualLocale(), getControl());
-            String value = getValue(bundle, cacheKey.getKey());
+            String expandedBaseName = expandedBaseNames.computeIfAbsent(new ExpansionKey(source, key.getClass()), k -> expandFromKey(source, key));
+            Optional<ResourceBundle> bundle = bundle(expandedBaseName, cacheKey.getActualLocale());
+            if (!bundle.isPresent()) {
+                return Optional.empty();
+            }
+            String value = getValue(bundle.get(), cacheKey.getKey());
             return autoStub(cacheKey, value, autoStub, stubWithKeyName, stubValue);
         } catch (Exception e) {
             log.warn("returning empty value, as getValue() returned exception {} with message '{}'", e, e.getMessage());
@@ -93,6 +103,34 @@ public abstract class NativeBundleReaderBase extends BundleReaderBase implements
         }
     }
 
+    /**
+     * Returns the bundle for {@code expandedBaseName} and {@code locale}, or Optional.empty() if there is no such bundle.  Either result is cached, so
+     * that a missing bundle is not looked for again for every key
+     */
+    private Optional<ResourceBundle> bundle(String expandedBaseName, Locale locale) {
+        BundleKey bundleKey = new BundleKey(expandedBaseName, locale);
+        Optional<ResourceBundle> bundle = bundles.get(bundleKey);
+        if (bundle == null) {
+            try {
+                bundle = Optional.of(ResourceBundle.getBundle(expandedBaseName, locale, getControl()));
+            } catch (MissingResourceException e) {
+                log.warn("bundle '{}' not found for locale '{}', it will not be looked for again until the cache is cleared", expandedBaseName, locale);
+                bundle = Optional.empty();
+            }
+            bundles.putIfAbsent(bundleKey, bundle);
+        }
+        return bundle;
+    }
+
+    /**
+     * Clears the cached bundle names and bundles, so that they are looked up again when next required.  Call this if the {@link Option} values used
+     * by {@link #expandFromKey(String, I18NKey)} are changed after patterns have been read
+     */
+    public void clearCache() {
+        expandedBaseNames.clear();
+        bundles.clear();
+    }
+
     /**
      * Allows the setting of paths for location of class and property files.  The bundle base name is taken from {@link
      * I18NKey#bundleName()}.
@@ -111,18 +149,37 @@ public abstract class NativeBundleReaderBase extends BundleReaderBase implements
      */
     protected String expandFromKey(String source, I18NKey sampleKey) {
         String baseName = sampleKey.bundleName();
-        String packageName;
         //use sub-class names to qualify the options, so they get their own, and not the base class
-        if (option.get(getOptionKeyUseKeyPath().qualifiedWith(source))) {
+        OptionKey<Boolean> useKeyPathKey = getOptionKeyUseKeyPath().qualifiedWith(source);
+        OptionKey<String> pathKey = getOptionKeyPath().qualifiedWith(source);
+        Map<OptionKey<?>, Object> values = option.get(ImmutableList.of(useKeyPathKey, pathKey));
+        String packageName;
+        if ((Boolean) values.get(useKeyPathKey)) {
             packageName = ClassUtils.getPackageCanonicalName(sampleKey.getClass());
 
         } else {
 
-            packageName = option.get(getOptionKeyPath().qualifiedWith(source));
+            packageName = (String) values.get(pathKey);
         }
 
-        String expanded = packageName.isEmpty() ? baseName : packageName + "." + baseName;
-        return expanded;
+        return expand(packageName, baseName);
+    }
+
+    /**
+     * Returns the bundle name for {@code sampleKey} as {@link #expandFromKey(String, I18NKey)} expands it with the default option values - that is,
+     * with the bundle name appended to the package of the key class.  No {@link Option} values are read, so this can be used outside a user session
+     *
+     * @param sampleKey
+     *         any key from the I18NKey class, to give access to bundleName()
+     *
+     * @return the expanded bundle name for the default options
+     */
+    public static String defaultExpandedBaseName(I18NKey sampleKey) {
+        return expand(ClassUtils.getPackageCanonicalName(sampleKey.getClass()), sampleKey.bundleName());
+    }
+
+    private static String expand(String packageName, String baseName) {
+        return packageName.isEmpty() ? baseName : packageName + "." + baseName;
     }
 
     protected abstract OptionKey<Boolean> getOptionKeyUseKeyPath();
@@ -135,5 +192,60 @@ public abstract class NativeBundleReaderBase extends BundleReaderBase implements
         return control;
     }
 
+    /**
+     * Identifies an expanded bundle name - the bundle name is defined by the key class, and the expansion by the options for the source
+     */
+    private static class ExpansionKey {
+        private final Class<?> keyClass;
+        private final String source;
+
+        private ExpansionKey(String source, Class<?> keyClass) {
+            this.source = source;
+            this.keyClass = keyClass;
+        }
 
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ExpansionKey)) {
+                return false;
+            }
+            ExpansionKey that = (ExpansionKey) o;
+            return keyClass.equals(that.keyClass) && Objects.equals(source, that.source);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * keyClass.hashCode() + Objects.hashCode(source);
+        }
+    }
+
+    private static class BundleKey {
+        private final String expandedBaseName;
+        private final Locale locale;
+
+        private BundleKey(String expandedBaseName, Locale locale) {
+            this.expandedBaseName = expandedBaseName;
+            this.locale = locale;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BundleKey)) {
+                return false;
+            }
+            BundleKey that = (BundleKey) o;
+            return expandedBaseName.equals(that.expandedBaseName) && locale.equals(that.locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * expandedBaseName.hashCode() + locale.hashCode();
+        }
+    }
 }
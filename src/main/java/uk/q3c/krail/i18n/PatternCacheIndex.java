@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.i18n;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Secondary indexes of the keys held by the {@link DefaultPatternSource} cache, by the source a pattern was loaded from, and by bundle name and
+ * requested Locale.  This allows a part of the cache to be invalidated by looking up only the affected keys, instead of scanning every key in the cache.
+ * <p>
+ * Keys are added by {@link DefaultPatternSource} as they are loaded, and removed when the cache removes them.  All methods are thread safe.
+ */
+class PatternCacheIndex {
+
+    private final ConcurrentMap<String, ConcurrentMap<Locale, Set<PatternCacheKey>>> bundles = new ConcurrentHashMap<>();
+    private final KrailResourceBundleControl bundleControl = new KrailResourceBundleControl();
+    private final ConcurrentMap<String, Set<PatternCacheKey>> sources = new ConcurrentHashMap<>();
+
+    private static String bundleName(PatternCacheKey cacheKey) {
+        return ((I18NKey) cacheKey.getKey()).bundleName();
+    }
+
+    /**
+     * Adds {@code cacheKey}, after it has been loaded (so that its source is known)
+     */
+    void add(PatternCacheKey cacheKey) {
+        String source = cacheKey.getSource();
+        if (source != null) {
+            sources.computeIfAbsent(source, s -> ConcurrentHashMap.newKeySet())
+                   .add(cacheKey);
+        }
+        bundles.computeIfAbsent(bundleName(cacheKey), b -> new ConcurrentHashMap<>())
+               .computeIfAbsent(cacheKey.getRequestedLocale(), l -> ConcurrentHashMap.newKeySet())
+               .add(cacheKey);
+    }
+
+    /**
+     * Removes {@code cacheKey}, after it has been removed from the cache
+     */
+    void remove(PatternCacheKey cacheKey) {
+        String source = cacheKey.getSource();
+        if (source != null) {
+            Set<PatternCacheKey> keys = sources.get(source);
+            if (keys != null) {
+                keys.remove(cacheKey);
+            }
+        }
+        Map<Locale, Set<PatternCacheKey>> locales = bundles.get(bundleName(cacheKey));
+        if (locales != null) {
+            Set<PatternCacheKey> keys = locales.get(cacheKey.getRequestedLocale());
+            if (keys != null) {
+                keys.remove(cacheKey);
+            }
+        }
+    }
+
+    void clear() {
+        sources.clear();
+        bundles.clear();
+    }
+
+    /**
+     * Returns the keys whose patterns were loaded from {@code source}
+     */
+    List<PatternCacheKey> keysForSource(String source) {
+        Set<PatternCacheKey> keys = sources.get(source);
+        return (keys == null) ? Collections.emptyList() : new ArrayList<>(keys);
+    }
+
+    /**
+     * Returns the keys for {@code bundleName}, in all locales
+     */
+    List<PatternCacheKey> keysForBundle(String bundleName) {
+        List<PatternCacheKey> found = new ArrayList<>();
+        Map<Locale, Set<PatternCacheKey>> locales = bundles.get(bundleName);
+        if (locales != null) {
+            for (Set<PatternCacheKey> keys : locales.values()) {
+                found.addAll(keys);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the keys for {@code bundleName} whose pattern may have been taken from {@code locale} - that is, those whose requested Locale has {@code
+     * locale} as one of its candidate locales.  A change to {@code locale} in a bundle can therefore affect only these keys.
+     */
+    List<PatternCacheKey> keysForBundle(String bundleName, Locale locale) {
+        List<PatternCacheKey> found = new ArrayList<>();
+        Map<Locale, Set<PatternCacheKey>> locales = bundles.get(bundleName);
+        if (locales != null) {
+            for (Map.Entry<Locale, Set<PatternCacheKey>> entry : locales.entrySet()) {
+                if (bundleControl.getCandidateLocales(bundleName, entry.getKey())
+                                 .contains(locale)) {
+                    found.addAll(entry.getValue());
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the keys, from all bundles, whose pattern may have been taken from {@code locale}
+     */
+    List<PatternCacheKey> keysForLocale(Locale locale) {
+        List<PatternCacheKey> found = new ArrayList<>();
+        for (String bundleName : bundles.keySet()) {
+            found.addAll(keysForBundle(bundleName, locale));
+        }
+        return found;
+    }
+}
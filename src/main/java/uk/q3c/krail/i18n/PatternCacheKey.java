@@ -26,6 +26,20 @@ public class PatternCacheKey {
         this.actualLocale = requestedLocale; // initially the same
     }
 
+    private PatternCacheKey(PatternCacheKey other) {
+        this.key = other.key;
+        this.requestedLocale = other.requestedLocale;
+        this.actualLocale = other.actualLocale;
+        this.source = other.source;
+    }
+
+    /**
+     * Returns a copy of this key, including its actual locale and source, which is not affected by later changes to this key
+     */
+    public PatternCacheKey copy() {
+        return new PatternCacheKey(this);
+    }
+
     public Locale getActualLocale() {
         return actualLocale;
     }
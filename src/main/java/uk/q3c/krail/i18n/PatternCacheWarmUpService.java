@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package uk.q3c.krail.i18n;
+
+import uk.q3c.krail.core.services.Service;
+
+import java.time.Duration;
+
+/**
+ * A service which pre-loads the I18N bundles for every class registered with {@link I18NKeyClasses}, in every one of the {@link SupportedLocales},
+ * into a cache shared by all sessions, so that the first requests for translations do not have to wait for bundles to be loaded.  It is started when
+ * the application starts, so implementations must not depend on a user session.
+ */
+public interface PatternCacheWarmUpService extends Service {
+
+    /**
+     * Returns the time taken by the most recent warm up, or {@link Duration#ZERO} if the service has not yet been started
+     *
+     * @return the time taken by the most recent warm up
+     */
+    Duration getWarmUpDuration();
+
+    /**
+     * Returns the number of patterns loaded by the most recent warm up
+     *
+     * @return the number of patterns loaded by the most recent warm up
+     */
+    int getPatternCount();
+}
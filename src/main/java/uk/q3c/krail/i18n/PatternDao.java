@@ -11,10 +11,13 @@
 
 package uk.q3c.krail.i18n;
 
+import com.google.common.collect.ImmutableMap;
 import uk.q3c.krail.core.user.opt.cache.OptionKeyException;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -61,6 +64,37 @@ public interface PatternDao {
     Optional<String> getValue(@Nonnull PatternCacheKey cacheKey);
 
 
+    /**
+     * Gets all the values held in persistence for one bundle - that is, the keys of {@code keyClass} - in {@code locale}.  Implementations should
+     * override this to read the values in a single query; by default it calls {@link #getValue(PatternCacheKey)} for each key
+     *
+     * @param keyClass
+     *         the I18NKey class which defines the bundle
+     * @param locale
+     *         the locale of the values
+     *
+     * @return a map of key to value, containing only those keys which have a value
+     */
+    @Nonnull
+    default <E extends Enum<E> & I18NKey> ImmutableMap<E, String> getValues(@Nonnull Class<E> keyClass, @Nonnull Locale locale) {
+        ImmutableMap.Builder<E, String> values = ImmutableMap.builder();
+        for (E key : keyClass.getEnumConstants()) {
+            getValue(new PatternCacheKey(key, locale)).ifPresent(value -> values.put(key, value));
+        }
+        return values.build();
+    }
+
+    /**
+     * Writes a batch of values, inserting or replacing each in the same way as {@link #write(PatternCacheKey, String)}.  Implementations should
+     * override this to write the batch in a single operation; by default it calls {@link #write(PatternCacheKey, String)} for each entry
+     *
+     * @param values
+     *         the values to write, keyed by the I18NKey & Locale
+     */
+    default void write(@Nonnull Map<PatternCacheKey, String> values) {
+        values.forEach(this::write);
+    }
+
     /**
      * Returns the connection url
      *
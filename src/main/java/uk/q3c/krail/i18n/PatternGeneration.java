@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package uk.q3c.krail.i18n;
+
+import com.google.inject.Singleton;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts changes to I18N patterns - clearing a {@link PatternSource}, or writing stub values to a {@link PatternDao}.  Anything which holds
+ * translated text beyond a single request (for example {@link uk.q3c.krail.core.navigate.sitemap.UserSitemapTemplateCache}) records the generation
+ * the text was translated in, and discards it once the generation has moved on.
+ */
+@Singleton
+public class PatternGeneration {
+    private final AtomicInteger generation = new AtomicInteger();
+
+    /**
+     * Returns the current generation
+     */
+    public int current() {
+        return generation.get();
+    }
+
+    /**
+     * Called when patterns may have changed
+     */
+    public void advance() {
+        generation.incrementAndGet();
+    }
+}
@@ -11,6 +11,10 @@
 
 package uk.q3c.krail.i18n;
 
+import com.google.common.collect.ImmutableMap;
+import uk.q3c.util.MessagePattern;
+
+import java.util.Collection;
 import java.util.Locale;
 
 /**
@@ -31,6 +35,31 @@ public interface PatternSource<C extends Object> {
      */
     <E extends Enum<E> & I18NKey> String retrievePattern(E key, Locale locale);
 
+    /**
+     * Retrieve the I18N pattern to match the key and locale given, already parsed for formatting with arguments.  The
+     * parsed pattern is cached alongside the pattern itself, and is discarded whenever the pattern is
+     *
+     * @param key
+     * @param locale
+     * @param <E>
+     *
+     * @return the parsed pattern
+     */
+    <E extends Enum<E> & I18NKey> MessagePattern retrieveCompiledPattern(E key, Locale locale);
+
+    /**
+     * Retrieves the patterns for all of {@code keys} in {@code locale} in a single call.  Intended for callers which need
+     * many patterns at once - for example relabelling a whole sitemap after a change of locale.  Null keys are ignored.
+     *
+     * @param keys
+     *         the keys to look up - all keys must be Enums implementing I18NKey
+     * @param locale
+     *         the locale for the patterns
+     *
+     * @return a map of key to pattern, containing an entry for every non-null key in {@code keys}
+     */
+    ImmutableMap<I18NKey, String> retrievePatterns(Collection<? extends I18NKey> keys, Locale locale);
+
     C getCache();
 
     /**
@@ -44,4 +73,31 @@ public interface PatternSource<C extends Object> {
      * @param source
      */
     void clearCache(String source);
+
+    /**
+     * Clears the cache of all entries for the bundle {@code bundleName}, in all locales
+     *
+     * @param bundleName
+     *         the bundle name, as returned by {@link I18NKey#bundleName()}
+     */
+    void clearBundle(String bundleName);
+
+    /**
+     * Clears the cache of the entries for the bundle {@code bundleName} which could be affected by a change to the patterns for {@code locale} - that
+     * is, entries requested in {@code locale}, or in a Locale which falls back to it.  Use this after updating the patterns for one bundle and locale
+     *
+     * @param bundleName
+     *         the bundle name, as returned by {@link I18NKey#bundleName()}
+     * @param locale
+     *         the locale whose patterns have changed
+     */
+    void clearBundle(String bundleName, Locale locale);
+
+    /**
+     * Clears the cache of the entries, in all bundles, which could be affected by a change to the patterns for {@code locale}
+     *
+     * @param locale
+     *         the locale whose patterns have changed
+     */
+    void clearLocale(Locale locale);
 }
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package uk.q3c.krail.i18n;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.q3c.krail.core.services.AbstractService;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Writes stub values to a {@link PatternDao} on behalf of every {@link DefaultDatabaseBundleReader}.  Bundle readers are not scoped, so there may be
+ * one for each session - holding the queue and its background thread here, once for the application, means each stub is queued once, and no reader
+ * is kept alive by its own thread.
+ * <p>
+ * Queued stubs are written in one batch every {@link #WRITE_BEHIND_INTERVAL}, on a background thread which is started when the first stub is queued.
+ * This service is started when the application starts, if a {@link PatternDao} is bound (see {@link
+ * uk.q3c.krail.core.guice.DefaultBindingManager#startServices()}), and so is registered with the {@link uk.q3c.krail.core.services.ServicesMonitor}.
+ * When it is stopped, as {@link uk.q3c.krail.core.services.ServicesMonitor#stopAllServices()} does when the application stops, the thread is
+ * stopped and any stubs still queued are written.  Stubs queued after that are written immediately.
+ * <p>
+ * Stubs are queued by I18NKey, actual locale and source - the fields {@link PatternDao#write(PatternCacheKey, String)} uses - rather than by
+ * {@link PatternCacheKey#equals(Object)}, which considers only the key and requested locale
+ * <p>
+ * The {@link PatternDao} is used from the background thread, so must not be bound in a UI or Vaadin session scope
+ */
+@Singleton
+public class PatternStubWriter extends AbstractService {
+    public static final Duration WRITE_BEHIND_INTERVAL = Duration.ofSeconds(2);
+    private static Logger log = LoggerFactory.getLogger(PatternStubWriter.class);
+    private final PatternDao patternDao;
+    private final PatternGeneration patternGeneration;
+    private final ConcurrentMap<StubKey, String> pendingStubs = new ConcurrentHashMap<>();
+    private boolean stopped;
+    private ScheduledExecutorService writeBehind;
+
+    protected PatternStubWriter(PatternDao patternDao) {
+        this(patternDao, new PatternGeneration());
+    }
+
+    /**
+     * @param patternGeneration
+     *         advanced after each batch is written, as the stubs change what a newly loaded bundle contains
+     */
+    @Inject
+    protected PatternStubWriter(PatternDao patternDao, PatternGeneration patternGeneration) {
+        super();
+        this.patternDao = patternDao;
+        this.patternGeneration = patternGeneration;
+    }
+
+    /**
+     * Not translated, as {@link Translate} needs a user session
+     */
+    @Override
+    public String getDescription() {
+        return "Writes I18N stub values to the pattern database";
+    }
+
+    /**
+     * Queues {@code stubValue} for {@code cacheKey} to be written to persistence.  {@code cacheKey} is held until it is written, so must not be
+     * re-used by the caller
+     */
+    public void queue(@Nonnull PatternCacheKey cacheKey, @Nonnull String stubValue) {
+        pendingStubs.put(new StubKey(cacheKey), stubValue);
+        if (!startWriteBehind()) {
+            flush();
+        }
+    }
+
+    /**
+     * Returns the stub values queued, but not yet written, for {@code keyClass} in {@code locale}
+     */
+    public Map<Enum<?>, String> pending(@Nonnull Class<?> keyClass, @Nonnull Locale locale) {
+        Map<Enum<?>, String> values = new HashMap<>();
+        pendingStubs.forEach((stubKey, value) -> {
+            if (stubKey.key.getDeclaringClass()
+                           .equals(keyClass) && locale.equals(stubKey.actualLocale)) {
+                values.put(stubKey.key, value);
+            }
+        });
+        return values;
+    }
+
+    /**
+     * Starts the background thread if it is not already running
+     *
+     * @return false if this service has been stopped, and there is no background thread
+     */
+    private synchronized boolean startWriteBehind() {
+        if (stopped) {
+            return false;
+        }
+        if (writeBehind == null) {
+            ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("krail-pattern-stub-writer")
+                                                                    .setDaemon(true)
+                                                                    .build();
+            writeBehind = Executors.newSingleThreadScheduledExecutor(threadFactory);
+            writeBehind.scheduleWithFixedDelay(this::flush, WRITE_BEHIND_INTERVAL.toMillis(), WRITE_BEHIND_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        return true;
+    }
+
+    /**
+     * Writes any queued stub values to persistence in one batch.  This is called periodically by a background thread, but may also be called
+     * directly.  If the write fails, the stubs are queued again for the next attempt
+     */
+    public void flush() {
+        if (pendingStubs.isEmpty()) {
+            return;
+        }
+        Map<StubKey, String> taken = new HashMap<>();
+        for (StubKey stubKey : pendingStubs.keySet()) {
+            String value = pendingStubs.remove(stubKey);
+            if (value != null) {
+                taken.put(stubKey, value);
+            }
+        }
+        // a PatternCacheKey map cannot hold two stubs which differ only in actual locale or source, so those go in separate batches
+        List<Map<PatternCacheKey, String>> batches = new ArrayList<>();
+        taken.forEach((stubKey, value) -> {
+            for (Map<PatternCacheKey, String> batch : batches) {
+                if (!batch.containsKey(stubKey.cacheKey)) {
+                    batch.put(stubKey.cacheKey, value);
+                    return;
+                }
+            }
+            Map<PatternCacheKey, String> batch = new HashMap<>();
+            batch.put(stubKey.cacheKey, value);
+            batches.add(batch);
+        });
+        for (Map<PatternCacheKey, String> batch : batches) {
+            try {
+                patternDao.write(batch);
+                patternGeneration.advance();
+                log.debug("{} stub values written", batch.size());
+            } catch (Exception e) {
+                log.error("Unable to write stub values, they will be retried", e);
+                batch.forEach((cacheKey, value) -> pendingStubs.putIfAbsent(new StubKey(cacheKey), value));
+            }
+        }
+    }
+
+    @Override
+    protected synchronized void doStart() throws Exception {
+        stopped = false;
+    }
+
+    /**
+     * Stops the background thread, and writes any stubs still queued
+     */
+    @Override
+    protected void doStop() throws Exception {
+        synchronized (this) {
+            stopped = true;
+            if (writeBehind != null) {
+                writeBehind.shutdown();
+                writeBehind = null;
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Identifies a queued stub by the fields used to write it
+     */
+    private static final class StubKey {
+        private final Locale actualLocale;
+        private final PatternCacheKey cacheKey;
+        private final Enum<?> key;
+        private final String source;
+
+        private StubKey(PatternCacheKey cacheKey) {
+            this.cacheKey = cacheKey;
+            this.key = cacheKey.getKey();
+            this.actualLocale = cacheKey.getActualLocale();
+            this.source = cacheKey.getSource();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof StubKey)) {
+                return false;
+            }
+            StubKey that = (StubKey) o;
+            return key == that.key && Objects.equals(actualLocale, that.actualLocale) && Objects.equals(source, that.source);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(key, actualLocale, source);
+        }
+    }
+}
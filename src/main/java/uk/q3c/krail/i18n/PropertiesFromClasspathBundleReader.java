@@ -109,7 +109,8 @@ public class PropertiesFromClasspathBundleReader extends NativeBundleReaderBase
 
     @Override
     public void optionValueChanged(Property.ValueChangeEvent event) {
-        //do nothing options only used on demand
+        //the expanded bundle names depend on options
+        clearCache();
     }
 }
 
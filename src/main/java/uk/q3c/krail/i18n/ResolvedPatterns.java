@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.i18n;
+
+import uk.q3c.util.MessagePattern;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lookup table of patterns already resolved by the {@link DefaultPatternSource} cache, indexed by locale, then by
+ * enum class, then by ordinal.  A hit requires no allocation - in particular no {@link PatternCacheKey} - which matters
+ * because pattern look up is the most frequent call made while constructing a UI.  The parsed {@link MessagePattern} is
+ * held in a parallel slot.
+ * <p>
+ * This is only ever a view of the cache: {@link DefaultPatternSource} clears slots whenever the cache removes an entry,
+ * and {@link #store} guards against a removal which races with a load, using {@link #removals}
+ */
+class ResolvedPatterns {
+
+    private final ConcurrentMap<Locale, ConcurrentMap<Class<?>, Slots>> locales = new ConcurrentHashMap<>();
+    private final AtomicLong removals = new AtomicLong();
+
+    /**
+     * Returns the slots for {@code key}'s class in {@code locale}, creating them if necessary
+     */
+    Slots slotsFor(Enum<?> key, Locale locale) {
+        ConcurrentMap<Class<?>, Slots> classes = locales.get(locale);
+        if (classes == null) {
+            classes = locales.computeIfAbsent(locale, l -> new ConcurrentHashMap<>());
+        }
+        Class<?> enumClass = key.getDeclaringClass();
+        Slots slots = classes.get(enumClass);
+        if (slots == null) {
+            slots = classes.computeIfAbsent(enumClass, c -> new Slots(c.getEnumConstants().length));
+        }
+        return slots;
+    }
+
+    /**
+     * Captures the removal count before a load from the cache, for use with {@link #store}
+     */
+    long removalCount() {
+        return removals.get();
+    }
+
+    /**
+     * Stores a pattern loaded from the cache, unless an entry was removed from the cache after {@code removalCount} was
+     * taken - in which case the pattern may be stale and is not retained
+     */
+    void store(Slots slots, int ordinal, String pattern, long removalCount) {
+        slots.patterns.set(ordinal, pattern);
+        if (removals.get() != removalCount) {
+            slots.patterns.compareAndSet(ordinal, pattern, null);
+        }
+    }
+
+    /**
+     * Forgets the pattern for {@code key} and {@code locale}, called when the cache removes the entry
+     */
+    void remove(Enum<?> key, Locale locale) {
+        removals.incrementAndGet();
+        ConcurrentMap<Class<?>, Slots> classes = locales.get(locale);
+        if (classes != null) {
+            Slots slots = classes.get(key.getDeclaringClass());
+            if (slots != null) {
+                slots.patterns.set(key.ordinal(), null);
+                slots.compiled.set(key.ordinal(), null);
+            }
+        }
+    }
+
+    void clear() {
+        removals.incrementAndGet();
+        locales.clear();
+    }
+
+    static class Slots {
+        final AtomicReferenceArray<MessagePattern> compiled;
+        final AtomicReferenceArray<String> patterns;
+
+        Slots(int size) {
+            patterns = new AtomicReferenceArray<>(size);
+            compiled = new AtomicReferenceArray<>(size);
+        }
+    }
+}
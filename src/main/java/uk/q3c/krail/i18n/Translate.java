@@ -14,15 +14,45 @@
 package uk.q3c.krail.i18n;
 
 import java.text.Collator;
+import java.util.Collection;
 import java.util.Locale;
+import java.util.Map;
 
 /**
  * Created by David Sowerby on 23/10/14.
  */
 public interface Translate {
+
+    /**
+     * Translates {@code key}, which takes no arguments, using the current locale.  Equivalent to {@link #from(I18NKey,
+     * Object...)} with no arguments, but does not allocate an argument array
+     */
+    String from(I18NKey key);
+
+    /**
+     * Translates {@code key}, which takes no arguments, to {@code locale}.  Equivalent to {@link #from(I18NKey, Locale,
+     * Object...)} with no arguments, but does not allocate an argument array
+     */
+    String from(I18NKey key, Locale locale);
     <E extends Enum<E> & I18NKey> String from(I18NKey key, Locale locale, Object... arguments);
 
     <E extends Enum<E> & I18NKey> String from(I18NKey key, Object... arguments);
 
+    /**
+     * Translates all of {@code keys}, none of which take arguments, in a single call to the underlying {@link
+     * PatternSource}.  Null keys are ignored
+     *
+     * @param keys
+     *         the keys to translate
+     * @param locale
+     *         the locale to translate to
+     *
+     * @return a map of key to translation
+     *
+     * @throws UnsupportedLocaleException
+     *         if locale is not supported
+     */
+    Map<I18NKey, String> fromAll(Collection<? extends I18NKey> keys, Locale locale);
+
     Collator collator();
 }
@@ -14,50 +14,203 @@ package uk.q3c.util;
 import edu.uci.ics.jung.graph.DelegateForest;
 import edu.uci.ics.jung.graph.DirectedOrderedSparseMultigraph;
 import edu.uci.ics.jung.graph.Forest;
-import edu.uci.ics.jung.graph.Tree;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
- * A very simple semantic wrapper for the <a href=http://jung.sourceforge.net/site/index.html> Jung</a> library, to
- * use the more familiar language of trees. Underneath is it a proper implementation of a graph - there are many
- * methods not exposed through this wrapper, but you can access those via {@link #getGraph()}.  Uses a {@link
- * DirectedOrderedSparseMultigraph} to maintain insertion order
+ * A simple tree (or forest, if there is more than one root), using the familiar language of parent and child.
  * <p>
- * The E (edge) parameter for the underlying graph is a simple Integer.
+ * Nodes are held in int-indexed arrays of parent, first child, last child and sibling links, with a map from node to
+ * index.  Parent, root, node and child count lookups are therefore O(1), and children are walked directly through the
+ * sibling links, without the edge objects or vertex copies of the Jung graph previously used.  Insertion order is
+ * maintained for both roots and children.
  * <p>
- * Originally this implementation used a default DelegateForest which in turn uses a DirectedSparseGraph - this uses
- * hash maps, so it would appear that a different hash algorithm is being in Java 8 to Java 7 used, yielding a
- * different order for this test case.
- * BasicForest previously made no commitment to maintaining insertion order; however, the failure of this case under
- * Java 8 suggests that it might be expected to do so.  The implementation has therefore been changed to use a
- * {@link DirectedOrderedSparseMultigraph} (this uses LinkedHashMaps) to maintain insertion order.
+ * Node identity follows {@code equals()} and {@code hashCode()}, as it did with the Jung graph.  Unlike the Jung graph,
+ * {@link #addChild(Object, Object)} moves a node which is already in the tree, rather than rejecting the second parent.
+ * {@link #getGraph()} is retained only for compatibility, and returns a copy.
+ * <p>
+ * Methods which return a {@link List} return a new list, which the caller is free to modify (callers such as {@link
+ * TreeCopy} sort them in place).  For traversal without any allocation, use the index methods: {@link #indexOf(Object)},
+ * {@link #nodeAt(int)}, {@link #firstRootIndex()}, {@link #parentIndex(int)}, {@link #firstChildIndex(int)} and {@link
+ * #nextSiblingIndex(int)}, where {@link #NONE} indicates there is no such node.
+ * <p>
+ * This class is not thread safe
  *
  * @param <V>
  *         the type of object to be contained (the 'node'). Must implement equals
  */
 public class BasicForest<V> {
 
-    private int edgeCount = 0;
-    private Forest<V, Integer> graph;
+    /**
+     * Returned by the index methods when there is no such node
+     */
+    public static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<V, Integer> index = new LinkedHashMap<>();
+    private int[] childCount;
+    private int firstRoot;
+    private int freeHead;
+    private int[] firstChild;
+    private int highWater;
+    private int lastRoot;
+    private int[] lastChild;
+    private int[] nextSibling;
+    private Object[] nodes;
+    private int[] parent;
+    private int[] previousSibling;
 
     public BasicForest() {
-        graph = new DelegateForest<V, Integer>(new DirectedOrderedSparseMultigraph<>());
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        nodes = new Object[capacity];
+        parent = new int[capacity];
+        firstChild = new int[capacity];
+        lastChild = new int[capacity];
+        nextSibling = new int[capacity];
+        previousSibling = new int[capacity];
+        childCount = new int[capacity];
+        firstRoot = NONE;
+        lastRoot = NONE;
+        freeHead = NONE;
+        highWater = 0;
+    }
+
+    private void ensureCapacity() {
+        if (highWater < nodes.length) {
+            return;
+        }
+        int capacity = nodes.length * 2;
+        nodes = Arrays.copyOf(nodes, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        lastChild = Arrays.copyOf(lastChild, capacity);
+        nextSibling = Arrays.copyOf(nextSibling, capacity);
+        previousSibling = Arrays.copyOf(previousSibling, capacity);
+        childCount = Arrays.copyOf(childCount, capacity);
+    }
+
+    /**
+     * Allocates a slot for {@code node}, re-using a slot freed by a removal where possible.  The node is not linked into
+     * the structure
+     */
+    private int newSlot(V node) {
+        int slot;
+        if (freeHead != NONE) {
+            slot = freeHead;
+            freeHead = nextSibling[slot];
+        } else {
+            ensureCapacity();
+            slot = highWater++;
+        }
+        nodes[slot] = node;
+        parent[slot] = NONE;
+        firstChild[slot] = NONE;
+        lastChild[slot] = NONE;
+        nextSibling[slot] = NONE;
+        previousSibling[slot] = NONE;
+        childCount[slot] = 0;
+        index.put(node, slot);
+        return slot;
+    }
+
+    /**
+     * Links {@code slot} as the last child of {@code parentSlot}, or as the last root if {@code parentSlot} is
+     * {@link #NONE}
+     */
+    private void link(int parentSlot, int slot) {
+        parent[slot] = parentSlot;
+        nextSibling[slot] = NONE;
+        if (parentSlot == NONE) {
+            previousSibling[slot] = lastRoot;
+            if (lastRoot == NONE) {
+                firstRoot = slot;
+            } else {
+                nextSibling[lastRoot] = slot;
+            }
+            lastRoot = slot;
+        } else {
+            previousSibling[slot] = lastChild[parentSlot];
+            if (lastChild[parentSlot] == NONE) {
+                firstChild[parentSlot] = slot;
+            } else {
+                nextSibling[lastChild[parentSlot]] = slot;
+            }
+            lastChild[parentSlot] = slot;
+            childCount[parentSlot]++;
+        }
+    }
+
+    /**
+     * Removes {@code slot} from its list of siblings (or roots), leaving its own children attached to it
+     */
+    private void unlink(int slot) {
+        int parentSlot = parent[slot];
+        int previous = previousSibling[slot];
+        int next = nextSibling[slot];
+        if (previous == NONE) {
+            if (parentSlot == NONE) {
+                firstRoot = next;
+            } else {
+                firstChild[parentSlot] = next;
+            }
+        } else {
+            nextSibling[previous] = next;
+        }
+        if (next == NONE) {
+            if (parentSlot == NONE) {
+                lastRoot = previous;
+            } else {
+                lastChild[parentSlot] = previous;
+            }
+        } else {
+            previousSibling[next] = previous;
+        }
+        if (parentSlot != NONE) {
+            childCount[parentSlot]--;
+        }
+        parent[slot] = NONE;
+        previousSibling[slot] = NONE;
+        nextSibling[slot] = NONE;
+    }
+
+    /**
+     * Releases {@code slot} and all the slots below it to the free list
+     */
+    private void free(int slot) {
+        int child = firstChild[slot];
+        while (child != NONE) {
+            int next = nextSibling[child];
+            free(child);
+            child = next;
+        }
+        index.remove(nodes[slot]);
+        nodes[slot] = null;
+        nextSibling[slot] = freeHead;
+        freeHead = slot;
     }
 
     public boolean hasChild(V parentNode, V childNode) {
-        return graph.getParent(childNode)
-                    .equals(parentNode);
+        int childSlot = indexOf(childNode);
+        int parentSlot = indexOf(parentNode);
+        return childSlot != NONE && parentSlot != NONE && parent[childSlot] == parentSlot;
     }
 
     public V getParent(V childNode) {
-        return graph.getParent(childNode);
+        int slot = indexOf(childNode);
+        return (slot == NONE) ? null : nodeAt(parent[slot]);
     }
 
     /**
@@ -96,17 +249,26 @@ public class BasicForest<V> {
         return branch.get(0);
     }
 
+    /**
+     * Adds {@code node} as a root. Does nothing if {@code node} is already in the tree
+     *
+     * @param node
+     */
     public void addNode(V node) {
-        graph.addVertex(node);
+        checkNotNull(node);
+        if (!containsNode(node)) {
+            link(NONE, newSlot(node));
+        }
     }
 
     public boolean containsNode(V node) {
-        return graph.containsVertex(node);
+        return index.containsKey(node);
     }
 
     /**
      * Adds a {@code childNode} to {@code parentNode}. Note that if {@code parentNode} is not already in the tree, it
-     * will be added - which may mean that you no longer have a single root
+     * will be added - which may mean that you no longer have a single root.  If {@code childNode} is already in the
+     * tree it is moved, with its children, to {@code parentNode}
      *
      * @param parentNode
      * @param childNode
@@ -114,14 +276,23 @@ public class BasicForest<V> {
     public void addChild(V parentNode, V childNode) {
         if (parentNode == null) {
             addNode(childNode);
+            return;
+        }
+        checkNotNull(childNode);
+        addNode(parentNode);
+        int parentSlot = indexOf(parentNode);
+        int childSlot = indexOf(childNode);
+        if (childSlot == NONE) {
+            childSlot = newSlot(childNode);
         } else {
-            graph.addEdge(newEdge(), parentNode, childNode);
+            int ancestor = parentSlot;
+            while (ancestor != NONE) {
+                checkArgument(ancestor != childSlot, "Adding %s to %s would create a cycle", childNode, parentNode);
+                ancestor = parent[ancestor];
+            }
+            unlink(childSlot);
         }
-    }
-
-    private Integer newEdge() {
-        edgeCount++;
-        return edgeCount;
+        link(parentSlot, childSlot);
     }
 
     /**
@@ -132,21 +303,25 @@ public class BasicForest<V> {
      * @return
      */
     public V getNode(V node) {
-        Collection<V> x = graph.getVertices();
-        List<V> list = new ArrayList<V>(x);
-        int n = list.indexOf(node);
-        if (n < 0) {
-            return null;
-        }
-        V found = list.get(n);
-        return found;
+        return nodeAt(indexOf(node));
     }
 
+    /**
+     * Returns a new list of the children of {@code parentNode}, in insertion order.  The list is empty if {@code
+     * parentNode} has no children or is not in the tree
+     *
+     * @param parentNode
+     *
+     * @return
+     */
     public List<V> getChildren(V parentNode) {
-        Collection<V> children = graph.getChildren(parentNode);
-        List<V> result = new ArrayList<V>();
-        if (children != null) {
-            result.addAll(children);
+        int slot = indexOf(parentNode);
+        if (slot == NONE) {
+            return new ArrayList<>();
+        }
+        List<V> result = new ArrayList<>(childCount[slot]);
+        for (int child = firstChild[slot]; child != NONE; child = nextSibling[child]) {
+            result.add(nodeAt(child));
         }
         return result;
     }
@@ -160,38 +335,25 @@ public class BasicForest<V> {
      * @return
      */
     public List<V> getSubtreeNodes(V parentNode) {
-        Collection<V> children = graph.getChildren(parentNode);
-        List<V> list = new ArrayList<V>();
+        List<V> list = new ArrayList<>();
         list.add(parentNode);
-        if (children != null) {
-            for (V v : children) {
-                list.addAll(getSubtreeNodes(v));
-            }
+        int slot = indexOf(parentNode);
+        if (slot != NONE) {
+            collectDescendants(slot, list, false);
         }
         return list;
-
     }
 
     /**
-     * Finds all the leaves for the specified {@code parentNode}, that is, all those with no children;
-     *
-     * @param parentNode
-     * @param leaves
+     * Walks the nodes below {@code slot} in depth first order, adding them to {@code result}.  If {@code leavesOnly} is
+     * true, only those without children are added
      */
-    private void findLeaves(V parentNode, List<V> leaves) {
-        if (leaves == null) {
-            return;
-        }
-        Collection<V> children = graph.getChildren(parentNode);
-        if (children == null) {
-            return;
-        }
-        if (children.size() == 0) {
-            leaves.add(parentNode);
-        } else {
-            for (V v : children) {
-                findLeaves(v, leaves);
+    private void collectDescendants(int slot, List<V> result, boolean leavesOnly) {
+        for (int child = firstChild[slot]; child != NONE; child = nextSibling[child]) {
+            if (!leavesOnly || firstChild[child] == NONE) {
+                result.add(nodeAt(child));
             }
+            collectDescendants(child, result, leavesOnly);
         }
     }
 
@@ -202,14 +364,27 @@ public class BasicForest<V> {
      * @see #findLeaves(Object)
      */
     public List<V> findLeaves() {
-        List<V> leaves = new ArrayList<V>();
-        findLeaves(getRoot(), leaves);
-        return leaves;
+        return findLeaves(getRoot());
     }
 
+    /**
+     * Finds all the leaves for the specified {@code parentNode}, that is, all those with no children.  If {@code
+     * parentNode} itself has no children, it is the only leaf.  The list is empty if {@code parentNode} is not in the
+     * tree
+     *
+     * @param parentNode
+     */
     public List<V> findLeaves(V parentNode) {
-        List<V> leaves = new ArrayList<V>();
-        findLeaves(parentNode, leaves);
+        List<V> leaves = new ArrayList<>();
+        int slot = indexOf(parentNode);
+        if (slot == NONE) {
+            return leaves;
+        }
+        if (firstChild[slot] == NONE) {
+            leaves.add(parentNode);
+        } else {
+            collectDescendants(slot, leaves, true);
+        }
         return leaves;
     }
 
@@ -219,12 +394,12 @@ public class BasicForest<V> {
      * @return
      */
     public Collection<V> getEntries() {
-        return graph.getVertices();
+        return getAllNodes();
     }
 
     public void clear() {
-        graph = new DelegateForest<V, Integer>();
-        edgeCount = 0;
+        index.clear();
+        allocate(INITIAL_CAPACITY);
     }
 
     /**
@@ -234,12 +409,11 @@ public class BasicForest<V> {
      * @return
      */
     public List<V> getRoots() {
-        Collection<Tree<V, Integer>> t = graph.getTrees();
-        List<V> branchRoots = new ArrayList<V>();
-        for (Tree<V, Integer> branch : t) {
-            branchRoots.add(branch.getRoot());
+        List<V> roots = new ArrayList<>();
+        for (int root = firstRoot; root != NONE; root = nextSibling[root]) {
+            roots.add(nodeAt(root));
         }
-        return branchRoots;
+        return roots;
     }
 
     @Override
@@ -266,7 +440,8 @@ public class BasicForest<V> {
     }
 
     public int getChildCount(V parentNode) {
-        return graph.getChildCount(parentNode);
+        int slot = indexOf(parentNode);
+        return (slot == NONE) ? 0 : childCount[slot];
     }
 
     /**
@@ -275,54 +450,77 @@ public class BasicForest<V> {
      * @return
      */
     public V getRoot() {
-        if (getRoots().isEmpty()) {
-            return null;
-        } else {
-            return getRoots().get(0);
-        }
+        return nodeAt(firstRoot);
     }
 
     public int getNodeCount() {
-        return graph.getVertexCount();
+        return index.size();
     }
 
+    /**
+     * Returns a Jung graph of the current structure, with roots and children in insertion order.  This was the
+     * underlying graph when BasicForest was backed by Jung; it is now a copy, built on each call, so changes made to it
+     * are not reflected in this forest.
+     *
+     * @return a copy of this forest as a Jung graph
+     *
+     * @deprecated use the methods of this class, or the index methods for traversal
+     */
+    @Deprecated
     public Forest<V, Integer> getGraph() {
+        Forest<V, Integer> graph = new DelegateForest<>(new DirectedOrderedSparseMultigraph<>());
+        int edge = 0;
+        for (int root = firstRoot; root != NONE; root = nextSibling[root]) {
+            graph.addVertex(nodeAt(root));
+            edge = copyEdges(graph, root, edge);
+        }
         return graph;
     }
 
+    private int copyEdges(Forest<V, Integer> graph, int parentSlot, int edge) {
+        for (int child = firstChild[parentSlot]; child != NONE; child = nextSibling[child]) {
+            graph.addEdge(edge++, nodeAt(parentSlot), nodeAt(child));
+            edge = copyEdges(graph, child, edge);
+        }
+        return edge;
+    }
+
     /**
-     * Uses a list to return all vertices, but no ordering should be implied
+     * Uses a list to return all vertices, but no ordering should be implied (in practice they are in insertion order)
      *
      * @return
      */
     public List<V> getAllNodes() {
-        return new ArrayList<V>(graph.getVertices());
+        return new ArrayList<>(index.keySet());
     }
 
     public V getRootFor(V node) {
-        if (node == null) {
-            return null;
+        int slot = indexOf(node);
+        if (slot == NONE) {
+            return node;
         }
-        V nut = node;
-        while (true) {
-            V parent = graph.getParent(nut);
-            if (parent == null) {
-                break;
-            } else {
-                nut = parent;
-            }
+        while (parent[slot] != NONE) {
+            slot = parent[slot];
         }
-        return nut;
+        return nodeAt(slot);
     }
 
+    /**
+     * Removes {@code node} and all the nodes below it
+     *
+     * @param node
+     */
     public void removeNode(V node) {
-        graph.removeVertex(node);
+        int slot = indexOf(node);
+        if (slot != NONE) {
+            unlink(slot);
+            free(slot);
+        }
     }
 
     /**
-     * Useful for immutable vertices, this method replaced the current vertex with a new vertex.  To do so, it has to deep copy to a subgraph, and then copy
-     * back, so not very efficient.  This method is made necessary by Jung's approach to maintaining the integrity of the map - so far I have not found a way
-     * to move an edge from one vertex to another without the associated vertices being deleted. https://github.com/davidsowerby/krail/issues/397
+     * Useful for immutable vertices, this method replaces the current vertex with a new vertex, which takes over the
+     * position, parent and children of the current vertex.
      *
      * @param currentVertex
      *         the vertex to be replaced
@@ -332,49 +530,65 @@ public class BasicForest<V> {
     public void replaceNode(@Nonnull V currentVertex, @Nonnull V newVertex) {
         checkNotNull(currentVertex);
         checkNotNull(newVertex);
-        V parentVertex = getParent(currentVertex);
-        BasicForest<V> subGraph = subGraph(currentVertex, newVertex);
-        graph.removeVertex(currentVertex);
-        addChild(parentVertex, newVertex);
-        mergeSubGraph(subGraph, parentVertex);
-
+        int slot = indexOf(currentVertex);
+        if (slot == NONE) {
+            addNode(newVertex);
+            return;
+        }
+        int existing = indexOf(newVertex);
+        checkArgument(existing == NONE || existing == slot, "%s is already in the tree", newVertex);
+        index.remove(currentVertex);
+        index.put(newVertex, slot);
+        nodes[slot] = newVertex;
     }
 
     /**
-     * Assumes a single root
+     * Returns the index of {@code node}, or {@link #NONE} if it is not in the tree.  The index of a node does not change
+     * while it remains in the tree
+     *
+     * @param node
+     *         the node to look for
      *
-     * @param sourceSubGraph
-     * @param targetParentVertex
+     * @return the index of {@code node}, or {@link #NONE} if it is not in the tree
      */
-    private void mergeSubGraph(BasicForest<V> sourceSubGraph, V targetParentVertex) {
-        if (sourceSubGraph.getNodeCount() > 0) {
-            addChild(targetParentVertex, sourceSubGraph.getRoot());
-            copyChildren(sourceSubGraph, sourceSubGraph.getRoot(), this, sourceSubGraph.getRoot());
+    public int indexOf(V node) {
+        if (node == null) {
+            return NONE;
         }
+        Integer slot = index.get(node);
+        return (slot == null) ? NONE : slot;
     }
 
     /**
-     * Returns a BasicForest with a full depth sub-graph of {@code root}, but with {@code root} itself replaced by {@code newRoot}
+     * Returns the node at {@code nodeIndex}, or null if {@code nodeIndex} is {@link #NONE}
      *
-     * @param root
-     * @param newRoot
+     * @param nodeIndex
+     *         an index returned by one of the index methods
      *
-     * @return
+     * @return the node at {@code nodeIndex}, or null if {@code nodeIndex} is {@link #NONE}
      */
-    private BasicForest<V> subGraph(V root, V newRoot) {
-        BasicForest<V> subGraph = new BasicForest<V>();
-        copyChildren(this, root, subGraph, newRoot);
-        return subGraph;
+    @SuppressWarnings("unchecked")
+    public V nodeAt(int nodeIndex) {
+        return (nodeIndex == NONE) ? null : (V) nodes[nodeIndex];
     }
 
+    public int firstRootIndex() {
+        return firstRoot;
+    }
 
-    private void copyChildren(BasicForest<V> sourceGraph, V sourceParentVertex, BasicForest<V> targetGraph, V targetParentVertex) {
-        final List<V> children = sourceGraph.getChildren(sourceParentVertex);
-        if (children != null) {
-            for (V child : children) {
-                targetGraph.addChild(targetParentVertex, child);
-                copyChildren(sourceGraph, child, targetGraph, child);
-            }
-        }
+    public int parentIndex(int nodeIndex) {
+        return parent[nodeIndex];
+    }
+
+    public int firstChildIndex(int nodeIndex) {
+        return firstChild[nodeIndex];
+    }
+
+    public int nextSiblingIndex(int nodeIndex) {
+        return nextSibling[nodeIndex];
+    }
+
+    public int childCountAt(int nodeIndex) {
+        return childCount[nodeIndex];
     }
 }
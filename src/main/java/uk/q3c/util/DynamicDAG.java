@@ -14,23 +14,74 @@
 package uk.q3c.util;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.Stack;
 
-public class DynamicDAG<V> extends BasicForest<V> {
+/**
+ * A directed acyclic graph, to which nodes and parent-child links are added dynamically.  Unlike {@link BasicForest}, a node may have more than
+ * one parent.  {@link #addChild(Object, Object)} throws a {@link CycleDetectedException} if the link would create a cycle
+ *
+ * @param <V>
+ *         the type of object to be contained (the 'node'). Must implement equals
+ */
+public class DynamicDAG<V> {
+
+    // each node, mapped to its parents, in insertion order
+    private final Map<V, Set<V>> predecessors = new LinkedHashMap<>();
 
     public DynamicDAG() {
         super();
     }
 
-    @Override
+    public void addNode(V node) {
+        predecessors.computeIfAbsent(node, n -> new LinkedHashSet<>());
+    }
+
+    public boolean containsNode(V node) {
+        return predecessors.containsKey(node);
+    }
+
+    /**
+     * Adds a link from {@code parentNode} to {@code childNode}, adding either node if it is not already in the graph.  {@code childNode} keeps any
+     * parents it already has
+     *
+     * @param parentNode
+     * @param childNode
+     *
+     * @throws CycleDetectedException
+     *         if the link would create a cycle
+     */
     public void addChild(V parentNode, V childNode) {
         if (!detectCycle(parentNode, childNode)) {
-            super.addChild(parentNode, childNode);
+            addNode(parentNode);
+            addNode(childNode);
+            predecessors.get(childNode)
+                        .add(parentNode);
         } else {
             throw new CycleDetectedException();
         }
     }
 
+    /**
+     * Returns the parents of {@code node}, or an empty set if it has none or is not in the graph
+     *
+     * @param node
+     *         the node to look for
+     *
+     * @return the parents of {@code node}, or an empty set if it has none or is not in the graph
+     */
+    public Set<V> getParents(V node) {
+        Set<V> parents = predecessors.get(node);
+        return (parents == null) ? new LinkedHashSet<>() : new LinkedHashSet<>(parents);
+    }
+
+    public int getNodeCount() {
+        return predecessors.size();
+    }
+
     /**
      * Checks the proposed connection between parent and child nodes, and returns true if a cycle would be created by
      * adding the child to the parent, or false if not
@@ -48,14 +99,14 @@ public class DynamicDAG<V> extends BasicForest<V> {
         stack.push(parentNode);
         while (!stack.isEmpty()) {
             V node = stack.pop();
-            Collection<V> predecessors = getGraph().getPredecessors(node);
-            if (predecessors != null) {
-                for (V pred : predecessors) {
+            Collection<V> parents = predecessors.get(node);
+            if (parents != null) {
+                for (V pred : parents) {
                     if (pred == childNode) {
                         return true;
                     }
                 }
-                stack.addAll(predecessors);
+                stack.addAll(parents);
             }
         }
         return false;
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package uk.q3c.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A pattern for {@link MessageFormat}, parsed once into its literal segments and the argument index of each
+ * placeholder, so that it can be formatted many times without scanning the pattern again.  Instances are immutable and
+ * may be shared and cached - see {@link uk.q3c.krail.i18n.PatternSource#retrieveCompiledPattern(Enum, java.util.Locale)}
+ * <p/>
+ * The pattern syntax, escapes and error handling are exactly those described for {@link MessageFormat#format(String,
+ * Object...)} - a pattern which cannot be parsed, or arguments which do not match it, produce the unmodified pattern.
+ */
+@Immutable
+public final class MessagePattern {
+    private static final int MAX_RETAINED_CAPACITY = 4096;
+    private static final ThreadLocal<Buffer> buffers = ThreadLocal.withInitial(Buffer::new);
+    private static Logger log = LoggerFactory.getLogger(MessagePattern.class);
+    private final int[] argumentIndexes;
+    private final String[] literals;
+    private final String pattern;
+
+    private MessagePattern(String pattern, String[] literals, int[] argumentIndexes) {
+        this.pattern = pattern;
+        this.literals = literals;
+        this.argumentIndexes = argumentIndexes;
+    }
+
+    /**
+     * Parses {@code pattern}.  This never fails - if the pattern is null or malformed, the result will always format
+     * to the unmodified pattern
+     *
+     * @param pattern
+     *         the pattern to parse
+     *
+     * @return the parsed pattern
+     */
+    public static MessagePattern compile(String pattern) {
+        if (pattern == null) {
+            return invalid(null);
+        }
+        List<String> literals = new ArrayList<>();
+        int[] indexes = new int[4];
+        int count = 0;
+        StringBuilder literal = new StringBuilder(pattern.length());
+        int length = pattern.length();
+        int i = 0;
+        while (i < length) {
+            char c = pattern.charAt(i);
+            if (c == '\\') {
+                // an escaped '{' and the character following it are copied as they are; any other escaped character is dropped
+                i++;
+                if (i >= length) {
+                    return invalid(pattern);
+                }
+                c = pattern.charAt(i);
+                if (c == '{') {
+                    literal.append('{');
+                    i++;
+                    if (i >= length) {
+                        return invalid(pattern);
+                    }
+                    c = pattern.charAt(i);
+                    if (c != '{') {
+                        literal.append(c);
+                    }
+                }
+            } else if (c != '{') {
+                literal.append(c);
+            }
+            if (c == '{') {
+                int close = pattern.indexOf('}', i + 1);
+                if (close < 0) {
+                    return invalid(pattern);
+                }
+                int index;
+                try {
+                    index = Integer.parseInt(pattern.substring(i + 1, close));
+                } catch (NumberFormatException e) {
+                    return invalid(pattern);
+                }
+                if (index < 0) {
+                    return invalid(pattern);
+                }
+                if (count == indexes.length) {
+                    indexes = Arrays.copyOf(indexes, count * 2);
+                }
+                indexes[count++] = index;
+                literals.add(literal.toString());
+                literal.setLength(0);
+                i = close;
+            }
+            i++;
+        }
+        literals.add(literal.toString());
+        return new MessagePattern(pattern, literals.toArray(new String[literals.size()]), Arrays.copyOf(indexes, count));
+    }
+
+    private static MessagePattern invalid(String pattern) {
+        return new MessagePattern(pattern, null, null);
+    }
+
+    private static void appendArgument(StringBuilder builder, Object argument) {
+        if (argument == null) {
+            builder.append("null");
+        } else if (argument.getClass()
+                           .isArray()) {
+            String s = Arrays.deepToString(new Object[]{argument});
+            builder.append(s, 1, s.length() - 1);
+        } else {
+            try {
+                builder.append(argument.toString());
+            } catch (Exception e) {
+                log.error("Failed toString() invocation on an object of type [{}]", argument.getClass()
+                                                                                            .getName(), e);
+                builder.append("[FAILED toString()]");
+            }
+        }
+    }
+
+    /**
+     * Substitutes {@code arguments} into this pattern in a single pass.
+     *
+     * @param arguments
+     *         the arguments, which must match the number of placeholders in the pattern
+     *
+     * @return the formatted string, or the unmodified pattern if the pattern is malformed or the arguments do not match
+     */
+    public String format(Object... arguments) {
+        if (literals == null || arguments == null) {
+            return pattern;
+        }
+        if (argumentIndexes.length != arguments.length) {
+            log.warn("Message pattern and arguments do not match, there are {} parameters in the pattern, and {} arguments. The pattern is: '{}'",
+                    argumentIndexes.length, arguments.length, pattern);
+            return pattern;
+        }
+        if (argumentIndexes.length == 0) {
+            return literals[0];
+        }
+        for (int index : argumentIndexes) {
+            if (index >= arguments.length) {
+                return pattern;
+            }
+        }
+        Buffer buffer = buffers.get();
+        // toString() of an argument may itself format a message, so the buffer is only reused when not already in use
+        boolean reuse = !buffer.inUse;
+        StringBuilder builder = reuse ? buffer.builder : new StringBuilder();
+        buffer.inUse = true;
+        try {
+            builder.setLength(0);
+            builder.append(literals[0]);
+            for (int i = 0; i < argumentIndexes.length; i++) {
+                appendArgument(builder, arguments[argumentIndexes[i]]);
+                builder.append(literals[i + 1]);
+            }
+            return builder.toString();
+        } finally {
+            if (reuse) {
+                buffer.inUse = false;
+                if (builder.capacity() > MAX_RETAINED_CAPACITY) {
+                    buffers.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * The pattern this was compiled from
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * The number of placeholders, and therefore arguments required, or -1 if the pattern is malformed
+     */
+    public int getArgumentCount() {
+        return (argumentIndexes == null) ? -1 : argumentIndexes.length;
+    }
+
+    private static class Buffer {
+        final StringBuilder builder = new StringBuilder(256);
+        boolean inUse;
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.guice.uiscope;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.vaadin.ui.AbstractOrderedLayout;
+import com.vaadin.ui.UI;
+import com.vaadin.util.CurrentInstance;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.q3c.krail.core.push.Broadcaster;
+import uk.q3c.krail.core.ui.ScopedUI;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Creates, uses and releases thousands of UI scopes concurrently
+ */
+public class UIScopeTest_concurrency {
+
+    private static final int UI_COUNT = 5000;
+    private static final int THREADS = 16;
+
+    private AtomicInteger created;
+    private ExecutorService executor;
+    private UIKeyProvider uiKeyProvider;
+    private Provider<TestObject> scoped;
+    private UIScope uiScope;
+
+    @Before
+    public void setup() {
+        uiScope = new UIScope();
+        uiKeyProvider = new UIKeyProvider();
+        created = new AtomicInteger();
+        scoped = uiScope.scope(Key.get(TestObject.class), () -> {
+            created.incrementAndGet();
+            return new TestObject();
+        });
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrent_uis() throws Exception {
+        //given
+        Set<UIKey> keys = ConcurrentHashMap.newKeySet();
+        List<Callable<WeakReference<TestObject>>> uis = new ArrayList<>();
+        for (int i = 0; i < UI_COUNT; i++) {
+            uis.add(() -> {
+                UIKey uiKey = uiKeyProvider.get();
+                keys.add(uiKey);
+                UI.setCurrent(null);
+                CurrentInstance.set(UIKey.class, uiKey);
+                try {
+                    uiScope.startScope(uiKey);
+                    TestObject instance = scoped.get();
+                    for (int j = 0; j < 10; j++) {
+                        assertThat(scoped.get()).isSameAs(instance);
+                    }
+                    assertThat(uiScope.containsInstance(uiKey, instance)).isTrue();
+                    uiScope.releaseScope(uiKey);
+                    return new WeakReference<>(instance);
+                } finally {
+                    CurrentInstance.clearAll();
+                }
+            });
+        }
+        //when
+        List<WeakReference<TestObject>> references = new ArrayList<>();
+        for (Future<WeakReference<TestObject>> future : executor.invokeAll(uis)) {
+            references.add(future.get());
+        }
+        //then
+        assertThat(keys).hasSize(UI_COUNT);
+        assertThat(created.get()).isEqualTo(UI_COUNT);
+        assertThat(uiScope.scopeKeys()).isEmpty();
+        assertThat(retained(references)).isEqualTo(0);
+    }
+
+    @Test
+    public void concurrent_get_same_ui_creates_one_instance() throws Exception {
+        //given
+        UIKey uiKey = uiKeyProvider.get();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<TestObject>> gets = new ArrayList<>();
+        for (int i = 0; i < THREADS * 10; i++) {
+            gets.add(() -> {
+                UI.setCurrent(null);
+                CurrentInstance.set(UIKey.class, uiKey);
+                try {
+                    start.await();
+                    return scoped.get();
+                } finally {
+                    CurrentInstance.clearAll();
+                }
+            });
+        }
+        //when
+        List<Future<TestObject>> futures = new ArrayList<>();
+        for (Callable<TestObject> get : gets) {
+            futures.add(executor.submit(get));
+        }
+        start.countDown();
+        Set<TestObject> instances = ConcurrentHashMap.newKeySet();
+        for (Future<TestObject> future : futures) {
+            instances.add(future.get());
+        }
+        //then
+        assertThat(instances).hasSize(1);
+        assertThat(created.get()).isEqualTo(1);
+        assertThat(uiScope.scopeKeys()).containsOnly(uiKey);
+    }
+
+    @Test
+    public void thread_binding_not_used_after_release() {
+        //given
+        UIKey uiKey = uiKeyProvider.get();
+        UI.setCurrent(null);
+        CurrentInstance.set(UIKey.class, uiKey);
+        try {
+            TestObject first = scoped.get();
+            assertThat(scoped.get()).isSameAs(first);
+            //when
+            uiScope.releaseScope(uiKey);
+            TestObject second = scoped.get();
+            //then
+            assertThat(second).isNotSameAs(first);
+            assertThat(created.get()).isEqualTo(2);
+            assertThat(uiScope.containsInstance(uiKey, second)).isTrue();
+        } finally {
+            CurrentInstance.clearAll();
+        }
+    }
+
+    @Test
+    public void released_ui_not_retained_by_thread_binding() throws Exception {
+        //given a pooled thread which has served a UI, and keeps running afterwards
+        UIKey uiKey = uiKeyProvider.get();
+        Future<WeakReference<UI>> served = executor.submit(() -> {
+            TestUI testUI = new TestUI(uiKey);
+            UI.setCurrent(testUI);
+            CurrentInstance.set(UIKey.class, uiKey);
+            try {
+                assertThat(scoped.get()).isSameAs(scoped.get());
+                return new WeakReference<UI>(testUI);
+            } finally {
+                CurrentInstance.clearAll();
+            }
+        });
+        WeakReference<UI> ui = served.get();
+        //when the UI is released by another thread
+        uiScope.releaseScope(uiKey);
+        //then
+        assertThat(retained(ImmutableList.of(ui))).isEqualTo(0);
+    }
+
+    /**
+     * Returns the number of instances still reachable after released scopes have had a chance to be collected
+     */
+    private int retained(List<? extends WeakReference<?>> references) throws InterruptedException {
+        int retained = references.size();
+        for (int attempt = 0; attempt < 20 && retained > 0; attempt++) {
+            System.gc();
+            Thread.sleep(50);
+            retained = 0;
+            for (WeakReference<?> reference : references) {
+                if (reference.get() != null) {
+                    retained++;
+                }
+            }
+        }
+        return retained;
+    }
+
+    static class TestObject {
+
+    }
+
+    /**
+     * The minimum needed for {@link UIScopeProvider} to accept the UI as current
+     */
+    static class TestUI extends ScopedUI {
+
+        TestUI(UIKey uiKey) {
+            super(null, null, null, null, null, null, null, null, null);
+            setInstanceKey(uiKey);
+        }
+
+        @Override
+        protected void registerWithBroadcaster(Broadcaster broadcaster) {
+        }
+
+        @Override
+        protected AbstractOrderedLayout screenLayout() {
+            return null;
+        }
+    }
+}
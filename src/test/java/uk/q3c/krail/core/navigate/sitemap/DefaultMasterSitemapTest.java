@@ -27,6 +27,7 @@ import uk.q3c.krail.core.guice.vsscope.VaadinSessionScopeModule;
 import uk.q3c.krail.core.navigate.NavigationState;
 import uk.q3c.krail.core.navigate.StrictURIFragmentHandler;
 import uk.q3c.krail.core.navigate.URIFragmentHandler;
+import uk.q3c.krail.core.shiro.PagePermission;
 import uk.q3c.krail.core.user.opt.InMemoryOptionStore;
 import uk.q3c.krail.core.user.opt.Option;
 import uk.q3c.krail.core.user.opt.OptionStore;
@@ -521,6 +522,83 @@ public class DefaultMasterSitemapTest {
         assertThat(sitemap.getStandardPageUris()).doesNotContainKey("public/home");
     }
 
+    @Test
+    public void published_reads_match_unpublished() {
+        // given
+        sitemap.append(new NodeRecord("public/home/view1"));
+        sitemap.append(new NodeRecord("public/home/view2"));
+        sitemap.append(new NodeRecord("private/home/wiggly"));
+        sitemap.addRedirect("public/home/view1", "public/home/view2");
+        MasterSitemapNode view2 = sitemap.nodeFor("public/home/view2");
+        MasterSitemapNode home = sitemap.nodeFor("public/home");
+        List<String> uris = sitemap.uris();
+        //when
+        sitemap.publish();
+        //then
+        assertThat(sitemap.isPublished()).isTrue();
+        assertThat(sitemap.nodeFor("public/home/view2")).isSameAs(view2);
+        assertThat(sitemap.uri(view2)).isEqualTo("public/home/view2");
+        assertThat(sitemap.hasUri("private/home/wiggly")).isTrue();
+        assertThat(sitemap.hasUri("private/home/wobbly")).isFalse();
+        assertThat(sitemap.nodeNearestFor("public/home/view3")).isSameAs(home);
+        assertThat(sitemap.getParent(view2)).isSameAs(home);
+        assertThat(sitemap.getChildren(home)).hasSize(2);
+        assertThat(sitemap.getRedirectPageFor("public/home/view1")).isEqualTo("public/home/view2");
+        assertThat(sitemap.getRedirectNodeFor(sitemap.nodeFor("public/home/view1"))).isSameAs(view2);
+        assertThat(sitemap.nodeChainFor(view2)).hasSize(3);
+        assertThat(sitemap.getNodeCount()).isEqualTo(7);
+        assertThat(sitemap.uris()).containsOnly(uris.toArray(new String[uris.size()]));
+    }
+
+    @Test
+    public void published_navigationState_and_pagePermission_are_prepared() {
+        // given
+        sitemap.append(new NodeRecord("public/home/view1"));
+        sitemap.append(new NodeRecord("private/home/wiggly"));
+        MasterSitemapNode view1 = sitemap.nodeFor("public/home/view1");
+        sitemap.publish();
+        //when
+        NavigationState navigationState1 = sitemap.navigationState(view1);
+        NavigationState navigationState2 = sitemap.navigationState(view1);
+        NavigationState modified = navigationState1.copy()
+                                                   .parameter("id", "1");
+        //then
+        assertThat(navigationState1).isSameAs(navigationState2);
+        assertThat(navigationState2.isReadOnly()).isTrue();
+        assertThat(modified.isReadOnly()).isFalse();
+        assertThat(modified.getParameters()).containsEntry("id", "1");
+        assertThat(sitemap.getChildren(sitemap.nodeFor("public/home"))).isSameAs(sitemap.getChildren(sitemap.nodeFor("public/home")));
+        assertThat(sitemap.getAllNodes()).isSameAs(sitemap.getAllNodes());
+        assertThat(navigationState2.getVirtualPage()).isEqualTo("public/home/view1");
+        assertThat(navigationState2.getParameters()).isEmpty();
+        assertThat(navigationState2.getPathSegments()).containsExactly("public", "home", "view1");
+        assertThat(sitemap.pagePermission(view1)).isSameAs(sitemap.pagePermission(view1));
+        assertThat(sitemap.pagePermission(view1)
+                          .implies(new PagePermission("public/home/view1"))).isTrue();
+        assertThat(sitemap.uri(view1)).isSameAs(sitemap.uri(view1));
+        assertThat(sitemap.nodeNearestFor("public/home/view1/missing/deeper")).isSameAs(view1);
+        assertThat(sitemap.nodeNearestFor("nowhere/home")).isNull();
+    }
+
+    @Test
+    public void structural_change_discards_published_snapshot() {
+        // given
+        sitemap.append(new NodeRecord("public/home/view1"));
+        sitemap.publish();
+        //when
+        sitemap.append(new NodeRecord("public/home/view2"));
+        //then
+        assertThat(sitemap.isPublished()).isFalse();
+        assertThat(sitemap.nodeFor("public/home/view2")).isNotNull();
+
+        //when
+        sitemap.publish();
+        sitemap.addRedirect("public/home/view1", "public/home/view2");
+        //then
+        assertThat(sitemap.isPublished()).isFalse();
+        assertThat(sitemap.getRedirectPageFor("public/home/view1")).isEqualTo("public/home/view2");
+    }
+
     @ModuleProvider
     protected AbstractModule moduleProvider() {
         return new AbstractModule() {
@@ -27,6 +27,7 @@ import uk.q3c.krail.core.guice.vsscope.VaadinSessionScopeModule;
 import uk.q3c.krail.core.navigate.StrictURIFragmentHandler;
 import uk.q3c.krail.core.navigate.URIFragmentHandler;
 import uk.q3c.krail.i18n.CurrentLocale;
+import uk.q3c.krail.i18n.LocaleChangeBusMessage;
 import uk.q3c.krail.testutil.TestI18NModule;
 import uk.q3c.krail.testutil.TestOptionModule;
 import uk.q3c.krail.testutil.TestUIScopeModule;
@@ -48,12 +49,15 @@ public class DefaultUserSitemapTest {
 
     private boolean labelsChanged;
 
+    private UserSitemapLabelChangeMessage labelChangeMessage;
+
     private boolean structureChanged;
 
     @Before
     public void setup() {
         Locale.setDefault(Locale.UK);
         labelsChanged = false;
+        labelChangeMessage = null;
         structureChanged = false;
     }
 
@@ -73,6 +77,23 @@ public class DefaultUserSitemapTest {
                               .getLabel()).isEqualTo("Privat");
         assertThat(userSitemap.getParent(userSitemap.a11Node())).isEqualTo(userSitemap.a1Node());
         assertThat(labelsChanged).isTrue();
+        assertThat(labelChangeMessage.getChangedNodes()).contains(userSitemap.publicNode(), userSitemap.privateNode());
+        assertThat(userSitemap.publicNode()
+                              .getCollationKey()
+                              .getSourceString()).isEqualTo("Öffentlich");
+    }
+
+    @Test
+    public void localeChange_no_labels_changed() {
+
+        // given
+        currentLocale.setLocale(Locale.UK);
+        userSitemap.populate();
+        labelsChanged = false;
+        // when
+        userSitemap.localeChanged(new LocaleChangeBusMessage(this, Locale.UK));
+        // then
+        assertThat(labelsChanged).isFalse();
     }
 
     /**
@@ -107,6 +128,7 @@ public class DefaultUserSitemapTest {
     @Handler
     public void labelsChanged(UserSitemapLabelChangeMessage busMessage) {
         labelsChanged = true;
+        labelChangeMessage = busMessage;
 
     }
 
@@ -30,6 +30,7 @@ import uk.q3c.krail.core.shiro.PageAccessControl;
 import uk.q3c.krail.core.shiro.PageAccessController;
 import uk.q3c.krail.core.shiro.SubjectProvider;
 import uk.q3c.krail.core.user.opt.DefaultOption;
+import uk.q3c.krail.core.user.opt.GuavaCacheConfiguration;
 import uk.q3c.krail.core.user.opt.Option;
 import uk.q3c.krail.core.view.PublicHomeView;
 import uk.q3c.krail.i18n.*;
@@ -58,6 +59,9 @@ public abstract class TestWithSitemap {
     @Mock
     protected PageAccessController pageAccessController;
     protected UserSitemapBuilder userSitemapBuilder;
+    protected PatternGeneration patternGeneration = new PatternGeneration();
+    protected UserSitemapTemplateCache templateCache = new UserSitemapTemplateCache(new GuavaCacheConfiguration().maximumSize(100)
+                                                                                                                 .recordStats());
     protected MasterSitemapNode masterNode1;
     protected MasterSitemapNode masterNode2;
     protected MasterSitemapNode masterNode3;
@@ -222,7 +226,8 @@ public abstract class TestWithSitemap {
         UserSitemapNodeModifier nodeModifier = new UserSitemapNodeModifier(subjectProvider, currentLocale,
                 masterSitemap, pageAccessController, translate);
         UserSitemapCopyExtension copyExtension = new UserSitemapCopyExtension(masterSitemap, userSitemap, translate, currentLocale);
-        userSitemapBuilder = new UserSitemapBuilder(masterSitemap, userSitemap, nodeModifier, copyExtension, subjectProvider);
+        userSitemapBuilder = new UserSitemapBuilder(masterSitemap, userSitemap, nodeModifier, copyExtension, subjectProvider, templateCache,
+                currentLocale, patternGeneration);
         userSitemapBuilder.build();
 
         userNode1 = userSitemap.userNodeFor(masterNode1);
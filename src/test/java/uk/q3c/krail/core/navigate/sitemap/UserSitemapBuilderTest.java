@@ -37,6 +37,8 @@ import uk.q3c.krail.testutil.TestOptionModule;
 import java.util.Locale;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 @RunWith(MycilaJunitRunner.class)
 @GuiceContext({TestI18NModule.class, TestVaadinSessionScopeModule.class, TestOptionModule.class, EventBusModule.class, UIScopeModule.class})
@@ -171,6 +173,94 @@ public class UserSitemapBuilderTest extends TestWithSitemap {
 
     }
 
+    @Test
+    public void published_master_sitemap_builds_from_cached_template() {
+        // given
+        buildMasterSitemap(8);
+        when(pageAccessController.isAuthorised(subject, masterNode1)).thenReturn(true);
+        when(pageAccessController.isAuthorised(subject, masterNode2)).thenReturn(false);
+        when(pageAccessController.isAuthorised(subject, masterNode3)).thenReturn(true);
+        masterSitemap.publish();
+        createUserSitemap();
+        // permissions checked only once, for the key, and not again for the copy
+        verify(pageAccessController, times(1)).isAuthorised(subject, masterNode3);
+        assertThat(userSitemap.getUriMap()
+                              .keySet()).containsOnly("1", "1/3");
+        UserSitemap firstUserSitemap = userSitemap;
+        UserSitemapNode firstUserNode3 = userNode3;
+        // when
+        createUserSitemap();
+        // then
+        assertThat(templateCache.stats()
+                                .missCount()).isEqualTo(1);
+        assertThat(templateCache.stats()
+                                .hitCount()).isEqualTo(1);
+        assertThat(userSitemap).isNotSameAs(firstUserSitemap);
+        assertThat(userSitemap.getUriMap()
+                              .keySet()).containsOnly("1", "1/3");
+        assertThat(userSitemap.getRedirects()
+                              .keySet()).containsOnly("a");
+        assertThat(userSitemap.getStandardPages()
+                              .keySet()).isEqualTo(firstUserSitemap.getStandardPages()
+                                                                   .keySet());
+        assertThat(userNode3).isNotSameAs(firstUserNode3);
+        assertThat(userNode3.getLabel()).isEqualTo(firstUserNode3.getLabel());
+        assertThat(userSitemap.getParent(userNode3)
+                              .getMasterNode()).isEqualTo(masterNode1);
+
+        // when permissions differ
+        when(pageAccessController.isAuthorised(subject, masterNode2)).thenReturn(true);
+        createUserSitemap();
+        // then
+        assertThat(templateCache.stats()
+                                .missCount()).isEqualTo(2);
+        assertThat(userSitemap.getUriMap()
+                              .keySet()).containsOnly("1", "1/3", "2");
+    }
+
+    @Test
+    public void pattern_change_invalidates_cached_template() {
+        // given
+        buildMasterSitemap(8);
+        when(pageAccessController.isAuthorised(subject, masterNode1)).thenReturn(true);
+        when(pageAccessController.isAuthorised(subject, masterNode3)).thenReturn(true);
+        masterSitemap.publish();
+        createUserSitemap();
+        // when
+        patternGeneration.advance();
+        createUserSitemap();
+        // then
+        assertThat(templateCache.stats()
+                                .missCount()).isEqualTo(2);
+        assertThat(templateCache.stats()
+                                .hitCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void opted_out_extension_bypasses_cache() {
+        // given
+        buildMasterSitemap(8);
+        when(pageAccessController.isAuthorised(subject, masterNode1)).thenReturn(true);
+        masterSitemap.publish();
+        userSitemap = new DefaultUserSitemap(translate, uriHandler, sessionBus);
+        UserSitemapNodeModifier nodeModifier = new UserSitemapNodeModifier(subjectProvider, currentLocale, masterSitemap, pageAccessController,
+                translate);
+        UserSitemapCopyExtension copyExtension = new UserSitemapCopyExtension(masterSitemap, userSitemap, translate, currentLocale) {
+            @Override
+            public boolean isTemplateCacheable() {
+                return false;
+            }
+        };
+        userSitemapBuilder = new UserSitemapBuilder(masterSitemap, userSitemap, nodeModifier, copyExtension, subjectProvider, templateCache,
+                currentLocale, patternGeneration);
+        // when
+        userSitemapBuilder.build();
+        // then
+        assertThat(templateCache.size()).isEqualTo(0);
+        assertThat(userSitemap.getUriMap()
+                              .keySet()).contains("1");
+    }
+
     @Test
     public void translationAndLocaleChange() {
         // given
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.push;
+
+import com.mycila.testing.junit.MycilaJunitRunner;
+import com.mycila.testing.plugin.guice.GuiceContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import uk.q3c.krail.core.config.ApplicationConfiguration;
+import uk.q3c.krail.core.config.ConfigKeys;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.when;
+
+@RunWith(MycilaJunitRunner.class)
+@GuiceContext({})
+public class DefaultBroadcasterTest {
+
+    DefaultBroadcaster broadcaster;
+
+    @Mock
+    ApplicationConfiguration applicationConfiguration;
+
+    @Before
+    public void setup() {
+        when(applicationConfiguration.getBoolean(ConfigKeys.SERVER_PUSH_ENABLED, true)).thenReturn(true);
+        when(applicationConfiguration.getInt(eq(ConfigKeys.SERVER_PUSH_THREADS), anyInt())).thenReturn(2);
+        when(applicationConfiguration.getInt(eq(ConfigKeys.SERVER_PUSH_QUEUE_SIZE), anyInt())).thenReturn(10);
+        broadcaster = new DefaultBroadcaster(applicationConfiguration);
+    }
+
+    @Test
+    public void broadcast_to_group_and_all() throws Exception {
+        //given
+        TestListener groupListener = new TestListener(1);
+        TestListener otherGroupListener = new TestListener(1);
+        TestListener allListener = new TestListener(1);
+        broadcaster.register("a", groupListener)
+                   .register("b", otherGroupListener)
+                   .register(Broadcaster.ALL_MESSAGES, allListener);
+        //when
+        broadcaster.broadcast("a", "hello");
+        //then
+        assertThat(groupListener.await()).isTrue();
+        assertThat(allListener.await()).isTrue();
+        assertThat(groupListener.received).containsExactly("a:hello");
+        assertThat(allListener.received).containsExactly("a:hello");
+        assertThat(otherGroupListener.received).isEmpty();
+    }
+
+    @Test
+    public void unregister() throws Exception {
+        //given
+        TestListener listener = new TestListener(1);
+        TestListener unregistered = new TestListener(1);
+        broadcaster.register("a", listener)
+                   .register("a", unregistered)
+                   .unregister("a", unregistered);
+        //when
+        broadcaster.broadcast("a", "hello");
+        //then
+        assertThat(listener.await()).isTrue();
+        assertThat(unregistered.received).isEmpty();
+    }
+
+    @Test
+    public void push_disabled() {
+        //given
+        when(applicationConfiguration.getBoolean(ConfigKeys.SERVER_PUSH_ENABLED, true)).thenReturn(false);
+        broadcaster = new DefaultBroadcaster(applicationConfiguration);
+        TestListener listener = new TestListener(1);
+        broadcaster.register("a", listener);
+        //when
+        broadcaster.broadcast("a", "hello");
+        //then
+        assertThat(broadcaster.getQueueDepth()).isEqualTo(0);
+        assertThat(listener.received).isEmpty();
+    }
+
+    @Test
+    public void burst_is_coalesced_into_one_delivery() throws Exception {
+        //given
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> deliveries = new CopyOnWriteArrayList<>();
+        TestListener listener = new TestListener(6) {
+            @Override
+            public void receiveBroadcasts(List<PushMessage> messages) {
+                deliveries.add(messages.size());
+                super.receiveBroadcasts(messages);
+            }
+
+            @Override
+            public void receiveBroadcast(String group, String message) {
+                blocked.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread()
+                          .interrupt();
+                }
+                super.receiveBroadcast(group, message);
+            }
+        };
+        broadcaster.register("a", listener);
+        broadcaster.broadcast("a", "0");
+        assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+        //when
+        for (int i = 1; i <= 5; i++) {
+            broadcaster.broadcast("a", Integer.toString(i));
+        }
+        release.countDown();
+        //then
+        assertThat(listener.await()).isTrue();
+        assertThat(listener.received).containsExactly("a:0", "a:1", "a:2", "a:3", "a:4", "a:5");
+        assertThat(deliveries).containsExactly(1, 5);
+        assertThat(broadcaster.getCoalescedCount()).isEqualTo(4);
+        assertThat(broadcaster.getDeliveredCount()).isEqualTo(6);
+        assertThat(broadcaster.getDroppedCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void mailbox_overflow_drops_oldest() throws Exception {
+        //given
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TestListener listener = new TestListener(11) {
+            @Override
+            public void receiveBroadcast(String group, String message) {
+                blocked.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread()
+                          .interrupt();
+                }
+                super.receiveBroadcast(group, message);
+            }
+        };
+        broadcaster.register("a", listener);
+        broadcaster.broadcast("a", "0");
+        assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+        //when mailbox capacity (the queue size, 10) is exceeded
+        for (int i = 1; i <= 15; i++) {
+            broadcaster.broadcast("a", Integer.toString(i));
+        }
+        release.countDown();
+        //then
+        assertThat(listener.await()).isTrue();
+        assertThat(listener.received).hasSize(11)
+                                     .startsWith("a:0", "a:6")
+                                     .endsWith("a:15");
+        assertThat(broadcaster.getDroppedCount()).isEqualTo(5);
+    }
+
+    static class TestListener implements Broadcaster.BroadcastListener {
+        final List<String> received = new CopyOnWriteArrayList<>();
+        private final CountDownLatch latch;
+
+        TestListener(int expected) {
+            latch = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void receiveBroadcast(String group, String message) {
+            received.add(group + ":" + message);
+            latch.countDown();
+        }
+
+        boolean await() throws InterruptedException {
+            return latch.await(5, TimeUnit.SECONDS);
+        }
+    }
+}
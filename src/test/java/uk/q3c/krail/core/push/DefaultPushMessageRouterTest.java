@@ -10,6 +10,7 @@
  */
 package uk.q3c.krail.core.push;
 
+import com.google.common.collect.ImmutableList;
 import com.mycila.testing.junit.MycilaJunitRunner;
 import com.mycila.testing.plugin.guice.GuiceContext;
 import net.engio.mbassy.bus.common.PubSubSupport;
@@ -19,8 +20,11 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import uk.q3c.krail.core.eventbus.BusMessage;
 
-import static org.mockito.Mockito.any;
-import static org.mockito.Mockito.verify;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
 
 @RunWith(MycilaJunitRunner.class)
 @GuiceContext({})
@@ -46,5 +50,34 @@ public class DefaultPushMessageRouterTest {
         verify(uiBus).publish(any(PushMessage.class));
     }
 
+    @Test
+    public void subscribers_receive_only_their_group() {
+        // given
+        List<String> aReceived = new ArrayList<>();
+        List<String> bReceived = new ArrayList<>();
+        List<String> allReceived = new ArrayList<>();
+        pmr.subscribe("a", m -> aReceived.add(m.getMessage()));
+        pmr.subscribe("b", m -> bReceived.add(m.getMessage()));
+        pmr.subscribe(DefaultPushMessageRouter.ALL_MESSAGES, m -> allReceived.add(m.getMessage()));
+        // when
+        pmr.messagesIn(ImmutableList.of(new PushMessage("a", "a1"), new PushMessage("c", "c1"), new PushMessage("a", "a2")));
+        // then
+        assertThat(aReceived).containsExactly("a1", "a2");
+        assertThat(bReceived).isEmpty();
+        assertThat(allReceived).containsExactly("a1", "c1", "a2");
+        verify(uiBus, times(3)).publish(any(PushMessage.class));
+    }
 
+    @Test
+    public void unsubscribe() {
+        // given
+        List<String> received = new ArrayList<>();
+        PushMessageListener listener = m -> received.add(m.getMessage());
+        pmr.subscribe("a", listener);
+        pmr.unsubscribe("a", listener);
+        // when
+        pmr.messageIn("a", "a1");
+        // then
+        assertThat(received).isEmpty();
+    }
 }
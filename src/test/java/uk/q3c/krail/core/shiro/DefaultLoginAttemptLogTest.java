@@ -12,6 +12,8 @@
  */
 package uk.q3c.krail.core.shiro;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.inject.Inject;
 import com.mycila.testing.junit.MycilaJunitRunner;
 import com.mycila.testing.plugin.guice.GuiceContext;
@@ -22,8 +24,10 @@ import org.junit.runner.RunWith;
 import uk.q3c.krail.core.shiro.DefaultLoginAttemptLog.LogEntry;
 import uk.q3c.krail.core.shiro.DefaultLoginAttemptLog.LogOutcome;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
+import java.time.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -232,4 +236,188 @@ public class DefaultLoginAttemptLogTest {
         assertThat(attemptLog.attemptsRemaining(username1)).isEqualTo(3);
     }
 
+    @Test
+    public void failures_expire_after_window() {
+
+        // given
+        TestClock clock = new TestClock();
+        attemptLog = new DefaultLoginAttemptLog(clock, 100, Duration.ofDays(1), 20);
+        attemptLog.setFailureWindow(Duration.ofMinutes(10));
+        UsernamePasswordToken token = new UsernamePasswordToken(username, "anything");
+        attemptLog.recordFailedAttempt(token);
+        clock.advance(Duration.ofMinutes(6));
+        attemptLog.recordFailedAttempt(token);
+        // then
+        assertThat(attemptLog.attemptsRemaining(username)).isEqualTo(1);
+        // when
+        clock.advance(Duration.ofMinutes(6));
+        // then
+        assertThat(attemptLog.attemptsRemaining(username)).isEqualTo(2);
+        // when
+        attemptLog.recordFailedAttempt(token);
+        // then no exception, only 2 failures in the window
+        assertThat(attemptLog.attemptsRemaining(username)).isEqualTo(1);
+    }
+
+    @Test
+    public void history_and_users_bounded() {
+
+        // given
+        attemptLog = new DefaultLoginAttemptLog(Clock.systemDefaultZone(), 100, Duration.ofDays(1), 5);
+        attemptLog.setMaximumAttempts(Integer.MAX_VALUE);
+        UsernamePasswordToken token = new UsernamePasswordToken(username, "anything");
+        // when
+        for (int i = 0; i < 50; i++) {
+            attemptLog.recordFailedAttempt(token);
+        }
+        attemptLog.recordSuccessfulAttempt(token);
+        // then
+        ImmutableList<LogEntry> history = attemptLog.historyFor(username);
+        assertThat(history).hasSize(5);
+        assertThat(history.get(4)
+                          .getLogOutcome()).isEqualTo(LogOutcome.PASS);
+        // when
+        for (int i = 0; i < 1000; i++) {
+            recordFailure("user" + i);
+        }
+        // then
+        assertThat(attemptLog.userCount()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    public void flooding_usernames_does_not_lift_lockout() {
+
+        // given
+        TestClock clock = new TestClock();
+        attemptLog = new DefaultLoginAttemptLog(clock, 100, Duration.ofDays(1), 5);
+        attemptLog.setMaximumAttempts(3);
+        recordFailure(username);
+        recordFailure(username);
+        recordFailure(username);
+        // when
+        for (int i = 0; i < 1000; i++) {
+            recordFailure("user" + i);
+        }
+        // then
+        assertThat(attemptLog.attemptsRemaining(username)).isEqualTo(0);
+        assertThat(attemptLog.userCount()).isLessThanOrEqualTo(100);
+        assertThat(recordFailure(username)).isTrue();
+        // a user not held while the log is full is treated as locked
+        assertThat(recordFailure(username1)).isTrue();
+        // when the window has passed, the flood can be discarded
+        clock.advance(DefaultLoginAttemptLog.DEFAULT_FAILURE_WINDOW.plusMinutes(1));
+        // then
+        assertThat(recordFailure(username1)).isFalse();
+        assertThat(attemptLog.attemptsRemaining(username1)).isEqualTo(2);
+    }
+
+    @Test
+    public void clearHistory_and_resetAttemptCount_after_flood() {
+
+        // given
+        attemptLog = new DefaultLoginAttemptLog(Clock.systemDefaultZone(), 10, Duration.ofDays(1), 5);
+        attemptLog.setMaximumAttempts(5);
+        for (int i = 0; i < 20; i++) {
+            recordFailure("user" + i);
+        }
+        // when
+        attemptLog.clearHistory();
+        // then
+        assertThat(attemptLog.historyFor("user0")).isEmpty();
+        assertThat(attemptLog.attemptsRemaining("user0")).isEqualTo(4);
+        // when
+        attemptLog.resetAttemptCount();
+        // then
+        assertThat(attemptLog.attemptsRemaining("user0")).isEqualTo(5);
+        assertThat(attemptLog.userCount()).isEqualTo(10);
+        // room has been made for new users
+        assertThat(recordFailure("newcomer")).isFalse();
+    }
+
+    /**
+     * Records a failed attempt for {@code user}, and returns true if it was reported as excessive
+     */
+    private boolean recordFailure(String user) {
+        try {
+            attemptLog.recordFailedAttempt(new UsernamePasswordToken(user, "anything"));
+            return false;
+        } catch (ExcessiveAttemptsException e) {
+            return true;
+        }
+    }
+
+    @Test
+    public void unknown_user_not_created() {
+
+        // when
+        int remaining = attemptLog.attemptsRemaining("nobody");
+        // then
+        assertThat(remaining).isEqualTo(3);
+        assertThat(attemptLog.historyFor("nobody")).isEmpty();
+        assertThat(attemptLog.latestLog("nobody")).isNull();
+        assertThat(attemptLog.userCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void store_round_trip() {
+
+        // given
+        TestStore store = new TestStore();
+        attemptLog.setLoginAttemptStore(store);
+        attemptLog.recordFailedAttempt(new UsernamePasswordToken(username, "anything"));
+        attemptLog.recordFailedAttempt(new UsernamePasswordToken(username, "anything"));
+        attemptLog.recordSuccessfulAttempt(new UsernamePasswordToken(username1, "anything"));
+        // when
+        attemptLog.flush();
+        DefaultLoginAttemptLog restarted = new DefaultLoginAttemptLog();
+        restarted.setLoginAttemptStore(store);
+        // then
+        assertThat(store.saved).hasSize(2);
+        assertThat(restarted.attemptsRemaining(username)).isEqualTo(1);
+        assertThat(restarted.dateOfLastSuccess(username1)).isEqualTo(attemptLog.dateOfLastSuccess(username1));
+    }
+
+    static class TestClock extends Clock {
+        private Instant now = Instant.now();
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    static class TestStore implements LoginAttemptStore {
+        final Map<String, LoginAttemptState> saved = new HashMap<>();
+
+        @Override
+        public ImmutableMap<String, LoginAttemptState> load() {
+            return ImmutableMap.copyOf(saved);
+        }
+
+        @Override
+        public void save(Map<String, Optional<LoginAttemptState>> changes) {
+            changes.forEach((username, state) -> {
+                if (state.isPresent()) {
+                    saved.put(username, state.get());
+                } else {
+                    saved.remove(username);
+                }
+            });
+        }
+    }
+
 }
@@ -14,6 +14,7 @@ package uk.q3c.krail.core.shiro;
 
 import com.mycila.testing.junit.MycilaJunitRunner;
 import com.mycila.testing.plugin.guice.GuiceContext;
+import net.engio.mbassy.bus.common.PubSubSupport;
 import org.apache.shiro.authc.AuthenticationInfo;
 import org.apache.shiro.authc.ExcessiveAttemptsException;
 import org.apache.shiro.authc.UsernamePasswordToken;
@@ -25,9 +26,12 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
+import uk.q3c.krail.core.eventbus.BusMessage;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.when;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
 @RunWith(MycilaJunitRunner.class)
 @GuiceContext({})
 public class DefaultRealmTest {
@@ -43,6 +47,9 @@ public class DefaultRealmTest {
     @Mock
     private SubjectIdentifier subjectIdentifer;
 
+    @Mock
+    private PubSubSupport<BusMessage> globalBus;
+
     @Before
     public void setup() {
         realm = new DefaultRealm(attemptLog, matcher, subjectIdentifer);
@@ -134,4 +141,26 @@ public class DefaultRealmTest {
 
     }
 
+    @Test
+    public void authorisation_cached_until_changed() {
+
+        // given
+        when(subjectIdentifer.userId()).thenReturn("ds");
+        realm.setGlobalBus(globalBus);
+        PrincipalCollection pc = new SimplePrincipalCollection("ds", realm.getName());
+        // when
+        boolean privatePage = realm.isPermitted(pc, new PagePermission("private/a"));
+        boolean publicPage = realm.isPermitted(pc, "page:view:public:a");
+        // then
+        assertThat(privatePage).isTrue();
+        assertThat(publicPage).isFalse();
+        verify(subjectIdentifer, times(1)).userId();
+        // when
+        realm.authorisationChanged(pc);
+        realm.isPermitted(pc, new PagePermission("private/a"));
+        // then
+        verify(subjectIdentifer, times(2)).userId();
+        verify(globalBus).publish(any(AuthorisationChangeBusMessage.class));
+    }
+
 }
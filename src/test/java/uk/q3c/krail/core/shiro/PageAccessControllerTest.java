@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.shiro;
+
+import com.google.common.collect.ImmutableList;
+import com.mycila.testing.junit.MycilaJunitRunner;
+import com.mycila.testing.plugin.guice.GuiceContext;
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.subject.Subject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import uk.q3c.krail.core.navigate.sitemap.MasterSitemap;
+import uk.q3c.krail.core.navigate.sitemap.MasterSitemapNode;
+import uk.q3c.krail.core.navigate.sitemap.NodeRecord;
+import uk.q3c.krail.core.user.status.UserStatusBusMessage;
+import uk.q3c.krail.core.user.status.UserStatusChangeSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.*;
+
+@RunWith(MycilaJunitRunner.class)
+@GuiceContext({})
+public class PageAccessControllerTest {
+
+    AuthorisationGeneration authorisationGeneration;
+
+    PageAccessController controller;
+
+    @Mock
+    MasterSitemap sitemap;
+
+    @Mock
+    Subject subject;
+
+    @Mock
+    UserStatusChangeSource source;
+
+    MasterSitemapNode parent;
+    MasterSitemapNode permissionNode1;
+    MasterSitemapNode permissionNode2;
+    MasterSitemapNode userNode;
+
+    @Before
+    public void setup() {
+        parent = node(1, "a", PageAccessControl.PUBLIC);
+        permissionNode1 = node(2, "b", PageAccessControl.PERMISSION);
+        permissionNode2 = node(3, "c", PageAccessControl.PERMISSION);
+        userNode = node(4, "d", PageAccessControl.USER);
+        when(sitemap.getPublishedVersion()).thenReturn(1);
+        when(sitemap.pagePermission(permissionNode1)).thenReturn(new PagePermission("a/b"));
+        when(sitemap.pagePermission(permissionNode2)).thenReturn(new PagePermission("a/c"));
+        when(sitemap.getChildren(parent)).thenReturn(ImmutableList.of(permissionNode1, permissionNode2, userNode));
+        when(subject.getPrincipal()).thenReturn("fred");
+        when(subject.isAuthenticated()).thenReturn(true);
+        authorisationGeneration = new AuthorisationGeneration();
+        controller = new PageAccessController(sitemap, authorisationGeneration);
+    }
+
+    @Test
+    public void decision_cached_once_published() {
+        //given
+        when(subject.isPermitted(any(Permission.class))).thenReturn(true);
+        //when
+        boolean first = controller.isAuthorised(subject, permissionNode1);
+        boolean second = controller.isAuthorised(subject, permissionNode1);
+        //then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        verify(subject, times(1)).isPermitted(any(Permission.class));
+    }
+
+    @Test
+    public void not_cached_before_publish() {
+        //given
+        when(sitemap.getPublishedVersion()).thenReturn(0);
+        when(subject.isPermitted(any(Permission.class))).thenReturn(true);
+        //when
+        controller.isAuthorised(subject, permissionNode1);
+        controller.isAuthorised(subject, permissionNode1);
+        //then
+        verify(subject, times(2)).isPermitted(any(Permission.class));
+    }
+
+    @Test
+    public void cache_discarded_when_user_status_changes() {
+        //given
+        when(subject.isPermitted(any(Permission.class))).thenReturn(true);
+        controller.isAuthorised(subject, permissionNode1);
+        //when subject state changes
+        when(subject.isAuthenticated()).thenReturn(false);
+        when(subject.isPermitted(any(Permission.class))).thenReturn(false);
+        //then
+        assertThat(controller.isAuthorised(subject, permissionNode1)).isFalse();
+        //when message received
+        controller.userStatusChanged(new UserStatusBusMessage(source, false));
+        controller.isAuthorised(subject, permissionNode1);
+        //then
+        verify(subject, times(3)).isPermitted(any(Permission.class));
+    }
+
+    @Test
+    public void cache_discarded_when_authorisation_changes() {
+        //given
+        when(subject.isPermitted(any(Permission.class))).thenReturn(true);
+        controller.isAuthorised(subject, permissionNode1);
+        //when
+        authorisationGeneration.authorisationChanged(new AuthorisationChangeBusMessage());
+        when(subject.isPermitted(any(Permission.class))).thenReturn(false);
+        //then
+        assertThat(controller.isAuthorised(subject, permissionNode1)).isFalse();
+        verify(subject, times(2)).isPermitted(any(Permission.class));
+    }
+
+    @Test
+    public void authorisedChildNodes_single_permission_call() {
+        //given
+        when(subject.isPermitted(anyListOf(Permission.class))).thenReturn(new boolean[]{false, true});
+        //when
+        List<MasterSitemapNode> authorised = controller.authorisedChildNodes(subject, parent);
+        //then
+        assertThat(authorised).containsExactly(permissionNode2, userNode);
+        verify(subject, times(1)).isPermitted(anyListOf(Permission.class));
+        verify(subject, never()).isPermitted(any(Permission.class));
+        // decisions are now cached
+        assertThat(controller.isAuthorised(subject, permissionNode1)).isFalse();
+        assertThat(controller.authorisedChildNodes(subject, parent)).containsExactly(permissionNode2, userNode);
+        verify(subject, times(1)).isPermitted(anyListOf(Permission.class));
+    }
+
+    private MasterSitemapNode node(int id, String segment, PageAccessControl pageAccessControl) {
+        NodeRecord nodeRecord = new NodeRecord(segment);
+        nodeRecord.setUriSegment(segment);
+        nodeRecord.setPageAccessControl(pageAccessControl);
+        return new MasterSitemapNode(id, nodeRecord);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.shiro;
+
+import com.google.common.collect.ImmutableList;
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.authz.permission.WildcardPermission;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PermissionTrieTest {
+
+    List<String> granted = ImmutableList.of("page:view:private:*", "page:view:system-admin:*", "option:edit:SimpleUserHierarchy:ds:0:*:*",
+            "a:b,c:d", "x:*:z", "short");
+
+    List<String> checks = ImmutableList.of("page:view:private", "page:view:private:x", "page:view:private:x:y", "page:view:public", "page:edit:private:x",
+            "page:view", "option:edit:SimpleUserHierarchy:ds:0:ctx:name", "option:edit:SimpleUserHierarchy:ds:0:ctx:name:q1", "option:edit:SimpleUserHierarchy:ds:1:ctx:name",
+            "option:edit:simpleuserhierarchy:ds:0", "option:edit:SimpleUserHierarchy:ds", "a:b:d", "a:c:d", "a:b,c:d", "a:e:d", "a:b", "a:b:d:e", "x:y:z", "x:y",
+            "x:y:z:w", "x:y:q", "short", "short:anything", "Short:Anything", "nothing", "*");
+
+    @Test
+    public void same_result_as_wildcard_permission() {
+        //given
+        PermissionTrie trie = new PermissionTrie(granted, ImmutableList.of());
+        //when
+        for (String check : checks) {
+            boolean expected = linear(check);
+            //then
+            assertThat(trie.implies(check)).as(check)
+                                           .isEqualTo(expected);
+            assertThat(trie.implies(new WildcardPermission(check))).as(check)
+                                                                   .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void page_permission() {
+        //given
+        PermissionTrie trie = new PermissionTrie(granted, ImmutableList.of());
+        //expect
+        assertThat(trie.implies(new PagePermission("private/deptx/teamy"))).isTrue();
+        assertThat(trie.implies(new PagePermission("public/deptx"))).isFalse();
+    }
+
+    @Test
+    public void object_permissions() {
+        //given
+        Permission custom = p -> p instanceof PagePermission;
+        PermissionTrie trie = new PermissionTrie(ImmutableList.of(), ImmutableList.of(new PagePermission("private", true), custom));
+        //expect
+        assertThat(trie.implies(new PagePermission("private/a"))).isTrue();
+        assertThat(trie.implies(new PagePermission("public/a"))).isTrue();
+        assertThat(trie.implies("page:view:public:a")).isFalse();
+    }
+
+    private boolean linear(String check) {
+        WildcardPermission permission = new WildcardPermission(check);
+        for (String g : granted) {
+            if (new WildcardPermission(g).implies(permission)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
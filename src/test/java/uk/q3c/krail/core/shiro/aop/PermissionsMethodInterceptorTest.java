@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.shiro.aop;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.mycila.testing.junit.MycilaJunitRunner;
+import com.mycila.testing.plugin.guice.GuiceContext;
+import org.aopalliance.intercept.MethodInvocation;
+import org.apache.shiro.SecurityUtils;
+import org.apache.shiro.authz.Permission;
+import org.apache.shiro.authz.UnauthorizedException;
+import org.apache.shiro.authz.annotation.Logical;
+import org.apache.shiro.authz.annotation.RequiresPermissions;
+import org.apache.shiro.authz.permission.WildcardPermission;
+import org.apache.shiro.mgt.DefaultSecurityManager;
+import org.apache.shiro.realm.SimpleAccountRealm;
+import org.apache.shiro.subject.Subject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import uk.q3c.krail.core.shiro.SubjectProvider;
+import uk.q3c.krail.core.shiro.TokenisedWildcardPermission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.*;
+
+@RunWith(MycilaJunitRunner.class)
+@GuiceContext({})
+public class PermissionsMethodInterceptorTest {
+
+    AtomicInteger prepared = new AtomicInteger();
+    PermissionsMethodInterceptor interceptor;
+
+    @Mock
+    Subject subject;
+
+    @Mock
+    SubjectProvider subjectProvider;
+
+    @Mock
+    MethodInvocation invocation;
+
+    Target target = new Target();
+
+    @Before
+    public void setup() {
+        when(subjectProvider.get()).thenReturn(subject);
+        interceptor = new PermissionsMethodInterceptor() {
+            @Override
+            protected Check prepare(RequiresPermissions rpAnnotation) {
+                prepared.incrementAndGet();
+                return super.prepare(rpAnnotation);
+            }
+        };
+        Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(AnnotationResolver.class).to(DefaultAnnotationResolver.class);
+                bind(SubjectProvider.class).toInstance(subjectProvider);
+            }
+        })
+             .injectMembers(interceptor);
+        when(invocation.getThis()).thenReturn(target);
+        SecurityUtils.setSecurityManager(new DefaultSecurityManager(new SimpleAccountRealm()));
+    }
+
+    @After
+    public void teardown() {
+        SecurityUtils.setSecurityManager(null);
+    }
+
+    @Test
+    public void prepared_once_and_checked_with_parsed_permission() throws Exception {
+        //given
+        when(invocation.getMethod()).thenReturn(Target.class.getMethod("single"));
+        when(subject.isPermitted(any(Permission.class))).thenReturn(true);
+        //when
+        interceptor.assertAuthorized(invocation);
+        interceptor.assertAuthorized(invocation);
+        //then
+        assertThat(prepared.get()).isEqualTo(1);
+        verify(subject, times(2)).isPermitted(any(TokenisedWildcardPermission.class));
+        verify(subject, never()).isPermitted(any(String.class));
+    }
+
+    @Test
+    public void custom_permission_resolver_is_given_strings() throws Exception {
+        //given
+        SimpleAccountRealm realm = new SimpleAccountRealm();
+        realm.setPermissionResolver(WildcardPermission::new);
+        SecurityUtils.setSecurityManager(new DefaultSecurityManager(realm));
+        when(invocation.getMethod()).thenReturn(Target.class.getMethod("single"));
+        //when
+        interceptor.assertAuthorized(invocation);
+        //then
+        verify(subject).checkPermission("page:view:private");
+        verify(subject, never()).isPermitted(any(Permission.class));
+    }
+
+    @Test
+    public void no_security_manager_passes_strings() throws Exception {
+        //given
+        SecurityUtils.setSecurityManager(null);
+        when(invocation.getMethod()).thenReturn(Target.class.getMethod("all"));
+        //when
+        interceptor.assertAuthorized(invocation);
+        //then
+        verify(subject).checkPermissions("a:b", "c:d");
+        verify(subject, never()).isPermittedAll(anyCollectionOf(Permission.class));
+    }
+
+    @Test(expected = UnauthorizedException.class)
+    public void not_permitted() throws Exception {
+        //given
+        when(invocation.getMethod()).thenReturn(Target.class.getMethod("single"));
+        when(subject.isPermitted(any(Permission.class))).thenReturn(false);
+        //when
+        interceptor.assertAuthorized(invocation);
+    }
+
+    @Test
+    public void logical_and_or() throws Exception {
+        //given
+        when(subject.isPermittedAll(anyCollectionOf(Permission.class))).thenReturn(true);
+        when(subject.isPermitted(any(Permission.class))).thenReturn(false, true);
+        //when
+        when(invocation.getMethod()).thenReturn(Target.class.getMethod("all"));
+        interceptor.assertAuthorized(invocation);
+        when(invocation.getMethod()).thenReturn(Target.class.getMethod("any"));
+        interceptor.assertAuthorized(invocation);
+        //then
+        verify(subject).isPermittedAll(anyCollectionOf(Permission.class));
+        verify(subject, times(2)).isPermitted(any(Permission.class));
+        assertThat(prepared.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void unannotated_method_uses_class_annotation() throws Exception {
+        //given
+        when(invocation.getMethod()).thenReturn(Target.class.getMethod("unannotated"));
+        //when
+        interceptor.assertAuthorized(invocation);
+        interceptor.assertAuthorized(invocation);
+        //then
+        assertThat(prepared.get()).isEqualTo(0);
+        verifyZeroInteractions(subject);
+    }
+
+    public static class Target {
+
+        @RequiresPermissions("page:view:private")
+        public void single() {
+        }
+
+        @RequiresPermissions(value = {"a:b", "c:d"}, logical = Logical.AND)
+        public void all() {
+        }
+
+        @RequiresPermissions(value = {"a:b", "c:d"}, logical = Logical.OR)
+        public void any() {
+        }
+
+        public void unannotated() {
+        }
+    }
+}
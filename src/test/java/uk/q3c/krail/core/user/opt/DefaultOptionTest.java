@@ -11,6 +11,7 @@
 
 package uk.q3c.krail.core.user.opt;
 
+import com.google.common.collect.ImmutableList;
 import com.mycila.testing.junit.MycilaJunitRunner;
 import com.mycila.testing.plugin.guice.GuiceContext;
 import com.vaadin.data.Property;
@@ -31,6 +32,8 @@ import uk.q3c.krail.i18n.TestLabelKey;
 import uk.q3c.krail.i18n.Translate;
 
 import javax.annotation.Nonnull;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -122,6 +125,28 @@ public class DefaultOptionTest {
         assertThat(actual).isEqualTo(8);
     }
 
+    @Test
+    public void get_many() {
+        //given
+        when(defaultHierarchy.highestRankName()).thenReturn("high");
+        OptionKey<Integer> optionKey3 = new OptionKey<>(3, context, TestLabelKey.key2, "q");
+        OptionCacheKey cacheKey1 = new OptionCacheKey(defaultHierarchy, HIGHEST_RANK, optionKey1);
+        OptionCacheKey cacheKey2 = new OptionCacheKey(defaultHierarchy, HIGHEST_RANK, optionKey2);
+        OptionCacheKey cacheKey3 = new OptionCacheKey(defaultHierarchy, HIGHEST_RANK, optionKey3);
+        Map<OptionCacheKey, Optional<Object>> cached = new HashMap<>();
+        cached.put(cacheKey1, Optional.of(Optional.of(8)));
+        cached.put(cacheKey2, Optional.empty());
+        cached.put(cacheKey3, Optional.of(Optional.of("wrong type")));
+        when(optionCache.getAll(ImmutableList.of(cacheKey1, cacheKey2, cacheKey3))).thenReturn(cached);
+        //when
+        Map<OptionKey<?>, Object> actual = option.get(ImmutableList.of(optionKey1, optionKey2, optionKey3));
+        //then
+        assertThat(actual).containsOnlyKeys(optionKey1, optionKey2, optionKey3);
+        assertThat(actual.get(optionKey1)).isEqualTo(8);
+        assertThat(actual.get(optionKey2)).isEqualTo(5);
+        assertThat(actual.get(optionKey3)).isEqualTo(3);
+    }
+
     @Test
     public void get_with_hierarchy() {
         //given
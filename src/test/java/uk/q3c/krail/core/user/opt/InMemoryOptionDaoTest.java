@@ -93,6 +93,7 @@ public class InMemoryOptionDaoTest {
         //use a LinkedHashMap map to force an order different to hierarchy, for testing
         Map<String, Object> map = new TreeMap<>();
         when(store.valueMapForOptionKey(anyString(), anyList(), any())).thenReturn(map);
+        when(store.valuesForRanks(anyString(), anyList(), any())).thenReturn(inRankOrder(map));
         //when
         LinkedHashMap<String, Object> actual = dao.getValuesForRanks(cacheKeyHigh, rankNames1);
         //then
@@ -110,6 +111,7 @@ public class InMemoryOptionDaoTest {
         Map<String, Object> map = new TreeMap<>();
         map.put("accounts", 7);
         when(store.valueMapForOptionKey(anyString(), anyList(), any())).thenReturn(map);
+        when(store.valuesForRanks(anyString(), anyList(), any())).thenReturn(inRankOrder(map));
         when(store.getValue("mock hierarchy", "accounts", optionKey)).thenReturn(5);
         //when
         LinkedHashMap<String, Object> actual = dao.getValuesForRanks(cacheKeyHigh, rankNames1);
@@ -132,6 +134,7 @@ public class InMemoryOptionDaoTest {
         map.put("finance", 5);
         map.put("Q3", 1);
         when(store.valueMapForOptionKey(anyString(), anyList(), any())).thenReturn(map);
+        when(store.valuesForRanks(anyString(), anyList(), any())).thenReturn(inRankOrder(map));
         when(store.getValue("mock hierarchy", "accounts", optionKey)).thenReturn(7);
         //when
         LinkedHashMap<String, Object> actual = dao.getValuesForRanks(cacheKeyHigh, rankNames1);
@@ -145,6 +148,14 @@ public class InMemoryOptionDaoTest {
     }
 
 
+    private Object[] inRankOrder(Map<String, Object> map) {
+        Object[] values = new Object[rankNames1.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = map.get(rankNames1.get(i));
+        }
+        return values;
+    }
+
     @Test
     public void write() {
         //given
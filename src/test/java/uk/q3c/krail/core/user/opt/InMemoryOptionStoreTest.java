@@ -96,4 +96,24 @@ public class InMemoryOptionStoreTest {
         //then
         assertThat(resultMap).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void valuesForRanks() {
+        //given
+        ArrayList<String> rankNames = Lists.newArrayList("a", "b", "c");
+        store.setValue(hierarchyName1, "c", optionKey1, 3);
+        store.setValue(hierarchyName1, "a", optionKey1, 1);
+        store.setValue(hierarchyName1, "b", optionKey2, 2);
+        //when
+        Object[] values = store.valuesForRanks(hierarchyName1, rankNames, optionKey1);
+        //then values are in the order of the ranks requested
+        assertThat(values).containsExactly(1, null, 3);
+
+        //when
+        store.deleteValue(hierarchyName1, "a", optionKey1);
+        store.deleteValue(hierarchyName1, "c", optionKey1);
+        //then
+        assertThat(store.valuesForRanks(hierarchyName1, rankNames, optionKey1)).containsExactly(null, null, null);
+        assertThat(store.valuesForRanks(hierarchyName1, rankNames, optionKey2)).containsExactly(null, 2, null);
+    }
+}
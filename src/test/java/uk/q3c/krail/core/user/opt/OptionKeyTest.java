@@ -76,4 +76,47 @@ public class OptionKeyTest {
         //then
         assertThat(qualifiedAgain.compositeKey()).isEqualTo("LocaleContainer-key1-a-b-c-d");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void qualifiedWith_single_is_reused() {
+        //given
+        OptionKey<Integer> noQualifiers = new OptionKey<>(22, LocaleContainer.class, TestLabelKey.key1);
+        //when
+        OptionKey<Integer> qualified = noQualifiers.qualifiedWith("a");
+        //then
+        assertThat(noQualifiers.qualifiedWith("a")).isSameAs(qualified);
+        assertThat(noQualifiers.qualifiedWith("b")).isNotEqualTo(qualified);
+        assertThat(qualified.compositeKey()).isEqualTo("LocaleContainer-key1-a");
+        assertThat(qualified.getDefaultValue()).isEqualTo(22);
+    }
+
+    @Test
+    public void qualifiedWith_single_memo_is_bounded() {
+        //given
+        OptionKey<Integer> noQualifiers = new OptionKey<>(22, LocaleContainer.class, TestLabelKey.key1);
+        for (int i = 0; i < OptionKey.MAX_SINGLE_QUALIFIED; i++) {
+            noQualifiers.qualifiedWith("cell" + i);
+        }
+        //when
+        OptionKey<Integer> beyond = noQualifiers.qualifiedWith("beyond");
+        //then
+        assertThat(noQualifiers.qualifiedWith("beyond")).isNotSameAs(beyond)
+                                                       .isEqualTo(beyond);
+        assertThat(noQualifiers.qualifiedWith("cell0")).isSameAs(noQualifiers.qualifiedWith("cell0"));
+    }
+
+    @Test
+    public void qualifiers_are_copied() {
+        //given
+        String[] qualifiers = {"a", "b"};
+        OptionKey<Integer> key = new OptionKey<>(22, LocaleContainer.class, TestLabelKey.key1, qualifiers);
+        int hash = key.hashCode();
+        //when
+        qualifiers[0] = "x";
+        key.getQualifiers()[1] = "y";
+        //then
+        assertThat(key.getQualifiers()).containsExactly("a", "b");
+        assertThat(key.hashCode()).isEqualTo(hash);
+        assertThat(key).isEqualTo(new OptionKey<>(22, LocaleContainer.class, TestLabelKey.key1, "a", "b"));
+    }
+}
@@ -23,11 +23,13 @@ import uk.q3c.krail.core.user.opt.InMemoryOptionDao;
 import uk.q3c.krail.core.user.opt.OptionDao;
 import uk.q3c.krail.core.user.profile.UserHierarchy;
 
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 import static uk.q3c.krail.core.user.profile.RankOption.*;
 
 @RunWith(MycilaJunitRunner.class)
@@ -134,4 +136,20 @@ public class DefaultOptionCacheLoaderTest {
         //then
         assertThat(actual.isPresent()).isFalse();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void loadAll_single_dao_call() throws Exception {
+        //given
+        OptionCacheKey cacheKey2 = mock(OptionCacheKey.class);
+        Map<OptionCacheKey, Optional<Object>> values = new HashMap<>();
+        values.put(cacheKey, Optional.of(3));
+        values.put(cacheKey2, Optional.empty());
+        when(dao.getValues(ImmutableList.of(cacheKey, cacheKey2))).thenReturn(values);
+        //when
+        Map<OptionCacheKey, Optional<Object>> actual = loader.loadAll(ImmutableList.of(cacheKey, cacheKey2));
+        //then
+        assertThat(actual).isEqualTo(values);
+        verify(dao).getValues(ImmutableList.of(cacheKey, cacheKey2));
+        verifyNoMoreInteractions(dao);
+    }
+}
@@ -28,6 +28,7 @@ import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -130,6 +131,23 @@ public class DefaultOptionCacheTest {
         verify(dao).write(cacheKey, 10);
     }
 
+    @Test
+    public void get_overlapping_write_is_repeated() {
+        //given a write to the same option completes while the value is being loaded
+        when(cacheKey.getRequestedRankName()).thenReturn("a");
+        when(cache.getUnchecked(cacheKey)).thenAnswer(invocation -> {
+            optionCache.write(cacheKey, 10);
+            return Optional.of(3);
+        })
+                                          .thenReturn(Optional.of(10));
+        //when
+        Integer actual = optionCache.get(5, cacheKey);
+        //then the possibly stale value is discarded and read again
+        assertThat(actual).isEqualTo(10);
+        verify(cache).invalidate(cacheKey);
+        verify(cache, times(2)).getUnchecked(cacheKey);
+    }
+
     @Test
     public void get_if_present_not_present() {
         //given
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.core.view.component;
+
+import com.mycila.testing.junit.MycilaJunitRunner;
+import com.mycila.testing.plugin.guice.GuiceContext;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import uk.q3c.krail.core.push.PushMessage;
+import uk.q3c.krail.core.push.PushMessageListener;
+import uk.q3c.krail.core.push.PushMessageRouter;
+import uk.q3c.krail.i18n.LabelKey;
+import uk.q3c.krail.i18n.Translate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@RunWith(MycilaJunitRunner.class)
+@GuiceContext({})
+public class BroadcastMessageLogTest {
+
+    @Mock
+    private Translate translate;
+
+    @Test
+    public void router_without_subscriptions_uses_UIBus_handler() {
+        // given
+        when(translate.from(LabelKey.Broadcast_Messages)).thenReturn("Broadcast Messages");
+        PushMessageRouter legacyRouter = (group, message) -> {
+        };
+        // when
+        BroadcastMessageLog messageLog = new BroadcastMessageLog(translate, legacyRouter);
+        messageLog.receiveMessage(new PushMessage("a", "a1"));
+        // then
+        assertThat(legacyRouter.supportsSubscriptions()).isFalse();
+        assertThat(messageLog.getValue()).isEqualTo("a:a1\n");
+    }
+
+    @Test
+    public void subscribed_router_is_not_duplicated_by_UIBus_handler() {
+        // given
+        when(translate.from(LabelKey.Broadcast_Messages)).thenReturn("Broadcast Messages");
+        List<PushMessageListener> listeners = new ArrayList<>();
+        PushMessageRouter router = new PushMessageRouter() {
+            @Override
+            public void messageIn(String group, String message) {
+                PushMessage pushMessage = new PushMessage(group, message);
+                listeners.forEach(listener -> listener.receivePushMessage(pushMessage));
+            }
+
+            @Override
+            public boolean supportsSubscriptions() {
+                return true;
+            }
+
+            @Override
+            public void subscribe(String group, PushMessageListener listener) {
+                listeners.add(listener);
+            }
+        };
+        BroadcastMessageLog messageLog = new BroadcastMessageLog(translate, router);
+        // when
+        router.messageIn("a", "a1");
+        messageLog.receiveMessage(new PushMessage("a", "a1"));
+        // then
+        assertThat(messageLog.getValue()).isEqualTo("a:a1\n");
+    }
+}
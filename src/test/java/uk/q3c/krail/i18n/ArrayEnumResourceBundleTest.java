@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package uk.q3c.krail.i18n;
+
+import com.google.inject.Inject;
+import com.mycila.testing.junit.MycilaJunitRunner;
+import com.mycila.testing.plugin.guice.GuiceContext;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import uk.q3c.krail.testutil.TestOptionModule;
+import uk.q3c.util.ResourceUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+@RunWith(MycilaJunitRunner.class)
+@GuiceContext({TestOptionModule.class})
+public class ArrayEnumResourceBundleTest {
+
+    @Inject
+    ClassBundleWriter writer;
+
+    @Test
+    public void values_indexed_by_ordinal() {
+        //given
+        TestArrayLabels bundle = new TestArrayLabels();
+        //when
+        bundle.load();
+        //then
+        assertThat(bundle.getValue(TestLabelKey.Yes)).isEqualTo("Ja");
+        assertThat(bundle.getValue(TestLabelKey.Home)).isEqualTo("Startseite");
+        assertThat(bundle.getValue(TestLabelKey.No)).isNull();
+        assertThat(bundle.getValue(null)).isNull();
+        assertThat(bundle.getMap()).containsOnly(entry(TestLabelKey.Yes, "Ja"), entry(TestLabelKey.Home, "Startseite"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void put_not_supported() {
+        new TestArrayLabels().put(TestLabelKey.No, "Nein");
+    }
+
+    @Test
+    public void writer_generates_array_backed_bundle() throws IOException {
+        //given
+        File targetDir = new File(ResourceUtils.userTempDirectory(), "testOut/arrayBundle");
+        FileUtils.deleteQuietly(targetDir);
+        writer.setOptionWritePath(targetDir);
+        writer.setArrayBacked(true);
+        DirectResourceBundle<TestLabelKey> bundle = new DirectResourceBundle<>(TestLabelKey.class);
+        bundle.put(TestLabelKey.Yes, "Ja");
+        bundle.put(TestLabelKey.Home, "\"Start\"seite");
+        writer.setBundle(bundle);
+        //when
+        writer.write(Locale.GERMAN, Optional.of("ArrayLabels"));
+        //then
+        String generated = FileUtils.readFileToString(new File(targetDir, "ArrayLabels_de.java"));
+        assertThat(generated).contains("public class ArrayLabels_de extends ArrayEnumResourceBundle<TestLabelKey> {")
+                             .contains("private static final String[] values = index(TestLabelKey.class,\n" +
+                                     "        TestLabelKey.Home, \"\\\"Start\\\"seite\",\n" +
+                                     "        TestLabelKey.Yes, \"Ja\");")
+                             .contains("setKeyClass(TestLabelKey.class);")
+                             .contains("protected String[] values() {");
+    }
+
+    static class TestArrayLabels extends ArrayEnumResourceBundle<TestLabelKey> {
+        private static final String[] values = index(TestLabelKey.class,
+                TestLabelKey.Home, "Startseite",
+                TestLabelKey.Yes, "Ja");
+
+        TestArrayLabels() {
+            setKeyClass(TestLabelKey.class);
+        }
+
+        @Override
+        protected String[] values() {
+            return values;
+        }
+    }
+}
@@ -23,6 +23,7 @@ import uk.q3c.krail.testutil.TestOptionModule;
 
 import java.util.Locale;
 import java.util.Optional;
+import java.util.ResourceBundle;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -106,4 +107,39 @@ public class ClassBundleReaderTest {
         //then
         assertThat(value.isPresent()).isFalse();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void bundle_looked_up_once_per_locale() {
+        //given
+        CountingReader countingReader = new CountingReader(option);
+        //when
+        countingReader.getValue(new PatternCacheKey(TestLabelKey.Transfers, Locale.ITALY), "class", false, false, "na");
+        countingReader.getValue(new PatternCacheKey(TestLabelKey.Yes, Locale.ITALY), "class", false, false, "na");
+        Optional<String> first = countingReader.getValue(new PatternCacheKey(TestLabelKey.Yes, Locale.ITALIAN), "class", false, false, "na");
+        Optional<String> second = countingReader.getValue(new PatternCacheKey(TestLabelKey.Home, Locale.ITALIAN), "class", false, false, "na");
+        //then
+        assertThat(first.get()).isEqualTo("it_Yes");
+        assertThat(second.isPresent()).isTrue();
+        assertThat(countingReader.lookups).isEqualTo(2);
+
+        //when
+        countingReader.clearCache();
+        countingReader.getValue(new PatternCacheKey(TestLabelKey.Yes, Locale.ITALIAN), "class", false, false, "na");
+        //then
+        assertThat(countingReader.lookups).isEqualTo(3);
+    }
+
+    static class CountingReader extends ClassBundleReader {
+        int lookups;
+
+        CountingReader(Option option) {
+            super(option, new ClassBundleControl());
+        }
+
+        @Override
+        public ResourceBundle.Control getControl() {
+            lookups++;
+            return super.getControl();
+        }
+    }
+}
@@ -11,6 +11,7 @@
 
 package uk.q3c.krail.i18n;
 
+import com.google.common.collect.ImmutableMap;
 import com.mycila.testing.junit.MycilaJunitRunner;
 import com.mycila.testing.plugin.guice.GuiceContext;
 import org.junit.Before;
@@ -18,11 +19,13 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 
+import java.util.Locale;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
 
 @RunWith(MycilaJunitRunner.class)
 @GuiceContext({})
@@ -32,20 +35,20 @@ public class DefaultDatabaseBundleReaderTest {
     @Mock
     PatternDao patternDao;
 
-    @Mock
     PatternCacheKey cacheKey1;
 
     DefaultDatabaseBundleReader reader;
 
     @Before
     public void setup() {
-        reader = new DefaultDatabaseBundleReader(patternDao);
+        reader = new DefaultDatabaseBundleReader(patternDao, new PatternStubWriter(patternDao));
+        cacheKey1 = new PatternCacheKey(LabelKey.Yes, Locale.UK);
     }
 
     @Test
     public void getValue_value_present() {
         //given
-        when(patternDao.getValue(cacheKey1)).thenReturn(Optional.of("wossat"));
+        when(patternDao.getValues(LabelKey.class, Locale.UK)).thenReturn(ImmutableMap.of(LabelKey.Yes, "wossat"));
 
         //when
         final Optional<String> result = reader.getValue(cacheKey1,"any", "stub");
@@ -56,13 +59,14 @@ public class DefaultDatabaseBundleReaderTest {
     @Test
     public void getValue_value_not_present() {
         //given
-        when(patternDao.getValue(cacheKey1)).thenReturn(Optional.<String>empty());
+        when(patternDao.getValues(LabelKey.class, Locale.UK)).thenReturn(ImmutableMap.of());
         //when
         final Optional<String> result = reader.getValue(cacheKey1, "any","stub");
+        reader.flush();
         //then
         assertThat(result.isPresent()).isTrue();
         assertThat(result.get()).isEqualTo("stub");
-        verify(patternDao).write(cacheKey1, "stub");
+        verify(patternDao).write(ImmutableMap.of(cacheKey1, "stub"));
     }
 
     @Test
@@ -71,7 +75,47 @@ public class DefaultDatabaseBundleReaderTest {
         String value = "wossat";
         //when
         reader.writeStubValue(cacheKey1, value);
+        reader.flush();
+        //then
+        verify(patternDao).write(ImmutableMap.of(cacheKey1, value));
+    }
+
+    @Test
+    public void bundle_read_once_for_all_keys() {
+        //given
+        when(patternDao.getValues(LabelKey.class, Locale.UK)).thenReturn(ImmutableMap.of(LabelKey.Yes, "yes", LabelKey.No, "no"));
+        //when
+        Optional<String> yes = reader.getValue(cacheKey1, "any", false, false, null);
+        Optional<String> no = reader.getValue(new PatternCacheKey(LabelKey.No, Locale.UK), "any", false, false, null);
+        Optional<String> cancel = reader.getValue(new PatternCacheKey(LabelKey.Cancel, Locale.UK), "any", false, false, null);
+        //then
+        assertThat(yes.get()).isEqualTo("yes");
+        assertThat(no.get()).isEqualTo("no");
+        assertThat(cancel.isPresent()).isFalse();
+        verify(patternDao, times(1)).getValues(LabelKey.class, Locale.UK);
+        verify(patternDao, never()).getValue(any(PatternCacheKey.class));
+    }
+
+    @Test
+    public void stubs_written_in_one_batch_and_visible_before_written() {
+        //given
+        InMemoryPatternDao dao = new InMemoryPatternDao();
+        reader = new DefaultDatabaseBundleReader(dao, new PatternStubWriter(dao));
+        PatternCacheKey cacheKey2 = new PatternCacheKey(LabelKey.No, Locale.UK);
+        //when
+        reader.getValue(cacheKey1, "any", "stub1");
+        reader.getValue(cacheKey2, "any", "stub2");
+        //then
+        assertThat(dao.getValues(LabelKey.class, Locale.UK)).isEmpty();
+        assertThat(reader.getValue(cacheKey2, "any", false, false, null)
+                         .get()).isEqualTo("stub2");
+
+        //when
+        reader.flush();
+        reader.clearCache();
         //then
-        verify(patternDao).write(cacheKey1, value);
+        assertThat(dao.getValues(LabelKey.class, Locale.UK)).containsOnly(entry(LabelKey.Yes, "stub1"), entry(LabelKey.No, "stub2"));
+        assertThat(reader.getValue(cacheKey1, "any", false, false, null)
+                         .get()).isEqualTo("stub1");
     }
 }
\ No newline at end of file
@@ -28,6 +28,7 @@ import uk.q3c.util.TestByteEnhancementModule;
 
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -152,7 +153,23 @@ public class DefaultI18NFieldScannerTest {
         assertThat(scanner.processedDrillDowns()).containsOnly(tObject, tObject.layout2Drilled, tObject.layoutDrilled, tObject.panelDrilled);
     }
 
-
-
+    @Test
+    public void plan_shared_between_scans() {
+        //given
+        scanner = new DefaultI18NFieldScanner(i18NHostClassIdentifier);
+        I18NTestClass5a tObject = new I18NTestClass5a();
+        scanner.scan(tObject);
+        Map<AbstractComponent, AnnotationInfo> first = new HashMap<>(scanner.annotatedComponents());
+        //when
+        scanner.scan(tObject);
+        //then
+        assertThat(I18NClassPlan.planFor(I18NTestClass5a.class)).isSameAs(I18NClassPlan.planFor(I18NTestClass5a.class));
+        assertThat(scanner.annotatedComponents()).isEqualTo(first);
+        assertThat(scanner.processedDrillDowns()).hasSize(4);
+        for (AbstractComponent component : first.keySet()) {
+            assertThat(scanner.annotatedComponents()
+                              .get(component)).isSameAs(first.get(component));
+        }
+    }
 
 }
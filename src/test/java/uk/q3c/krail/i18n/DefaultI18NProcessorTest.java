@@ -14,11 +14,13 @@ package uk.q3c.krail.i18n;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.mycila.testing.junit.MycilaJunitRunner;
 import com.mycila.testing.plugin.guice.GuiceContext;
 import com.mycila.testing.plugin.guice.ModuleProvider;
 import com.vaadin.ui.Button;
 import com.vaadin.ui.Label;
+import com.vaadin.ui.Table;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -31,7 +33,10 @@ import uk.q3c.krail.testutil.MockOption;
 import uk.q3c.krail.testutil.TestI18NModule;
 import uk.q3c.krail.testutil.TestOptionModule;
 
+import java.lang.annotation.Annotation;
+import java.lang.ref.WeakReference;
 import java.util.Locale;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -52,6 +57,12 @@ public class DefaultI18NProcessorTest {
     @Inject
     DefaultI18NProcessor processor;
 
+    @Inject
+    Translate translate;
+
+    @Inject
+    Provider<I18NFieldScanner> i18NFieldScannerProvider;
+
     @Before
     public void setup() {
         Locale.setDefault(Locale.UK);
@@ -196,6 +207,103 @@ public class DefaultI18NProcessorTest {
     }
 
 
+    @Test
+    public void retranslate_replays_bindings_for_new_locale() {
+        // given
+        processor.translate(testObject);
+        currentLocale.setLocale(Locale.GERMANY);
+        // when
+        processor.retranslate(testObject);
+        // then
+        assertThat(testObject.getButtonWithAnnotation()
+                             .getCaption()).isEqualTo("OK");
+        assertThat(testObject.getButtonWithAnnotation()
+                             .getLocale()).isEqualTo(Locale.GERMANY);
+        assertThat(testObject.getTable()
+                             .getColumnHeaders()).isEqualTo(new String[]{"Klein", "Stornieren", "not i18N"});
+        assertThat(testObject.getCcs()
+                             .getLabelInsideTcc()
+                             .getDescription()).isEqualTo("Bestätigen Sie, dass dieser Wert in Ordnung ist");
+        // fixed locale is not affected
+        assertThat(testObject.getSpecificLocale()
+                             .getCaption()).isEqualTo("Ja");
+    }
+
+    @Test
+    public void retranslate_without_previous_translation() {
+        // given
+        currentLocale.setLocale(Locale.GERMANY);
+        // when
+        processor.retranslate(testObject);
+        // then
+        assertThat(testObject.getLabel()
+                             .getCaption()).isEqualTo("OK");
+    }
+
+    @Test
+    public void overridden_retrieveLocale_is_used() {
+        // given
+        processor = new DefaultI18NProcessor(currentLocale, translate, i18NFieldScannerProvider) {
+            @Override
+            protected Optional<Locale> retrieveLocale(Annotation i18NAnnotation) {
+                return Optional.of(Locale.GERMANY);
+            }
+        };
+        // when
+        processor.translate(testObject);
+        // then
+        assertThat(testObject.getLabel()
+                             .getCaption()).isEqualTo("OK");
+        assertThat(testObject.getLabel()
+                             .getLocale()).isEqualTo(Locale.GERMANY);
+    }
+
+    @Test
+    public void retranslate_uses_overridden_hooks() {
+        // given
+        int[] tablesProcessed = {0};
+        processor = new DefaultI18NProcessor(currentLocale, translate, i18NFieldScannerProvider) {
+            @Override
+            protected void processTable(Table table, AnnotationInfo annotationInfo) {
+                tablesProcessed[0]++;
+                super.processTable(table, annotationInfo);
+            }
+        };
+        processor.translate(testObject);
+        currentLocale.setLocale(Locale.GERMANY);
+        // when
+        processor.retranslate(testObject);
+        // then
+        assertThat(tablesProcessed[0]).isEqualTo(2);
+        assertThat(testObject.getTable()
+                             .getColumnHeaders()).isEqualTo(new String[]{"Klein", "Stornieren", "not i18N"});
+    }
+
+    @Test
+    public void translated_target_is_not_retained() throws InterruptedException {
+        // given
+        WeakReference<I18NTestClass> reference = translateUnreferencedTarget();
+        // when
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        // then
+        assertThat(reference.get()).isNull();
+    }
+
+    /**
+     * Translates a target with a component which refers back to it, and keeps only a weak reference to the target
+     */
+    private WeakReference<I18NTestClass> translateUnreferencedTarget() {
+        I18NTestClass target = new I18NTestClass();
+        target.getButtonWithAnnotation()
+              .addClickListener(event -> target.getLabel()
+                                               .setCaption("clicked"));
+        processor.translate(target);
+        return new WeakReference<>(target);
+    }
+
     @ModuleProvider
     protected AbstractModule moduleProvider() {
         return new AbstractModule() {
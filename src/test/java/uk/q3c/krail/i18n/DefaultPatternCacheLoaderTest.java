@@ -102,6 +102,33 @@ public class DefaultPatternCacheLoaderTest {
 
     }
 
+    @Test
+    public void loadAll_sameAsLoad() throws Exception {
+        //given
+        bundleReaders.put("class", new ClassBundleReader(option, new ClassBundleControl()));
+        bundleReaders.put("props", new PropertiesFromClasspathBundleReader(option, new PropertiesFromClasspathBundleControl()));
+        createLoader();
+        List<PatternCacheKey> keys = new ArrayList<>();
+        for (Locale locale : new Locale[]{Locale.UK, Locale.GERMANY, Locale.ITALY}) {
+            for (TestLabelKey key : TestLabelKey.values()) {
+                keys.add(new PatternCacheKey(key, locale));
+            }
+            keys.add(new PatternCacheKey(LabelKey.Large, locale));
+        }
+        //when
+        Map<PatternCacheKey, String> all = loader.loadAll(keys);
+        //then
+        assertThat(all).hasSize(keys.size());
+        for (PatternCacheKey key : keys) {
+            assertThat(all.get(key)).isEqualTo(loader.load(new PatternCacheKey(cacheKeyEnum(key), key.getRequestedLocale())));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E extends Enum<E> & I18NKey> E cacheKeyEnum(PatternCacheKey key) {
+        return (E) key.getKey();
+    }
+
     private void createLoader() {
         loader = new DefaultPatternCacheLoader(bundleReaders, option, bundleSourceOrder, bundleSourceOrderDefault);
     }
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+package uk.q3c.krail.i18n;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DefaultPatternCacheWarmUpServiceTest {
+
+    ClassBundleControl control = new ClassBundleControl();
+
+    DefaultPatternCacheWarmUpService service;
+
+    @Before
+    public void setup() {
+        Set<Class<? extends I18NKey>> keyClasses = ImmutableSet.of(TestLabelKey.class, TestLabelKey3.class);
+        Set<Locale> locales = ImmutableSet.of(Locale.UK, Locale.GERMANY);
+        service = new DefaultPatternCacheWarmUpService(control, keyClasses, locales);
+    }
+
+    @Test
+    public void warmUp() throws Exception {
+        //given
+        assertThat(service.getWarmUpDuration()).isEqualTo(Duration.ZERO);
+        //when
+        service.doStart();
+        //then
+        // the bundle readers are given the same, already loaded, bundles - the candidates for UK and GERMANY include en, de and the root
+        EnumResourceBundle german = (EnumResourceBundle) ResourceBundle.getBundle("uk.q3c.krail.i18n.TestLabels", Locale.GERMAN, control);
+        EnumResourceBundle english = (EnumResourceBundle) ResourceBundle.getBundle("uk.q3c.krail.i18n.TestLabels", Locale.ENGLISH, control);
+        EnumResourceBundle root = (EnumResourceBundle) ResourceBundle.getBundle("uk.q3c.krail.i18n.TestLabels", Locale.ROOT, control);
+        assertThat(german).isInstanceOf(TestLabels_de.class);
+        assertThat(german.getMap()).isNotNull();
+        assertThat(german.getValue(TestLabelKey.Yes)).isEqualTo("Ja");
+        assertThat(english.getMap()).isNotNull();
+        assertThat(root.getMap()).isNotNull();
+        // TestLabels_de has 5 values, TestLabels_en and TestLabels 6 each, and there is no bundle for TestLabelKey3
+        assertThat(service.getPatternCount()).isGreaterThanOrEqualTo(17);
+        assertThat(service.getWarmUpDuration()).isGreaterThan(Duration.ZERO);
+    }
+
+    @Test
+    public void nameAndDescription() {
+        assertThat(service.getName()).isEqualTo(DefaultPatternCacheWarmUpService.class.getName());
+        assertThat(service.getDescription()).isNotEmpty();
+    }
+}
@@ -23,6 +23,7 @@ import uk.q3c.krail.core.guice.vsscope.VaadinSessionScopeModule;
 import uk.q3c.krail.core.user.opt.Option;
 import uk.q3c.krail.testutil.TestI18NModule;
 import uk.q3c.krail.testutil.TestOptionModule;
+import uk.q3c.util.MessagePattern;
 
 import java.util.Locale;
 import java.util.ResourceBundle;
@@ -84,6 +85,39 @@ public class DefaultPatternSourceTest {
         assertThat(value).isEqualTo("ViewA");
     }
 
+    @Test
+    public void retrieveCompiledPattern() {
+        //given
+        MessagePattern compiled = source.retrieveCompiledPattern(TestLabelKey.No, Locale.UK);
+        //when
+        MessagePattern again = source.retrieveCompiledPattern(TestLabelKey.No, Locale.UK);
+        //then
+        assertThat(again).isSameAs(compiled);
+        assertThat(compiled.getPattern()).isEqualTo("No");
+
+        //when
+        source.clearCache();
+        //then
+        assertThat(source.retrieveCompiledPattern(TestLabelKey.No, Locale.UK)).isNotSameAs(compiled);
+    }
+
+    @Test
+    public void resolved_pattern_follows_cache_invalidation() {
+        //given
+        source.retrievePattern(TestLabelKey.No, Locale.UK);
+        source.retrievePattern(TestLabelKey.No, Locale.UK);
+        assertThat(source.getCache()
+                         .size()).isEqualTo(1);
+        //when invalidated directly, not through clearCache
+        source.getCache()
+              .invalidateAll();
+        String value = source.retrievePattern(TestLabelKey.No, Locale.UK);
+        //then the pattern has been reloaded into the cache, rather than served from the lookup table
+        assertThat(value).isEqualTo("No");
+        assertThat(source.getCache()
+                         .size()).isEqualTo(1);
+    }
+
     @Test
     public void clearCache() {
         //given
@@ -122,6 +156,65 @@ public class DefaultPatternSourceTest {
         assertThat(source.getCache()
                          .size()).isEqualTo(1);
     }
-}
 
+    @Test
+    public void clearBundle_Locale() {
+        //given
+        source.retrievePattern(TestLabelKey.No, Locale.UK);
+        source.retrievePattern(TestLabelKey.No, Locale.GERMANY);
+        source.retrievePattern(TestLabelKey.Yes, Locale.GERMANY);
+        source.retrievePattern(TestLabelKey.Yes, Locale.ITALIAN);
+        source.retrievePattern(LabelKey.Yes, Locale.GERMANY);
+        assertThat(source.getCache()
+                         .size()).isEqualTo(5);
+
+        //when German changes in one bundle
+        source.clearBundle(TestLabelKey.No.bundleName(), Locale.GERMAN);
 
+        //then only the entries which fall back to German in that bundle are removed
+        assertThat(source.getCache()
+                         .size()).isEqualTo(3);
+        assertThat(source.retrievePattern(TestLabelKey.No, Locale.GERMANY)).isEqualTo("Nein");
+
+        //when
+        source.clearBundle(TestLabelKey.No.bundleName());
+
+        //then
+        assertThat(source.getCache()
+                         .size()).isEqualTo(1);
+    }
+
+    @Test
+    public void replaced_entry_stays_in_index() {
+        //given
+        source.retrievePattern(TestLabelKey.No, Locale.GERMANY);
+        PatternCacheKey cacheKey = new PatternCacheKey(TestLabelKey.No, Locale.GERMANY);
+        //when the entry is replaced, by a reload or bulk load of an equal key
+        source.getCache()
+              .put(cacheKey, "Nein!");
+        //then it is still found by the index, and cleared with its bundle
+        source.clearBundle(TestLabelKey.No.bundleName(), Locale.GERMAN);
+        assertThat(source.getCache()
+                         .size()).isEqualTo(0);
+        assertThat(source.retrievePattern(TestLabelKey.No, Locale.GERMANY)).isEqualTo("Nein");
+    }
+
+    @Test
+    public void clearLocale() {
+        //given
+        source.retrievePattern(TestLabelKey.No, Locale.UK);
+        source.retrievePattern(TestLabelKey.No, Locale.GERMANY);
+        source.retrievePattern(LabelKey.Yes, Locale.GERMANY);
+        //when
+        source.clearLocale(Locale.GERMANY);
+        //then
+        assertThat(source.getCache()
+                         .size()).isEqualTo(1);
+        //when the root locale changes, everything could be affected
+        source.retrievePattern(TestLabelKey.No, Locale.GERMANY);
+        source.clearLocale(Locale.ROOT);
+        //then
+        assertThat(source.getCache()
+                         .size()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2015. David Sowerby
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+
+
+package uk.q3c.krail.i18n;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.mycila.testing.junit.MycilaJunitRunner;
+import com.mycila.testing.plugin.guice.GuiceContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import uk.q3c.krail.core.guice.vsscope.VaadinSessionScopeModule;
+import uk.q3c.krail.core.services.ServiceModule;
+import uk.q3c.krail.core.services.ServicesMonitor;
+import uk.q3c.krail.testutil.TestEventBusModule;
+import uk.q3c.krail.testutil.TestUIScopeModule;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@RunWith(MycilaJunitRunner.class)
+@GuiceContext({})
+public class PatternStubWriterTest {
+
+    @Mock
+    PatternDao patternDao;
+
+    PatternCacheKey cacheKey1;
+
+    PatternStubWriter writer;
+
+    @Before
+    public void setup() {
+        when(patternDao.getValues(LabelKey.class, Locale.UK)).thenReturn(ImmutableMap.of());
+        writer = new PatternStubWriter(patternDao);
+        cacheKey1 = new PatternCacheKey(LabelKey.Yes, Locale.UK);
+    }
+
+    @Test
+    public void readers_share_one_queue() {
+        //given
+        DefaultDatabaseBundleReader reader1 = new DefaultDatabaseBundleReader(patternDao, writer);
+        DefaultDatabaseBundleReader reader2 = new DefaultDatabaseBundleReader(patternDao, writer);
+        //when
+        reader1.getValue(cacheKey1, "any", "stub");
+        reader2.getValue(cacheKey1, "any", "stub");
+        //then
+        assertThat(writer.pending(LabelKey.class, Locale.UK)).containsOnlyKeys(LabelKey.Yes);
+        //when
+        writer.flush();
+        //then
+        verify(patternDao, times(1)).write(ImmutableMap.of(cacheKey1, "stub"));
+    }
+
+    @Test
+    public void stop_writes_queued_stubs() throws Exception {
+        //given
+        writer.queue(cacheKey1, "stub");
+        //when
+        writer.doStop();
+        //then
+        verify(patternDao).write(ImmutableMap.of(cacheKey1, "stub"));
+        assertThat(writer.pending(LabelKey.class, Locale.UK)).isEmpty();
+        //when queued after stop
+        PatternCacheKey cacheKey2 = new PatternCacheKey(LabelKey.No, Locale.UK);
+        writer.queue(cacheKey2, "stub2");
+        //then written immediately
+        verify(patternDao).write(ImmutableMap.of(cacheKey2, "stub2"));
+    }
+
+    @Test
+    public void stopAllServices_writes_queued_stubs() throws Exception {
+        //given
+        InMemoryPatternDao dao = new InMemoryPatternDao();
+        Injector injector = Guice.createInjector(new ServiceModule(), new TestEventBusModule(), new TestUIScopeModule(), new
+                VaadinSessionScopeModule(), binder -> binder.bind(PatternDao.class)
+                                                            .toInstance(dao));
+        PatternStubWriter guiceWriter = injector.getInstance(PatternStubWriter.class);
+        ServicesMonitor monitor = injector.getInstance(ServicesMonitor.class);
+        guiceWriter.start();
+        guiceWriter.queue(cacheKey1, "stub");
+        //when
+        monitor.stopAllServices();
+        //then
+        assertThat(monitor.getRegisteredServices()).contains(guiceWriter);
+        assertThat(guiceWriter.isStopped()).isTrue();
+        assertThat(dao.getValues(LabelKey.class, Locale.UK)).containsEntry(LabelKey.Yes, "stub");
+    }
+
+    @Test
+    public void stubs_differing_in_actual_locale_are_both_written() {
+        //given
+        PatternCacheKey uk = new PatternCacheKey(LabelKey.Yes, Locale.UK);
+        PatternCacheKey fallback = new PatternCacheKey(LabelKey.Yes, Locale.UK);
+        fallback.setActualLocale(Locale.ENGLISH);
+        InMemoryPatternDao dao = new InMemoryPatternDao();
+        writer = new PatternStubWriter(dao);
+        //when
+        writer.queue(uk, "uk");
+        writer.queue(fallback, "en");
+        writer.flush();
+        //then
+        assertThat(dao.getValues(LabelKey.class, Locale.UK)).containsEntry(LabelKey.Yes, "uk");
+        assertThat(dao.getValues(LabelKey.class, Locale.ENGLISH)).containsEntry(LabelKey.Yes, "en");
+    }
+}
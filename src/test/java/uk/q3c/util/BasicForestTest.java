@@ -14,6 +14,7 @@ package uk.q3c.util;
 
 import com.mycila.testing.junit.MycilaJunitRunner;
 import com.mycila.testing.plugin.guice.GuiceContext;
+import edu.uci.ics.jung.graph.Forest;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -318,6 +319,99 @@ public class BasicForestTest {
         assertThat(tree.getChildren(s2)).containsOnly(s21, s22);
     }
 
+    @Test
+    public void replaceNode_keeps_position() {
+        //given
+        String r11 = "r11";
+        addAllNodes();
+        //when
+        tree.replaceNode(s11, r11);
+        //then
+        assertThat(tree.getChildren(s1)).containsExactly(r11, s12);
+        assertThat(tree.getChildren(r11)).containsExactly(s111);
+        assertThat(tree.getParent(s111)).isEqualTo(r11);
+        assertThat(tree.containsNode(s11)).isFalse();
+        assertThat(tree.getNodeCount()).isEqualTo(9);
+    }
+
+    @Test
+    public void addChild_moves_existing_child_with_its_children() {
+        //given
+        addAllNodes();
+        //when
+        tree.addChild(s2, s11);
+        //then
+        assertThat(tree.getChildren(s1)).containsExactly(s12);
+        assertThat(tree.getChildren(s2)).containsExactly(s21, s22, s11);
+        assertThat(tree.getParent(s111)).isEqualTo(s11);
+        assertThat(tree.getChildCount(s1)).isEqualTo(1);
+        assertThat(tree.getNodeCount()).isEqualTo(9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addChild_cycle() {
+        //given
+        addAllNodes();
+        //when
+        tree.addChild(s111, s1);
+        //then
+        //exception
+    }
+
+    @Test
+    public void removeNode_removes_subtree_and_reuses_space() {
+        //given
+        addAllNodes();
+        //when
+        tree.removeNode(s1);
+        //then
+        assertThat(tree.getChildren(s0)).containsExactly(s2);
+        assertThat(tree.containsNode(s11)).isFalse();
+        assertThat(tree.containsNode(s121)).isFalse();
+        assertThat(tree.getNodeCount()).isEqualTo(4);
+
+        //when
+        tree.addChild(s0, s1);
+        tree.addChild(s1, s11);
+        //then
+        assertThat(tree.getChildren(s0)).containsExactly(s2, s1);
+        assertThat(tree.getParent(s11)).isEqualTo(s1);
+        assertThat(tree.getNodeCount()).isEqualTo(6);
+    }
+
+    @Test
+    public void index_traversal() {
+        //given
+        addAllNodes();
+        List<String> children = new ArrayList<>();
+        //when
+        int parent = tree.indexOf(s1);
+        for (int c = tree.firstChildIndex(parent); c != BasicForest.NONE; c = tree.nextSiblingIndex(c)) {
+            children.add(tree.nodeAt(c));
+        }
+        //then
+        assertThat(children).containsExactly(s11, s12);
+        assertThat(tree.nodeAt(tree.firstRootIndex())).isEqualTo(s0);
+        assertThat(tree.nodeAt(tree.parentIndex(parent))).isEqualTo(s0);
+        assertThat(tree.childCountAt(parent)).isEqualTo(2);
+        assertThat(tree.indexOf("not there")).isEqualTo(BasicForest.NONE);
+        assertThat(tree.nodeAt(BasicForest.NONE)).isNull();
+    }
+
+    @Test
+    public void capacity_grows() {
+        //given
+        tree.addNode(s0);
+        //when
+        for (int i = 0; i < 1000; i++) {
+            tree.addChild(s0, "node" + i);
+        }
+        //then
+        assertThat(tree.getNodeCount()).isEqualTo(1001);
+        assertThat(tree.getChildCount(s0)).isEqualTo(1000);
+        assertThat(tree.getParent("node999")).isEqualTo(s0);
+    }
+
     /**
      * s0, s1 and s2 all at root
      */
@@ -346,4 +440,22 @@ public class BasicForestTest {
         assertThat(tree.getChildren(r1)).containsOnly();
         assertThat(tree.getChildren(s2)).containsOnly(s21, s22);
     }
+
+    @SuppressWarnings("deprecation")
+    @Test
+    public void getGraph_returns_copy() {
+        // given
+        tree.addChild(s1, s11);
+        tree.addChild(s1, s12);
+        tree.addChild(s12, s121);
+        tree.addNode(s2);
+        // when
+        Forest<String, Integer> graph = tree.getGraph();
+        graph.addVertex(s0);
+        // then
+        assertThat(graph.getRoots()).containsExactly(s1, s2, s0);
+        assertThat(graph.getChildren(s1)).containsExactly(s11, s12);
+        assertThat(graph.getParent(s121)).isEqualTo(s12);
+        assertThat(tree.containsNode(s0)).isFalse();
+    }
 }
@@ -108,4 +108,52 @@ public class MessageFormatTest {
 
     }
 
+    @Test
+    public void compiledPatternFormatsRepeatedly() {
+
+        // given
+        MessagePattern compiled = MessagePattern.compile("{1} of {0}, ignoring \\{2}");
+        // when
+        String first = compiled.format("b", "a");
+        String second = compiled.format(1, new int[]{1, 2});
+        // then
+        assertThat(compiled.getArgumentCount()).isEqualTo(2);
+        assertThat(first).isEqualTo("a of b, ignoring {2}");
+        assertThat(second).isEqualTo("[1, 2] of 1, ignoring {2}");
+        assertThat(compiled.format("too few")).isEqualTo(compiled.getPattern());
+    }
+
+    @Test
+    public void formatMalformed() {
+
+        // given
+        String pattern = "This is a {one} pattern";
+        // when
+        String result = MessageFormat.format(pattern, "x");
+        // then
+        assertThat(result).isEqualTo(pattern);
+        assertThat(MessagePattern.compile(pattern)
+                                 .getArgumentCount()).isEqualTo(-1);
+    }
+
+    @Test
+    public void formatNullOrUnterminated() {
+
+        // given
+        String unclosed = "This is a {1 pattern";
+        String trailingEscape = "This is a {0} pattern \\";
+        // when
+        String nullResult = MessageFormat.format(null, "x");
+        String unclosedResult = MessageFormat.format(unclosed, "x");
+        String trailingResult = MessageFormat.format(trailingEscape, "x");
+        String nullArguments = MessageFormat.format("{0}", (Object[]) null);
+        // then
+        assertThat(nullResult).isNull();
+        assertThat(MessagePattern.compile(null)
+                                 .getArgumentCount()).isEqualTo(-1);
+        assertThat(unclosedResult).isEqualTo(unclosed);
+        assertThat(trailingResult).isEqualTo(trailingEscape);
+        assertThat(nullArguments).isEqualTo("{0}");
+    }
+
 }